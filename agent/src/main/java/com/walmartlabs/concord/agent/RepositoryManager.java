@@ -39,6 +39,8 @@ public class RepositoryManager {
     private final SecretClient secretClient;
     private final RepositoryProviders providers;
     private final RepositoryCache repositoryCache;
+    private final WorktreeRepositoryCache worktreeCache;
+    private final RepositoryExportCache exportCache;
     private final GitConfiguration gitCfg;
 
     @Inject
@@ -69,11 +71,36 @@ public class RepositoryManager {
                 cacheCfg.getMaxAge(),
                 cacheCfg.getLockCount(),
                 objectMapper);
+
+        this.worktreeCache = cacheCfg.isWorktreesEnabled() ? new WorktreeRepositoryCache(cacheCfg.getCacheDir(),
+                clientCfg,
+                cacheCfg.getLockTimeout(),
+                cacheCfg.getLockCount(),
+                cacheCfg.getMaxWorktrees()) : null;
+
+        // copying from the cache is no cheaper than copying from the checkout
+        this.exportCache = cacheCfg.isExportCacheEnabled() && cacheCfg.isExportCacheHardlinks() ? new RepositoryExportCache(cacheCfg.getExportCacheDir(),
+                cacheCfg.getExportCacheMaxSize(),
+                null,
+                true,
+                cacheCfg.isExportCacheVerifyChecksums()) : null;
     }
 
     public void export(String repoUrl, String branch, String commitId, String repoPath, Path dest, SecretDefinition secretDefinition, List<String> ignorePatterns) throws ExecutionException {
         Secret secret = getSecret(secretDefinition);
 
+        if (worktreeCache != null) {
+            try {
+                worktreeCache.withRepository(repoUrl, FetchRequest.Version.commitWithBranch(commitId, branch), secret, repoPath, repo -> {
+                    export(repoUrl, repoPath, repo, dest, ignorePatterns);
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new ExecutionException("Error while exporting a repository '" + repoUrl + "': " + e.getMessage(), e);
+            }
+            return;
+        }
+
         Path cacheDir = repositoryCache.getPath(repoUrl);
 
         repositoryCache.withLock(repoUrl, () -> {
@@ -86,11 +113,23 @@ public class RepositoryManager {
                             .shallow(gitCfg.isShallowClone())
                             .build(),
                     repoPath);
-            repo.export(dest, ignorePatterns);
+            export(repoUrl, repoPath, repo, dest, ignorePatterns);
             return null;
         });
     }
 
+    private void export(String repoUrl, String repoPath, Repository repo, Path dest, List<String> ignorePatterns) throws Exception {
+        FetchResult fetchResult = repo.fetchResult();
+        String head = fetchResult != null ? fetchResult.head() : null;
+
+        if (exportCache == null || !RepositoryExportCache.isCommitId(head)) {
+            repo.export(dest, ignorePatterns);
+            return;
+        }
+
+        exportCache.export(repoUrl, head, repoPath, ignorePatterns, dest, tmp -> repo.export(tmp, ignorePatterns));
+    }
+
     private Secret getSecret(SecretDefinition secret) throws ExecutionException {
         if (secret == null) {
             return null;
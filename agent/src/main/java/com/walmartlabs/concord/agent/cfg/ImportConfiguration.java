@@ -25,22 +25,50 @@ import com.typesafe.config.Config;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import static com.walmartlabs.concord.agent.cfg.Utils.getOrCreatePath;
+
 @Named
 @Singleton
 public class ImportConfiguration {
 
     private final Set<String> disabledProcessors;
+    private final int parallelism;
+    private final boolean exportCacheEnabled;
+    private final Path exportCacheDir;
+    private final Duration exportCacheMaxAge;
 
     @Inject
     public ImportConfiguration(Config cfg) {
         this.disabledProcessors = Collections.unmodifiableSet(new HashSet<>(cfg.getStringList("imports.disabledProcessors")));
+        this.parallelism = cfg.getInt("imports.parallelism");
+        this.exportCacheEnabled = cfg.getBoolean("imports.exportCache.enabled");
+        this.exportCacheDir = getOrCreatePath(cfg, "imports.exportCache.cacheDir");
+        this.exportCacheMaxAge = cfg.getDuration("imports.exportCache.maxAge");
     }
 
     public Set<String> getDisabledProcessors() {
         return disabledProcessors;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isExportCacheEnabled() {
+        return exportCacheEnabled;
+    }
+
+    public Path getExportCacheDir() {
+        return exportCacheDir;
+    }
+
+    public Duration getExportCacheMaxAge() {
+        return exportCacheMaxAge;
+    }
 }
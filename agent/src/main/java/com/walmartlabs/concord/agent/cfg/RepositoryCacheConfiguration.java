@@ -39,6 +39,13 @@ public class RepositoryCacheConfiguration {
     private final int lockCount;
     private final Duration maxAge;
     private final Path infoDir;
+    private final boolean worktreesEnabled;
+    private final int maxWorktrees;
+    private final boolean exportCacheEnabled;
+    private final Path exportCacheDir;
+    private final long exportCacheMaxSize;
+    private final boolean exportCacheHardlinks;
+    private final boolean exportCacheVerifyChecksums;
 
     @Inject
     public RepositoryCacheConfiguration(Config cfg) {
@@ -47,6 +54,13 @@ public class RepositoryCacheConfiguration {
         this.lockCount = cfg.getInt("repositoryCache.lockCount");
         this.maxAge = cfg.getDuration("repositoryCache.maxAge");
         this.infoDir = getOrCreatePath(cfg, "repositoryCache.cacheInfoDir");
+        this.worktreesEnabled = cfg.getBoolean("repositoryCache.worktrees.enabled");
+        this.maxWorktrees = cfg.getInt("repositoryCache.worktrees.maxWorktrees");
+        this.exportCacheEnabled = cfg.getBoolean("repositoryCache.exportCache.enabled");
+        this.exportCacheDir = getOrCreatePath(cfg, "repositoryCache.exportCache.cacheDir");
+        this.exportCacheMaxSize = cfg.getLong("repositoryCache.exportCache.maxSize");
+        this.exportCacheHardlinks = cfg.getBoolean("repositoryCache.exportCache.hardlinks");
+        this.exportCacheVerifyChecksums = cfg.getBoolean("repositoryCache.exportCache.verifyChecksums");
     }
 
     public Path getCacheDir() {
@@ -68,4 +82,32 @@ public class RepositoryCacheConfiguration {
     public Path getInfoDir() {
         return infoDir;
     }
+
+    public boolean isWorktreesEnabled() {
+        return worktreesEnabled;
+    }
+
+    public int getMaxWorktrees() {
+        return maxWorktrees;
+    }
+
+    public boolean isExportCacheEnabled() {
+        return exportCacheEnabled;
+    }
+
+    public Path getExportCacheDir() {
+        return exportCacheDir;
+    }
+
+    public long getExportCacheMaxSize() {
+        return exportCacheMaxSize;
+    }
+
+    public boolean isExportCacheHardlinks() {
+        return exportCacheHardlinks;
+    }
+
+    public boolean isExportCacheVerifyChecksums() {
+        return exportCacheVerifyChecksums;
+    }
 }
@@ -33,10 +33,19 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of "pre-forked" JVMs. Keeps separate queues for each unique
+ * command line (hash). New JVMs are started outside of any locks.
+ * <p>
+ * The number of warm instances per hash is calculated from the recent
+ * job arrival rate for that hash: the pool tries to keep enough instances
+ * to serve all jobs expected within the configured prediction window.
+ */
 @Named
 @Singleton
 public class ProcessPool {
@@ -47,19 +56,34 @@ public class ProcessPool {
 
     private final long maxEntryAge;
     private final int maxEntryCount;
-    private final Map<HashCode, Queue<ProcessEntry>> pool = new HashMap<>();
+    private final long predictionWindow;
+    private final ConcurrentMap<HashCode, HashPool> pool = new ConcurrentHashMap<>();
     private final ExecutorService executor = Executors.newCachedThreadPool();
 
+    /**
+     * Total number of pooled and starting processes.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
     @Inject
     public ProcessPool(PreForkConfiguration cfg) {
-        this.maxEntryAge = cfg.getMaxAge();
-        this.maxEntryCount = cfg.getMaxCount();
+        this(cfg.getMaxAge(), cfg.getMaxCount(), cfg.getPredictionWindow());
         init();
     }
 
+    /**
+     * Creates a pool without the cleanup thread. Used in tests.
+     */
+    ProcessPool(long maxEntryAge, int maxEntryCount, long predictionWindow) {
+        this.maxEntryAge = maxEntryAge;
+        this.maxEntryCount = maxEntryCount;
+        this.predictionWindow = predictionWindow;
+    }
+
     public void init() {
         Thread t = new Thread(() -> {
-            log.info("run -> starting cleanup thread, max entry age {}ms, max entry count {}", maxEntryAge, maxEntryCount);
+            log.info("run -> starting cleanup thread, max entry age {}ms, max entry count {}, prediction window {}ms",
+                    maxEntryAge, maxEntryCount, predictionWindow);
 
             while (!Thread.currentThread().isInterrupted()) {
                 Utils.sleep(CLEANUP_PERIOD);
@@ -76,96 +100,148 @@ public class ProcessPool {
     }
 
     public ProcessEntry take(HashCode hc, ProcessLauncher launcher) throws ExecutionException {
-        synchronized (pool) {
-            Queue<ProcessEntry> q = pool.computeIfAbsent(hc, k -> new LinkedList<>());
+        HashPool p = pool.computeIfAbsent(hc, k -> new HashPool());
+        p.onArrival(System.currentTimeMillis());
 
-            ProcessEntry entry = q.poll();
-            if (entry == null) {
-                try {
-                    entry = launcher.start();
-                } catch (IOException e) {
-                    throw new ExecutionException("Error while starting a new process", e);
-                }
+        ProcessEntry entry = p.entries.poll();
+        if (entry != null) {
+            size.decrementAndGet();
+            p.hits.incrementAndGet();
+            log.info("take -> using a pre-forked instance: {}", entry.procDir);
+        } else {
+            p.misses.incrementAndGet();
 
-                log.info("take -> started a new process: {}", entry.procDir);
-            } else {
-                log.info("take -> using a pre-forked instance: {}", entry.procDir);
+            try {
+                entry = launcher.start();
+            } catch (IOException e) {
+                throw new ExecutionException("Error while starting a new process", e);
             }
 
-            executor.submit(() -> populate(hc, launcher));
-
-            return entry;
+            log.info("take -> started a new process: {}", entry.procDir);
         }
+
+        executor.submit(() -> populate(hc, launcher));
+
+        return entry;
     }
 
-    private void populate(HashCode hc, ProcessLauncher launcher) {
-        synchronized (pool) {
-            // calculate the total number of processes in the pool
-            int total = 0;
-            for (Map.Entry<HashCode, Queue<ProcessEntry>> e : pool.entrySet()) {
-                total += e.getValue().size();
-            }
+    /**
+     * @return the number of warm instances of the specified hash.
+     */
+    int warmCount(HashCode hc) {
+        HashPool p = pool.get(hc);
+        return p != null ? p.entries.size() : 0;
+    }
 
-            if (total >= maxEntryCount) {
-                // mark the oldest entry for removal
-                ProcessEntry oldest = null;
-                for (Map.Entry<HashCode, Queue<ProcessEntry>> q : pool.entrySet()) {
-                    for (ProcessEntry e : q.getValue()) {
-                        if (oldest == null || oldest.timestamp > e.timestamp) {
-                            oldest = e;
-                        }
-                    }
-                }
+    private void populate(HashCode hc, ProcessLauncher launcher) {
+        HashPool p = pool.get(hc);
+        if (p == null) {
+            return;
+        }
 
-                // it's never null
-                assert oldest != null;
+        int target = p.target(System.currentTimeMillis(), predictionWindow, maxEntryCount);
 
-                oldest.remove = true;
+        while (p.tryReserve(target)) {
+            if (!reserveSlot(p)) {
+                p.starting.decrementAndGet();
+                return;
             }
 
-            // add a new pool entry
-            Queue<ProcessEntry> q = pool.computeIfAbsent(hc, k -> new LinkedList<>());
             try {
-                q.add(launcher.start());
+                ProcessEntry entry = launcher.start();
+                p.entries.add(entry);
+
+                // the pool could've been removed by the maintenance thread in the meantime
+                if (pool.get(hc) != p && p.entries.remove(entry)) {
+                    size.decrementAndGet();
+                    kill(entry);
+                }
             } catch (IOException e) {
+                size.decrementAndGet();
                 log.error("populate -> error while starting a new process", e);
+                return;
+            } finally {
+                p.starting.decrementAndGet();
             }
         }
     }
 
-    private void maintenance() {
-        List<HashCode> queuesToRemove = new ArrayList<>();
-        List<ProcessEntry> processesToKill = new ArrayList<>();
+    /**
+     * Reserves a slot for a new process, evicting the oldest process
+     * of other hashes if the pool is full.
+     */
+    private boolean reserveSlot(HashPool requester) {
+        while (true) {
+            int current = size.get();
+            if (current < maxEntryCount) {
+                if (size.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                continue;
+            }
 
-        long t = System.currentTimeMillis();
+            // the oldest entry of each queue is at its head
+            HashPool victim = null;
+            ProcessEntry oldest = null;
+            for (HashPool p : pool.values()) {
+                if (p == requester) {
+                    continue;
+                }
 
-        synchronized (pool) {
-            pool.forEach((hc, q) -> {
-                q.removeIf(e -> {
-                    if (e.remove || t - e.timestamp >= maxEntryAge) {
-                        processesToKill.add(e);
-                        return true;
-                    }
-                    return false;
-                });
-
-                if (q.isEmpty()) {
-                    queuesToRemove.add(hc);
+                ProcessEntry e = p.entries.peek();
+                if (e != null && (oldest == null || oldest.timestamp > e.timestamp)) {
+                    oldest = e;
+                    victim = p;
                 }
-            });
+            }
+
+            if (oldest == null) {
+                return false;
+            }
 
-            for (HashCode hc : queuesToRemove) {
-                pool.remove(hc);
+            // removal fails if the entry was taken in the meantime
+            if (victim.entries.remove(oldest)) {
+                size.decrementAndGet();
+                ProcessEntry e = oldest;
+                executor.submit(() -> kill(e));
             }
         }
+    }
 
-        log.info("maintenance -> removed {} queues", queuesToRemove.size());
+    private void maintenance() {
+        long t = System.currentTimeMillis();
 
-        for (ProcessEntry p : processesToKill) {
-            Utils.kill(p.process);
-            cleanup(p);
+        int killed = 0;
+        int queuesRemoved = 0;
+
+        for (Map.Entry<HashCode, HashPool> e : pool.entrySet()) {
+            HashCode hc = e.getKey();
+            HashPool p = e.getValue();
+
+            for (ProcessEntry entry : p.entries) {
+                if (t - entry.timestamp >= maxEntryAge && p.entries.remove(entry)) {
+                    size.decrementAndGet();
+                    kill(entry);
+                    killed++;
+                }
+            }
+
+            log.info("maintenance -> {}: warm={}, target={}, hits={}, misses={}, hitRatio={}",
+                    hc.toString().substring(0, 8), p.entries.size(), p.target(t, predictionWindow, maxEntryCount),
+                    p.hits.get(), p.misses.get(), String.format("%.2f", p.hitRatio()));
+
+            if (pool.computeIfPresent(hc, (k, v) -> v.isIdle(t, maxEntryAge) ? null : v) == null) {
+                queuesRemoved++;
+            }
         }
-        log.info("maintenance -> killed {} processes", processesToKill.size());
+
+        log.info("maintenance -> removed {} queues", queuesRemoved);
+        log.info("maintenance -> killed {} processes", killed);
+    }
+
+    private static void kill(ProcessEntry p) {
+        Utils.kill(p.process);
+        cleanup(p);
     }
 
     private static void cleanup(ProcessEntry process) {
@@ -188,8 +264,6 @@ public class ProcessPool {
         private final Process process;
         private final Path procDir;
 
-        private boolean remove = false;
-
         public ProcessEntry(Process process, Path procDir) {
             this.timestamp = System.currentTimeMillis();
             this.process = process;
@@ -204,4 +278,68 @@ public class ProcessPool {
             return procDir;
         }
     }
+
+    /**
+     * Processes and statistics of a single command hash.
+     */
+    static final class HashPool {
+
+        /**
+         * Weight of the most recent inter-arrival interval.
+         */
+        private static final double EWMA_ALPHA = 0.3;
+
+        private final ConcurrentLinkedQueue<ProcessEntry> entries = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger starting = new AtomicInteger();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        private long lastArrival;
+        private double avgInterval;
+
+        synchronized void onArrival(long now) {
+            if (lastArrival > 0) {
+                long interval = now - lastArrival;
+                avgInterval = avgInterval == 0 ? interval : EWMA_ALPHA * interval + (1 - EWMA_ALPHA) * avgInterval;
+            }
+            lastArrival = now;
+        }
+
+        /**
+         * @return the number of warm instances required to serve the jobs
+         * expected within the specified window.
+         */
+        synchronized int target(long now, long window, int max) {
+            if (avgInterval <= 0) {
+                return 1;
+            }
+
+            // no arrivals for a while, the rate is decaying
+            double interval = Math.max(avgInterval, now - lastArrival);
+            int n = (int) Math.ceil(window / Math.max(interval, 1));
+            return Math.max(1, Math.min(n, max));
+        }
+
+        /**
+         * Reserves a new process start if the pool has less instances
+         * than the target.
+         */
+        private synchronized boolean tryReserve(int target) {
+            if (entries.size() + starting.get() >= target) {
+                return false;
+            }
+            starting.incrementAndGet();
+            return true;
+        }
+
+        private synchronized boolean isIdle(long now, long maxAge) {
+            return entries.isEmpty() && starting.get() == 0 && now - lastArrival >= maxAge;
+        }
+
+        private double hitRatio() {
+            long h = hits.get();
+            long total = h + misses.get();
+            return total == 0 ? 0 : (double) h / total;
+        }
+    }
 }
@@ -317,6 +317,8 @@ public class RunnerJobExecutor implements JobExecutor {
 
         long t2 = System.currentTimeMillis();
 
+        log.info("resolveDeps ['{}'] -> done in {}ms ({})", job.getInstanceId(), (t2 - t1), dependencyManager.getStats());
+
         if (job.isDebugMode()) {
             job.getLog().info("Dependency resolution took {}ms", (t2 - t1));
             logDependencies(job, paths);
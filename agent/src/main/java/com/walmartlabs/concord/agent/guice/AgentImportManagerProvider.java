@@ -22,12 +22,14 @@ package com.walmartlabs.concord.agent.guice;
 
 import com.walmartlabs.concord.agent.RepositoryManager;
 import com.walmartlabs.concord.agent.cfg.ImportConfiguration;
+import com.walmartlabs.concord.imports.CachingRepositoryExporter;
 import com.walmartlabs.concord.imports.ImportManagerFactory;
 import com.walmartlabs.concord.imports.RepositoryExporter;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Objects;
 
@@ -37,7 +39,7 @@ public class AgentImportManagerProvider implements Provider<AgentImportManager>
     private final ImportManagerFactory factory;
 
     @Inject
-    public AgentImportManagerProvider(ImportConfiguration cfg, RepositoryManager repositoryManager, AgentDependencyManager dependencyManager) {
+    public AgentImportManagerProvider(ImportConfiguration cfg, RepositoryManager repositoryManager, AgentDependencyManager dependencyManager) throws IOException {
         RepositoryExporter exporter = (entry, workDir) -> {
             Path dst = workDir;
 
@@ -50,7 +52,11 @@ public class AgentImportManagerProvider implements Provider<AgentImportManager>
             return null;
         };
 
-        this.factory = new ImportManagerFactory(dependencyManager, exporter, cfg.getDisabledProcessors());
+        if (cfg.isExportCacheEnabled()) {
+            exporter = new CachingRepositoryExporter(exporter, cfg.getExportCacheDir(), cfg.getExportCacheMaxAge());
+        }
+
+        this.factory = new ImportManagerFactory(dependencyManager, exporter, cfg.getDisabledProcessors(), cfg.getParallelism());
     }
 
     @Override
@@ -31,17 +31,21 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches a directory for file changes using {@link WatchService}.
+ * Changes made in quick succession are processed together and then
+ * "flushed" using {@link FileListener#onFlush()}. File offsets are updated
+ * only after a successful flush.
+ */
 public final class FileWatcher<T> implements Closeable {
 
     public static <T> void watch(Path path, Supplier<Boolean> stopCondition, long maxDelay, FileNameParser<T> fileNameParser, FileListener<T> listener) throws IOException {
@@ -54,6 +58,16 @@ public final class FileWatcher<T> implements Closeable {
 
     private static final int MAX_OPEN_FILES = 10;
 
+    /**
+     * How long to wait for more changes after the first event.
+     */
+    private static final long LINGER_DELAY = 200;
+
+    /**
+     * How often to scan the whole directory, in case some events were lost.
+     */
+    private static final long RESCAN_PERIOD = 10000;
+
     private final Path watchDir;
     private final long maxDelay;
     private final FileListener<T> listener;
@@ -76,68 +90,139 @@ public final class FileWatcher<T> implements Closeable {
     }
 
     private void run(Supplier<Boolean> stopCondition) throws IOException {
-        while (!Thread.currentThread().isInterrupted()) {
-            processFiles();
+        try (WatchService watchService = watchDir.getFileSystem().newWatchService()) {
+            watchDir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
 
-            if (stopCondition.get()) {
-                processFiles();
-                break;
-            }
+            Set<Path> changed = new HashSet<>();
+            long lastScan = 0;
 
-            try {
-                Thread.sleep(maxDelay);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean stop = stopCondition.get();
+
+                long now = System.currentTimeMillis();
+                if (stop || now - lastScan >= RESCAN_PERIOD) {
+                    changed = listFiles();
+                    lastScan = now;
+                }
+
+                Result result = processFiles(changed);
+                if (stop) {
+                    // read the remaining data
+                    while (!result.failed && !result.unread.isEmpty()) {
+                        result = processFiles(result.unread);
+                    }
+                    break;
+                }
+
+                changed = new HashSet<>(result.unread);
+
+                // wait for new events unless there's some data left to read
+                long timeout = changed.isEmpty() || result.failed ? maxDelay : 0;
+                WatchKey key = watchService.poll(timeout, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    continue;
+                }
+
+                long lingerUntil = System.currentTimeMillis() + Math.min(LINGER_DELAY, maxDelay);
+                while (key != null) {
+                    if (!collect(key, changed)) {
+                        // some events were lost, rescan the whole directory
+                        lastScan = 0;
+                    }
+
+                    long remaining = lingerUntil - System.currentTimeMillis();
+                    key = remaining > 0 ? watchService.poll(remaining, TimeUnit.MILLISECONDS) : watchService.poll();
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void processFiles() throws IOException {
-        Files.walkFileTree(watchDir, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                if (watchDir.equals(dir)) {
-                    return FileVisitResult.CONTINUE;
-                }
-                return FileVisitResult.SKIP_SUBTREE;
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean complete = true;
+
+        for (WatchEvent<?> e : key.pollEvents()) {
+            if (e.kind() == OVERFLOW) {
+                complete = false;
+                continue;
             }
 
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (ignoreFiles.contains(file)) {
-                    return FileVisitResult.CONTINUE;
-                }
+            changed.add(watchDir.resolve((Path) e.context()));
+        }
 
-                FileEntry<T> filePointer = filePointers.get(file);
-                if (filePointer == null) {
-                    T fileName = fileNameParser.parse(file);
-                    if (fileName == null) {
-                        ignoreFiles.add(file);
-                        return FileVisitResult.CONTINUE;
-                    }
+        if (!key.reset()) {
+            complete = false;
+        }
 
-                    boolean success = listener.onNewFile(fileName);
-                    if (!success) {
-                        return FileVisitResult.CONTINUE;
-                    }
-                    filePointer = FileEntry.of(fileName, 0L);
-                    filePointers.put(file, filePointer);
+        return complete;
+    }
+
+    private Set<Path> listFiles() throws IOException {
+        try (Stream<Path> s = Files.list(watchDir)) {
+            return s.filter(Files::isRegularFile)
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private Result processFiles(Set<Path> files) {
+        if (files.isEmpty()) {
+            return new Result(Collections.emptySet(), false);
+        }
+
+        // the new offsets are saved only after a successful flush
+        Map<Path, FileEntry<T>> newPointers = new HashMap<>();
+        List<Path> completed = new ArrayList<>();
+
+        for (Path file : files) {
+            if (ignoreFiles.contains(file) || !Files.isRegularFile(file)) {
+                continue;
+            }
+
+            FileEntry<T> filePointer = filePointers.get(file);
+            if (filePointer == null) {
+                T fileName = fileNameParser.parse(file);
+                if (fileName == null) {
+                    ignoreFiles.add(file);
+                    continue;
                 }
 
-                if (isChanged(file, filePointer.pointer())) {
-                    long newPos = notifyChanged(file, filePointer);
-                    if (newPos == -1) {
-                        deleteFile(file);
-                        filePointers.remove(file);
-                        return FileVisitResult.CONTINUE;
-                    } else if (newPos > 0) {
-                        filePointers.put(file, FileEntry.of(filePointer.name(), newPos));
-                    }
+                boolean success = listener.onNewFile(fileName);
+                if (!success) {
+                    continue;
                 }
+                filePointer = FileEntry.of(fileName, 0L);
+                filePointers.put(file, filePointer);
+            }
 
-                return FileVisitResult.CONTINUE;
+            if (isChanged(file, filePointer.pointer())) {
+                long newPos = notifyChanged(file, filePointer);
+                if (newPos == -1) {
+                    completed.add(file);
+                } else if (newPos > filePointer.pointer()) {
+                    newPointers.put(file, FileEntry.of(filePointer.name(), newPos));
+                }
             }
-        });
+        }
+
+        if (!listener.onFlush()) {
+            return new Result(files, true);
+        }
+
+        filePointers.putAll(newPointers);
+
+        for (Path file : completed) {
+            deleteFile(file);
+            filePointers.remove(file);
+        }
+
+        // files with some data left after reading (e.g. if the read size was limited)
+        Set<Path> unread = newPointers.entrySet().stream()
+                .filter(e -> isChanged(e.getKey(), e.getValue().pointer()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+
+        return new Result(unread, false);
     }
 
     public boolean isChanged(Path path, long totalRead) {
@@ -180,6 +265,15 @@ public final class FileWatcher<T> implements Closeable {
          * @return new file offset or -1 if file no longer tracked (e.g. all file read)
          */
         long onChanged(T fileName, RandomAccessFile in) throws IOException;
+
+        /**
+         * Called after each batch of changes.
+         *
+         * @return {@code false} if the changes must be processed again
+         */
+        default boolean onFlush() {
+            return true;
+        }
     }
 
     public interface FileNameParser<T> {
@@ -200,14 +294,29 @@ public final class FileWatcher<T> implements Closeable {
 
     public static class ByteArrayFileReader implements FileReader {
 
-        private final byte[] dataBuffer = new byte[8192];
+        private final byte[] dataBuffer;
+        private final long maxReadSize;
+
+        public ByteArrayFileReader() {
+            this(8192, Long.MAX_VALUE);
+        }
+
+        /**
+         * @param bufferSize  size of a single chunk
+         * @param maxReadSize maximum number of bytes to read in a single {@link #read(RandomAccessFile, ChunkConsumer)} call
+         */
+        public ByteArrayFileReader(int bufferSize, long maxReadSize) {
+            this.dataBuffer = new byte[bufferSize];
+            this.maxReadSize = maxReadSize;
+        }
 
         @Override
         public long read(RandomAccessFile in, ChunkConsumer consumer) throws IOException {
-            long result = in.getFilePointer();
+            long start = in.getFilePointer();
+            long result = start;
 
             try {
-                while (!Thread.currentThread().isInterrupted()) {
+                while (!Thread.currentThread().isInterrupted() && result - start < maxReadSize) {
                     int read = in.read(dataBuffer, 0, dataBuffer.length);
                     if (read <= 0) {
                         break;
@@ -216,6 +325,9 @@ public final class FileWatcher<T> implements Closeable {
                     int consumed = consumer.consume(new Chunk(dataBuffer, read));
                     if (consumed == -1) {
                         return -1;
+                    } else if (consumed == 0) {
+                        // incomplete data, wait for more
+                        break;
                     }
                     result += consumed;
                     in.seek(result);
@@ -290,6 +402,17 @@ public final class FileWatcher<T> implements Closeable {
         int consume(Chunk chunk) throws IOException;
     }
 
+    private static final class Result {
+
+        private final Set<Path> unread;
+        private final boolean failed;
+
+        private Result(Set<Path> unread, boolean failed) {
+            this.unread = unread;
+            this.failed = failed;
+        }
+    }
+
     @Value.Immutable
     public interface FileEntry<T> {
 
@@ -20,6 +20,8 @@ package com.walmartlabs.concord.agent.logging;
  * =====
  */
 
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public interface LogAppender {
@@ -28,5 +30,13 @@ public interface LogAppender {
 
     boolean appendLog(UUID instanceId, long segmentId, byte[] ab);
 
+    /**
+     * Appends data to multiple log segments using a single request.
+     *
+     * @param data segment ID to data
+     * @return IDs of the segments whose data was successfully appended
+     */
+    Set<Long> appendLogs(UUID instanceId, Map<Long, byte[]> data);
+
     boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats);
 }
@@ -31,15 +31,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
-import java.util.UUID;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
 
 public class RemoteLogAppender implements LogAppender {
 
     private static final Logger log = LoggerFactory.getLogger(RemoteLogAppender.class);
 
+    /**
+     * Max total size of data in a single multi-segment append request.
+     * Must not exceed the server's limit (32MB).
+     */
+    private static final int MAX_BATCH_DATA_SIZE = 32 * 1024 * 1024;
+
     private final ProcessApi processApi;
     private final ProcessLogV2Api processLogV2Api;
 
+    private volatile boolean batchSupported = true;
+
     @Inject
     public RemoteLogAppender(ApiClient apiClient) {
         this.processApi = new ProcessApi(apiClient);
@@ -66,10 +77,7 @@ public class RemoteLogAppender implements LogAppender {
         String path = "/api/v2/process/" + instanceId + "/log/segment/" + segmentId + "/data";
 
         try {
-            ClientUtils.withRetry(AgentConstants.API_CALL_MAX_RETRIES, AgentConstants.API_CALL_RETRY_DELAY, () -> {
-                ClientUtils.postData(processApi.getApiClient(), path, ab);
-                return null;
-            });
+            postData(path, ab);
             return true;
         } catch (ApiException e) {
             log.warn("appendLog ['{}'] -> error: {}", instanceId, e.getMessage());
@@ -77,6 +85,64 @@ public class RemoteLogAppender implements LogAppender {
         }
     }
 
+    @Override
+    public Set<Long> appendLogs(UUID instanceId, Map<Long, byte[]> data) {
+        Set<Long> result = new HashSet<>(data.size());
+        for (Map<Long, byte[]> batch : split(data, MAX_BATCH_DATA_SIZE)) {
+            Set<Long> appended = appendBatch(instanceId, batch);
+            result.addAll(appended);
+
+            if (appended.size() != batch.size()) {
+                // the rest is sent on the next attempt
+                break;
+            }
+        }
+        return result;
+    }
+
+    private Set<Long> appendBatch(UUID instanceId, Map<Long, byte[]> data) {
+        if (!batchSupported) {
+            return appendOneByOne(instanceId, data);
+        }
+
+        String path = "/api/v2/process/" + instanceId + "/log/data";
+
+        try {
+            postData(path, serialize(data));
+            return data.keySet();
+        } catch (ApiException e) {
+            if (e.getCode() == 404 || e.getCode() == 405) {
+                // older server versions don't support multi-segment appends
+                log.info("appendLogs ['{}'] -> not supported by the server, sending segments one by one", instanceId);
+                batchSupported = false;
+                return appendOneByOne(instanceId, data);
+            }
+
+            log.warn("appendLogs ['{}'] -> error: {}", instanceId, e.getMessage());
+            return Collections.emptySet();
+        } catch (IOException e) {
+            log.warn("appendLogs ['{}'] -> error: {}", instanceId, e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    private Set<Long> appendOneByOne(UUID instanceId, Map<Long, byte[]> data) {
+        Set<Long> result = new HashSet<>(data.size());
+        for (Map.Entry<Long, byte[]> e : data.entrySet()) {
+            if (appendLog(instanceId, e.getKey(), e.getValue())) {
+                result.add(e.getKey());
+            }
+        }
+        return result;
+    }
+
+    void postData(String path, byte[] ab) throws ApiException {
+        ClientUtils.withRetry(AgentConstants.API_CALL_MAX_RETRIES, AgentConstants.API_CALL_RETRY_DELAY, () -> {
+            ClientUtils.postData(processApi.getApiClient(), path, ab);
+            return null;
+        });
+    }
+
     @Override
     public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
         LogSegmentUpdateRequest request = new LogSegmentUpdateRequest()
@@ -93,4 +159,49 @@ public class RemoteLogAppender implements LogAppender {
         }
         return false;
     }
+
+    /**
+     * Splits the data into batches with no more than {@code maxSize} bytes of data each.
+     * Segments are never split, a segment larger than {@code maxSize} gets its own batch.
+     */
+    static List<Map<Long, byte[]>> split(Map<Long, byte[]> data, int maxSize) {
+        List<Map<Long, byte[]>> result = new ArrayList<>();
+
+        Map<Long, byte[]> current = new LinkedHashMap<>();
+        long size = 0;
+        for (Map.Entry<Long, byte[]> e : data.entrySet()) {
+            int len = e.getValue().length;
+            if (!current.isEmpty() && size + len > maxSize) {
+                result.add(current);
+                current = new LinkedHashMap<>();
+                size = 0;
+            }
+
+            current.put(e.getKey(), e.getValue());
+            size += len;
+        }
+
+        if (!current.isEmpty()) {
+            result.add(current);
+        }
+
+        return result;
+    }
+
+    /**
+     * Serializes the data as a sequence of (segment ID, length, data) frames.
+     */
+    private static byte[] serialize(Map<Long, byte[]> data) throws IOException {
+        int size = data.values().stream().mapToInt(ab -> ab.length + 12).sum();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        try (DataOutputStream dos = new DataOutputStream(out)) {
+            for (Map.Entry<Long, byte[]> e : data.entrySet()) {
+                dos.writeLong(e.getKey());
+                dos.writeInt(e.getValue().length);
+                dos.write(e.getValue());
+            }
+        }
+        return out.toByteArray();
+    }
 }
@@ -25,16 +25,20 @@ import com.walmartlabs.concord.common.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.file.Path;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.Supplier;
 
 public class SegmentedProcessLog extends RedirectedProcessLog {
 
     private static final Logger log = LoggerFactory.getLogger(SegmentedProcessLog.class);
 
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+    private static final long MAX_READ_SIZE = 4 * 1024 * 1024;
+
     private final Path logsDir;
 
     public SegmentedProcessLog(Path logsDir, UUID instanceId, LogAppender appender, long logSteamMaxDelay) throws IOException {
@@ -44,7 +48,15 @@ public class SegmentedProcessLog extends RedirectedProcessLog {
 
     @Override
     public void run(Supplier<Boolean> stopCondition) throws Exception {
-        FileWatcher.FileReader fileReader = new FileWatcher.ByteArrayFileReader();
+        FileWatcher.FileReader fileReader = new FileWatcher.ByteArrayFileReader(READ_BUFFER_SIZE, MAX_READ_SIZE);
+
+        // changes of all segments are collected and sent together
+        Map<Long, ByteArrayOutputStream> data = new LinkedHashMap<>();
+        Map<Long, LogSegmentStats> stats = new LinkedHashMap<>();
+
+        // after a partially failed flush all segments are read again from the same position,
+        // keep the number of bytes that were already appended to avoid sending them twice
+        Map<Long, Integer> appended = new HashMap<>();
 
         FileWatcher.watch(logsDir, stopCondition, logSteamMaxDelay, new LogSegmentNameParser(), new FileWatcher.FileListener<Long>() {
 
@@ -58,21 +70,51 @@ public class SegmentedProcessLog extends RedirectedProcessLog {
                 return fileReader.read(in, chunk -> {
                     LogStatsParser.Result result = LogStatsParser.parse(chunk.bytes(), chunk.len());
                     if (result.chunk() != null) {
-                        boolean success = appender.appendLog(instanceId, id, result.chunk());
-                        if (!success) {
-                            return 0;
-                        }
+                        data.computeIfAbsent(id, k -> new ByteArrayOutputStream()).write(result.chunk());
                     }
-                    LogSegmentStats stats = result.stats();
-                    if (stats != null) {
-                        appender.updateSegment(instanceId, id, result.stats());
-                        if (isFinal(stats.status())) {
+                    LogSegmentStats s = result.stats();
+                    if (s != null) {
+                        stats.put(id, s);
+                        if (isFinal(s.status())) {
                             return -1;
                         }
                     }
                     return result.readPos();
                 });
             }
+
+            @Override
+            public boolean onFlush() {
+                try {
+                    if (!data.isEmpty()) {
+                        Map<Long, byte[]> m = new LinkedHashMap<>(data.size());
+                        data.forEach((k, v) -> {
+                            byte[] ab = v.toByteArray();
+                            int skip = Math.min(appended.getOrDefault(k, 0), ab.length);
+                            if (skip < ab.length) {
+                                m.put(k, Arrays.copyOfRange(ab, skip, ab.length));
+                            }
+                        });
+
+                        Set<Long> ids = m.isEmpty() ? Collections.emptySet() : appender.appendLogs(instanceId, m);
+                        if (ids.size() != m.size()) {
+                            data.forEach((k, v) -> {
+                                if (ids.contains(k)) {
+                                    appended.put(k, v.size());
+                                }
+                            });
+                            return false;
+                        }
+                    }
+
+                    appended.clear();
+                    stats.forEach((id, s) -> appender.updateSegment(instanceId, id, s));
+                    return true;
+                } finally {
+                    data.clear();
+                    stats.clear();
+                }
+            }
         });
     }
 
@@ -0,0 +1,148 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.hash.HashCode;
+import com.walmartlabs.concord.agent.executors.runner.ProcessPool.ProcessEntry;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ProcessPoolTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    private static final HashCode HASH_A = HashCode.fromInt(1);
+    private static final HashCode HASH_B = HashCode.fromInt(2);
+
+    @Test(timeout = 30_000)
+    public void testHashAffinity() throws Exception {
+        ProcessPool pool = new ProcessPool(HOUR, 10, 60_000);
+
+        TestLauncher a = new TestLauncher();
+        TestLauncher b = new TestLauncher();
+
+        // nothing is pooled yet, a new process is started and a warm one is added
+        ProcessEntry first = pool.take(HASH_A, a);
+        assertSame(a.started.get(0), first);
+        waitFor(() -> pool.warmCount(HASH_A) == 1);
+
+        // the warm instance of another hash is not used
+        ProcessEntry eb = pool.take(HASH_B, b);
+        assertSame(b.started.get(0), eb);
+        waitFor(() -> pool.warmCount(HASH_B) == 1);
+        assertEquals(1, pool.warmCount(HASH_A));
+
+        // the warm instance of the same hash is used
+        ProcessEntry ea = pool.take(HASH_A, a);
+        assertSame(a.started.get(1), ea);
+    }
+
+    @Test
+    public void testEwmaDecay() {
+        long window = 10_000;
+
+        ProcessPool.HashPool p = new ProcessPool.HashPool();
+
+        // no statistics yet
+        assertEquals(1, p.target(0, window, 100));
+
+        p.onArrival(1000);
+        assertEquals(1, p.target(1000, window, 100));
+
+        // one job per second
+        p.onArrival(2000);
+        assertEquals(10, p.target(2000, window, 100));
+
+        // a short interval moves the average only partially: 0.3 * 100 + 0.7 * 1000 = 730ms
+        p.onArrival(2100);
+        assertEquals(14, p.target(2100, window, 100));
+
+        // limited by the max count
+        assertEquals(5, p.target(2100, window, 5));
+
+        // no arrivals for a while, the target decays to the minimum
+        assertEquals(2, p.target(2100 + 5000, window, 100));
+        assertEquals(1, p.target(2100 + 60_000, window, 100));
+
+        // slower arrivals lower the average
+        long t = 2100;
+        for (int i = 0; i < 20; i++) {
+            t += 4000;
+            p.onArrival(t);
+        }
+        assertEquals(3, p.target(t, window, 100));
+    }
+
+    @Test(timeout = 30_000)
+    public void testEvictionUnderPressure() throws Exception {
+        ProcessPool pool = new ProcessPool(HOUR, 1, 60_000);
+
+        TestLauncher a = new TestLauncher();
+        TestLauncher b = new TestLauncher();
+
+        pool.take(HASH_A, a);
+        waitFor(() -> pool.warmCount(HASH_A) == 1);
+        ProcessEntry warmA = a.started.get(1);
+
+        // the pool is full, the warm instance of the other hash is evicted
+        pool.take(HASH_B, b);
+        waitFor(() -> pool.warmCount(HASH_B) == 1);
+        assertEquals(0, pool.warmCount(HASH_A));
+
+        verify(warmA.getProcess(), timeout(10_000)).destroy();
+        waitFor(() -> !Files.exists(warmA.getProcDir()));
+
+        // the evicted instance is not reused
+        ProcessEntry e = pool.take(HASH_A, a);
+        assertNotSame(warmA, e);
+        assertEquals(3, a.started.size());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class TestLauncher implements ProcessPool.ProcessLauncher {
+
+        private final List<ProcessEntry> started = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public ProcessEntry start() throws IOException {
+            Process proc = mock(Process.class);
+            when(proc.isAlive()).thenReturn(true, false);
+
+            ProcessEntry e = new ProcessEntry(proc, Files.createTempDirectory("test"));
+            started.add(e);
+            return e;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.walmartlabs.concord.agent.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.walmartlabs.concord.ApiException;
+import com.walmartlabs.concord.client.ConcordApiClient;
+import com.walmartlabs.concord.client.LogSegmentUpdateRequest;
+import com.walmartlabs.concord.common.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.walmartlabs.concord.agent.logging.LogStatsParser.END_STATS;
+import static com.walmartlabs.concord.agent.logging.LogStatsParser.START_STATS;
+import static org.junit.Assert.*;
+
+public class SegmentedProcessLogTest {
+
+    @Test(timeout = 30000)
+    public void testBatching() throws Exception {
+        Path logsDir = IOUtils.createTempDir("logs");
+        TestAppender appender = new TestAppender();
+
+        SegmentedProcessLog processLog = new SegmentedProcessLog(logsDir, UUID.randomUUID(), appender, 1000);
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            try {
+                processLog.run(done::get);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        t.start();
+
+        int segments = 3;
+        int lines = 1000;
+
+        for (int i = 0; i < lines; i++) {
+            for (long id = 1; id <= segments; id++) {
+                append(logsDir, id, ("line " + i + "\n").getBytes());
+            }
+        }
+
+        LogSegmentStats stats = ImmutableLogSegmentStats.builder()
+                .status(LogSegmentUpdateRequest.StatusEnum.OK)
+                .build();
+
+        byte[] statsAb = new ObjectMapper().writeValueAsBytes(stats);
+        for (long id = 1; id <= segments; id++) {
+            append(logsDir, id, START_STATS);
+            append(logsDir, id, statsAb);
+            append(logsDir, id, END_STATS);
+        }
+
+        done.set(true);
+        t.join();
+
+        for (long id = 1; id <= segments; id++) {
+            String s = new String(appender.data.get(id).toByteArray());
+            assertEquals(lines, s.split("\n").length);
+            assertTrue(s.endsWith("line " + (lines - 1) + "\n"));
+            assertEquals(stats, appender.stats.get(id));
+            assertFalse(Files.exists(logsDir.resolve(id + ".log")));
+        }
+
+        // all segments are sent using a handful of requests
+        assertTrue(appender.requests.get() < 10);
+
+        processLog.delete();
+    }
+
+    /**
+     * More pending data than the server accepts in a single request.
+     * One of the requests fails, the data already accepted must not be sent again.
+     */
+    @Test(timeout = 60000)
+    public void testLargeBacklog() throws Exception {
+        Path logsDir = IOUtils.createTempDir("logs");
+        TestServerAppender appender = new TestServerAppender();
+
+        int segments = 10;
+        int segmentSize = 5 * 1024 * 1024;
+
+        Map<Long, byte[]> expected = new HashMap<>();
+        for (long id = 1; id <= segments; id++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(segmentSize);
+            for (int i = 0; out.size() < segmentSize; i++) {
+                out.write(("segment " + id + ", line " + i + "\n").getBytes());
+            }
+            expected.put(id, out.toByteArray());
+            append(logsDir, id, out.toByteArray());
+        }
+
+        SegmentedProcessLog processLog = new SegmentedProcessLog(logsDir, UUID.randomUUID(), appender, 100);
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            try {
+                processLog.run(done::get);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        t.start();
+
+        int total = expected.values().stream().mapToInt(ab -> ab.length).sum();
+        while (appender.received() < total) {
+            Thread.sleep(100);
+        }
+
+        done.set(true);
+        t.join();
+
+        for (long id = 1; id <= segments; id++) {
+            assertArrayEquals("segment " + id, expected.get(id), appender.data.get(id).toByteArray());
+        }
+
+        assertEquals(1, appender.failures.get());
+        assertTrue(appender.maxRequestSize > 0);
+        assertTrue(appender.maxRequestSize <= TestServerAppender.MAX_BATCH_DATA_SIZE);
+
+        processLog.delete();
+    }
+
+    private static void append(Path logsDir, long segmentId, byte[] ab) throws IOException {
+        try (OutputStream out = Files.newOutputStream(logsDir.resolve(segmentId + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(ab);
+        }
+    }
+
+    private static class TestAppender implements LogAppender {
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private final Map<Long, ByteArrayOutputStream> data = new ConcurrentHashMap<>();
+        private final Map<Long, LogSegmentStats> stats = new ConcurrentHashMap<>();
+
+        @Override
+        public void appendLog(UUID instanceId, byte[] ab) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<Long> appendLogs(UUID instanceId, Map<Long, byte[]> m) {
+            requests.incrementAndGet();
+            m.forEach((id, ab) -> data.computeIfAbsent(id, k -> new ByteArrayOutputStream()).write(ab, 0, ab.length));
+            return m.keySet();
+        }
+
+        @Override
+        public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats s) {
+            stats.put(segmentId, s);
+            return true;
+        }
+    }
+
+    /**
+     * Simulates the server's multi-segment append endpoint.
+     */
+    private static class TestServerAppender extends RemoteLogAppender {
+
+        private static final int MAX_BATCH_DATA_SIZE = 32 * 1024 * 1024;
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final Map<Long, ByteArrayOutputStream> data = new ConcurrentHashMap<>();
+        private volatile int maxRequestSize;
+
+        private TestServerAppender() {
+            super(new ConcordApiClient("http://localhost:8001"));
+        }
+
+        @Override
+        void postData(String path, byte[] ab) throws ApiException {
+            // the second request fails once
+            if (requests.incrementAndGet() == 2) {
+                failures.incrementAndGet();
+                throw new ApiException(500, "Server error");
+            }
+
+            Map<Long, byte[]> m = new HashMap<>();
+            int total = 0;
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(ab))) {
+                while (in.available() > 0) {
+                    long segmentId = in.readLong();
+                    byte[] chunk = new byte[in.readInt()];
+                    in.readFully(chunk);
+
+                    total += chunk.length;
+                    if (total > MAX_BATCH_DATA_SIZE) {
+                        throw new ApiException(400, "Too much data");
+                    }
+
+                    m.put(segmentId, chunk);
+                }
+            } catch (IOException e) {
+                throw new ApiException(e);
+            }
+
+            maxRequestSize = Math.max(maxRequestSize, total);
+            m.forEach((id, chunk) -> data.computeIfAbsent(id, k -> new ByteArrayOutputStream()).write(chunk, 0, chunk.length));
+        }
+
+        @Override
+        public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
+            return true;
+        }
+
+        private int received() {
+            return data.values().stream().mapToInt(ByteArrayOutputStream::size).sum();
+        }
+    }
+}
@@ -57,7 +57,8 @@ import java.net.URLDecoder;
 import java.nio.file.*;
 import java.security.MessageDigest;
 import java.util.*;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class DependencyManager {
@@ -70,6 +71,18 @@ public class DependencyManager {
     private static final long RETRY_INTERVAL = 5000;
 
     private static final String FILES_CACHE_DIR = "files";
+    private static final String INDEX_DIR = "index";
+
+    /**
+     * Max number of memoized resolution results.
+     */
+    private static final int RESOLVE_CACHE_SIZE = 256;
+
+    /**
+     * Max number of parallel downloads (per resolution request).
+     */
+    private static final int DOWNLOAD_THREADS = 5;
+
     public static final String MAVEN_SCHEME = "mvn";
 
     private static final MavenRepository MAVEN_CENTRAL = MavenRepository.builder()
@@ -86,9 +99,18 @@ public class DependencyManager {
     private final Path cacheDir;
     private final Path localCacheDir;
     private final List<RemoteRepository> repositories;
-    private final Object mutex = new Object();
     private final RepositorySystem maven = newMavenRepositorySystem();
 
+    // separate locks for each kind of keys: the "deps" lock is held while
+    // the direct links are downloaded in the executor threads
+    private final KeyLocks depsLocks = new KeyLocks();
+    private final KeyLocks fileLocks = new KeyLocks();
+    private final KeyLocks artifactLocks = new KeyLocks();
+    private final Map<String, Collection<DependencyEntity>> resolveCache = Collections.synchronizedMap(new LruMap<>(RESOLVE_CACHE_SIZE));
+    private final ExecutorService downloadExecutor = Executors.newFixedThreadPool(DOWNLOAD_THREADS, new DownloadThreadFactory());
+    private final ResolveStats stats = new ResolveStats();
+    private final ResolveIndex index;
+
     public DependencyManager(Path cacheDir) throws IOException {
         this(cacheDir, getRepositories());
     }
@@ -103,6 +125,7 @@ public class DependencyManager {
             Files.createDirectories(cacheDir);
         }
         this.localCacheDir = Paths.get(System.getProperty("user.home")).resolve(".m2/repository");
+        this.index = new ResolveIndex(cacheDir.resolve(INDEX_DIR));
 
         log.info("init -> using repositories: {}", repositories);
         this.repositories = toRemote(repositories);
@@ -126,20 +149,65 @@ public class DependencyManager {
         return withRetry(RETRY_COUNT, RETRY_INTERVAL, () -> tryResolveSingle(item), exceptionConverter, new ProgressNotifier(listener, exceptionConverter));
     }
 
+    public ResolveStats getStats() {
+        return stats;
+    }
+
     private Collection<DependencyEntity> tryResolve(Collection<URI> items) throws IOException {
         if (items == null || items.isEmpty()) {
             return Collections.emptySet();
         }
 
         // ensure stable order
-        List<URI> uris = new ArrayList<>(items);
+        List<URI> uris = new ArrayList<>(new HashSet<>(items));
         Collections.sort(uris);
 
+        if (!isCacheable(uris)) {
+            return doResolve(uris);
+        }
+
+        String key = uris.toString();
+
+        // concurrent requests with the same list of dependencies wait for the first one to finish
+        // and then use the cached result
+        depsLocks.lock(key);
+        try {
+            Collection<DependencyEntity> cached = resolveCache.get(key);
+            if (cached != null && cached.stream().allMatch(d -> Files.exists(d.getPath()))) {
+                stats.onCacheHit();
+                return cached;
+            }
+
+            // check the persistent index, e.g. after a restart
+            Collection<DependencyEntity> indexed = index.get(key);
+            if (indexed != null) {
+                stats.onIndexHit();
+                resolveCache.put(key, Collections.unmodifiableCollection(indexed));
+                return indexed;
+            }
+
+            stats.onCacheMiss();
+
+            Collection<DependencyEntity> result = doResolve(uris);
+            if (result.stream().noneMatch(DependencyManager::isSnapshot)) {
+                resolveCache.put(key, Collections.unmodifiableCollection(result));
+                index.put(key, result);
+            }
+            return result;
+        } finally {
+            depsLocks.unlock(key);
+        }
+    }
+
+    private Collection<DependencyEntity> doResolve(List<URI> uris) throws IOException {
+        long t1 = System.currentTimeMillis();
+
         DependencyList deps = categorize(uris);
 
-        Collection<DependencyEntity> result = new HashSet<>();
+        // start downloading the direct links while Aether resolves the Maven dependencies
+        List<Future<DependencyEntity>> directLinks = resolveDirectLinks(deps.directLinks);
 
-        result.addAll(resolveDirectLinks(deps.directLinks));
+        Collection<DependencyEntity> result = new HashSet<>();
 
         result.addAll(resolveMavenTransitiveDependencies(deps.mavenTransitiveDependencies).stream()
                 .map(DependencyManager::toDependency)
@@ -149,6 +217,12 @@ public class DependencyManager {
                 .map(DependencyManager::toDependency)
                 .collect(Collectors.toList()));
 
+        for (Future<DependencyEntity> f : directLinks) {
+            result.add(await(f));
+        }
+
+        stats.onResolve(System.currentTimeMillis() - t1);
+
         return result;
     }
 
@@ -192,12 +266,12 @@ public class DependencyManager {
         return new DependencyList(mavenTransitiveDependencies, mavenSingleDependencies, directLinks);
     }
 
-    private Collection<DependencyEntity> resolveDirectLinks(Collection<URI> items) throws IOException {
-        Collection<DependencyEntity> paths = new HashSet<>();
+    private List<Future<DependencyEntity>> resolveDirectLinks(Collection<URI> items) {
+        List<Future<DependencyEntity>> result = new ArrayList<>(items.size());
         for (URI item : items) {
-            paths.add(new DependencyEntity(resolveFile(item), item));
+            result.add(downloadExecutor.submit(() -> new DependencyEntity(resolveFile(item), item)));
         }
-        return paths;
+        return result;
     }
 
     private Path resolveFile(URI uri) throws IOException {
@@ -211,7 +285,9 @@ public class DependencyManager {
 
         Path dst = baseDir.resolve(name);
 
-        synchronized (mutex) {
+        String lockKey = dst.toString();
+        fileLocks.lock(lockKey);
+        try {
             if (!skipCache && Files.exists(dst)) {
                 log.info("resolveFile -> using a cached copy of {}...", uri);
                 return dst;
@@ -229,8 +305,9 @@ public class DependencyManager {
                 }
             }
 
-
             return dst;
+        } finally {
+            fileLocks.unlock(lockKey);
         }
     }
 
@@ -267,13 +344,15 @@ public class DependencyManager {
         req.setArtifact(dep.artifact);
         req.setRepositories(repositories);
 
-        synchronized (mutex) {
-            try {
-                ArtifactResult r = maven.resolveArtifact(session, req);
-                return r.getArtifact();
-            } catch (ArtifactResolutionException e) {
-                throw new IOException(e);
-            }
+        String lockKey = dep.artifact.toString();
+        artifactLocks.lock(lockKey);
+        try {
+            ArtifactResult r = maven.resolveArtifact(session, req);
+            return r.getArtifact();
+        } catch (ArtifactResolutionException e) {
+            throw new IOException(e);
+        } finally {
+            artifactLocks.unlock(lockKey);
         }
     }
 
@@ -286,8 +365,11 @@ public class DependencyManager {
     }
 
     private Collection<Artifact> resolveMavenTransitiveDependencies(Collection<MavenDependency> deps) throws IOException {
-        RepositorySystem system = newMavenRepositorySystem();
-        RepositorySystemSession session = newRepositorySystemSession(system);
+        if (deps.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        RepositorySystemSession session = newRepositorySystemSession(maven);
 
         CollectRequest req = new CollectRequest();
         req.setDependencies(deps.stream()
@@ -297,21 +379,22 @@ public class DependencyManager {
 
         DependencyRequest dependencyRequest = new DependencyRequest(req, null);
 
-        synchronized (mutex) {
-            try {
-                return system.resolveDependencies(session, dependencyRequest)
-                        .getArtifactResults().stream()
-                        .map(ArtifactResult::getArtifact)
-                        .collect(Collectors.toSet());
-            } catch (DependencyResolutionException e) {
-                throw new IOException(e);
-            }
+        // no global lock here: Aether can safely resolve different graphs in parallel,
+        // identical requests are deduplicated in tryResolve
+        try {
+            return maven.resolveDependencies(session, dependencyRequest)
+                    .getArtifactResults().stream()
+                    .map(ArtifactResult::getArtifact)
+                    .collect(Collectors.toSet());
+        } catch (DependencyResolutionException e) {
+            throw new IOException(e);
         }
     }
 
     private DefaultRepositorySystemSession newRepositorySystemSession(RepositorySystem system) {
         DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
         session.setChecksumPolicy(RepositoryPolicy.CHECKSUM_POLICY_IGNORE);
+        session.setConfigProperty("aether.connector.basic.threads", DOWNLOAD_THREADS);
 
         LocalRepository localRepo = new LocalRepository(localCacheDir.toFile());
         session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo));
@@ -367,6 +450,44 @@ public class DependencyManager {
         return "file".equalsIgnoreCase(u.getScheme()) || u.getPath().contains("SNAPSHOT");
     }
 
+    /**
+     * Resolution results can be memoized only if all dependencies are immutable,
+     * i.e. no SNAPSHOTs and no local files.
+     */
+    static boolean isCacheable(List<URI> uris) {
+        for (URI u : uris) {
+            if (MAVEN_SCHEME.equalsIgnoreCase(u.getScheme())) {
+                String id = u.getAuthority();
+                if (id == null || id.contains("SNAPSHOT")) {
+                    return false;
+                }
+            } else if (shouldSkipCache(u)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSnapshot(DependencyEntity e) {
+        DependencyEntity.Artifact a = e.getArtifact();
+        return a != null && a.getVersion().endsWith("SNAPSHOT");
+    }
+
+    private static <T> T await(Future<T> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading dependencies", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     private static RepositorySystem newMavenRepositorySystem() {
         DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
         locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
@@ -467,6 +588,35 @@ public class DependencyManager {
         }
     }
 
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    private static final class DownloadThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "dependency-download-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
     private static final class MavenDependency {
 
         private final Artifact artifact;
@@ -0,0 +1,70 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive locks for string keys. Unlike striped locks, different keys
+ * never share a lock, i.e. a long operation (e.g. a download) doesn't block
+ * unrelated keys. Unused locks are removed.
+ */
+final class KeyLocks {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public void lock(String key) {
+        Entry e;
+        synchronized (entries) {
+            e = entries.computeIfAbsent(key, k -> new Entry());
+            e.users++;
+        }
+        e.lock.lock();
+    }
+
+    public void unlock(String key) {
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e == null || !e.lock.isHeldByCurrentThread()) {
+                throw new IllegalMonitorStateException("Not locked: " + key);
+            }
+
+            e.lock.unlock();
+            if (--e.users == 0) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+}
@@ -0,0 +1,328 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Persistent index of resolved dependency lists. Maps the normalized list
+ * of dependency URIs to the resolved files, allowing warm instances to skip
+ * Maven resolution entirely.
+ * <p>
+ * Each entry is stored in its own file. The entries are validated using
+ * the file size and the last modification time of each resolved file,
+ * invalid entries are removed. The checksums of the resolved files are
+ * verified when an entry is used for the first time.
+ */
+public class ResolveIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ResolveIndex.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".json";
+
+    /**
+     * Temporary files older than this are considered leftovers of interrupted
+     * writes. Younger files can belong to another instance using the same
+     * directory.
+     */
+    private static final long TMP_FILE_MAX_AGE_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path dir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Checksums of the files already indexed or verified by this instance,
+     * to avoid re-reading the same artifacts.
+     */
+    private final Map<FileKey, String> checksums = new ConcurrentHashMap<>();
+
+    public ResolveIndex(Path dir) throws IOException {
+        this.dir = dir;
+        if (!Files.exists(dir)) {
+            Files.createDirectories(dir);
+        }
+
+        validate();
+    }
+
+    /**
+     * @return the resolved dependencies or {@code null} if the index doesn't
+     * contain a valid entry for the specified key.
+     */
+    public Collection<DependencyEntity> get(String key) {
+        Path p = entryPath(key);
+        if (!Files.exists(p)) {
+            return null;
+        }
+
+        ResolvedDependencies entry = read(p);
+        if (entry == null || !key.equals(entry.key()) || !isValid(entry) || !verifyChecksums(entry)) {
+            delete(p);
+            return null;
+        }
+
+        Collection<DependencyEntity> result = new HashSet<>();
+        for (ResolvedDependency d : entry.dependencies()) {
+            result.add(toEntity(d));
+        }
+        return result;
+    }
+
+    public void put(String key, Collection<DependencyEntity> deps) {
+        try {
+            List<ResolvedDependency> l = new ArrayList<>(deps.size());
+            for (DependencyEntity d : deps) {
+                l.add(toResolvedDependency(d));
+            }
+
+            ResolvedDependencies entry = ResolvedDependencies.builder()
+                    .formatVersion(FORMAT_VERSION)
+                    .key(key)
+                    .dependencies(l)
+                    .build();
+
+            Path dst = entryPath(key);
+            Path tmp = Files.createTempFile(dir, "entry", ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    objectMapper.writeValue(out, entry);
+                }
+                Files.move(tmp, dst, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // the index is an optimization, resolution results are still valid
+            log.warn("put -> error while saving an index entry: {}", e.getMessage());
+        }
+    }
+
+    private void validate() throws IOException {
+        long t1 = System.currentTimeMillis();
+        int valid = 0;
+        int removed = 0;
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                if (!p.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                    // leftovers of interrupted writes
+                    if (isStale(p)) {
+                        delete(p);
+                    }
+                    continue;
+                }
+
+                ResolvedDependencies entry = read(p);
+                if (entry == null || !isValid(entry)) {
+                    delete(p);
+                    removed++;
+                    continue;
+                }
+
+                valid++;
+            }
+        }
+
+        log.info("validate -> {} valid entries, {} removed, took {}ms", valid, removed, System.currentTimeMillis() - t1);
+    }
+
+    private ResolvedDependencies read(Path p) {
+        try (InputStream in = Files.newInputStream(p)) {
+            ResolvedDependencies entry = objectMapper.readValue(in, ResolvedDependencies.class);
+            if (entry.formatVersion() != FORMAT_VERSION) {
+                return null;
+            }
+            return entry;
+        } catch (IOException e) {
+            log.warn("read -> invalid index entry {}: {}", p, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isStale(Path p) {
+        try {
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(p).toMillis();
+            return age > TMP_FILE_MAX_AGE_MS;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isValid(ResolvedDependencies entry) {
+        for (ResolvedDependency d : entry.dependencies()) {
+            Path p = Paths.get(d.path());
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                if (attrs.size() != d.size() || attrs.lastModifiedTime().toMillis() != d.lastModified()) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Detects files modified in place, without changes in the size or
+     * the last modification time. Each file is verified once per instance.
+     */
+    private boolean verifyChecksums(ResolvedDependencies entry) {
+        for (ResolvedDependency d : entry.dependencies()) {
+            FileKey fileKey = new FileKey(d.path(), d.size(), d.lastModified());
+            String checksum = checksums.get(fileKey);
+            if (checksum == null) {
+                try {
+                    checksum = sha256(Paths.get(d.path()));
+                } catch (IOException e) {
+                    return false;
+                }
+                checksums.put(fileKey, checksum);
+            }
+
+            if (!checksum.equals(d.checksum())) {
+                log.warn("verifyChecksums -> checksum mismatch: {}", d.path());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ResolvedDependency toResolvedDependency(DependencyEntity d) throws IOException {
+        Path p = d.getPath().toAbsolutePath();
+        BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+
+        FileKey fileKey = new FileKey(p.toString(), attrs.size(), attrs.lastModifiedTime().toMillis());
+        String checksum = checksums.get(fileKey);
+        if (checksum == null) {
+            checksum = sha256(p);
+            checksums.put(fileKey, checksum);
+        }
+
+        ImmutableResolvedDependency.Builder b = ResolvedDependency.builder()
+                .path(fileKey.path)
+                .size(fileKey.size)
+                .lastModified(fileKey.lastModified)
+                .checksum(checksum);
+
+        DependencyEntity.Artifact a = d.getArtifact();
+        if (a != null) {
+            b.groupId(a.getGroupId())
+                    .artifactId(a.getArtifactId())
+                    .version(a.getVersion());
+        }
+
+        URI directLink = d.getDirectLink();
+        if (directLink != null) {
+            b.directLink(directLink.toString());
+        }
+
+        return b.build();
+    }
+
+    private static DependencyEntity toEntity(ResolvedDependency d) {
+        Path p = Paths.get(d.path());
+        if (d.directLink() != null) {
+            return new DependencyEntity(p, URI.create(d.directLink()));
+        }
+        return new DependencyEntity(p, d.groupId(), d.artifactId(), d.version());
+    }
+
+    private Path entryPath(String key) {
+        return dir.resolve(sha256(key.getBytes(StandardCharsets.UTF_8)) + FILE_SUFFIX);
+    }
+
+    private static void delete(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            log.warn("delete -> can't remove {}: {}", p, e.getMessage());
+        }
+    }
+
+    private static String sha256(Path p) throws IOException {
+        MessageDigest md = newDigest();
+        try (InputStream in = Files.newInputStream(p)) {
+            byte[] ab = new byte[8192];
+            int read;
+            while ((read = in.read(ab)) > 0) {
+                md.update(ab, 0, read);
+            }
+        }
+        return DatatypeConverter.printHexBinary(md.digest());
+    }
+
+    private static String sha256(byte[] ab) {
+        return DatatypeConverter.printHexBinary(newDigest().digest(ab));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class FileKey {
+
+        private final String path;
+        private final long size;
+        private final long lastModified;
+
+        private FileKey(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            FileKey fileKey = (FileKey) o;
+            return size == fileKey.size && lastModified == fileKey.lastModified && path.equals(fileKey.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, lastModified);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dependency resolution statistics of a {@link DependencyManager} instance.
+ */
+public class ResolveStats {
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong indexHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong resolveCount = new AtomicLong();
+    private final AtomicLong resolveTimeMs = new AtomicLong();
+
+    void onCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    void onIndexHit() {
+        cacheHits.incrementAndGet();
+        indexHits.incrementAndGet();
+    }
+
+    void onCacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
+    void onResolve(long timeMs) {
+        resolveCount.incrementAndGet();
+        resolveTimeMs.addAndGet(timeMs);
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return number of cache hits served from the persistent index.
+     */
+    public long getIndexHits() {
+        return indexHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * @return ratio of the resolution requests served from the cache, 0..1
+     */
+    public double getHitRate() {
+        long hits = cacheHits.get();
+        long total = hits + cacheMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return number of resolutions performed using Aether or by downloading
+     * the direct links, i.e. not served from the cache.
+     */
+    public long getResolveCount() {
+        return resolveCount.get();
+    }
+
+    /**
+     * @return average time of resolutions not served from the cache.
+     */
+    public long getAvgResolveTimeMs() {
+        long count = resolveCount.get();
+        return count == 0 ? 0 : resolveTimeMs.get() / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cacheHits=%d (index: %d), cacheMisses=%d, hitRate=%.2f, avgResolveTime=%dms",
+                getCacheHits(), getIndexHits(), getCacheMisses(), getHitRate(), getAvgResolveTimeMs());
+    }
+}
@@ -0,0 +1,52 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import java.util.List;
+
+/**
+ * Resolution result of a list of dependencies, as stored in the {@link ResolveIndex}.
+ */
+@Value.Immutable
+@Value.Style(jdkOnly = true)
+@JsonSerialize(as = ImmutableResolvedDependencies.class)
+@JsonDeserialize(as = ImmutableResolvedDependencies.class)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public interface ResolvedDependencies {
+
+    int formatVersion();
+
+    /**
+     * The normalized list of dependency URIs.
+     */
+    String key();
+
+    List<ResolvedDependency> dependencies();
+
+    static ImmutableResolvedDependencies.Builder builder() {
+        return ImmutableResolvedDependencies.builder();
+    }
+}
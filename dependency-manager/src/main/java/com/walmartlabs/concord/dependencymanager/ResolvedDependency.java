@@ -0,0 +1,67 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * An entry of the {@link ResolveIndex}: a resolved dependency file and
+ * the attributes used to check if the file is still valid.
+ */
+@Value.Immutable
+@Value.Style(jdkOnly = true)
+@JsonSerialize(as = ImmutableResolvedDependency.class)
+@JsonDeserialize(as = ImmutableResolvedDependency.class)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public interface ResolvedDependency {
+
+    String path();
+
+    long size();
+
+    long lastModified();
+
+    /**
+     * SHA-256 of the file's content at the moment of resolution.
+     */
+    String checksum();
+
+    @Nullable
+    String groupId();
+
+    @Nullable
+    String artifactId();
+
+    @Nullable
+    String version();
+
+    @Nullable
+    String directLink();
+
+    static ImmutableResolvedDependency.Builder builder() {
+        return ImmutableResolvedDependency.builder();
+    }
+}
@@ -20,23 +20,167 @@ package com.walmartlabs.concord.dependencymanager;
  * =====
  */
 
+import com.sun.net.httpserver.HttpServer;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
-@Ignore
 public class DependencyManagerTest {
 
     @Test(timeout = 30000)
+    public void testConcurrentResolve() throws Exception {
+        AtomicInteger downloads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            downloads.incrementAndGet();
+            try {
+                // keep the first request busy until all clients are waiting
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] ab = exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, ab.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ab);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        Path tmpDir = Files.createTempDirectory("test");
+        int port = server.getAddress().getPort();
+        List<URI> uris = Arrays.asList(new URI("http://localhost:" + port + "/a.jar"),
+                new URI("http://localhost:" + port + "/b.jar"));
+
+        int clients = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            DependencyManager m = new DependencyManager(tmpDir, Collections.emptyList());
+
+            List<Future<Collection<DependencyEntity>>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> m.resolve(uris)));
+            }
+
+            // wait for the downloads to start, let the other clients pile up on the lock
+            while (downloads.get() < uris.size()) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            Set<Path> paths = new HashSet<>();
+            for (Future<Collection<DependencyEntity>> f : results) {
+                Collection<DependencyEntity> deps = f.get();
+                assertEquals(2, deps.size());
+                deps.forEach(d -> paths.add(d.getPath()));
+            }
+
+            // each file is downloaded once, all clients get the same files
+            assertEquals(uris.size(), downloads.get());
+            assertEquals(uris.size(), paths.size());
+            for (Path p : paths) {
+                assertEquals("/" + p.getFileName(), new String(Files.readAllBytes(p), StandardCharsets.UTF_8));
+            }
+
+            ResolveStats stats = m.getStats();
+            assertEquals(1, stats.getCacheMisses());
+            assertEquals(clients - 1, stats.getCacheHits());
+
+            // a new instance uses the persistent index
+            DependencyManager m2 = new DependencyManager(tmpDir, Collections.emptyList());
+            assertEquals(paths.size(), m2.resolve(uris).size());
+            assertEquals(1, m2.getStats().getIndexHits());
+            assertEquals(uris.size(), downloads.get());
+        } finally {
+            executor.shutdownNow();
+            server.stop(0);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testUnrelatedResolves() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowStarted = new CountDownLatch(1);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/slow.jar")) {
+                slowStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            byte[] ab = path.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, ab.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ab);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        Path tmpDir = Files.createTempDirectory("test");
+        int port = server.getAddress().getPort();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DependencyManager m = new DependencyManager(tmpDir, Collections.emptyList());
+
+            Future<Collection<DependencyEntity>> slow = executor.submit(() -> m.resolve(Collections.singletonList(new URI("http://localhost:" + port + "/slow.jar"))));
+            slowStarted.await();
+
+            // other lists and files are resolved while the slow download is in progress
+            for (int i = 0; i < 100; i++) {
+                URI uri = new URI("http://localhost:" + port + "/" + i + ".jar");
+                assertEquals(1, m.resolve(Collections.singletonList(uri)).size());
+            }
+            assertFalse(slow.isDone());
+
+            release.countDown();
+            assertEquals(1, slow.get().size());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testIsCacheable() throws Exception {
+        assertTrue(DependencyManager.isCacheable(Collections.singletonList(new URI("mvn://com.walmartlabs.concord:concord-sdk:1.54.0"))));
+        assertTrue(DependencyManager.isCacheable(Collections.singletonList(new URI("https://example.com/a.jar"))));
+
+        assertFalse(DependencyManager.isCacheable(Collections.singletonList(new URI("mvn://com.walmartlabs.concord:concord-sdk:1.54.0-SNAPSHOT"))));
+        assertFalse(DependencyManager.isCacheable(Collections.singletonList(new URI("https://example.com/a-SNAPSHOT.jar"))));
+        assertFalse(DependencyManager.isCacheable(Collections.singletonList(new URI("file:///tmp/a.jar"))));
+
+        // no authority
+        assertFalse(DependencyManager.isCacheable(Collections.singletonList(new URI("mvn:com.walmartlabs.concord:concord-sdk:1.54.0"))));
+        assertFalse(DependencyManager.isCacheable(Collections.singletonList(new URI("mvn:///a.jar"))));
+    }
+
+    @Test(timeout = 30000)
+    @Ignore("requires network access")
     public void test() throws Exception {
         Path tmpDir = Files.createTempDirectory("test");
         URI uriA = new URI("mvn://com.walmartlabs.concord:concord-project-model:0.44.0?scope=runtime");
@@ -48,6 +192,7 @@ public class DependencyManagerTest {
     }
 
     @Test(timeout = 30000)
+    @Ignore("requires a local proxy")
     public void testProxy() throws Exception {
         Path tmpDir = Files.createTempDirectory("test");
 
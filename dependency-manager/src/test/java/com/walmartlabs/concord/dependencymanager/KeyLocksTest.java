@@ -0,0 +1,71 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2018 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class KeyLocksTest {
+
+    @Test(timeout = 30000)
+    public void testLocks() throws Exception {
+        KeyLocks locks = new KeyLocks();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            locks.lock("a");
+
+            // other keys are not blocked
+            executor.submit(() -> {
+                locks.lock("b");
+                locks.unlock("b");
+            }).get();
+
+            // the same key is blocked until released
+            Future<?> f = executor.submit(() -> {
+                locks.lock("a");
+                locks.unlock("a");
+            });
+
+            try {
+                f.get(100, TimeUnit.MILLISECONDS);
+                fail("exception expected");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            locks.unlock("a");
+            f.get();
+
+            // unused locks are removed
+            assertEquals(0, locks.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testUnlockNotLocked() {
+        new KeyLocks().unlock("a");
+    }
+}
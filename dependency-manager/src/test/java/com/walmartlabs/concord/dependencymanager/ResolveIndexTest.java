@@ -0,0 +1,116 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2018 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ResolveIndexTest {
+
+    private static final String KEY = "[https://example.com/a.jar]";
+
+    @Test
+    public void testGet() throws Exception {
+        Path tmpDir = Files.createTempDirectory("test");
+        Path indexDir = tmpDir.resolve("index");
+        Path jar = createFile(tmpDir, "a.jar", "aaa");
+
+        ResolveIndex index = new ResolveIndex(indexDir);
+        assertNull(index.get(KEY));
+
+        index.put(KEY, Collections.singletonList(new DependencyEntity(jar, new URI("https://example.com/a.jar"))));
+
+        // a new instance, e.g. after a restart
+        Collection<DependencyEntity> l = new ResolveIndex(indexDir).get(KEY);
+        assertNotNull(l);
+        assertEquals(1, l.size());
+
+        DependencyEntity e = l.iterator().next();
+        assertEquals(jar.toAbsolutePath(), e.getPath());
+        assertEquals(new URI("https://example.com/a.jar"), e.getDirectLink());
+    }
+
+    @Test
+    public void testModifiedFile() throws Exception {
+        Path tmpDir = Files.createTempDirectory("test");
+        Path indexDir = tmpDir.resolve("index");
+        Path jar = createFile(tmpDir, "a.jar", "aaa");
+
+        new ResolveIndex(indexDir).put(KEY, Collections.singletonList(new DependencyEntity(jar, new URI("https://example.com/a.jar"))));
+
+        // same size and the last modification time, different content
+        FileTime lastModified = Files.getLastModifiedTime(jar);
+        Files.write(jar, "bbb".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(jar, lastModified);
+
+        assertNull(new ResolveIndex(indexDir).get(KEY));
+
+        // the invalid entry is removed
+        try (Stream<Path> s = Files.list(indexDir)) {
+            assertEquals(0, s.count());
+        }
+    }
+
+    @Test
+    public void testRemovedFile() throws Exception {
+        Path tmpDir = Files.createTempDirectory("test");
+        Path indexDir = tmpDir.resolve("index");
+        Path jar = createFile(tmpDir, "a.jar", "aaa");
+
+        new ResolveIndex(indexDir).put(KEY, Collections.singletonList(new DependencyEntity(jar, new URI("https://example.com/a.jar"))));
+        Files.delete(jar);
+
+        assertNull(new ResolveIndex(indexDir).get(KEY));
+    }
+
+    @Test
+    public void testTmpFiles() throws Exception {
+        Path indexDir = Files.createTempDirectory("test");
+
+        Path stale = createFile(indexDir, "entry1.tmp", "{");
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1)));
+
+        // e.g. written by another instance right now
+        Path fresh = createFile(indexDir, "entry2.tmp", "{");
+
+        new ResolveIndex(indexDir);
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(fresh));
+    }
+
+    private static Path createFile(Path dir, String name, String content) throws Exception {
+        Path p = dir.resolve(name);
+        Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+        return p;
+    }
+}
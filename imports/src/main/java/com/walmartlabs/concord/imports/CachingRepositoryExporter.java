@@ -0,0 +1,71 @@
+package com.walmartlabs.concord.imports;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.imports.Import.GitDefinition;
+import com.walmartlabs.concord.repository.RepositoryExportCache;
+import com.walmartlabs.concord.repository.Snapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Caches exported repositories of imports pinned to a commit ID.
+ * The content of such imports never changes, so the repository doesn't
+ * have to be fetched again. Imports with secrets are not cached to
+ * keep the secret's access checks in place.
+ * <p/>
+ * Cached entries are materialized by copying rather than hardlinking,
+ * as processes modify their working directory in place and would corrupt
+ * the shared entry.
+ */
+public class CachingRepositoryExporter implements RepositoryExporter {
+
+    private final RepositoryExporter delegate;
+    private final RepositoryExportCache exportCache;
+
+    public CachingRepositoryExporter(RepositoryExporter delegate, Path cacheDir, Duration maxAge) throws IOException {
+        this.delegate = delegate;
+        this.exportCache = new RepositoryExportCache(cacheDir, Long.MAX_VALUE, maxAge, false, false);
+    }
+
+    @Override
+    public Snapshot export(GitDefinition entry, Path workDir) throws Exception {
+        if (!isCacheable(entry)) {
+            return delegate.export(entry, workDir);
+        }
+
+        Path dst = workDir;
+        if (entry.dest() != null) {
+            dst = dst.resolve(entry.dest());
+        }
+
+        return exportCache.export(entry.url(), entry.version(), entry.path(), entry.exclude(), dst,
+                tmp -> delegate.export(GitDefinition.builder().from(entry).dest(null).build(), tmp));
+    }
+
+    private static boolean isCacheable(GitDefinition entry) {
+        return entry.url() != null
+                && entry.secret() == null
+                && RepositoryExportCache.isCommitId(entry.version());
+    }
+}
@@ -20,24 +20,48 @@ package com.walmartlabs.concord.imports;
  * =====
  */
 
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.repository.LastModifiedSnapshot;
 import com.walmartlabs.concord.repository.Snapshot;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class DefaultImportManager implements ImportManager {
 
     private final Map<String, ImportProcessor<Import>> processors;
     private final Set<String> disabledProcessors;
+    private final int parallelism;
+    private final ExecutorService executor;
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public DefaultImportManager(List<ImportProcessor> processors, Set<String> disabledProcessors) {
+        this(processors, disabledProcessors, 1);
+    }
+
+    /**
+     * @param parallelism max number of imports processed concurrently.
+     *                    Imports are still applied in the declaration order,
+     *                    i.e. the later imports overwrite the files of the earlier ones.
+     *                    The limit is shared by all {@link #process(Imports, Path, ImportsListener)}
+     *                    calls of the manager.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DefaultImportManager(List<ImportProcessor> processors, Set<String> disabledProcessors, int parallelism) {
         this.processors = processors.stream().collect(Collectors.toMap(ImportProcessor::type, o -> o));
         this.disabledProcessors = disabledProcessors;
+        this.parallelism = parallelism;
+        this.executor = parallelism > 1 ? createExecutor(parallelism) : null;
     }
 
     @Override
@@ -55,16 +79,24 @@ public class DefaultImportManager implements ImportManager {
 
         listener.onStart(items);
 
-        for (Import i : items) {
-            listener.beforeImport(i);
-            Snapshot s;
-            try {
-                s = assertProcessor(i.type()).process(i, dest);
-            } catch (Exception e) {
-                throw new ImportProcessingException(i, e);
+        long parallelizable = items.stream()
+                .filter(this::isParallelizable)
+                .count();
+
+        if (parallelism > 1 && parallelizable > 1) {
+            processParallel(items, dest, listener, result);
+        } else {
+            for (Import i : items) {
+                listener.beforeImport(i);
+                Snapshot s;
+                try {
+                    s = assertProcessor(i.type()).process(i, dest);
+                } catch (Exception e) {
+                    throw new ImportProcessingException(i, e);
+                }
+                listener.afterImport(i);
+                result.add(s);
             }
-            listener.afterImport(i);
-            result.add(s);
         }
 
         listener.onEnd(items);
@@ -72,6 +104,80 @@ public class DefaultImportManager implements ImportManager {
         return result;
     }
 
+    /**
+     * Processes the parallelizable imports concurrently, each into its own
+     * staging directory. The results are copied into {@code dest} in
+     * the declaration order, the rest of the imports are processed in place.
+     * <p/>
+     * {@link ImportsListener#beforeImport(Import)} is called when an import
+     * is submitted, {@link ImportsListener#afterImport(Import)} when its
+     * results are copied into {@code dest}.
+     */
+    private void processParallel(List<Import> items, Path dest, ImportsListener listener, List<Snapshot> result) throws Exception {
+        Path stagingDir = IOUtils.createTempDir("imports");
+        List<Future<Path>> staged = new ArrayList<>(items.size());
+        try {
+            for (int n = 0; n < items.size(); n++) {
+                Import i = items.get(n);
+                if (!isParallelizable(i)) {
+                    staged.add(null);
+                    continue;
+                }
+
+                listener.beforeImport(i);
+
+                ImportProcessor<Import> p = processors.get(i.type());
+                Path dir = stagingDir.resolve(String.valueOf(n));
+                staged.add(executor.submit(() -> {
+                    Files.createDirectories(dir);
+                    p.process(i, dir);
+                    return dir;
+                }));
+            }
+
+            for (int n = 0; n < items.size(); n++) {
+                Import i = items.get(n);
+                Future<Path> f = staged.get(n);
+                if (f == null) {
+                    listener.beforeImport(i);
+                }
+
+                Snapshot s;
+                try {
+                    if (f != null) {
+                        LastModifiedSnapshot snapshot = new LastModifiedSnapshot();
+                        IOUtils.copy(getResult(f), dest, (String) null, snapshot, StandardCopyOption.REPLACE_EXISTING);
+                        s = snapshot;
+                    } else {
+                        s = assertProcessor(i.type()).process(i, dest);
+                    }
+                } catch (Exception e) {
+                    throw new ImportProcessingException(i, e);
+                }
+
+                listener.afterImport(i);
+                result.add(s);
+            }
+        } finally {
+            // the executor is shared, cancel only our own imports
+            for (Future<Path> f : staged) {
+                if (f != null) {
+                    f.cancel(true);
+                }
+            }
+            IOUtils.deleteRecursively(stagingDir);
+        }
+    }
+
+    private boolean isParallelizable(Import i) {
+        if (disabledProcessors.contains(i.type())) {
+            return false;
+        }
+
+        ImportProcessor<Import> p = processors.get(i.type());
+        return p != null && p.isParallelizable();
+    }
+
     private ImportProcessor<Import> assertProcessor(String type) {
         if (disabledProcessors.contains(type)) {
             throw new RuntimeException("Disabled import type: " + type);
@@ -83,4 +189,26 @@ public class DefaultImportManager implements ImportManager {
         }
         throw new RuntimeException("Unknown import type: " + type);
     }
+
+    private static ExecutorService createExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "imports-" + counter.incrementAndGet());
+            // the manager has no lifecycle, don't prevent the JVM from exiting
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static Path getResult(Future<Path> f) throws Exception {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
 }
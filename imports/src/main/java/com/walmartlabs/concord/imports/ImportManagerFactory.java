@@ -28,21 +28,23 @@ import java.util.Set;
 
 public class ImportManagerFactory {
 
-    private final DependencyManager dependencyManager;
-    private final RepositoryExporter repositoryExporter;
-    private final Set<String> disabledProcessors;
+    private final ImportManager importManager;
 
     public ImportManagerFactory(DependencyManager dependencyManager, RepositoryExporter repositoryExporter, Set<String> disabledProcessors) {
-        this.dependencyManager = dependencyManager;
-        this.repositoryExporter = repositoryExporter;
-        this.disabledProcessors = disabledProcessors;
+        this(dependencyManager, repositoryExporter, disabledProcessors, 1);
     }
 
-    public ImportManager create() {
+    public ImportManagerFactory(DependencyManager dependencyManager, RepositoryExporter repositoryExporter, Set<String> disabledProcessors, int parallelism) {
         List<ImportProcessor> processors = new ArrayList<>();
         processors.add(new RepositoryProcessor(repositoryExporter));
         processors.add(new MvnProcessor(dependencyManager));
         processors.add(new DirectoryProcessor());
-        return new DefaultImportManager(processors, disabledProcessors);
+
+        // the manager is stateless, a single instance shares its executor between all callers
+        this.importManager = new DefaultImportManager(processors, disabledProcessors, parallelism);
+    }
+
+    public ImportManager create() {
+        return importManager;
     }
 }
@@ -29,4 +29,12 @@ public interface ImportProcessor<T extends Import> {
     String type();
 
     Snapshot process(T importEntry, Path workDir) throws Exception;
+
+    /**
+     * @return {@code true} if the processor doesn't depend on the existing
+     * content of {@code workDir} and can run concurrently with other imports.
+     */
+    default boolean isParallelizable() {
+        return false;
+    }
 }
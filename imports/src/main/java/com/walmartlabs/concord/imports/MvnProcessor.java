@@ -44,6 +44,11 @@ public class MvnProcessor implements ImportProcessor<MvnDefinition> {
         return MvnDefinition.TYPE;
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public Snapshot process(MvnDefinition entry, Path workDir) throws Exception {
         URI uri = new URI(entry.url());
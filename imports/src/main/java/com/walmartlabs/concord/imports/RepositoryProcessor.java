@@ -38,6 +38,11 @@ public class RepositoryProcessor implements ImportProcessor<GitDefinition> {
         return GitDefinition.TYPE;
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public Snapshot process(GitDefinition entry, Path workDir) throws Exception {
         return repositoryExporter.export(entry, workDir);
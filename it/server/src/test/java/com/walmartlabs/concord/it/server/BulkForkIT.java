@@ -0,0 +1,87 @@
+package com.walmartlabs.concord.it.server;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.client.*;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static com.walmartlabs.concord.it.common.ITUtils.archive;
+import static com.walmartlabs.concord.it.common.ServerClient.*;
+import static org.junit.Assert.assertEquals;
+
+public class BulkForkIT extends AbstractServerIT {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkForkIT.class);
+
+    private static final int FORKS = 50;
+
+    @Test(timeout = DEFAULT_TEST_TIMEOUT)
+    public void test() throws Exception {
+        byte[] payload = archive(BulkForkIT.class.getResource("bulkFork").toURI());
+
+        StartProcessResponse parentSpr = start(payload);
+
+        ProcessApi processApi = new ProcessApi(getApiClient());
+        ProcessEntry parent = waitForCompletion(processApi, parentSpr.getInstanceId());
+        assertEquals(ProcessEntry.StatusEnum.FINISHED, parent.getStatus());
+
+        // ---
+
+        Map<String, Object> req = new HashMap<>();
+        req.put("entryPoint", "default");
+        req.put("arguments", Collections.singletonMap("name", "fork"));
+
+        long t1 = System.currentTimeMillis();
+        List<StartProcessResponse> forks = processApi.bulkFork(parent.getInstanceId(), new BulkForkRequest()
+                .request(req)
+                .setInstances(FORKS));
+        long bulkTime = System.currentTimeMillis() - t1;
+
+        assertEquals(FORKS, forks.size());
+
+        // ---
+
+        t1 = System.currentTimeMillis();
+        for (int i = 0; i < FORKS; i++) {
+            processApi.fork(parent.getInstanceId(), req, false, null);
+        }
+        long singleTime = System.currentTimeMillis() - t1;
+
+        log.info("test -> bulk: {} forks/sec, one by one: {} forks/sec",
+                FORKS * 1000.0 / Math.max(bulkTime, 1), FORKS * 1000.0 / Math.max(singleTime, 1));
+
+        // ---
+
+        for (int i = 0; i < FORKS; i++) {
+            ProcessEntry child = waitForCompletion(processApi, forks.get(i).getInstanceId());
+            assertEquals(ProcessEntry.StatusEnum.FINISHED, child.getStatus());
+            assertEquals(parent.getInstanceId(), child.getParentInstanceId());
+
+            byte[] ab = getLog(child.getLogFileName());
+            assertLog(".*Hello, fork!.*", ab);
+        }
+    }
+}
@@ -47,6 +47,12 @@ public class AgentPoolConfiguration implements Serializable {
 
     private static final int DEFAULT_QUEUE_QUERY_LIMIT = 300;
 
+    private static final long DEFAULT_PREDICTION_LEAD_TIME_MS = 120000;
+    private static final double DEFAULT_SMOOTHING_FACTOR = 0.3;
+    private static final double DEFAULT_TREND_FACTOR = 0.1;
+    private static final long DEFAULT_SEASONAL_PERIOD_MS = 24 * 60 * 60 * 1000;
+    private static final long DEFAULT_SEASONAL_BUCKET_MS = 60000;
+
     private boolean autoScale = true;
     private int maxSize = DEFAULT_MAX_SIZE;
     private int minSize = DEFAULT_MIN_SIZE;
@@ -85,6 +91,37 @@ public class AgentPoolConfiguration implements Serializable {
      */
     private double decrementThresholdFactor = getDoubleFromEnv(ENV_DECREMENT_THRESHOLD_FACTOR, DEFAULT_DECREMENT_THRESHOLD_FACTOR);
 
+    /**
+     * Auto scaling mode, see {@link ScalingMode}
+     */
+    private ScalingMode scalingMode = ScalingMode.THRESHOLD;
+
+    /**
+     * How far ahead (usually the time it takes to start an agent pod)
+     * the predictive mode forecasts the demand
+     */
+    private long predictionLeadTimeMs = DEFAULT_PREDICTION_LEAD_TIME_MS;
+
+    /**
+     * Weight of the most recent observation in the smoothed demand (0..1)
+     */
+    private double smoothingFactor = DEFAULT_SMOOTHING_FACTOR;
+
+    /**
+     * Weight of the most recent observation in the smoothed demand trend (0..1)
+     */
+    private double trendFactor = DEFAULT_TREND_FACTOR;
+
+    /**
+     * Period of recurring (e.g. cron) demand peaks. Zero disables the seasonal forecast
+     */
+    private long seasonalPeriodMs = DEFAULT_SEASONAL_PERIOD_MS;
+
+    /**
+     * Resolution of the seasonal demand profile
+     */
+    private long seasonalBucketMs = DEFAULT_SEASONAL_BUCKET_MS;
+
     private Map<String, Object> queueSelector;
     private Map<String, Object> configMap;
     private Map<String, Object> pod;
@@ -185,6 +222,54 @@ public class AgentPoolConfiguration implements Serializable {
         this.queueQueryLimit = queueQueryLimit;
     }
 
+    public ScalingMode getScalingMode() {
+        return scalingMode;
+    }
+
+    public void setScalingMode(ScalingMode scalingMode) {
+        this.scalingMode = scalingMode;
+    }
+
+    public long getPredictionLeadTimeMs() {
+        return predictionLeadTimeMs;
+    }
+
+    public void setPredictionLeadTimeMs(long predictionLeadTimeMs) {
+        this.predictionLeadTimeMs = predictionLeadTimeMs;
+    }
+
+    public double getSmoothingFactor() {
+        return smoothingFactor;
+    }
+
+    public void setSmoothingFactor(double smoothingFactor) {
+        this.smoothingFactor = smoothingFactor;
+    }
+
+    public double getTrendFactor() {
+        return trendFactor;
+    }
+
+    public void setTrendFactor(double trendFactor) {
+        this.trendFactor = trendFactor;
+    }
+
+    public long getSeasonalPeriodMs() {
+        return seasonalPeriodMs;
+    }
+
+    public void setSeasonalPeriodMs(long seasonalPeriodMs) {
+        this.seasonalPeriodMs = seasonalPeriodMs;
+    }
+
+    public long getSeasonalBucketMs() {
+        return seasonalBucketMs;
+    }
+
+    public void setSeasonalBucketMs(long seasonalBucketMs) {
+        this.seasonalBucketMs = seasonalBucketMs;
+    }
+
     public Map<String, Object> getConfigMap() {
         return configMap;
     }
@@ -210,4 +295,17 @@ public class AgentPoolConfiguration implements Serializable {
         String envValue = System.getenv(key);
         return envValue != null ? Double.parseDouble(envValue) : defaultValue;
     }
+
+    public enum ScalingMode {
+
+        /**
+         * Scale by fixed steps when the number of enqueued processes crosses the thresholds
+         */
+        THRESHOLD,
+
+        /**
+         * Size the pool according to the forecasted demand (enqueued and running processes)
+         */
+        PREDICTIVE
+    }
 }
@@ -76,6 +76,41 @@ public class ProcessQueueClient {
         }
     }
 
+    /**
+     * Returns the number of processes with the specified status and agent flavor
+     * using the server-side aggregation, without fetching the entries.
+     *
+     * @param excludeScheduled if {@code true} processes with "startAt" are not counted
+     */
+    public int count(String processStatus, String flavor, boolean excludeScheduled) throws IOException {
+        String queryUrl = baseUrl + "/api/v2/process/requirements/count?status=" + processStatus;
+        if (excludeScheduled) {
+            queryUrl = queryUrl + "&startAt.len=";
+        }
+        if (flavor != null) {
+            queryUrl = queryUrl + "&requirements.agent.flavor.eq=" + flavor;
+        }
+        Request req = new Request.Builder()
+                .url(queryUrl)
+                .header("Authorization", apiToken)
+                .addHeader("User-Agent", "k8s-agent-operator")
+                .build();
+
+        Call call = client.newCall(req);
+        try (Response resp = call.execute()) {
+            if (!resp.isSuccessful()) {
+                throw new IOException("Error while fetching the process queue count: " + resp.code());
+            }
+
+            ResponseBody body = resp.body();
+            if (body == null) {
+                throw new IOException("Error while fetching the process queue count: empty response");
+            }
+
+            return Integer.parseInt(body.string().trim());
+        }
+    }
+
     private static OkHttpClient initClient() {
         try {
             TrustManager[] trustAllCerts = new TrustManager[]{
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 public class AutoScaler {
 
@@ -38,6 +39,7 @@ public class AutoScaler {
     private final Function<String, Integer> podCounter;
     private final Function<AgentPoolInstance, Boolean> canBeScaledUp;
     private final Function<AgentPoolInstance, Boolean> canBeScaledDown;
+    private final LongSupplier clock;
     private long scaleUpTimeStamp;
     private long scaleDownTimeStamp;
 
@@ -53,11 +55,17 @@ public class AutoScaler {
 
     public AutoScaler(Function<String, Integer> podCounter, Function<AgentPoolInstance, Boolean> canBeScaledUp,
                       Function<AgentPoolInstance, Boolean> canBeScaledDown) {
+        this(podCounter, canBeScaledUp, canBeScaledDown, System::currentTimeMillis);
+    }
+
+    public AutoScaler(Function<String, Integer> podCounter, Function<AgentPoolInstance, Boolean> canBeScaledUp,
+                      Function<AgentPoolInstance, Boolean> canBeScaledDown, LongSupplier clock) {
         this.podCounter = podCounter;
         this.canBeScaledUp = canBeScaledUp;
         this.canBeScaledDown = canBeScaledDown;
-        this.scaleUpTimeStamp = System.currentTimeMillis();
-        this.scaleDownTimeStamp = System.currentTimeMillis();
+        this.clock = clock;
+        this.scaleUpTimeStamp = clock.getAsLong();
+        this.scaleDownTimeStamp = clock.getAsLong();
     }
 
     /**
@@ -98,7 +106,7 @@ public class AutoScaler {
         log.info("['{}']: Enqueued process count: {}", i.getName(), enqueuedCount);
 
         if (podsCount < cfg.getMinSize()) {
-            return AgentPoolInstance.updateTargetSize(i, cfg.getMinSize(), System.currentTimeMillis(), System.currentTimeMillis());
+            return AgentPoolInstance.updateTargetSize(i, cfg.getMinSize(), clock.getAsLong(), clock.getAsLong());
         }
 
         // The threshold above which the operator can scale up the agent pods to the defined maximum pool size
@@ -125,7 +133,7 @@ public class AutoScaler {
             if (enqueuedCount >= minPoolSizeThreshold) {
                 log.info("['{}']: Resetting scale down delay counter - (enqueued count({}) >= minimum threshold({}))...",
                         i.getName(), enqueuedCount, minPoolSizeThreshold);
-                scaleDownTimeStamp = System.currentTimeMillis();
+                scaleDownTimeStamp = clock.getAsLong();
             }
         }
 
@@ -150,7 +158,7 @@ public class AutoScaler {
         podsCount = Math.min(podsCount, i.getTargetSize());
 
         // Reset scaleup delay counter for every attempt to scale up
-        scaleUpTimeStamp = System.currentTimeMillis();
+        scaleUpTimeStamp = clock.getAsLong();
 
         if (podsCount < cfg.getMaxSize()) {
             if (enqueuedCount >= maxPoolSizeThreshold) {
@@ -183,7 +191,7 @@ public class AutoScaler {
         podsCount = Math.max(podsCount, i.getTargetSize());
 
         // Reset scaledown delay counter for every attempt to scale down
-        scaleDownTimeStamp = System.currentTimeMillis();
+        scaleDownTimeStamp = clock.getAsLong();
 
         if (podsCount > cfg.getMinSize()) {
             if (enqueuedCount < minPoolSizeThreshold) {
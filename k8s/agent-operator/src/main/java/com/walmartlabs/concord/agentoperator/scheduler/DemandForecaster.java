@@ -0,0 +1,190 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+/**
+ * Forecasts the demand of an agent pool, i.e. the number of processes
+ * that need an agent (enqueued + running).
+ * <p>
+ * Uses double exponential smoothing (level and trend) for the short-term
+ * forecast and a seasonal profile of observed peaks for recurring demand
+ * (e.g. cron triggers firing at the same time every day).
+ * <p>
+ * Not thread-safe.
+ */
+public class DemandForecaster {
+
+    /**
+     * Weight of the most recent period in the seasonal profile.
+     */
+    private static final double SEASONAL_FACTOR = 0.5;
+
+    private final double alpha;
+    private final double beta;
+    private final long seasonalBucketMs;
+
+    private final double[] profile;
+    private final boolean[] profileSeen;
+
+    private long lastTimestamp = -1;
+    private int lastDemand;
+
+    private double level;
+
+    /**
+     * Smoothed demand change rate, processes per second.
+     */
+    private double trend;
+
+    /**
+     * Smoothed rate of the demand increase, processes per second.
+     */
+    private double arrivalRate;
+
+    /**
+     * Smoothed rate of the demand decrease, processes per second.
+     */
+    private double completionRate;
+
+    private int currentBucket = -1;
+    private int currentBucketPeak;
+
+    /**
+     * @param alpha            weight of the most recent observation in the smoothed level (0..1)
+     * @param beta             weight of the most recent observation in the smoothed trend (0..1)
+     * @param seasonalPeriodMs period of the recurring demand, zero or negative values disable the seasonal forecast
+     * @param seasonalBucketMs resolution of the seasonal profile
+     */
+    public DemandForecaster(double alpha, double beta, long seasonalPeriodMs, long seasonalBucketMs) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.seasonalBucketMs = seasonalBucketMs;
+
+        int buckets = seasonalPeriodMs > 0 && seasonalBucketMs > 0 ? (int) (seasonalPeriodMs / seasonalBucketMs) : 0;
+        this.profile = new double[buckets];
+        this.profileSeen = new boolean[buckets];
+    }
+
+    /**
+     * Records a new observation.
+     *
+     * @param timestamp current time (ms)
+     * @param enqueued  number of processes waiting for an agent
+     * @param running   number of processes running on the pool's agents
+     */
+    public void update(long timestamp, int enqueued, int running) {
+        int demand = enqueued + running;
+
+        if (lastTimestamp < 0) {
+            level = demand;
+        } else if (timestamp > lastTimestamp) {
+            double dt = (timestamp - lastTimestamp) / 1000.0;
+
+            double delta = demand - lastDemand;
+            arrivalRate = alpha * (Math.max(delta, 0) / dt) + (1 - alpha) * arrivalRate;
+            completionRate = alpha * (Math.max(-delta, 0) / dt) + (1 - alpha) * completionRate;
+
+            double prevLevel = level;
+            level = alpha * demand + (1 - alpha) * (level + trend * dt);
+            trend = beta * ((level - prevLevel) / dt) + (1 - beta) * trend;
+
+            // extrapolate only while the demand keeps changing in the same direction
+            if ((trend > 0 && delta <= 0) || (trend < 0 && delta >= 0)) {
+                trend = 0;
+            }
+        }
+
+        updateProfile(timestamp, demand);
+
+        lastTimestamp = timestamp;
+        lastDemand = demand;
+    }
+
+    /**
+     * Returns the expected demand at {@code timestamp + leadTimeMs}: the maximum
+     * of the extrapolated trend and the seasonal peaks observed during the
+     * lead time in the previous periods.
+     */
+    public double forecast(long timestamp, long leadTimeMs) {
+        if (lastTimestamp < 0) {
+            return 0;
+        }
+
+        // the extrapolated growth is limited to avoid overshooting on sudden steps
+        double growth = Math.min(trend * (leadTimeMs / 1000.0), level);
+        double result = level + growth;
+
+        if (profile.length > 0) {
+            long start = timestamp / seasonalBucketMs;
+            long end = (timestamp + leadTimeMs) / seasonalBucketMs;
+            for (long b = start; b <= end && b - start < profile.length; b++) {
+                int idx = (int) (b % profile.length);
+                if (profileSeen[idx] && idx != currentBucket) {
+                    result = Math.max(result, profile[idx]);
+                }
+            }
+        }
+
+        return Math.max(result, 0);
+    }
+
+    public double getLevel() {
+        return level;
+    }
+
+    public double getTrend() {
+        return trend;
+    }
+
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public double getCompletionRate() {
+        return completionRate;
+    }
+
+    private void updateProfile(long timestamp, int demand) {
+        if (profile.length == 0) {
+            return;
+        }
+
+        int bucket = (int) ((timestamp / seasonalBucketMs) % profile.length);
+        if (bucket != currentBucket) {
+            commitBucket();
+            currentBucket = bucket;
+            currentBucketPeak = demand;
+        } else {
+            currentBucketPeak = Math.max(currentBucketPeak, demand);
+        }
+    }
+
+    private void commitBucket() {
+        if (currentBucket < 0) {
+            return;
+        }
+
+        // recurring peaks accumulate over the periods, random ones fade out
+        profile[currentBucket] = SEASONAL_FACTOR * currentBucketPeak + (1 - SEASONAL_FACTOR) * profile[currentBucket];
+        profileSeen[currentBucket] = true;
+    }
+}
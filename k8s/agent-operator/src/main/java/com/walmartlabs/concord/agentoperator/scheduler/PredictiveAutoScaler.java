@@ -0,0 +1,134 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Sizes agent pools according to the forecasted demand, see {@link DemandForecaster}.
+ * <p>
+ * Unlike {@link AutoScaler} the instances of this class are stateful and
+ * must be reused between the scheduler's iterations.
+ */
+public class PredictiveAutoScaler {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictiveAutoScaler.class);
+
+    private final Function<String, Integer> podCounter;
+    private final LongSupplier clock;
+    private final Map<String, DemandForecaster> forecasters = new ConcurrentHashMap<>();
+
+    public PredictiveAutoScaler(Function<String, Integer> podCounter) {
+        this(podCounter, System::currentTimeMillis);
+    }
+
+    public PredictiveAutoScaler(Function<String, Integer> podCounter, LongSupplier clock) {
+        this.podCounter = podCounter;
+        this.clock = clock;
+    }
+
+    /**
+     * Updates the pool's demand forecast and computes the new target size.
+     * <p>
+     * Scaling up happens as soon as the forecasted demand exceeds the current
+     * target size (but not more often than the scale up delay).
+     * Scaling down happens only if the forecasted demand stays below the target
+     * size for longer than the scale down delay and by no more than the
+     * decrement percentage at a time.
+     *
+     * @param i        agent pool on which the scaling activity is to be performed
+     * @param enqueued number of processes waiting for an agent in the pool
+     * @param running  number of processes running on the pool's agents
+     */
+    public AgentPoolInstance apply(AgentPoolInstance i, int enqueued, int running) {
+        AgentPoolConfiguration cfg = i.getResource().getSpec();
+        long now = clock.getAsLong();
+
+        DemandForecaster forecaster = forecasters.computeIfAbsent(i.getName(),
+                k -> new DemandForecaster(cfg.getSmoothingFactor(), cfg.getTrendFactor(), cfg.getSeasonalPeriodMs(), cfg.getSeasonalBucketMs()));
+
+        double forecast;
+        synchronized (forecaster) {
+            forecaster.update(now, enqueued, running);
+            forecast = forecaster.forecast(now, cfg.getPredictionLeadTimeMs());
+
+            log.info("['{}']: enqueued: {}, running: {}, arrival rate: {}/s, completion rate: {}/s, forecast: {}",
+                    i.getName(), enqueued, running, round(forecaster.getArrivalRate()), round(forecaster.getCompletionRate()), round(forecast));
+        }
+
+        int podsCount = podCounter.apply(i.getName());
+        if (podsCount < cfg.getMinSize()) {
+            return AgentPoolInstance.updateTargetSize(i, cfg.getMinSize(), now, now);
+        }
+
+        int demand = Math.max((int) Math.round(forecast), enqueued + running);
+        int desiredSize = Math.max(cfg.getMinSize(), Math.min(cfg.getMaxSize(), demand));
+
+        int targetSize = i.getTargetSize();
+        long scaleUpTimestamp = i.getLastScaleUpTimestamp();
+        long scaleDownTimestamp = i.getLastScaleDownTimeStamp();
+
+        if (desiredSize > targetSize) {
+            if (now - scaleUpTimestamp > cfg.getScaleUpDelayMs()) {
+                log.info("['{}']: Scaling up to {}...", i.getName(), desiredSize);
+                targetSize = desiredSize;
+                scaleUpTimestamp = now;
+            }
+        }
+
+        if (desiredSize >= targetSize) {
+            // scale down only if the demand is consistently lower than the pool size
+            scaleDownTimestamp = now;
+        } else if (now - scaleDownTimestamp > cfg.getScaleDownDelayMs()) {
+            int step = Math.max(1, (int) Math.floor(targetSize * cfg.getPercentDecrement() / 100));
+            targetSize = Math.max(desiredSize, targetSize - step);
+            scaleDownTimestamp = now;
+            log.info("['{}']: Scaling down to {}...", i.getName(), targetSize);
+        }
+
+        if (targetSize == i.getTargetSize()) {
+            log.info("['{}']: Not changing the pool size.", i.getName());
+        } else {
+            log.info("apply ['{}'] -> updated to {}", i.getName(), targetSize);
+        }
+
+        return AgentPoolInstance.updateTargetSize(i, targetSize, scaleUpTimestamp, scaleDownTimestamp);
+    }
+
+    /**
+     * Removes the collected statistics of the specified pool.
+     */
+    public void remove(String poolName) {
+        forecasters.remove(poolName);
+    }
+
+    private static double round(double d) {
+        return Math.round(d * 100) / 100.0;
+    }
+}
@@ -46,6 +46,7 @@ public class Scheduler {
     private final KubernetesClient k8sClient;
     private final ProcessQueueClient processQueueClient;
     private final Planner planner;
+    private final PredictiveAutoScaler predictiveAutoScaler;
     private final Map<String, AgentPoolInstance> pools;
     private final List<Event> events;
 
@@ -53,6 +54,7 @@ public class Scheduler {
         this.k8sClient = k8sClient;
         this.processQueueClient = new ProcessQueueClient(cfg.concordBaseUrl, cfg.concordApiToken);
         this.planner = new Planner(k8sClient);
+        this.predictiveAutoScaler = new PredictiveAutoScaler(n -> AgentPod.list(k8sClient, n).size());
         this.pools = new HashMap<>();
         this.events = new LinkedList<>();
     }
@@ -150,23 +152,29 @@ public class Scheduler {
     }
 
     private void updateTargetSize(AgentPoolInstance i) throws IOException {
-        if (!i.getResource().getSpec().isAutoScale()) {
+        AgentPoolConfiguration spec = i.getResource().getSpec();
+        if (!spec.isAutoScale()) {
             return;
         }
 
-        int queueQueryLimit = i.getResource().getSpec().getQueueQueryLimit();
-        Map<String, Object> queueSelector = i.getResource().getSpec().getQueueSelector();
+        Map<String, Object> queueSelector = spec.getQueueSelector();
         String flavor = (String) ConfigurationUtils.get(queueSelector, "agent", "flavor");
-        List<ProcessQueueEntry> queueEntries = processQueueClient.query("ENQUEUED", queueQueryLimit, flavor);
 
-        AgentPoolConfiguration spec = i.getResource().getSpec();
-        if (!spec.isAutoScale()) {
-            return;
+        AgentPoolInstance updated;
+        if (spec.getScalingMode() == AgentPoolConfiguration.ScalingMode.PREDICTIVE) {
+            int enqueued = processQueueClient.count("ENQUEUED", flavor, true);
+            int running = processQueueClient.count("RUNNING", flavor, false);
+            updated = predictiveAutoScaler.apply(i, enqueued, running);
+        } else {
+            int queueQueryLimit = spec.getQueueQueryLimit();
+            List<ProcessQueueEntry> queueEntries = processQueueClient.query("ENQUEUED", queueQueryLimit, flavor);
+
+            AutoScaler autoScaler = new AutoScaler(n -> AgentPod.list(k8sClient, n).size());
+            updated = autoScaler.apply(i, queueEntries);
         }
 
-        AutoScaler autoScaler = new AutoScaler(n -> AgentPod.list(k8sClient, n).size());
         synchronized (pools) {
-            pools.put(i.getName(), autoScaler.apply(i, queueEntries));
+            pools.put(i.getName(), updated);
         }
     }
 
@@ -187,6 +195,7 @@ public class Scheduler {
         if (pods.isEmpty()) {
             synchronized (pools) {
                 pools.remove(resourceName);
+                predictiveAutoScaler.remove(resourceName);
                 log.info("processDeleted ['{}'] -> no pods left, the pool was removed", resourceName);
             }
         } else {
@@ -0,0 +1,261 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.crd.AgentPool;
+import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueEntry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Replays a recorded process queue trace against a scaling policy.
+ * Can be used to compare the scaling policies offline:
+ * <pre>
+ *     AutoScalerSimulator trace.csv [tickMs] [podStartupMs]
+ * </pre>
+ * The trace is a CSV file with one process per line: {@code submitTimeMs,durationMs},
+ * where {@code submitTimeMs} is the time (relative or epoch) the process was enqueued.
+ * Lines starting with '#' are ignored.
+ * <p>
+ * The model is simplified: each agent pod runs one process at a time,
+ * new pods become available after {@code podStartupMs}, only idle pods
+ * are removed when the pool is scaled down.
+ */
+public class AutoScalerSimulator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: AutoScalerSimulator trace.csv [tickMs] [podStartupMs]");
+            System.exit(1);
+        }
+
+        List<Job> trace = readTrace(Paths.get(args[0]));
+        long tickMs = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+        long podStartupMs = args.length > 2 ? Long.parseLong(args[2]) : 60000;
+
+        AgentPoolConfiguration cfg = new AgentPoolConfiguration();
+        cfg.setMinSize(1);
+        cfg.setMaxSize(100);
+
+        System.out.println("threshold:  " + run(trace, cfg, Policy.threshold(), tickMs, podStartupMs));
+        System.out.println("predictive: " + run(trace, cfg, Policy.predictive(), tickMs, podStartupMs));
+    }
+
+    public static List<Job> readTrace(Path p) throws IOException {
+        List<Job> result = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(p)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] as = line.split(",");
+                result.add(new Job(Long.parseLong(as[0].trim()), Long.parseLong(as[1].trim())));
+            }
+        }
+        return result;
+    }
+
+    public static Result run(List<Job> trace, AgentPoolConfiguration cfg, Policy policy, long tickMs, long podStartupMs) {
+        List<Job> jobs = new ArrayList<>(trace);
+        jobs.sort(Comparator.comparingLong(j -> j.submitTime));
+        if (jobs.isEmpty()) {
+            throw new IllegalArgumentException("Empty trace");
+        }
+
+        long startTime = jobs.get(0).submitTime;
+        long endTime = jobs.stream().mapToLong(j -> j.submitTime + j.duration).max().getAsLong();
+
+        List<Pod> pods = new ArrayList<>();
+        Deque<Job> queue = new ArrayDeque<>();
+        long[] clock = {startTime};
+
+        AgentPool resource = new AgentPool();
+        resource.setSpec(cfg);
+
+        AgentPoolInstance pool = new AgentPoolInstance("sim", resource, AgentPoolInstance.Status.ACTIVE, cfg.getMinSize(), startTime, startTime, startTime);
+        Scaler scaler = policy.create(n -> pods.size(), () -> clock[0]);
+
+        List<Long> waits = new ArrayList<>(jobs.size());
+        int maxQueue = 0;
+        int maxPods = 0;
+        double podMs = 0;
+
+        int next = 0;
+        for (long t = startTime; next < jobs.size() || !queue.isEmpty() || t <= endTime; t += tickMs) {
+            clock[0] = t;
+
+            while (next < jobs.size() && jobs.get(next).submitTime <= t) {
+                queue.add(jobs.get(next++));
+            }
+
+            int running = 0;
+            for (Pod p : pods) {
+                if (p.readyAt > t) {
+                    continue;
+                }
+
+                if (p.busyUntil <= t && !queue.isEmpty()) {
+                    Job j = queue.poll();
+                    waits.add(t - j.submitTime);
+                    p.busyUntil = t + j.duration;
+                }
+
+                if (p.busyUntil > t) {
+                    running++;
+                }
+            }
+
+            maxQueue = Math.max(maxQueue, queue.size());
+
+            pool = scaler.apply(pool, queue.size(), running);
+
+            int target = pool.getTargetSize();
+            while (pods.size() < target) {
+                pods.add(new Pod(t + podStartupMs));
+            }
+
+            Iterator<Pod> it = pods.iterator();
+            int excess = pods.size() - target;
+            while (excess > 0 && it.hasNext()) {
+                Pod p = it.next();
+                if (p.busyUntil <= t) {
+                    it.remove();
+                    excess--;
+                }
+            }
+
+            maxPods = Math.max(maxPods, pods.size());
+            podMs += (double) pods.size() * tickMs;
+        }
+
+        return new Result(waits, maxQueue, maxPods, podMs / 3_600_000.0);
+    }
+
+    public interface Policy {
+
+        Scaler create(Function<String, Integer> podCounter, LongSupplier clock);
+
+        static Policy threshold() {
+            return (podCounter, clock) -> {
+                AutoScaler as = new AutoScaler(podCounter,
+                        i -> clock.getAsLong() - i.getLastScaleUpTimestamp() > i.getResource().getSpec().getScaleUpDelayMs(),
+                        i -> clock.getAsLong() - i.getLastScaleDownTimeStamp() > i.getResource().getSpec().getScaleDownDelayMs(),
+                        clock);
+
+                return (i, enqueued, running) -> {
+                    List<ProcessQueueEntry> entries = new ArrayList<>(enqueued);
+                    for (int n = 0; n < enqueued; n++) {
+                        entries.add(new ProcessQueueEntry(Collections.emptyMap()));
+                    }
+                    return as.apply(i, entries);
+                };
+            };
+        }
+
+        static Policy predictive() {
+            return (podCounter, clock) -> new PredictiveAutoScaler(podCounter, clock)::apply;
+        }
+    }
+
+    public interface Scaler {
+
+        AgentPoolInstance apply(AgentPoolInstance i, int enqueued, int running);
+    }
+
+    public static class Job {
+
+        private final long submitTime;
+        private final long duration;
+
+        public Job(long submitTime, long duration) {
+            this.submitTime = submitTime;
+            this.duration = duration;
+        }
+    }
+
+    public static class Result {
+
+        private final List<Long> waits;
+        private final int maxQueue;
+        private final int maxPods;
+        private final double podHours;
+
+        private Result(List<Long> waits, int maxQueue, int maxPods, double podHours) {
+            this.waits = new ArrayList<>(waits);
+            Collections.sort(this.waits);
+            this.maxQueue = maxQueue;
+            this.maxPods = maxPods;
+            this.podHours = podHours;
+        }
+
+        public double getAvgWaitMs() {
+            return waits.stream().mapToLong(Long::longValue).average().orElse(0);
+        }
+
+        public long getWaitPercentileMs(double p) {
+            if (waits.isEmpty()) {
+                return 0;
+            }
+            int idx = (int) Math.min(waits.size() - 1, Math.ceil(p * waits.size()) - 1);
+            return waits.get(Math.max(idx, 0));
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public int getMaxPods() {
+            return maxPods;
+        }
+
+        public double getPodHours() {
+            return podHours;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("processes: %d, avg wait: %.1fs, p95 wait: %.1fs, max queue: %d, max pods: %d, pod hours: %.1f",
+                    waits.size(), getAvgWaitMs() / 1000, getWaitPercentileMs(0.95) / 1000.0, maxQueue, maxPods, podHours);
+        }
+    }
+
+    private static class Pod {
+
+        private final long readyAt;
+        private long busyUntil;
+
+        private Pod(long readyAt) {
+            this.readyAt = readyAt;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+public class PredictiveAutoScalerTest {
+
+    private static final long MINUTE = 60 * 1000;
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    @Test
+    public void testForecast() {
+        DemandForecaster f = new DemandForecaster(0.3, 0.1, DAY, MINUTE);
+
+        // steady growth
+        for (int i = 0; i < 20; i++) {
+            f.update(i * 5000, i, 0);
+        }
+
+        double forecast = f.forecast(19 * 5000, 60000);
+        assertTrue("forecast: " + forecast, forecast > 19);
+        assertTrue(f.getArrivalRate() > 0);
+    }
+
+    @Test
+    public void testSeasonalForecast() {
+        DemandForecaster f = new DemandForecaster(0.3, 0.1, DAY, MINUTE);
+
+        // a peak at 09:00 on the first two days
+        long peak = 9 * 60 * MINUTE;
+        long now = 2 * DAY + peak - 2 * MINUTE;
+        for (long t = 0; t < now; t += 5000) {
+            long timeOfDay = t % DAY;
+            boolean isPeak = timeOfDay >= peak && timeOfDay < peak + 5 * MINUTE;
+            f.update(t, isPeak ? 30 : 0, 0);
+        }
+
+        // the third day, two minutes before the peak
+        assertTrue(f.forecast(now, MINUTE) < 1);
+        assertTrue(f.forecast(now, 3 * MINUTE) > 20);
+    }
+
+    @Test
+    public void testSimulatedCronPeaks() {
+        List<AutoScalerSimulator.Job> trace = cronTrace(3);
+
+        AgentPoolConfiguration cfg = new AgentPoolConfiguration();
+        cfg.setMinSize(1);
+        cfg.setMaxSize(50);
+        cfg.setScaleUpDelayMs(30000);
+        cfg.setScaleDownDelayMs(180000);
+        cfg.setPredictionLeadTimeMs(2 * MINUTE);
+
+        AutoScalerSimulator.Result threshold = AutoScalerSimulator.run(trace, cfg, AutoScalerSimulator.Policy.threshold(), 5000, MINUTE);
+        AutoScalerSimulator.Result predictive = AutoScalerSimulator.run(trace, cfg, AutoScalerSimulator.Policy.predictive(), 5000, MINUTE);
+
+        String details = "threshold: " + threshold + ", predictive: " + predictive;
+        assertTrue(details, predictive.getAvgWaitMs() < threshold.getAvgWaitMs());
+        assertTrue(details, predictive.getWaitPercentileMs(0.95) < threshold.getWaitPercentileMs(0.95));
+    }
+
+    /**
+     * Light background load and a burst of processes every day at 09:00 and 15:30.
+     */
+    private static List<AutoScalerSimulator.Job> cronTrace(int days) {
+        Random rnd = new Random(42);
+
+        List<AutoScalerSimulator.Job> result = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            long dayStart = d * DAY;
+
+            for (long t = dayStart; t < dayStart + DAY; t += MINUTE) {
+                if (rnd.nextInt(4) == 0) {
+                    result.add(new AutoScalerSimulator.Job(t + rnd.nextInt(60000), 30000 + rnd.nextInt(90000)));
+                }
+            }
+
+            for (long peak : new long[]{9 * 60 * MINUTE, 15 * 60 * MINUTE + 30 * MINUTE}) {
+                for (int i = 0; i < 30; i++) {
+                    result.add(new AutoScalerSimulator.Job(dayStart + peak + rnd.nextInt(10000), 5 * MINUTE + rnd.nextInt(60000)));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -49,7 +49,6 @@ public class ConcordTask extends AbstractConcordTask {
     private static final Logger log = LoggerFactory.getLogger(ConcordTask.class);
 
     private static final long DEFAULT_KILL_TIMEOUT = 10000;
-    private static final long DEFAULT_POLL_DELAY = 5000;
 
     /**
      * @deprecated use {@link #PAYLOAD_KEY}
@@ -106,7 +105,7 @@ public class ConcordTask extends AbstractConcordTask {
         FAILED_STATUSES.add(ProcessEntry.StatusEnum.TIMED_OUT.toString());
     }
 
-    private final ExecutorService executor = new ThreadPoolExecutor(1, MAX_EXECUTOR_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    private final ExecutorService executor = ProcessForker.newExecutor(MAX_EXECUTOR_THREADS);
 
     @InjectVariable("uiLinks")
     Map<String, Object> uiLinks;
@@ -186,45 +185,19 @@ public class ConcordTask extends AbstractConcordTask {
     }
 
     public <T> Map<String, T> waitForCompletion(@InjectVariable("context") Context ctx, List<String> ids, long timeout, Function<ProcessEntry, T> processor) {
-        Map<String, T> result = new HashMap<>();
-
-        ids.parallelStream().map(UUID::fromString).forEach(id -> {
-            log.info("Waiting for {}, URL: {}", id, getProcessUrl(ctx, id));
-
-            long t1 = System.currentTimeMillis();
-            while (true) {
-                try {
-                    ProcessEntry e = ClientUtils.withRetry(3, 1000, () -> withClient(ctx, client -> {
-                        ProcessApi api = new ProcessApi(client);
-                        return api.get(id);
-                    }));
-
-                    ProcessEntry.StatusEnum s = e.getStatus();
-
-                    if (isFinalStatus(s)) {
-                        T t = processor.apply(e);
-                        if (t != null) {
-                            result.put(id.toString(), t);
-                        }
-                        break;
-                    } else {
-                        long t2 = System.currentTimeMillis();
-                        if (timeout > 0) {
-                            long dt = t2 - t1;
-                            if (dt >= timeout) {
-                                throw new TimeoutException("Timeout waiting for " + id + ": " + dt);
-                            }
-                        }
-
-                        Thread.sleep(DEFAULT_POLL_DELAY);
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        List<UUID> instanceIds = ids.stream()
+                .map(UUID::fromString)
+                .collect(Collectors.toList());
 
-        return result;
+        instanceIds.forEach(id -> log.info("Waiting for {}, URL: {}", id, getProcessUrl(ctx, id)));
+
+        try {
+            return ProcessCompletionWaiter.waitForCompletion(() -> withClient(ctx, client -> client), instanceIds, timeout, processor);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 
     @SuppressWarnings("rawtypes")
@@ -549,21 +522,13 @@ public class ConcordTask extends AbstractConcordTask {
     private List<String> forkMany(Context ctx, List<Map<String, Object>> jobs) throws Exception {
         List<String> ids = new ArrayList<>();
 
-        List<Future<UUID>> futures = new ArrayList<>();
         for (Map<String, Object> job : jobs) {
             Map<String, Object> cfg = createJobCfg(ctx, job);
             cfg.put(INSTANCE_ID_KEY, ctx.getVariable(Constants.Context.TX_ID_KEY));
 
-            int n = getInstances(cfg);
-            for (int i = 0; i < n; i++) {
-                futures.add(forkOne(ctx, cfg));
+            for (UUID id : fork(ctx, cfg, getInstances(cfg))) {
+                ids.add(id.toString());
             }
-
-        }
-
-        // collect all futures, effectively blocking until all forks are started
-        for (Future<UUID> f : futures) {
-            ids.add(f.get().toString());
         }
 
         Map<String, Object> cfg = createJobCfg(ctx, defaults);
@@ -583,7 +548,7 @@ public class ConcordTask extends AbstractConcordTask {
         return ids;
     }
 
-    private Future<UUID> forkOne(Context ctx, Map<String, Object> cfg) {
+    private List<UUID> fork(Context ctx, Map<String, Object> cfg, int instances) throws Exception {
         if (cfg.containsKey(ARCHIVE_KEY)) {
             log.warn("'" + ARCHIVE_KEY + "' parameter is not supported for fork action and will be ignored");
         }
@@ -599,15 +564,14 @@ public class ConcordTask extends AbstractConcordTask {
         boolean sync = getBoolean(cfg, SYNC_KEY, false);
         boolean debug = getBoolean(cfg, DEBUG_KEY, false);
         if (debug) {
-            log.info("Forking the current instance (sync={}, req={})...", sync, req);
+            log.info("Forking the current instance (sync={}, instances={}, req={})...", sync, instances, req);
         }
 
-        return executor.submit(() -> withClient(ctx, client -> {
-            ProcessApi api = new ProcessApi(client);
-            StartProcessResponse resp = api.fork(instanceId, req, false, null);
-            log.info("Forked a child process: {} url: {}", resp.getInstanceId(), getProcessUrl(ctx, resp.getInstanceId()));
-            return resp.getInstanceId();
-        }));
+        List<UUID> ids = ProcessForker.fork(() -> withClient(ctx, client -> client), executor, instanceId, req, instances);
+        for (UUID id : ids) {
+            log.info("Forked a child process: {} url: {}", id, getProcessUrl(ctx, id));
+        }
+        return ids;
     }
 
     private void kill(Context ctx) throws Exception {
@@ -626,21 +590,21 @@ public class ConcordTask extends AbstractConcordTask {
         }
 
         for (String id : instanceIds) {
-            killOne(ctx, cfg, id);
+            killOne(ctx, id);
+        }
+
+        boolean sync = getBoolean(cfg, SYNC_KEY, false);
+        if (sync) {
+            waitForCompletion(ctx, instanceIds, DEFAULT_KILL_TIMEOUT);
         }
     }
 
-    private void killOne(Context ctx, Map<String, Object> cfg, String instanceId) throws Exception {
+    private void killOne(Context ctx, String instanceId) throws Exception {
         withClient(ctx, client -> {
             ProcessApi api = new ProcessApi(client);
             api.kill(UUID.fromString(instanceId));
             return null;
         });
-
-        boolean sync = getBoolean(cfg, SYNC_KEY, false);
-        if (sync) {
-            waitForCompletion(ctx, Collections.singletonList(instanceId), DEFAULT_KILL_TIMEOUT);
-        }
     }
 
     private Map<String, Object> createJobCfg(Context ctx, Map<String, Object> job) {
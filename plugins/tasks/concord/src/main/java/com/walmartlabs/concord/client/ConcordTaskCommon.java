@@ -50,7 +50,6 @@ public class ConcordTaskCommon {
     private static final Logger log = LoggerFactory.getLogger(ConcordTaskCommon.class);
 
     private static final long DEFAULT_KILL_TIMEOUT = 10000;
-    private static final long DEFAULT_POLL_DELAY = 5000;
 
     private static final int MAX_EXECUTOR_THREADS = 20;
 
@@ -63,7 +62,7 @@ public class ConcordTaskCommon {
         FAILED_STATUSES.add(ProcessEntry.StatusEnum.TIMED_OUT.toString());
     }
 
-    private final ExecutorService executor = new ThreadPoolExecutor(1, MAX_EXECUTOR_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    private final ExecutorService executor = ProcessForker.newExecutor(MAX_EXECUTOR_THREADS);
 
     private final String sessionToken;
     private final ApiClientFactory apiClientFactory;
@@ -119,46 +118,15 @@ public class ConcordTaskCommon {
     }
 
     public <T> Map<String, T> waitForCompletion(List<UUID> ids, long timeout, Function<ProcessEntry, T> processor) {
-        Map<String, T> result = new HashMap<>();
-
-        ids.parallelStream().forEach(id -> {
-            log.info("Waiting for {}, URL: {}", id, getProcessUrl(id));
-
-            long t1 = System.currentTimeMillis();
-            while (true) {
-                try {
-                    ProcessEntry e = ClientUtils.withRetry(3, 1000,
-                            () -> withClient(client -> {
-                                ProcessApi api = new ProcessApi(client);
-                                return api.get(id);
-                            }));
-
-                    ProcessEntry.StatusEnum s = e.getStatus();
-
-                    if (isFinalStatus(s)) {
-                        T t = processor.apply(e);
-                        if (t != null) {
-                            result.put(id.toString(), t);
-                        }
-                        break;
-                    } else {
-                        long t2 = System.currentTimeMillis();
-                        if (timeout > 0) {
-                            long dt = t2 - t1;
-                            if (dt >= timeout) {
-                                throw new TimeoutException("Timeout waiting for " + id + ": " + dt);
-                            }
-                        }
-
-                        Thread.sleep(DEFAULT_POLL_DELAY);
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        ids.forEach(id -> log.info("Waiting for {}, URL: {}", id, getProcessUrl(id)));
 
-        return result;
+        try {
+            return ProcessCompletionWaiter.waitForCompletion(() -> withClient(client -> client), ids, timeout, processor);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public void kill(KillParams in) throws Exception {
@@ -174,10 +142,10 @@ public class ConcordTaskCommon {
                 api.kill(id);
                 return null;
             });
+        }
 
-            if (in.sync()) {
-                waitForCompletion(Collections.singletonList(id), DEFAULT_KILL_TIMEOUT, Function.identity());
-            }
+        if (in.sync()) {
+            waitForCompletion(instanceIds, DEFAULT_KILL_TIMEOUT, Function.identity());
         }
     }
 
@@ -439,18 +407,9 @@ public class ConcordTaskCommon {
     }
 
     private TaskResult fork(ForkParams in) throws Exception {
-        List<Future<UUID>> futures = new ArrayList<>();
-        for (ForkStartParams fork : in.forks()) {
-            int n = fork.getInstances();
-            for (int i = 0; i < n; i++) {
-                futures.add(forkOne(fork));
-            }
-        }
-
-        // collect all futures, effectively blocking until all forks are started
         List<UUID> ids = new ArrayList<>();
-        for (Future<UUID> f : futures) {
-            ids.add(f.get());
+        for (ForkStartParams fork : in.forks()) {
+            ids.addAll(forkMany(fork, fork.getInstances()));
         }
 
         boolean sync = in.sync();
@@ -474,7 +433,7 @@ public class ConcordTaskCommon {
                         .collect(Collectors.toList()));
     }
 
-    private Future<UUID> forkOne(ForkStartParams in) {
+    private List<UUID> forkMany(ForkStartParams in, int instances) throws Exception {
         if (in.payload() != null) {
             log.warn("'" + StartParams.PAYLOAD_KEY + "' parameter is not supported for fork action and will be ignored");
         }
@@ -482,15 +441,14 @@ public class ConcordTaskCommon {
         Map<String, Object> req = createRequest(in);
 
         if (in.debug()) {
-            log.info("Forking the current instance (sync={}, req={})...", in.sync(), req);
+            log.info("Forking the current instance (sync={}, instances={}, req={})...", in.sync(), instances, req);
         }
 
-        return executor.submit(() -> withClient(in.apiKey(), client -> {
-            ProcessApi api = new ProcessApi(client);
-            StartProcessResponse resp = api.fork(currentProcessId, req, false, null);
-            log.info("Forked a child process: {} url: {}", resp.getInstanceId(), getProcessUrl(in, resp.getInstanceId()));
-            return resp.getInstanceId();
-        }));
+        List<UUID> ids = ProcessForker.fork(() -> withClient(in.apiKey(), client -> client), executor, currentProcessId, req, instances);
+        for (UUID id : ids) {
+            log.info("Forked a child process: {} url: {}", id, getProcessUrl(in, id));
+        }
+        return ids;
     }
 
     private String getProcessUrl(ConcordTaskParams in, UUID processId) {
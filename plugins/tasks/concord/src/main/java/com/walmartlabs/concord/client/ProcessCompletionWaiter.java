@@ -0,0 +1,145 @@
+package com.walmartlabs.concord.client;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.ApiClient;
+import com.walmartlabs.concord.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Waits for processes to finish using the server-side wait API.
+ * Falls back to polling if the server doesn't support it or
+ * if the server has too many concurrent wait requests.
+ */
+final class ProcessCompletionWaiter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessCompletionWaiter.class);
+
+    /**
+     * Max time to wait in a single request, must be less than the client's read timeout.
+     */
+    private static final long MAX_WAIT_TIME = 30000;
+    private static final int MAX_IDS_PER_REQUEST = 1000;
+    private static final long POLL_DELAY = 5000;
+
+    /**
+     * @param clientFactory creates API clients
+     * @param ids           process IDs to wait for
+     * @param timeout       max wait time (ms), negative values mean "no timeout"
+     * @param processor     applied to each finished process, {@code null} results are ignored
+     */
+    static <T> Map<String, T> waitForCompletion(Callable<ApiClient> clientFactory, List<UUID> ids, long timeout, Function<ProcessEntry, T> processor) throws Exception {
+        Map<String, T> result = new HashMap<>();
+        Set<UUID> pending = new LinkedHashSet<>(ids);
+
+        long t1 = System.currentTimeMillis();
+        while (!pending.isEmpty()) {
+            long waitTime = MAX_WAIT_TIME;
+            if (timeout > 0) {
+                long dt = System.currentTimeMillis() - t1;
+                if (dt >= timeout) {
+                    throw new TimeoutException("Timeout waiting for " + pending + ": " + dt);
+                }
+                waitTime = Math.min(waitTime, timeout - dt);
+            }
+
+            ProcessWaitRequest req = new ProcessWaitRequest()
+                    .setInstanceIds(first(pending, MAX_IDS_PER_REQUEST))
+                    .setMode(ProcessWaitRequest.ModeEnum.ALL)
+                    .setTimeout(waitTime);
+
+            List<ProcessEntry> finished;
+            try {
+                finished = ClientUtils.withRetry(3, 1000, () -> new ProcessV2Api(clientFactory.call()).waitForCompletion(req));
+            } catch (ApiException e) {
+                if (e.getCode() == 405) {
+                    log.warn("waitForCompletion -> the server doesn't support the wait API, polling...");
+                } else if (e.getCode() == 429) {
+                    log.info("waitForCompletion -> too many concurrent wait requests, polling...");
+                } else {
+                    throw e;
+                }
+
+                finished = poll(clientFactory, pending, waitTime);
+            }
+
+            for (ProcessEntry e : finished) {
+                if (!pending.remove(e.getInstanceId())) {
+                    continue;
+                }
+
+                T t = processor.apply(e);
+                if (t != null) {
+                    result.put(e.getInstanceId().toString(), t);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static List<ProcessEntry> poll(Callable<ApiClient> clientFactory, Set<UUID> ids, long waitTime) throws Exception {
+        long t1 = System.currentTimeMillis();
+        while (true) {
+            List<ProcessEntry> result = new ArrayList<>();
+            for (UUID id : ids) {
+                ProcessEntry e = ClientUtils.withRetry(3, 1000, () -> new ProcessApi(clientFactory.call()).get(id));
+                if (isFinalStatus(e.getStatus())) {
+                    result.add(e);
+                }
+            }
+
+            if (!result.isEmpty() || System.currentTimeMillis() - t1 >= waitTime) {
+                return result;
+            }
+
+            Thread.sleep(POLL_DELAY);
+        }
+    }
+
+    private static List<UUID> first(Set<UUID> ids, int n) {
+        List<UUID> result = new ArrayList<>(Math.min(ids.size(), n));
+        for (UUID id : ids) {
+            if (result.size() >= n) {
+                break;
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    static boolean isFinalStatus(ProcessEntry.StatusEnum s) {
+        return s == ProcessEntry.StatusEnum.FAILED
+                || s == ProcessEntry.StatusEnum.FINISHED
+                || s == ProcessEntry.StatusEnum.CANCELLED
+                || s == ProcessEntry.StatusEnum.TIMED_OUT;
+    }
+
+    private ProcessCompletionWaiter() {
+    }
+}
@@ -0,0 +1,124 @@
+package com.walmartlabs.concord.client;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.ApiClient;
+import com.walmartlabs.concord.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Forks the current process using the bulk fork API.
+ * Falls back to individual fork requests if the server doesn't support it,
+ * the requests are sent in parallel using the specified executor.
+ */
+final class ProcessForker {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessForker.class);
+
+    private static final int MAX_INSTANCES_PER_REQUEST = 1000;
+
+    /**
+     * Creates an executor for the individual fork requests. Unlike
+     * a {@link ThreadPoolExecutor} with a single core thread and an unbounded
+     * queue, it actually runs up to {@code maxThreads} requests in parallel.
+     */
+    static ExecutorService newExecutor(int maxThreads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param clientFactory    creates API clients
+     * @param executor         executor for the individual fork requests, must not
+     *                         be the executor of the calling thread
+     * @param parentInstanceId the process to fork
+     * @param req              the fork request
+     * @param instances        number of forks to start
+     * @return IDs of the started processes
+     */
+    static List<UUID> fork(Callable<ApiClient> clientFactory, ExecutorService executor, UUID parentInstanceId, Map<String, Object> req, int instances) throws Exception {
+        List<UUID> result = new ArrayList<>(instances);
+
+        while (result.size() < instances) {
+            int n = Math.min(instances - result.size(), MAX_INSTANCES_PER_REQUEST);
+
+            BulkForkRequest bulkReq = new BulkForkRequest()
+                    .request(req)
+                    .setInstances(n);
+
+            List<StartProcessResponse> resp;
+            try {
+                resp = new ProcessApi(clientFactory.call()).bulkFork(parentInstanceId, bulkReq);
+            } catch (ApiException e) {
+                if (e.getCode() != 404 && e.getCode() != 405) {
+                    throw e;
+                }
+
+                log.debug("fork -> bulk fork is not supported by the server, forking one by one...");
+                forkOneByOne(clientFactory, executor, parentInstanceId, req, instances - result.size(), result);
+                return result;
+            }
+
+            for (StartProcessResponse r : resp) {
+                result.add(r.getInstanceId());
+            }
+        }
+
+        return result;
+    }
+
+    private static void forkOneByOne(Callable<ApiClient> clientFactory, ExecutorService executor, UUID parentInstanceId, Map<String, Object> req, int instances, List<UUID> result) throws Exception {
+        List<Future<UUID>> futures = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            futures.add(executor.submit(() -> {
+                ProcessApi api = new ProcessApi(clientFactory.call());
+                return api.fork(parentInstanceId, req, false, null).getInstanceId();
+            }));
+        }
+
+        try {
+            for (Future<UUID> f : futures) {
+                result.add(f.get());
+            }
+        } catch (ExecutionException e) {
+            // don't start the rest of the forks
+            futures.forEach(f -> f.cancel(false));
+
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private ProcessForker() {
+    }
+}
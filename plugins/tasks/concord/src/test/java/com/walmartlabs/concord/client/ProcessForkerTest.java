@@ -0,0 +1,85 @@
+package com.walmartlabs.concord.client;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessForkerTest {
+
+    @Test(timeout = 30000)
+    public void testParallelFallback() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            // a server without the bulk fork endpoint
+            if (exchange.getRequestURI().getPath().endsWith("/fork/bulk")) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            int n = active.incrementAndGet();
+            maxActive.accumulateAndGet(n, Math::max);
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+
+            byte[] ab = ("{\"instanceId\": \"" + UUID.randomUUID() + "\", \"ok\": true}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, ab.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ab);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        ExecutorService executor = ProcessForker.newExecutor(4);
+        try {
+            List<UUID> ids = ProcessForker.fork(() -> new ConcordApiClient(baseUrl), executor, UUID.randomUUID(), Collections.emptyMap(), 8);
+
+            assertEquals(8, new HashSet<>(ids).size());
+            assertTrue("expected parallel fork requests, max: " + maxActive.get(), maxActive.get() > 1);
+        } finally {
+            executor.shutdownNow();
+            server.stop(0);
+        }
+    }
+}
@@ -57,6 +57,7 @@ public class Configuration {
     private final String proxy;
     private final boolean debug;
     private boolean followRedirects;
+    private final double rateLimit;
 
     private Configuration(RequestMethodType methodType,
                           String url,
@@ -72,7 +73,8 @@ public class Configuration {
                           boolean ignoreErrors,
                           String proxy,
                           boolean debug,
-                          boolean followRedirects) {
+                          boolean followRedirects,
+                          double rateLimit) {
 
         this.methodType = methodType;
         this.url = url;
@@ -89,6 +91,7 @@ public class Configuration {
         this.proxy = proxy;
         this.debug = debug;
         this.followRedirects = followRedirects;
+        this.rateLimit = rateLimit;
     }
 
     /**
@@ -196,6 +199,14 @@ public class Configuration {
         return followRedirects;
     }
 
+    /**
+     * Max number of requests per second to the request's host,
+     * shared by all calls of the task in the process. 0 means no limit.
+     */
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
     public static class Builder {
 
         private String url;
@@ -213,6 +224,7 @@ public class Configuration {
         private String proxy;
         private boolean debug;
         private boolean followRedirects = true;
+        private double rateLimit;
 
         /**
          * Used to specify the url which will later use to create {@link org.apache.http.client.methods.HttpUriRequest}
@@ -362,6 +374,11 @@ public class Configuration {
             return this;
         }
 
+        public Builder withRateLimit(double rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
         /**
          * Invoking this method will result in a new configuration
          *
@@ -379,7 +396,7 @@ public class Configuration {
             }
 
             return new Configuration(methodType, url, encodedAuthToken, requestType, responseType, workDir,
-                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects);
+                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects, rateLimit);
         }
 
         /**
@@ -482,8 +499,10 @@ public class Configuration {
 
             this.followRedirects = MapUtils.getBoolean(input, FOLLOW_REDIRECTS_KEY, true);
 
+            this.rateLimit = MapUtils.getNumber(input, RATE_LIMIT_KEY, 0).doubleValue();
+
             return new Configuration(methodType, url, encodedAuthToken, requestType, responseType, workDir,
-                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects);
+                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects, rateLimit);
         }
 
         private static void validateMandatory(Map<String, Object> m) {
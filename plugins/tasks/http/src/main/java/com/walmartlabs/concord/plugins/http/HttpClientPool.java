@@ -0,0 +1,201 @@
+package com.walmartlabs.concord.plugins.http;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2018 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.ssl.SSLContextBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide HTTP client. Connections are pooled and kept alive between
+ * task calls, e.g. a task called in a loop reuses the same connections.
+ * <p/>
+ * The TLS settings are the same for all requests and the proxy is a part of
+ * the connection's route, so a single pool serves all task configurations.
+ * The pool's per-route limit bounds the number of concurrent requests per host.
+ */
+final class HttpClientPool {
+
+    private static final int MAX_TOTAL = 200;
+    private static final int MAX_PER_ROUTE = 20;
+    private static final long MAX_IDLE_TIME = TimeUnit.SECONDS.toMillis(30);
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+
+    private static final String CONNECTION_REUSED_ATTR = "concord.http.connectionReused";
+
+    private static final CloseableHttpClient client = createClient();
+    private static final ExecutorService executor = createExecutor();
+
+    private static final Map<String, Long> nextSlots = new ConcurrentHashMap<>();
+    private static final Map<String, HostStats> stats = new ConcurrentHashMap<>();
+
+    static CloseableHttpClient client() {
+        return client;
+    }
+
+    /**
+     * Executor for requests with timeouts.
+     */
+    static ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * Waits until the next request to the specified host is allowed.
+     *
+     * @param requestsPerSecond max rate of requests to the host
+     */
+    static void acquire(String host, double requestsPerSecond) throws InterruptedException {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long now = System.nanoTime();
+        long slot = nextSlots.merge(host, now + interval, (prev, v) -> Math.max(prev, now) + interval) - interval;
+
+        long wait = slot - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    static HostStats record(String host, long durationMs, HttpContext context) {
+        HostStats s = stats.computeIfAbsent(host, k -> new HostStats());
+        s.requests.increment();
+        s.totalTime.add(durationMs);
+
+        if (Boolean.TRUE.equals(context.getAttribute(CONNECTION_REUSED_ATTR))) {
+            s.reused.increment();
+        }
+
+        return s;
+    }
+
+    static HostStats stats(String host) {
+        return stats.get(host);
+    }
+
+    private static CloseableHttpClient createClient() {
+        try {
+            SSLContextBuilder builder = new SSLContextBuilder();
+            builder.loadTrustMaterial(new TrustAllStrategy());
+            SSLConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(
+                    builder.build(), NoopHostnameVerifier.INSTANCE);
+
+            Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.INSTANCE)
+                    .register("https", socketFactory)
+                    .build();
+
+            PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager(registry);
+            cm.setMaxTotal(MAX_TOTAL);
+            cm.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+            cm.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+
+            return HttpClientBuilder.create()
+                    .setConnectionManager(cm)
+                    .setRequestExecutor(new ConnectionMetricsExecutor())
+                    .setRedirectStrategy(new LaxRedirectStrategy())
+                    .evictExpiredConnections()
+                    .evictIdleConnections(MAX_IDLE_TIME, TimeUnit.MILLISECONDS)
+                    .build();
+        } catch (Exception e) {
+            throw new RuntimeException("Error while creating the HTTP client: " + e.getMessage(), e);
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "http-task-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Checks if the connection was reused while it's still leased. The client
+     * releases the connection before returning responses without a body
+     * (e.g. 204 or responses to HEAD requests) and the connection's metrics
+     * are not available after that.
+     */
+    private static final class ConnectionMetricsExecutor extends HttpRequestExecutor {
+
+        @Override
+        public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context) throws IOException, HttpException {
+            HttpResponse response = super.execute(request, conn, context);
+
+            // the request count includes the current request
+            context.setAttribute(CONNECTION_REUSED_ATTR, conn.getMetrics().getRequestCount() > 1);
+
+            return response;
+        }
+    }
+
+    static final class HostStats {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder reused = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+
+        long requests() {
+            return requests.sum();
+        }
+
+        long reused() {
+            return reused.sum();
+        }
+
+        long avgTime() {
+            long n = requests.sum();
+            return n > 0 ? totalTime.sum() / n : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requests() + ", reused connections=" + reused() + ", avg time=" + avgTime() + "ms";
+        }
+    }
+
+    private HttpClientPool() {
+    }
+}
@@ -166,6 +166,7 @@ public class HttpTask implements Task {
         static final String PASSWORD_KEY = "password"; // NOSONAR
         static final String PROXY_KEY = "proxy";
         static final String QUERY_KEY = "query";
+        static final String RATE_LIMIT_KEY = "rateLimit";
         static final String REQUEST_KEY = "request";
         static final String REQUEST_TIMEOUT_KEY = "requestTimeout";
         static final String RESPONSE_KEY = "response";
@@ -189,6 +190,7 @@ public class HttpTask implements Task {
                 PASSWORD_KEY,
                 PROXY_KEY,
                 QUERY_KEY,
+                RATE_LIMIT_KEY,
                 REQUEST_KEY,
                 REQUEST_TIMEOUT_KEY,
                 RESPONSE_KEY,
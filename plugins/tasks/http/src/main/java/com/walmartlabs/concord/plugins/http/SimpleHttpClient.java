@@ -28,20 +28,8 @@ import com.walmartlabs.concord.plugins.http.request.HttpTaskRequest;
 import org.apache.http.*;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
-import org.apache.http.conn.socket.PlainConnectionSocketFactory;
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.conn.ssl.TrustAllStrategy;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.LaxRedirectStrategy;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,9 +41,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileAttribute;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,14 +54,13 @@ public class SimpleHttpClient {
     private static final Logger log = LoggerFactory.getLogger(SimpleHttpClient.class);
 
     private final Configuration config;
-    private final CloseableHttpClient client;
+    private final RequestConfig requestConfig;
     private final HttpUriRequest request;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     private SimpleHttpClient(Configuration config) throws Exception {
         this.config = config;
-        this.client = createClient(config);
+        this.requestConfig = createRequestConfig(config);
         this.request = buildHttpUriRequest(config);
     }
 
@@ -104,7 +88,21 @@ public class SimpleHttpClient {
                 logRequest(request);
             }
 
-            httpResponse = callWithTimeout(() -> this.client.execute(request), config.getRequestTimeout());
+            String host = request.getURI().getAuthority();
+            if (config.getRateLimit() > 0) {
+                HttpClientPool.acquire(host, config.getRateLimit());
+            }
+
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig);
+
+            long t1 = System.currentTimeMillis();
+            httpResponse = callWithTimeout(() -> HttpClientPool.client().execute(request, context), config.getRequestTimeout());
+
+            HttpClientPool.HostStats stats = HttpClientPool.record(host, System.currentTimeMillis() - t1, context);
+            if (config.isDebug()) {
+                log.info("{} -> {}", host, stats);
+            }
 
             int code = httpResponse.getStatusLine().getStatusCode();
             if (isUnauthorized(code) && !config.isIgnoreErrors()) {
@@ -154,13 +152,11 @@ public class SimpleHttpClient {
 
                 httpResponse.close();
             }
-
-            this.client.close();
         }
     }
 
     private <T> T callWithTimeout(Callable<T> callable, long timeoutDurationMs) throws Exception {
-        Future<T> future = executorService.submit(callable);
+        Future<T> future = HttpClientPool.executor().submit(callable);
         try {
             if (timeoutDurationMs > 0) {
                 return future.get(timeoutDurationMs, TimeUnit.MILLISECONDS);
@@ -312,13 +308,7 @@ public class SimpleHttpClient {
         return HttpStatus.SC_UNAUTHORIZED == statusCode;
     }
 
-    /**
-     * Method to create {@link CloseableHttpClient client} with custom connection manager
-     *
-     * @return CloseableHttpClient client
-     * @throws Exception exception
-     */
-    private static CloseableHttpClient createClient(Configuration cfg) throws Exception {
+    private static RequestConfig createRequestConfig(Configuration cfg) {
         RequestConfig.Builder c = RequestConfig.custom()
                 .setConnectTimeout(cfg.getConnectTimeout())
                 .setSocketTimeout(cfg.getSocketTimeout())
@@ -330,32 +320,7 @@ public class SimpleHttpClient {
             c.setProxy(HttpHost.create(proxy));
         }
 
-        return HttpClientBuilder.create()
-                .setConnectionManager(buildConnectionManager())
-                .setDefaultRequestConfig(c.build())
-                .setRedirectStrategy(new LaxRedirectStrategy())
-                .build();
-    }
-
-    /**
-     * Method to build the connection manager
-     *
-     * @return HttpClientConnectionManager
-     * @throws KeyManagementException   keyManagementException
-     * @throws NoSuchAlgorithmException noSuchAlgorithmException
-     */
-    private static HttpClientConnectionManager buildConnectionManager() throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
-        SSLContextBuilder builder = new SSLContextBuilder();
-        builder.loadTrustMaterial(new TrustAllStrategy());
-        SSLConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(
-                builder.build(), NoopHostnameVerifier.INSTANCE);
-
-        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
-                .register("http", PlainConnectionSocketFactory.INSTANCE)
-                .register("https", socketFactory)
-                .build();
-
-        return new PoolingHttpClientConnectionManager(registry);
+        return c.build();
     }
 
     private HttpUriRequest buildHttpUriRequest(Configuration cfg) throws Exception {
@@ -70,6 +70,7 @@ public abstract class AbstractHttpTaskTest {
         stubForGetRequestForResponseTypeJSONFile();
         stubForUnsuccessfulResponse();
         stubForDeleteRequest();
+        stubForNoContentResponse();
         stubForPatchRequest();
         stubForFault();
         stubForRequestTimeout();
@@ -261,6 +262,17 @@ public abstract class AbstractHttpTaskTest {
         );
     }
 
+    protected void stubForNoContentResponse() {
+        rule.stubFor(delete(urlEqualTo("/noContent"))
+                .willReturn(aResponse()
+                        .withStatus(204))
+        );
+        rule.stubFor(get(urlEqualTo("/noContent"))
+                .willReturn(aResponse()
+                        .withStatus(204))
+        );
+    }
+
     protected void stubForPatchRequest() {
         rule.stubFor(patch(urlEqualTo("/patch"))
                 .willReturn(aResponse()
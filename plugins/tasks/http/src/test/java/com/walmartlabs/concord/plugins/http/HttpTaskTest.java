@@ -63,6 +63,50 @@ public class HttpTaskTest extends AbstractHttpTaskTest {
         verify(getRequestedFor(urlEqualTo("/string")));
     }
 
+    @Test
+    public void testConnectionReuseAndRateLimit() throws Exception {
+        String host = "localhost:" + rule.port();
+
+        long t1 = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            Configuration cfg = Configuration.custom()
+                    .withUrl("http://" + host + "/string")
+                    .withRateLimit(10)
+                    .build();
+
+            SimpleHttpClient.create(cfg).execute();
+        }
+
+        // 3 requests at 10 req/s
+        assertTrue(System.currentTimeMillis() - t1 >= 190);
+
+        HttpClientPool.HostStats stats = HttpClientPool.stats(host);
+        assertEquals(3, stats.requests());
+        assertEquals(2, stats.reused());
+    }
+
+    @Test
+    public void testNoContentResponse() throws Exception {
+        String host = "localhost:" + rule.port();
+
+        // responses without a body release the connection before the client returns
+        for (String method : new String[]{"DELETE", "GET", "DELETE"}) {
+            initCxtForRequest(mockContext, method, "string", "string",
+                    "http://" + host + "/noContent", false, 0, true);
+            task.execute(mockContext);
+
+            assertEquals(204, response.get("statusCode"));
+            assertTrue((Boolean) response.get("success"));
+        }
+
+        verify(2, deleteRequestedFor(urlEqualTo("/noContent")));
+        verify(1, getRequestedFor(urlEqualTo("/noContent")));
+
+        HttpClientPool.HostStats stats = HttpClientPool.stats(host);
+        assertEquals(3, stats.requests());
+        assertEquals(2, stats.reused());
+    }
+
     @Test
     public void testExecuteGetRequestWithQueryParams() throws Exception {
         Map<String, Object> queryParams = new HashMap<>();
@@ -0,0 +1,114 @@
+package com.walmartlabs.concord.plugins.kv;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of KV values read by the current process.
+ * Values written by the process are updated in the cache, values
+ * written by other processes become visible after the TTL expires.
+ * <p/>
+ * The cache is shared by all processes running in the same JVM, so
+ * it is bounded both in size and in the max age of the entries.
+ */
+final class KvCache {
+
+    static final int MAX_ENTRIES = 10_000;
+    static final long MAX_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Cache<String, Entry> entries = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(MAX_TTL, TimeUnit.MILLISECONDS)
+            .build();
+
+    /**
+     * Returns the cached entry or {@code null} if the value is not cached
+     * or has expired. Missing values are cached as entries with {@code null}
+     * values.
+     */
+    static Entry lookup(UUID txId, String type, String key, long ttl) {
+        if (ttl <= 0) {
+            return null;
+        }
+
+        Entry e = entries.getIfPresent(cacheKey(txId, type, key));
+        if (e == null || e.expiresAt < System.currentTimeMillis()) {
+            return null;
+        }
+
+        return e;
+    }
+
+    static <T> T get(UUID txId, String type, String key, long ttl) {
+        Entry e = lookup(txId, type, key, ttl);
+        return e != null ? e.value() : null;
+    }
+
+    static boolean contains(UUID txId, String type, String key, long ttl) {
+        return lookup(txId, type, key, ttl) != null;
+    }
+
+    static void put(UUID txId, String type, String key, Object value, long ttl) {
+        if (ttl <= 0) {
+            return;
+        }
+
+        entries.put(cacheKey(txId, type, key), new Entry(value, System.currentTimeMillis() + Math.min(ttl, MAX_TTL)));
+    }
+
+    static void invalidate(UUID txId, String key) {
+        entries.invalidate(cacheKey(txId, KvTaskUtils.STRING_TYPE, key));
+        entries.invalidate(cacheKey(txId, KvTaskUtils.LONG_TYPE, key));
+    }
+
+    static long size() {
+        entries.cleanUp();
+        return entries.size();
+    }
+
+    private static String cacheKey(UUID txId, String type, String key) {
+        return txId + "/" + type + "/" + key;
+    }
+
+    static final class Entry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        private Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T value() {
+            return (T) value;
+        }
+    }
+
+    private KvCache() {
+    }
+}
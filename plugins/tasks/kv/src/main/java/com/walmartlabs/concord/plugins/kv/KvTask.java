@@ -28,6 +28,9 @@ import com.walmartlabs.concord.sdk.*;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Named("kv")
@@ -83,7 +86,19 @@ public class KvTask implements Task {
     public String getString(@InjectVariable("context") Context ctx, String key) throws Exception {
         ProcessKvStoreApi api = getApi(ctx);
         UUID txId = ContextUtils.getTxId(ctx);
-        return KvTaskUtils.getString(api, txId, key);
+        return KvTaskUtils.getString(api, txId, key, cacheTtl(ctx));
+    }
+
+    public Map<String, String> getStrings(@InjectVariable("context") Context ctx, List<String> keys) throws Exception {
+        ProcessKvStoreApi api = getApi(ctx);
+        UUID txId = ContextUtils.getTxId(ctx);
+        return KvTaskUtils.getStrings(api, txId, keys, cacheTtl(ctx));
+    }
+
+    public void putStrings(@InjectVariable("context") Context ctx, Map<String, String> values) throws Exception {
+        ProcessKvStoreApi api = getApi(ctx);
+        UUID txId = ContextUtils.getTxId(ctx);
+        KvTaskUtils.putStrings(api, txId, values);
     }
 
     /**
@@ -111,7 +126,19 @@ public class KvTask implements Task {
     public Long getLong(@InjectVariable("context") Context ctx, String key) throws Exception {
         ProcessKvStoreApi api = getApi(ctx);
         UUID txId = ContextUtils.getTxId(ctx);
-        return KvTaskUtils.getLong(api, txId, key);
+        return KvTaskUtils.getLong(api, txId, key, cacheTtl(ctx));
+    }
+
+    public Map<String, Long> getLongs(@InjectVariable("context") Context ctx, List<String> keys) throws Exception {
+        ProcessKvStoreApi api = getApi(ctx);
+        UUID txId = ContextUtils.getTxId(ctx);
+        return KvTaskUtils.getLongs(api, txId, keys, cacheTtl(ctx));
+    }
+
+    public void putLongs(@InjectVariable("context") Context ctx, Map<String, Number> values) throws Exception {
+        ProcessKvStoreApi api = getApi(ctx);
+        UUID txId = ContextUtils.getTxId(ctx);
+        KvTaskUtils.putLongs(api, txId, values);
     }
 
     /**
@@ -140,6 +167,21 @@ public class KvTask implements Task {
         return KvTaskUtils.incLong(api, txId, key);
     }
 
+    public Map<String, Long> incLongs(@InjectVariable("context") Context ctx, List<String> keys) throws Exception {
+        ProcessKvStoreApi api = getApi(ctx);
+        UUID txId = ContextUtils.getTxId(ctx);
+        return KvTaskUtils.incLongs(api, txId, keys);
+    }
+
+    /**
+     * Max age (ms) of cached values, configured via {@code kvCfg.cacheTtl}.
+     * The cache is disabled by default.
+     */
+    private static long cacheTtl(Context ctx) {
+        Map<String, Object> cfg = ContextUtils.getMap(ctx, "kvCfg", Collections.emptyMap());
+        return MapUtils.getNumber(cfg, "cacheTtl", 0).longValue();
+    }
+
     private ProcessKvStoreApi getApi(Context ctx) {
         return new ProcessKvStoreApi(apiClientFactory.create(ApiClientConfiguration.builder()
                 .context(ctx)
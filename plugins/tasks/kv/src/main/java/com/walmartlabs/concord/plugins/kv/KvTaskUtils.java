@@ -23,12 +23,16 @@ package com.walmartlabs.concord.plugins.kv;
 import com.walmartlabs.concord.client.ClientUtils;
 import com.walmartlabs.concord.client.ProcessKvStoreApi;
 
-import java.util.UUID;
+import java.util.*;
 
 public final class KvTaskUtils {
 
+    static final String STRING_TYPE = "string";
+    static final String LONG_TYPE = "long";
+
     public static void remove(ProcessKvStoreApi api, UUID txId, String key) throws Exception {
         assertValidKey(key);
+        KvCache.invalidate(txId, key);
         ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () -> {
             api.removeKey(txId, key);
             return null;
@@ -37,44 +41,147 @@ public final class KvTaskUtils {
 
     public static void putString(ProcessKvStoreApi api, UUID txId, String key, String value) throws Exception {
         assertValidKey(key);
+        KvCache.invalidate(txId, key);
         ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () -> {
             api.putString(txId, key, value);
             return null;
         });
     }
 
+    public static void putStrings(ProcessKvStoreApi api, UUID txId, Map<String, String> values) throws Exception {
+        values.keySet().forEach(KvTaskUtils::assertValidKey);
+        values.keySet().forEach(k -> KvCache.invalidate(txId, k));
+        ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () -> {
+            api.putStrings(txId, values);
+            return null;
+        });
+    }
+
     public static String getString(ProcessKvStoreApi api, UUID txId, String key) throws Exception {
-        assertValidKey(key);
-        return ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () ->
-                api.getString(txId, key));
+        return getString(api, txId, key, 0);
+    }
+
+    /**
+     * @param cacheTtl max age (ms) of the value in the process' cache, 0 to disable the cache
+     */
+    public static String getString(ProcessKvStoreApi api, UUID txId, String key, long cacheTtl) throws Exception {
+        return getStrings(api, txId, Collections.singletonList(key), cacheTtl).get(key);
+    }
+
+    public static Map<String, String> getStrings(ProcessKvStoreApi api, UUID txId, List<String> keys, long cacheTtl) throws Exception {
+        return get(txId, STRING_TYPE, keys, cacheTtl, missing -> {
+            if (missing.size() == 1) {
+                String k = missing.get(0);
+                return Collections.singletonMap(k, api.getString(txId, k));
+            }
+            return api.getStrings(txId, missing);
+        });
     }
 
     public static void putLong(ProcessKvStoreApi api, UUID txId, String key, Long value) throws Exception {
         assertValidKey(key);
+        KvCache.invalidate(txId, key);
         ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () -> {
             api.putLong(txId, key, value);
             return null;
         });
     }
 
+    public static void putLongs(ProcessKvStoreApi api, UUID txId, Map<String, ? extends Number> values) throws Exception {
+        Map<String, Long> m = new HashMap<>();
+        values.forEach((k, v) -> {
+            assertValidKey(k);
+            KvCache.invalidate(txId, k);
+            m.put(k, v != null ? v.longValue() : null);
+        });
+
+        ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () -> {
+            api.putLongs(txId, m);
+            return null;
+        });
+    }
+
     public static Long getLong(ProcessKvStoreApi api, UUID txId, String key) throws Exception {
-        assertValidKey(key);
-        return ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () ->
-                api.getLong(txId, key));
+        return getLong(api, txId, key, 0);
+    }
+
+    /**
+     * @param cacheTtl max age (ms) of the value in the process' cache, 0 to disable the cache
+     */
+    public static Long getLong(ProcessKvStoreApi api, UUID txId, String key, long cacheTtl) throws Exception {
+        return getLongs(api, txId, Collections.singletonList(key), cacheTtl).get(key);
+    }
+
+    public static Map<String, Long> getLongs(ProcessKvStoreApi api, UUID txId, List<String> keys, long cacheTtl) throws Exception {
+        return get(txId, LONG_TYPE, keys, cacheTtl, missing -> {
+            if (missing.size() == 1) {
+                String k = missing.get(0);
+                return Collections.singletonMap(k, api.getLong(txId, k));
+            }
+            return api.getLongs(txId, missing);
+        });
     }
 
     public static long incLong(ProcessKvStoreApi api, UUID txId, String key) throws Exception {
         assertValidKey(key);
+        KvCache.invalidate(txId, key);
         return ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () ->
                 api.incLong(txId, key));
     }
 
+    /**
+     * Increments all keys in a single server request.
+     *
+     * @return the updated values
+     */
+    public static Map<String, Long> incLongs(ProcessKvStoreApi api, UUID txId, List<String> keys) throws Exception {
+        keys.forEach(KvTaskUtils::assertValidKey);
+        keys.forEach(k -> KvCache.invalidate(txId, k));
+        return ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () ->
+                api.incLongs(txId, keys));
+    }
+
+    private static <T> Map<String, T> get(UUID txId, String type, List<String> keys, long cacheTtl, Loader<T> loader) throws Exception {
+        keys.forEach(KvTaskUtils::assertValidKey);
+
+        Map<String, T> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String k : keys) {
+            // a single lookup, the entry can expire between two calls
+            KvCache.Entry cached = KvCache.lookup(txId, type, k, cacheTtl);
+            if (cached != null) {
+                result.put(k, cached.value());
+            } else if (!missing.contains(k)) {
+                missing.add(k);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<String, T> loaded = ClientUtils.withRetry(Constants.RETRY_COUNT, Constants.RETRY_INTERVAL, () -> loader.load(missing));
+        for (String k : missing) {
+            // missing keys are cached too
+            T v = loaded != null ? loaded.get(k) : null;
+            KvCache.put(txId, type, k, v, cacheTtl);
+            result.put(k, v);
+        }
+
+        return result;
+    }
+
     private static void assertValidKey(String s) {
         if (s == null || s.isEmpty()) {
             throw new IllegalArgumentException("Keys cannot be empty or null");
         }
     }
 
+    private interface Loader<T> {
+
+        Map<String, T> load(List<String> keys) throws Exception;
+    }
+
     private KvTaskUtils() {
     }
 }
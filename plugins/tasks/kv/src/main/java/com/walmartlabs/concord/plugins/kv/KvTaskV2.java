@@ -27,18 +27,25 @@ import com.walmartlabs.concord.runtime.v2.sdk.Task;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Named("kv")
 @SuppressWarnings("unused")
 public class KvTaskV2 implements Task {
+
+    private static final String CACHE_TTL_KEY = "cacheTtl";
+
     private final ApiClient apiClient;
     private final UUID processInstanceId;
+    private final long cacheTtl;
 
     @Inject
     public KvTaskV2(ApiClient apiClient, Context context) {
         this.apiClient = apiClient;
         this.processInstanceId = context.processInstanceId();
+        this.cacheTtl = context.defaultVariables().getLong(CACHE_TTL_KEY, 0);
     }
 
     public void remove(String key) throws Exception {
@@ -53,7 +60,17 @@ public class KvTaskV2 implements Task {
 
     public String getString(String key) throws Exception {
         ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
-        return KvTaskUtils.getString(api, processInstanceId, key);
+        return KvTaskUtils.getString(api, processInstanceId, key, cacheTtl);
+    }
+
+    public Map<String, String> getStrings(List<String> keys) throws Exception {
+        ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
+        return KvTaskUtils.getStrings(api, processInstanceId, keys, cacheTtl);
+    }
+
+    public void putStrings(Map<String, String> values) throws Exception {
+        ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
+        KvTaskUtils.putStrings(api, processInstanceId, values);
     }
 
     public void putLong(String key, Long value) throws Exception {
@@ -63,7 +80,17 @@ public class KvTaskV2 implements Task {
 
     public Long getLong(String key) throws Exception {
         ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
-        return KvTaskUtils.getLong(api, processInstanceId, key);
+        return KvTaskUtils.getLong(api, processInstanceId, key, cacheTtl);
+    }
+
+    public Map<String, Long> getLongs(List<String> keys) throws Exception {
+        ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
+        return KvTaskUtils.getLongs(api, processInstanceId, keys, cacheTtl);
+    }
+
+    public void putLongs(Map<String, Number> values) throws Exception {
+        ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
+        KvTaskUtils.putLongs(api, processInstanceId, values);
     }
 
     public long inc(String key) throws Exception {
@@ -74,4 +101,9 @@ public class KvTaskV2 implements Task {
         ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
         return KvTaskUtils.incLong(api, processInstanceId, key);
     }
+
+    public Map<String, Long> incLongs(List<String> keys) throws Exception {
+        ProcessKvStoreApi api = new ProcessKvStoreApi(apiClient);
+        return KvTaskUtils.incLongs(api, processInstanceId, keys);
+    }
 }
@@ -0,0 +1,101 @@
+package com.walmartlabs.concord.plugins.kv;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class KvCacheTest {
+
+    @Test
+    public void testHit() {
+        UUID txId = UUID.randomUUID();
+
+        assertFalse(KvCache.contains(txId, KvTaskUtils.STRING_TYPE, "a", 60_000));
+
+        KvCache.put(txId, KvTaskUtils.STRING_TYPE, "a", "x", 60_000);
+        assertTrue(KvCache.contains(txId, KvTaskUtils.STRING_TYPE, "a", 60_000));
+        assertEquals("x", KvCache.get(txId, KvTaskUtils.STRING_TYPE, "a", 60_000));
+
+        // different type or process
+        assertFalse(KvCache.contains(txId, KvTaskUtils.LONG_TYPE, "a", 60_000));
+        assertFalse(KvCache.contains(UUID.randomUUID(), KvTaskUtils.STRING_TYPE, "a", 60_000));
+
+        // null values are cached too
+        KvCache.put(txId, KvTaskUtils.STRING_TYPE, "b", null, 60_000);
+        assertTrue(KvCache.contains(txId, KvTaskUtils.STRING_TYPE, "b", 60_000));
+        assertNull(KvCache.get(txId, KvTaskUtils.STRING_TYPE, "b", 60_000));
+    }
+
+    @Test
+    public void testDisabled() {
+        UUID txId = UUID.randomUUID();
+
+        KvCache.put(txId, KvTaskUtils.STRING_TYPE, "a", "x", 0);
+        assertFalse(KvCache.contains(txId, KvTaskUtils.STRING_TYPE, "a", 60_000));
+
+        KvCache.put(txId, KvTaskUtils.STRING_TYPE, "a", "x", 60_000);
+        assertFalse(KvCache.contains(txId, KvTaskUtils.STRING_TYPE, "a", 0));
+        assertNull(KvCache.get(txId, KvTaskUtils.STRING_TYPE, "a", 0));
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        UUID txId = UUID.randomUUID();
+
+        KvCache.put(txId, KvTaskUtils.LONG_TYPE, "a", 1L, 50);
+        assertTrue(KvCache.contains(txId, KvTaskUtils.LONG_TYPE, "a", 50));
+
+        Thread.sleep(100);
+
+        assertFalse(KvCache.contains(txId, KvTaskUtils.LONG_TYPE, "a", 50));
+        assertNull(KvCache.get(txId, KvTaskUtils.LONG_TYPE, "a", 50));
+    }
+
+    @Test
+    public void testInvalidate() {
+        UUID txId = UUID.randomUUID();
+
+        KvCache.put(txId, KvTaskUtils.STRING_TYPE, "a", "x", 60_000);
+        KvCache.put(txId, KvTaskUtils.LONG_TYPE, "a", 1L, 60_000);
+        KvCache.put(txId, KvTaskUtils.STRING_TYPE, "b", "y", 60_000);
+
+        KvCache.invalidate(txId, "a");
+
+        assertFalse(KvCache.contains(txId, KvTaskUtils.STRING_TYPE, "a", 60_000));
+        assertFalse(KvCache.contains(txId, KvTaskUtils.LONG_TYPE, "a", 60_000));
+        assertTrue(KvCache.contains(txId, KvTaskUtils.STRING_TYPE, "b", 60_000));
+    }
+
+    @Test
+    public void testBounded() {
+        UUID txId = UUID.randomUUID();
+
+        for (int i = 0; i < KvCache.MAX_ENTRIES * 2; i++) {
+            KvCache.put(txId, KvTaskUtils.STRING_TYPE, "k" + i, "v" + i, 60_000);
+        }
+
+        assertTrue(KvCache.size() <= KvCache.MAX_ENTRIES);
+    }
+}
@@ -0,0 +1,179 @@
+package com.walmartlabs.concord.plugins.kv;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.client.ProcessKvStoreApi;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class KvTaskUtilsTest {
+
+    private static final long TTL = 60_000;
+
+    @Test
+    public void testGetStrings() throws Exception {
+        UUID txId = UUID.randomUUID();
+
+        TestApi api = new TestApi();
+        api.strings.put("a", "x");
+        api.strings.put("b", "y");
+
+        Map<String, String> m = KvTaskUtils.getStrings(api, txId, Arrays.asList("a", "b", "c"), TTL);
+        assertEquals("x", m.get("a"));
+        assertEquals("y", m.get("b"));
+        assertNull(m.get("c"));
+        assertTrue(m.containsKey("c"));
+        assertEquals(Collections.singletonList(Arrays.asList("a", "b", "c")), api.batchRequests);
+
+        // cached, including the missing key
+        api.strings.put("a", "changed");
+        m = KvTaskUtils.getStrings(api, txId, Arrays.asList("a", "b", "c"), TTL);
+        assertEquals("x", m.get("a"));
+        assertNull(m.get("c"));
+        assertEquals(1, api.batchRequests.size());
+        assertEquals(0, api.singleRequests.size());
+
+        // only the keys not in the cache are requested
+        api.strings.put("d", "z");
+        m = KvTaskUtils.getStrings(api, txId, Arrays.asList("a", "d", "e"), TTL);
+        assertEquals("x", m.get("a"));
+        assertEquals("z", m.get("d"));
+        assertEquals(Arrays.asList("d", "e"), api.batchRequests.get(1));
+
+        // a single missing key uses the single-key method
+        assertEquals("changed", KvTaskUtils.getString(api, UUID.randomUUID(), "a", TTL));
+        assertEquals(Collections.singletonList("a"), api.singleRequests);
+    }
+
+    @Test
+    public void testGetWithoutCache() throws Exception {
+        UUID txId = UUID.randomUUID();
+
+        TestApi api = new TestApi();
+        api.longs.put("a", 1L);
+        api.longs.put("b", 2L);
+
+        KvTaskUtils.getLongs(api, txId, Arrays.asList("a", "b"), 0);
+        Map<String, Long> m = KvTaskUtils.getLongs(api, txId, Arrays.asList("a", "b"), 0);
+
+        assertEquals(Long.valueOf(1), m.get("a"));
+        assertEquals(Long.valueOf(2), m.get("b"));
+        assertEquals(2, api.batchRequests.size());
+    }
+
+    @Test
+    public void testWritesInvalidateCache() throws Exception {
+        UUID txId = UUID.randomUUID();
+
+        TestApi api = new TestApi();
+        api.longs.put("a", 1L);
+        api.longs.put("b", 2L);
+        api.strings.put("c", "x");
+
+        assertEquals(2, KvTaskUtils.getLongs(api, txId, Arrays.asList("a", "b"), TTL).size());
+        assertEquals("x", KvTaskUtils.getString(api, txId, "c", TTL));
+
+        Map<String, Long> inc = KvTaskUtils.incLongs(api, txId, Arrays.asList("a", "b"));
+        assertEquals(Long.valueOf(2), inc.get("a"));
+        assertEquals(Long.valueOf(3), inc.get("b"));
+
+        Map<String, Long> m = KvTaskUtils.getLongs(api, txId, Arrays.asList("a", "b"), TTL);
+        assertEquals(Long.valueOf(2), m.get("a"));
+        assertEquals(Long.valueOf(3), m.get("b"));
+
+        KvTaskUtils.putStrings(api, txId, Collections.singletonMap("c", "y"));
+        assertEquals("y", KvTaskUtils.getString(api, txId, "c", TTL));
+
+        KvTaskUtils.putLongs(api, txId, Collections.singletonMap("a", 10));
+        assertEquals(Long.valueOf(10), KvTaskUtils.getLong(api, txId, "a", TTL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidKey() throws Exception {
+        KvTaskUtils.getStrings(new TestApi(), UUID.randomUUID(), Arrays.asList("a", ""), TTL);
+    }
+
+    private static class TestApi extends ProcessKvStoreApi {
+
+        private final Map<String, String> strings = new HashMap<>();
+        private final Map<String, Long> longs = new HashMap<>();
+        private final List<String> singleRequests = new ArrayList<>();
+        private final List<List<String>> batchRequests = new ArrayList<>();
+
+        private TestApi() {
+            super(null);
+        }
+
+        @Override
+        public String getString(UUID id, String key) {
+            singleRequests.add(key);
+            return strings.get(key);
+        }
+
+        @Override
+        public Map<String, String> getStrings(UUID id, List<String> keys) {
+            batchRequests.add(new ArrayList<>(keys));
+            Map<String, String> m = new HashMap<>();
+            keys.stream().filter(strings::containsKey).forEach(k -> m.put(k, strings.get(k)));
+            return m;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void putStrings(UUID id, Object values) {
+            strings.putAll((Map<String, String>) values);
+        }
+
+        @Override
+        public Long getLong(UUID id, String key) {
+            singleRequests.add(key);
+            return longs.get(key);
+        }
+
+        @Override
+        public Map<String, Long> getLongs(UUID id, List<String> keys) {
+            batchRequests.add(new ArrayList<>(keys));
+            Map<String, Long> m = new HashMap<>();
+            keys.stream().filter(longs::containsKey).forEach(k -> m.put(k, longs.get(k)));
+            return m;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void putLongs(UUID id, Object values) {
+            longs.putAll((Map<String, Long>) values);
+        }
+
+        @Override
+        public Map<String, Long> incLongs(UUID id, List<String> keys) {
+            Map<String, Long> m = new HashMap<>();
+            for (String k : keys) {
+                long v = longs.getOrDefault(k, 0L) + 1;
+                longs.put(k, v);
+                m.put(k, v);
+            }
+            return m;
+        }
+    }
+}
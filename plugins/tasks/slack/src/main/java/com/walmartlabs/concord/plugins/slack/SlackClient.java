@@ -72,22 +72,26 @@ public class SlackClient implements AutoCloseable {
     private static final int TOO_MANY_REQUESTS_ERROR = 429;
     private static final int DEFAULT_RETRY_AFTER = 10;
 
+    /**
+     * Shared by all clients in the process, keeps the connections to Slack
+     * alive between task calls.
+     */
+    private static final PoolingHttpClientConnectionManager connManager = createConnManager();
+
     private final int retryCount;
-    private final PoolingHttpClientConnectionManager connManager;
     private final CloseableHttpClient client;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public SlackClient(SlackConfiguration cfg) {
         this.retryCount = cfg.getRetryCount();
-        this.connManager = createConnManager();
         this.client = createClient(cfg, connManager);
     }
 
     @Override
     public void close() throws IOException {
+        // doesn't close the shared connection manager
         client.close();
-        connManager.close();
     }
 
     public Response addReaction(String channelId, String ts, String reaction) throws IOException {
@@ -256,6 +260,7 @@ public class SlackClient implements AutoCloseable {
         return HttpClientBuilder.create()
                 .setDefaultRequestConfig(createConfig(cfg))
                 .setConnectionManager(connManager)
+                .setConnectionManagerShared(true)
                 .setDefaultHeaders(headers)
                 .build();
     }
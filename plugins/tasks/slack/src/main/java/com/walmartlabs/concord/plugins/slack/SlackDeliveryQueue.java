@@ -0,0 +1,280 @@
+package com.walmartlabs.concord.plugins.slack;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-process queue of messages sent asynchronously. Messages are delivered
+ * by a background thread, so the flow doesn't wait for Slack. Messages to the
+ * same channel (and thread) queued within {@link #COALESCE_WINDOW} are sent as
+ * a single message. Pending messages are delivered when the process' JVM stops.
+ * <p/>
+ * Retries and {@code Retry-After} delays of rate-limited requests
+ * are handled by {@link SlackClient}.
+ */
+public class SlackDeliveryQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(SlackDeliveryQueue.class);
+
+    static final long COALESCE_WINDOW = TimeUnit.SECONDS.toMillis(1);
+    private static final long FLUSH_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+    private static final int MAX_TEXT_LENGTH = 4000;
+    private static final int MAX_ATTACHMENTS = 100;
+
+    private static SlackDeliveryQueue instance;
+
+    public static synchronized SlackDeliveryQueue getInstance() {
+        if (instance == null) {
+            instance = new SlackDeliveryQueue(SlackDeliveryQueue::send, COALESCE_WINDOW);
+            instance.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> instance.flush(FLUSH_TIMEOUT), "slack-flush"));
+        }
+        return instance;
+    }
+
+    private final Sender sender;
+    private final long coalesceWindow;
+    private final Deque<Message> queue = new ArrayDeque<>();
+    private int inFlight;
+    private boolean flushing;
+
+    SlackDeliveryQueue(Sender sender, long coalesceWindow) {
+        this.sender = sender;
+        this.coalesceWindow = coalesceWindow;
+    }
+
+    public void enqueue(Message m) {
+        synchronized (queue) {
+            queue.add(m);
+            queue.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until all queued messages are sent or the timeout expires.
+     *
+     * @return {@code true} if all messages were sent
+     */
+    public boolean flush(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (queue) {
+            // send immediately, don't wait for the window to close
+            flushing = true;
+            queue.notifyAll();
+
+            try {
+                while (!queue.isEmpty() || inFlight > 0) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        log.warn("flush -> timeout, {} message(s) not sent", queue.size());
+                        return false;
+                    }
+
+                    queue.wait(wait);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                flushing = false;
+            }
+        }
+        return true;
+    }
+
+    void start() {
+        Thread t = new Thread(this::run, "slack-delivery");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Message> batch;
+            try {
+                batch = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                for (Message m : coalesce(batch)) {
+                    try {
+                        sender.send(m);
+                    } catch (Exception e) {
+                        log.warn("run -> error while sending a message into '{}': {}", m.channelId, e.getMessage());
+                    }
+                }
+            } finally {
+                synchronized (queue) {
+                    inFlight -= batch.size();
+                    queue.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for a message, then for the end of the coalescing window
+     * (or a flush) and takes all queued messages.
+     */
+    private List<Message> take() throws InterruptedException {
+        synchronized (queue) {
+            while (queue.isEmpty()) {
+                queue.wait();
+            }
+
+            long deadline = queue.peek().createdAt + coalesceWindow;
+            long wait;
+            while (!flushing && (wait = deadline - System.currentTimeMillis()) > 0) {
+                // woken up by a new message or by flush()
+                queue.wait(wait);
+            }
+
+            List<Message> result = new ArrayList<>(queue);
+            queue.clear();
+            inFlight += result.size();
+            return result;
+        }
+    }
+
+    /**
+     * Merges consecutive messages with the same recipient and appearance,
+     * keeping the order of the messages in each channel.
+     */
+    static List<Message> coalesce(List<Message> messages) {
+        Map<Object, Message> last = new HashMap<>();
+        List<Message> result = new ArrayList<>();
+
+        for (Message m : messages) {
+            Object key = m.groupKey();
+            Message prev = last.get(key);
+            if (prev != null && prev.canMerge(m)) {
+                Message merged = prev.merge(m);
+                result.set(result.indexOf(prev), merged);
+                last.put(key, merged);
+            } else {
+                result.add(m);
+                last.put(key, m);
+            }
+        }
+
+        return result;
+    }
+
+    private static void send(Message m) throws Exception {
+        SlackClient.Response r = Slack.sendMessage(m.cfg, m.channelId, m.ts, m.replyBroadcast, m.text, m.iconEmoji, m.username, m.attachments);
+        if (!r.isOk()) {
+            log.warn("send ['{}'] -> error: {}", m.channelId, r.getError());
+        }
+    }
+
+    interface Sender {
+
+        void send(Message m) throws Exception;
+    }
+
+    public static class Message {
+
+        private final SlackConfiguration cfg;
+        private final String channelId;
+        private final String ts;
+        private final boolean replyBroadcast;
+        private final String text;
+        private final String iconEmoji;
+        private final String username;
+        private final List<Object> attachments;
+        private final long createdAt;
+
+        public Message(SlackConfiguration cfg, String channelId, String ts, boolean replyBroadcast,
+                       String text, String iconEmoji, String username, Collection<Object> attachments) {
+
+            this(cfg, channelId, ts, replyBroadcast, text, iconEmoji, username,
+                    attachments != null ? new ArrayList<>(attachments) : null, System.currentTimeMillis());
+        }
+
+        private Message(SlackConfiguration cfg, String channelId, String ts, boolean replyBroadcast,
+                        String text, String iconEmoji, String username, List<Object> attachments, long createdAt) {
+
+            this.cfg = cfg;
+            this.channelId = channelId;
+            this.ts = ts;
+            this.replyBroadcast = replyBroadcast;
+            this.text = text;
+            this.iconEmoji = iconEmoji;
+            this.username = username;
+            this.attachments = attachments;
+            this.createdAt = createdAt;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public List<Object> getAttachments() {
+            return attachments;
+        }
+
+        private Object groupKey() {
+            return Arrays.asList(cfg.getAuthToken(), channelId, ts, replyBroadcast, iconEmoji, username);
+        }
+
+        private boolean canMerge(Message other) {
+            return length(text) + length(other.text) + 1 <= MAX_TEXT_LENGTH
+                    && size(attachments) + size(other.attachments) <= MAX_ATTACHMENTS;
+        }
+
+        private Message merge(Message other) {
+            String t = text == null ? other.text : (other.text == null ? text : text + "\n" + other.text);
+
+            List<Object> a = null;
+            if (attachments != null || other.attachments != null) {
+                a = new ArrayList<>();
+                if (attachments != null) {
+                    a.addAll(attachments);
+                }
+                if (other.attachments != null) {
+                    a.addAll(other.attachments);
+                }
+            }
+
+            return new Message(cfg, channelId, ts, replyBroadcast, t, iconEmoji, username, a, createdAt);
+        }
+
+        private static int length(String s) {
+            return s != null ? s.length() : 0;
+        }
+
+        private static int size(List<Object> l) {
+            return l != null ? l.size() : 0;
+        }
+    }
+}
@@ -62,6 +62,9 @@ public class SlackTaskCommon {
         String json = in.json();
         if (json != null) {
             return sendJsonMessage(slackCfg, json, in.ignoreErrors(), update);
+        } else if (!update && in.async()) {
+            SlackDeliveryQueue.getInstance().enqueue(new SlackDeliveryQueue.Message(slackCfg, in.channelId(), in.ts(), in.replyBroadcast(), in.text(), in.iconEmoji(), in.username(), in.attachments()));
+            return queuedResult();
         } else {
             return sendMessage(slackCfg, in.channelId(), in.ts(), in.replyBroadcast(), in.text(), in.iconEmoji(), in.username(), in.attachments(), in.ignoreErrors());
         }
@@ -150,6 +153,13 @@ public class SlackTaskCommon {
         return m;
     }
 
+    private static Map<String, Object> queuedResult() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("ok", true);
+        m.put("queued", true);
+        return m;
+    }
+
     private static Map<String, Object> errorResult(Throwable t) {
         Map<String, Object> m = new HashMap<>();
         m.put("ok", false);
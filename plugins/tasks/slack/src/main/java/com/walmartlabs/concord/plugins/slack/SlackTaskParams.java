@@ -96,6 +96,7 @@ public class SlackTaskParams {
 
     public static class SendMessageParams extends SlackTaskParams {
 
+        private static final String ASYNC = "async";
         private static final String ATTACHMENTS = "attachments";
         private static final String JSON = "json";
         private static final String ICON_EMOJI = "iconEmoji";
@@ -113,6 +114,14 @@ public class SlackTaskParams {
             return variables.getString(JSON);
         }
 
+        /**
+         * If {@code true} the message is queued and sent in the background,
+         * see {@link SlackDeliveryQueue}.
+         */
+        public boolean async() {
+            return variables.getBoolean(ASYNC, false);
+        }
+
         public boolean replyBroadcast() {
             return variables.getBoolean(REPLY_BROADCAST, false);
         }
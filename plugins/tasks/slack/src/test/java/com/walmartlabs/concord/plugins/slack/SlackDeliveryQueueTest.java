@@ -0,0 +1,73 @@
+package com.walmartlabs.concord.plugins.slack;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2018 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.plugins.slack.SlackDeliveryQueue.Message;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SlackDeliveryQueueTest {
+
+    private static final SlackConfiguration cfg = new SlackConfiguration("token");
+
+    @Test
+    public void testCoalesce() {
+        List<Message> result = SlackDeliveryQueue.coalesce(Arrays.asList(
+                message("a", null, "1"),
+                message("b", null, "2"),
+                message("a", null, "3"),
+                message("a", "123.456", "4"),
+                new Message(cfg, "a", null, false, "5", null, null, Collections.singletonList("x"))));
+
+        assertEquals(3, result.size());
+        assertEquals("1\n3\n5", result.get(0).getText());
+        assertEquals(Collections.singletonList("x"), result.get(0).getAttachments());
+        assertEquals("2", result.get(1).getText());
+        assertEquals("4", result.get(2).getText());
+    }
+
+    @Test
+    public void testFlush() {
+        List<Message> sent = Collections.synchronizedList(new ArrayList<>());
+
+        // the window is never closed, the messages are sent by flush()
+        SlackDeliveryQueue q = new SlackDeliveryQueue(sent::add, Long.MAX_VALUE / 2);
+        q.start();
+
+        q.enqueue(message("a", null, "1"));
+        q.enqueue(message("a", null, "2"));
+
+        assertTrue(q.flush(10_000));
+        assertEquals(1, sent.size());
+        assertEquals("1\n2", sent.get(0).getText());
+    }
+
+    private static Message message(String channelId, String ts, String text) {
+        return new Message(cfg, channelId, ts, false, text, null, null, null);
+    }
+}
@@ -113,6 +113,94 @@ public class GitClient {
         }
     }
 
+    /**
+     * Fetches the requested version into a bare repository ({@link FetchRequest#destination()}).
+     * The repository is never shallow and accumulates all fetched versions, so subsequent
+     * fetches are incremental. Use {@link #addWorktree(Path, String, Path, Secret, boolean)}
+     * to check out the fetched commit.
+     *
+     * @return the fetch result, {@link FetchResult#head()} is the resolved commit ID
+     */
+    public FetchResult fetchMirror(FetchRequest req) {
+        assertSecret(req.url(), req.secret());
+
+        Path mirrorDir = req.destination();
+        try {
+            if (!Files.exists(mirrorDir.resolve("HEAD"))) {
+                Files.createDirectories(mirrorDir);
+
+                exec(Command.builder()
+                        .workDir(mirrorDir)
+                        .timeout(cfg.defaultOperationTimeout())
+                        .addArgs("init", "--bare")
+                        .build());
+            }
+
+            configureRemote(mirrorDir, updateUrl(req.url(), req.secret()));
+
+            String rev = req.version().value();
+            Ref ref = getHeadRef(mirrorDir, req.version().ref(), req.secret());
+            if (ref != null) {
+                String localRef = ref.tag() ? "refs/remotes/origin/tags/" + ref.name() : "refs/remotes/origin/" + ref.name();
+                fetchRefSpec(mirrorDir, "+" + ref.ref() + ":" + localRef, req.secret());
+
+                if (rev == null || rev.equals(req.version().ref())) {
+                    rev = localRef;
+                }
+            } else if (rev == null) {
+                fetchRefSpec(mirrorDir, "+HEAD:refs/remotes/origin/HEAD", req.secret());
+                rev = "refs/remotes/origin/HEAD";
+            }
+
+            if (!hasCommit(mirrorDir, rev)) {
+                fetchRefSpec(mirrorDir, "+refs/heads/*:refs/remotes/origin/*", req.secret());
+            }
+
+            String commitId = revParse(mirrorDir, rev + "^{commit}");
+
+            // remove the metadata of deleted worktrees
+            exec(Command.builder()
+                    .workDir(mirrorDir)
+                    .timeout(cfg.defaultOperationTimeout())
+                    .addArgs("worktree", "prune")
+                    .build());
+
+            ImmutableFetchResult.Builder result = FetchResult.builder()
+                    .head(commitId)
+                    .branchOrTag(ref != null ? ref.name() : null);
+
+            if (req.withCommitInfo()) {
+                CommitInfo ci = getCommitInfo(mirrorDir, commitId);
+                result.message(ci.message())
+                        .author(ci.author());
+            }
+
+            return result.build();
+        } catch (RepositoryException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("fetchMirror ['{}'] -> error", req, e);
+            throw new RepositoryException("Error while fetching a repository: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks out the specified commit of a bare repository created by
+     * {@link #fetchMirror(FetchRequest)} into a new worktree.
+     */
+    public void addWorktree(Path mirrorDir, String commitId, Path dest, Secret secret, boolean includeSubmodules) {
+        exec(Command.builder()
+                .workDir(mirrorDir)
+                .timeout(cfg.defaultOperationTimeout())
+                .addArgs("worktree", "add", "--detach", "--force", dest.toAbsolutePath().toString(), commitId)
+                .build());
+
+        if (includeSubmodules && hasSubmodules(dest)) {
+            updateSubmodules(dest, secret);
+            resetSubmodules(dest);
+        }
+    }
+
     private void init(Path workDir) {
         exec(Command.builder()
                 .workDir(workDir)
@@ -162,6 +250,27 @@ public class GitClient {
                 .build(), secret);
     }
 
+    private void fetchRefSpec(Path workDir, String refSpec, Secret secret) {
+        execWithCredentials(Command.builder()
+                .workDir(workDir)
+                .timeout(cfg.fetchTimeout())
+                .addArgs("fetch", "origin", refSpec)
+                .build(), secret);
+    }
+
+    private boolean hasCommit(Path workDir, String rev) {
+        try {
+            exec(Command.builder()
+                    .workDir(workDir)
+                    .timeout(cfg.defaultOperationTimeout())
+                    .addArgs("cat-file", "-e", rev + "^{commit}")
+                    .build());
+            return true;
+        } catch (RepositoryException e) {
+            return false;
+        }
+    }
+
     private boolean isShallowRepo(Path workDir) {
         String result = exec(Command.builder()
                 .workDir(workDir)
@@ -593,10 +702,14 @@ public class GitClient {
     }
 
     private CommitInfo getCommitInfo(Path path) {
+        return getCommitInfo(path, "HEAD");
+    }
+
+    private CommitInfo getCommitInfo(Path path, String rev) {
         String result = exec(Command.builder()
                 .workDir(path)
                 .timeout(cfg.defaultOperationTimeout())
-                .addArgs("log", "-1", "--format=%n%an (%ae)%n%s%n%b")
+                .addArgs("log", "-1", "--format=%n%an (%ae)%n%s%n%b", rev)
                 .build());
         String[] info = result.split("\n");
         if (info.length < 1) {
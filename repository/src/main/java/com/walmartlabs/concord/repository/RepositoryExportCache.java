@@ -0,0 +1,378 @@
+package com.walmartlabs.concord.repository;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import com.google.common.util.concurrent.Striped;
+import com.walmartlabs.concord.common.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+
+/**
+ * Stores exported repository trees of immutable commits, keyed by
+ * (repository URL, commit ID, path, ignore patterns).
+ * <p/>
+ * Each entry has a manifest with the size, the modification time and the SHA-256
+ * checksum of every file. The size and the modification time are checked each time
+ * the entry is reused, the checksums are verified only if {@code verifyChecksums}
+ * is enabled. Invalid entries are removed and exported again.
+ * <p/>
+ * Entries are materialized using hardlinks (if enabled and supported by the file
+ * system) or regular copies. Hardlinked files are shared with the cache entry: any
+ * in-place modification of a materialized file (as opposed to replacing it) corrupts
+ * the entry for all other users, so hardlinks must be enabled only if the materialized
+ * files are never modified in place.
+ * <p/>
+ * The total size of the entries is limited by {@code maxSize}, the least recently
+ * used entries are removed first. Entries unused for longer than {@code maxAge}
+ * are removed as well.
+ */
+public class RepositoryExportCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositoryExportCache.class);
+
+    private static final Pattern COMMIT_ID_PATTERN = Pattern.compile("[0-9a-f]{40}");
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String TMP_PREFIX = ".tmp-";
+    private static final long MAX_AGE_CHECK_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final Path cacheDir;
+    private final long maxSize;
+    private final long maxAge;
+    private final boolean hardlinks;
+    private final boolean verifyChecksums;
+
+    private final Striped<Lock> locks = Striped.lock(64);
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+    private final AtomicLong totalSize = new AtomicLong();
+    private final AtomicLong lastMaxAgeCheck = new AtomicLong();
+
+    /**
+     * @param maxAge max age of unused entries, {@code null} for no limit
+     */
+    public RepositoryExportCache(Path cacheDir, long maxSize, Duration maxAge, boolean hardlinks, boolean verifyChecksums) throws IOException {
+        this.cacheDir = cacheDir;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge != null ? maxAge.toMillis() : 0;
+        this.hardlinks = hardlinks;
+        this.verifyChecksums = verifyChecksums;
+
+        init();
+    }
+
+    public boolean isHardlinks() {
+        return hardlinks;
+    }
+
+    public static boolean isCommitId(String s) {
+        return s != null && COMMIT_ID_PATTERN.matcher(s).matches();
+    }
+
+    /**
+     * Exports the specified commit into {@code dst}.
+     *
+     * @param exporter used to export the commit's files into the cache if there is
+     *                 no valid entry for the commit
+     * @return snapshot of the files created in {@code dst}
+     */
+    public Snapshot export(String url, String commitId, String path, List<String> ignorePatterns, Path dst, Exporter exporter) throws Exception {
+        if (!isCommitId(commitId)) {
+            throw new IllegalArgumentException("Expected a commit ID, got: " + commitId);
+        }
+
+        String key = key(url, commitId, path, ignorePatterns);
+
+        Snapshot result;
+
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            Path entryDir = cacheDir.resolve(key);
+            Path manifest = cacheDir.resolve(key + MANIFEST_SUFFIX);
+
+            if (Files.exists(manifest) && !isValid(entryDir, manifest)) {
+                log.warn("export ['{}', '{}'] -> invalid cache entry {}, exporting again...", url, commitId, key);
+                remove(key);
+            }
+
+            if (Files.notExists(manifest)) {
+                store(key, exporter);
+            } else {
+                Files.setLastModifiedTime(manifest, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+
+            result = materialize(entryDir, dst);
+        } finally {
+            lock.unlock();
+        }
+
+        evict();
+
+        return result;
+    }
+
+    private void store(String key, Exporter exporter) throws Exception {
+        Path tmp = IOUtils.createTempDir(cacheDir, TMP_PREFIX);
+        try {
+            exporter.export(tmp);
+
+            long size = writeManifest(tmp, cacheDir.resolve(TMP_PREFIX + key + MANIFEST_SUFFIX));
+            Files.move(tmp, cacheDir.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+            Files.move(cacheDir.resolve(TMP_PREFIX + key + MANIFEST_SUFFIX), cacheDir.resolve(key + MANIFEST_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+
+            sizes.put(key, size);
+            totalSize.addAndGet(size);
+        } finally {
+            IOUtils.deleteRecursively(tmp);
+            Files.deleteIfExists(cacheDir.resolve(TMP_PREFIX + key + MANIFEST_SUFFIX));
+        }
+    }
+
+    private Snapshot materialize(Path src, Path dst) throws IOException {
+        LastModifiedSnapshot snapshot = new LastModifiedSnapshot();
+        Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(dst.resolve(src.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path target = dst.resolve(src.relativize(file).toString());
+                Files.deleteIfExists(target);
+
+                if (attrs.isSymbolicLink()) {
+                    Files.createSymbolicLink(target, Files.readSymbolicLink(file));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                if (!hardlinks || !link(file, target)) {
+                    Files.copy(file, target);
+                }
+
+                snapshot.visit(file, target);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return snapshot;
+    }
+
+    private static boolean link(Path src, Path dst) {
+        try {
+            Files.createLink(dst, src);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // e.g. different file systems
+            log.debug("link ['{}', '{}'] -> not supported: {}", src, dst, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the manifest of the specified directory.
+     *
+     * @return the total size of the files
+     */
+    private static long writeManifest(Path dir, Path manifest) throws IOException {
+        long[] size = {0};
+        try (BufferedWriter w = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (!attrs.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    w.write(attrs.size() + "\t" + attrs.lastModifiedTime().toMillis() + "\t" + checksum(file) + "\t" + dir.relativize(file));
+                    w.newLine();
+
+                    size[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return size[0];
+    }
+
+    private boolean isValid(Path dir, Path manifest) {
+        try {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                String[] item = line.split("\t", 4);
+                if (item.length != 4) {
+                    return false;
+                }
+
+                Path file = dir.resolve(item[3]);
+                if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                    return false;
+                }
+
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attrs.size() != Long.parseLong(item[0]) || attrs.lastModifiedTime().toMillis() != Long.parseLong(item[1])) {
+                    return false;
+                }
+
+                if (verifyChecksums && !checksum(file).equals(item[2])) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("isValid ['{}'] -> error: {}", dir, e.getMessage());
+            return false;
+        }
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+
+        long lastCheck = lastMaxAgeCheck.get();
+        boolean checkAge = maxAge > 0 && now - lastCheck >= MAX_AGE_CHECK_INTERVAL && lastMaxAgeCheck.compareAndSet(lastCheck, now);
+
+        if (totalSize.get() <= maxSize && !checkAge) {
+            return;
+        }
+
+        List<Path> manifests = new ArrayList<>();
+        try (DirectoryStream<Path> items = Files.newDirectoryStream(cacheDir, "*" + MANIFEST_SUFFIX)) {
+            items.forEach(manifests::add);
+        } catch (IOException e) {
+            log.warn("evict -> error while listing entries: {}", e.getMessage());
+            return;
+        }
+
+        manifests.sort(Comparator.comparingLong(RepositoryExportCache::lastModified));
+
+        for (Path m : manifests) {
+            boolean expired = checkAge && now - lastModified(m) > maxAge;
+            if (!expired && totalSize.get() <= maxSize) {
+                break;
+            }
+
+            String n = m.getFileName().toString();
+            String key = n.substring(0, n.length() - MANIFEST_SUFFIX.length());
+            if (key.startsWith(TMP_PREFIX)) {
+                continue;
+            }
+
+            Lock lock = locks.get(key);
+            if (!lock.tryLock()) {
+                // in use
+                continue;
+            }
+
+            try {
+                remove(key);
+            } catch (IOException e) {
+                log.warn("evict ['{}'] -> error: {}", key, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void remove(String key) throws IOException {
+        Files.deleteIfExists(cacheDir.resolve(key + MANIFEST_SUFFIX));
+        IOUtils.deleteRecursively(cacheDir.resolve(key));
+
+        Long size = sizes.remove(key);
+        if (size != null) {
+            totalSize.addAndGet(-size);
+        }
+    }
+
+    private void init() throws IOException {
+        Files.createDirectories(cacheDir);
+
+        try (DirectoryStream<Path> items = Files.newDirectoryStream(cacheDir)) {
+            for (Path p : items) {
+                String n = p.getFileName().toString();
+                if (n.startsWith(TMP_PREFIX)) {
+                    // leftovers
+                    IOUtils.deleteRecursively(p);
+                } else if (n.endsWith(MANIFEST_SUFFIX)) {
+                    long size = 0;
+                    for (String line : Files.readAllLines(p, StandardCharsets.UTF_8)) {
+                        size += Long.parseLong(line.split("\t", 2)[0]);
+                    }
+                    sizes.put(n.substring(0, n.length() - MANIFEST_SUFFIX.length()), size);
+                    totalSize.addAndGet(size);
+                } else if (Files.notExists(cacheDir.resolve(n + MANIFEST_SUFFIX))) {
+                    // incomplete entry
+                    IOUtils.deleteRecursively(p);
+                }
+            }
+        }
+    }
+
+    private static String key(String url, String commitId, String path, List<String> ignorePatterns) {
+        Hasher h = Hashing.sha256().newHasher()
+                .putString(url, StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(commitId, StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(path), StandardCharsets.UTF_8);
+
+        if (ignorePatterns != null) {
+            for (String p : ignorePatterns) {
+                h.putByte((byte) 0).putString(p, StandardCharsets.UTF_8);
+            }
+        }
+
+        return h.hash().toString();
+    }
+
+    @SuppressWarnings("UnstableApiUsage")
+    private static String checksum(Path file) throws IOException {
+        return MoreFiles.asByteSource(file).hash(Hashing.sha256()).toString();
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public interface Exporter {
+
+        void export(Path dst) throws Exception;
+    }
+}
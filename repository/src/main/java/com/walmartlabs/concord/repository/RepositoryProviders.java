@@ -68,7 +68,7 @@ public class RepositoryProviders {
         return s;
     }
 
-    private static Path repoPath(Path baseDir, String p) {
+    static Path repoPath(Path baseDir, String p) {
         String normalized = normalizePath(p);
         if (normalized == null) {
             return baseDir;
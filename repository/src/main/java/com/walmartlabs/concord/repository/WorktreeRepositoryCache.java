@@ -0,0 +1,238 @@
+package com.walmartlabs.concord.repository;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.util.concurrent.Striped;
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.sdk.Secret;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Alternative to {@link RepositoryCache}: keeps a bare mirror per repository URL
+ * and a separate worktree per fetched commit.
+ * <p/>
+ * The mirror's lock is held only while fetching and creating worktrees, so
+ * readers of different commits of the same repository don't block each other.
+ * Fetches are incremental and shared by all versions of the repository.
+ * The number of worktrees is limited, the least recently used are removed first.
+ * <p/>
+ * Worktrees are shared between callers and must not be modified.
+ */
+public class WorktreeRepositoryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(WorktreeRepositoryCache.class);
+
+    private static final String MIRRORS_DIR_NAME = ".mirrors";
+    private static final String WORKTREES_DIR_NAME = ".worktrees";
+    private static final String READY_MARKER_SUFFIX = ".ready";
+
+    private final Path mirrorsDir;
+    private final Path worktreesDir;
+    private final long lockTimeout;
+    private final int maxWorktrees;
+
+    private final GitClient client;
+    private final RepositoryProvider provider;
+
+    private final Striped<Lock> mirrorLocks;
+    private final Striped<ReadWriteLock> worktreeLocks;
+
+    public WorktreeRepositoryCache(Path cacheDir,
+                                   GitClientConfiguration cfg,
+                                   Duration lockTimeout,
+                                   int lockCount,
+                                   int maxWorktrees) {
+
+        this.mirrorsDir = cacheDir.resolve(MIRRORS_DIR_NAME);
+        this.worktreesDir = cacheDir.resolve(WORKTREES_DIR_NAME);
+        this.lockTimeout = lockTimeout.toMillis();
+        this.maxWorktrees = maxWorktrees;
+        this.client = new GitClient(cfg);
+        this.provider = new GitCliRepositoryProvider(cfg);
+        this.mirrorLocks = Striped.lock(lockCount);
+        this.worktreeLocks = Striped.readWriteLock(lockCount * 4);
+    }
+
+    /**
+     * Fetches the requested version and calls {@code f} with the checked out commit.
+     * The checkout remains available until {@code f} returns.
+     *
+     * @param path path inside the repository (optional)
+     */
+    public <T> T withRepository(String url, FetchRequest.Version version, Secret secret, String path, RepositoryCallback<T> f) throws Exception {
+        String encodedUrl = encodeUrl(url);
+        Path mirrorDir = mirrorsDir.resolve(encodedUrl);
+
+        Lock mirrorLock = mirrorLocks.get(url);
+        if (!mirrorLock.tryLock(lockTimeout, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Timeout waiting for the repository lock. Repository url: " + url);
+        }
+
+        boolean created = false;
+
+        FetchResult fetchResult;
+        Path worktreeDir;
+        Lock readLock;
+        try {
+            fetchResult = client.fetchMirror(FetchRequest.builder()
+                    .url(url)
+                    .version(version)
+                    .secret(secret)
+                    .destination(mirrorDir)
+                    .shallow(false)
+                    .build());
+
+            worktreeDir = worktreesDir.resolve(encodedUrl).resolve(fetchResult.head());
+
+            // acquire the read lock before releasing the mirror's lock
+            // to prevent the removal of the worktree
+            readLock = worktreeLocks.get(worktreeDir.toString()).readLock();
+            readLock.lock();
+
+            try {
+                Path marker = readyMarker(worktreeDir);
+                if (Files.notExists(marker)) {
+                    if (Files.exists(worktreeDir)) {
+                        // leftovers of an interrupted checkout
+                        IOUtils.deleteRecursively(worktreeDir);
+                    }
+
+                    Files.createDirectories(worktreeDir.getParent());
+                    client.addWorktree(mirrorDir, fetchResult.head(), worktreeDir, secret, true);
+                    Files.createFile(marker);
+                    created = true;
+                } else {
+                    Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+                }
+            } catch (Exception e) {
+                readLock.unlock();
+                throw e;
+            }
+        } finally {
+            mirrorLock.unlock();
+        }
+
+        try {
+            Path repoPath = RepositoryProviders.repoPath(worktreeDir, path);
+            return f.apply(new Repository(repoPath, fetchResult, provider));
+        } finally {
+            readLock.unlock();
+
+            if (created) {
+                cleanup();
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used worktrees if there are more than {@code maxWorktrees}.
+     * The metadata of removed worktrees is pruned on the next fetch of the mirror.
+     */
+    private void cleanup() {
+        List<Path> markers = new ArrayList<>();
+        try (DirectoryStream<Path> repos = Files.newDirectoryStream(worktreesDir)) {
+            for (Path repo : repos) {
+                try (DirectoryStream<Path> items = Files.newDirectoryStream(repo, "*" + READY_MARKER_SUFFIX)) {
+                    items.forEach(markers::add);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("cleanup -> error while listing worktrees: {}", e.getMessage());
+            return;
+        }
+
+        int excess = markers.size() - maxWorktrees;
+        if (excess <= 0) {
+            return;
+        }
+
+        markers.sort(Comparator.comparingLong(WorktreeRepositoryCache::lastModified));
+
+        int removed = 0;
+        for (Path marker : markers) {
+            if (removed >= excess) {
+                break;
+            }
+
+            String s = marker.getFileName().toString();
+            Path worktreeDir = marker.resolveSibling(s.substring(0, s.length() - READY_MARKER_SUFFIX.length()));
+
+            Lock writeLock = worktreeLocks.get(worktreeDir.toString()).writeLock();
+            if (!writeLock.tryLock()) {
+                // in use
+                continue;
+            }
+
+            try {
+                Files.deleteIfExists(marker);
+                IOUtils.deleteRecursively(worktreeDir);
+                removed++;
+            } catch (IOException e) {
+                log.warn("cleanup ['{}'] -> delete error: {}", worktreeDir, e.getMessage());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        log.info("cleanup -> {} worktree(s) removed", removed);
+    }
+
+    private static Path readyMarker(Path worktreeDir) {
+        return worktreeDir.resolveSibling(worktreeDir.getFileName() + READY_MARKER_SUFFIX);
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String encodeUrl(String url) {
+        try {
+            return URLEncoder.encode(url, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RepositoryException("Url encoding error", e);
+        }
+    }
+
+    public interface RepositoryCallback<T> {
+
+        T apply(Repository repository) throws Exception;
+    }
+}
@@ -0,0 +1,160 @@
+package com.walmartlabs.concord.repository;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RepositoryExportCacheTest {
+
+    private static final String COMMIT_A = "0123456789abcdef0123456789abcdef01234567";
+    private static final String COMMIT_B = "89abcdef0123456789abcdef0123456789abcdef";
+
+    private Path cacheDir;
+    private AtomicInteger exports;
+
+    @Before
+    public void init() throws Exception {
+        cacheDir = IOUtils.createTempDir("export-cache-test");
+        exports = new AtomicInteger();
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        RepositoryExportCache cache = new RepositoryExportCache(cacheDir, Long.MAX_VALUE, null, true, true);
+
+        Path a = export(cache, COMMIT_A);
+        Path b = export(cache, COMMIT_A);
+
+        assertEquals(1, exports.get());
+        assertEquals("hello", read(b.resolve("dir/file.txt")));
+        assertTrue(Files.isSymbolicLink(b.resolve("link.txt")));
+        assertTrue(Files.isSameFile(a.resolve("dir/file.txt"), b.resolve("dir/file.txt")));
+
+        // a different set of ignore patterns is a different entry
+        cache.export("url", COMMIT_A, null, Collections.singletonList(".*\\.md"), IOUtils.createTempDir("dst"), this::write);
+        assertEquals(2, exports.get());
+    }
+
+    @Test
+    public void testModifiedEntry() throws Exception {
+        RepositoryExportCache cache = new RepositoryExportCache(cacheDir, Long.MAX_VALUE, null, true, false);
+
+        Path a = export(cache, COMMIT_A);
+
+        // modify the shared file in place
+        Files.write(a.resolve("dir/file.txt"), "bye!".getBytes(StandardCharsets.UTF_8));
+
+        Path b = export(cache, COMMIT_A);
+        assertEquals(2, exports.get());
+        assertEquals("hello", read(b.resolve("dir/file.txt")));
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        RepositoryExportCache cache = new RepositoryExportCache(cacheDir, Long.MAX_VALUE, null, false, false);
+
+        Path a = export(cache, COMMIT_A);
+        Files.write(a.resolve("dir/file.txt"), "bye!".getBytes(StandardCharsets.UTF_8));
+
+        Path b = export(cache, COMMIT_A);
+        assertEquals(1, exports.get());
+        assertFalse(Files.isSameFile(a.resolve("dir/file.txt"), b.resolve("dir/file.txt")));
+        assertEquals("hello", read(b.resolve("dir/file.txt")));
+    }
+
+    @Test
+    public void testQuota() throws Exception {
+        // enough for one entry
+        RepositoryExportCache cache = new RepositoryExportCache(cacheDir, 8, null, true, false);
+
+        export(cache, COMMIT_A);
+        Thread.sleep(10);
+        export(cache, COMMIT_B);
+        assertEquals(2, exports.get());
+
+        // B is still cached, A is evicted
+        export(cache, COMMIT_B);
+        assertEquals(2, exports.get());
+
+        export(cache, COMMIT_A);
+        assertEquals(3, exports.get());
+
+        // the cache's state is restored after a restart
+        cache = new RepositoryExportCache(cacheDir, 8, null, true, false);
+        export(cache, COMMIT_A);
+        assertEquals(3, exports.get());
+    }
+
+    @Test
+    public void testMaxAge() throws Exception {
+        RepositoryExportCache cache = new RepositoryExportCache(cacheDir, Long.MAX_VALUE, Duration.ofHours(1), false, false);
+
+        export(cache, COMMIT_A);
+
+        // pretend A wasn't used for a day
+        try (DirectoryStream<Path> manifests = Files.newDirectoryStream(cacheDir, "*.manifest")) {
+            for (Path m : manifests) {
+                Files.setLastModifiedTime(m, FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(1).toMillis()));
+            }
+        }
+
+        // a restarted instance
+        cache = new RepositoryExportCache(cacheDir, Long.MAX_VALUE, Duration.ofHours(1), false, false);
+        export(cache, COMMIT_B);
+        assertEquals(2, exports.get());
+
+        // A is removed, B is still cached
+        export(cache, COMMIT_A);
+        export(cache, COMMIT_B);
+        assertEquals(3, exports.get());
+    }
+
+    private Path export(RepositoryExportCache cache, String commitId) throws Exception {
+        Path dst = IOUtils.createTempDir("dst");
+        cache.export("url", commitId, null, Collections.emptyList(), dst, this::write);
+        return dst;
+    }
+
+    private void write(Path dst) throws Exception {
+        exports.incrementAndGet();
+
+        Path dir = Files.createDirectories(dst.resolve("dir"));
+        Files.write(dir.resolve("file.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(dst.resolve("link.txt"), dst.relativize(dir.resolve("file.txt")));
+    }
+
+    private static String read(Path p) throws Exception {
+        return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+    }
+}
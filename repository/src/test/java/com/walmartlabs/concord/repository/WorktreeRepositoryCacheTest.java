@@ -0,0 +1,104 @@
+package com.walmartlabs.concord.repository;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class WorktreeRepositoryCacheTest {
+
+    private WorktreeRepositoryCache cache;
+    private Path cacheDir;
+
+    @Before
+    public void init() throws Exception {
+        cacheDir = IOUtils.createTempDir("worktree-cache-test");
+        cache = new WorktreeRepositoryCache(cacheDir, GitClientConfiguration.builder()
+                .sshTimeout(Duration.ofMinutes(10))
+                .sshTimeoutRetryCount(1)
+                .httpLowSpeedLimit(1)
+                .httpLowSpeedTime(Duration.ofMinutes(10))
+                .build(), Duration.ofMinutes(1), 8, 1);
+    }
+
+    @Test
+    public void testParallelReaders() throws Exception {
+        Path repo = GitUtils.createBareRepository(resource("master"));
+        RevCommit branchCommit = GitUtils.createNewBranch(repo, "branch-1", resource("branch-1"));
+        String url = repo.toAbsolutePath().toString();
+
+        CountDownLatch masterCheckedOut = new CountDownLatch(1);
+        CountDownLatch branchCheckedOut = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // holds the master's checkout until the branch is checked out
+            Future<Boolean> master = executor.submit(() -> cache.withRepository(url, FetchRequest.Version.from("master"), null, null, r -> {
+                masterCheckedOut.countDown();
+                assertTrue(branchCheckedOut.await(30, TimeUnit.SECONDS));
+                return Files.exists(r.path().resolve("master.txt"));
+            }));
+
+            assertTrue(masterCheckedOut.await(30, TimeUnit.SECONDS));
+
+            String commitId = cache.withRepository(url, FetchRequest.Version.from("branch-1"), null, null, r -> {
+                branchCheckedOut.countDown();
+                assertTrue(Files.exists(r.path().resolve("branch-1.txt")));
+                return r.fetchResult().head();
+            });
+
+            assertEquals(branchCommit.name(), commitId);
+            assertTrue(master.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // only one worktree is allowed, the least recently used one must be removed
+        try (Stream<Path> s = Files.list(cacheDir.resolve(".worktrees").resolve(URLEncoder.encode(url, "UTF-8")))) {
+            assertEquals(2, s.count()); // the worktree and its marker
+        }
+
+        // fetch by commit ID
+        boolean exists = cache.withRepository(url, FetchRequest.Version.from(branchCommit.name()), null, null,
+                r -> Files.exists(r.path().resolve("branch-1.txt")));
+        assertTrue(exists);
+    }
+
+    private static Path resource(String name) throws Exception {
+        return new File(WorktreeRepositoryCacheTest.class.getResource("/" + name).toURI()).toPath();
+    }
+}
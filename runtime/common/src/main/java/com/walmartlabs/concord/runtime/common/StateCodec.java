@@ -0,0 +1,544 @@
+package com.walmartlabs.concord.runtime.common;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.util.Native;
+import com.walmartlabs.concord.common.ObjectInputStreamWithClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Binary format of the process state.
+ * <p>
+ * The data starts with a header (magic bytes, the format version and
+ * the compression type) followed by a (compressed) Java serialization stream.
+ * Plain values such as variable maps, lists, strings, numbers and booleans
+ * are written using a compact tagged encoding instead of the regular
+ * serialization. Repeated strings (e.g. keys of similar maps) are written only once.
+ * Containers with any other values inside are written using the regular
+ * serialization. Repeated references to the same container are written as
+ * back-references, i.e. shared and cyclic containers keep their identity.
+ * <p>
+ * Data without the header is read as a regular Java serialization stream.
+ * <p>
+ * Runtime versions before the codec was introduced can't read the format,
+ * see {@link com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration#compactState()}.
+ */
+public final class StateCodec {
+
+    private static final Logger log = LoggerFactory.getLogger(StateCodec.class);
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte[] MAGIC = {'C', 'S', 'T', 'A'};
+
+    private static final int COMPRESSION_NONE = 0;
+    private static final int COMPRESSION_ZSTD = 1;
+
+    private static final int ZSTD_LEVEL = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int T_NULL = 0;
+    private static final int T_TRUE = 1;
+    private static final int T_FALSE = 2;
+    private static final int T_INT = 3;
+    private static final int T_LONG = 4;
+    private static final int T_DOUBLE = 5;
+    private static final int T_STRING = 6;
+    private static final int T_STRING_REF = 7;
+    private static final int T_HASH_MAP = 8;
+    private static final int T_LINKED_HASH_MAP = 9;
+    private static final int T_ARRAY_LIST = 10;
+    private static final int T_CONTAINER_REF = 11;
+
+    /**
+     * Longer strings are rarely repeated and are not added into the string table.
+     */
+    private static final int MAX_TABLE_STRING_LENGTH = 256;
+
+    private static final boolean zstdAvailable = isZstdAvailable();
+
+    /**
+     * Writes the specified object into the stream. Closes the stream.
+     */
+    public static void encode(OutputStream out, Serializable o) throws IOException {
+        int compression = zstdAvailable ? COMPRESSION_ZSTD : COMPRESSION_NONE;
+
+        out.write(MAGIC);
+        out.write(FORMAT_VERSION);
+        out.write(compression);
+
+        OutputStream body = out;
+        if (compression == COMPRESSION_ZSTD) {
+            body = new ZstdOutputStream(out, ZSTD_LEVEL);
+        }
+
+        try (ObjectOutputStream oos = new CompactObjectOutputStream(new BufferedOutputStream(body, BUFFER_SIZE))) {
+            oos.writeObject(o);
+        } catch (NotSerializableException e) {
+            log.warn("Check if you're setting any not serializable values in your 'script', 'task' or 'form' steps: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads an object from the stream. Supports both the current format
+     * and the regular Java serialization.
+     */
+    public static Object decode(InputStream in, ClassLoader cl) throws IOException, ClassNotFoundException {
+        InputStream bin = new BufferedInputStream(in, BUFFER_SIZE);
+
+        bin.mark(MAGIC.length);
+        byte[] magic = new byte[MAGIC.length];
+        int n = readFully(bin, magic);
+        if (n != MAGIC.length || !Arrays.equals(magic, MAGIC)) {
+            // no header, a regular serialization stream
+            bin.reset();
+            try (ObjectInputStream ois = new ObjectInputStreamWithClassLoader(bin, cl)) {
+                return ois.readObject();
+            }
+        }
+
+        int version = bin.read();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported state format version: " + version + ". " +
+                    "The state was probably saved by a newer version of the runtime.");
+        }
+
+        InputStream body;
+        int compression = bin.read();
+        switch (compression) {
+            case COMPRESSION_NONE: {
+                body = bin;
+                break;
+            }
+            case COMPRESSION_ZSTD: {
+                body = new BufferedInputStream(new ZstdInputStream(bin), BUFFER_SIZE);
+                break;
+            }
+            default: {
+                throw new IOException("Unsupported state compression type: " + compression);
+            }
+        }
+
+        try (ObjectInputStream ois = new CompactObjectInputStream(body, cl)) {
+            return ois.readObject();
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] ab) throws IOException {
+        int n = 0;
+        while (n < ab.length) {
+            int read = in.read(ab, n, ab.length - n);
+            if (read < 0) {
+                break;
+            }
+            n += read;
+        }
+        return n;
+    }
+
+    private static boolean isZstdAvailable() {
+        try {
+            Native.load();
+            return true;
+        } catch (Throwable t) { // NOSONAR
+            log.warn("isZstdAvailable -> zstd is not available, the process state is saved uncompressed: {}", t.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isContainer(Object v) {
+        if (v == null) {
+            return false;
+        }
+
+        Class<?> k = v.getClass();
+        return k == HashMap.class || k == LinkedHashMap.class || k == ArrayList.class;
+    }
+
+    private static boolean hasUnpairedSurrogates(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * A placeholder for plain values written using the compact encoding.
+     */
+    private static final class CompactValue implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient Object value;
+
+        private CompactValue(Object value) {
+            this.value = value;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            ((CompactObjectOutputStream) out).writeValue(value);
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            value = ((CompactObjectInputStream) in).readValue();
+        }
+    }
+
+    /**
+     * A placeholder for a container already written using the compact encoding.
+     */
+    private static final class ContainerRef implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+
+        private ContainerRef(int id) {
+            this.id = id;
+        }
+    }
+
+    private static final class CompactObjectOutputStream extends ObjectOutputStream {
+
+        private static final int NOT_PLAIN = -1;
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        /**
+         * IDs of the containers written using the compact encoding.
+         */
+        private final Map<Object, Integer> containers = new IdentityHashMap<>();
+
+        /**
+         * Containers already checked by {@link #isPlain(Object)}.
+         */
+        private final Map<Object, Boolean> plain = new IdentityHashMap<>();
+
+        /**
+         * Containers currently being checked by {@link #isPlain(Object)}
+         * and their depth.
+         */
+        private final Map<Object, Integer> inProgress = new IdentityHashMap<>();
+
+        private CompactObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (!isContainer(obj)) {
+                return obj;
+            }
+
+            // already written as a part of another compact value
+            Integer id = containers.get(obj);
+            if (id != null) {
+                return new ContainerRef(id);
+            }
+
+            if (isPlain(obj)) {
+                return new CompactValue(obj);
+            }
+
+            return obj;
+        }
+
+        /**
+         * Returns {@code true} if the value can be written using the compact
+         * encoding, i.e. contains only plain values. The result is computed
+         * once for each container.
+         */
+        private boolean isPlain(Object v) {
+            return checkPlain(v, 0) != NOT_PLAIN;
+        }
+
+        /**
+         * Returns {@link #NOT_PLAIN} if the value contains any non-plain values.
+         * Otherwise returns the smallest depth of the containers still being
+         * checked that the value refers to (i.e. the value is a part of
+         * a cycle), or {@link Integer#MAX_VALUE} if there are none.
+         * <p>
+         * The result of a container in a cycle depends on the rest of
+         * the cycle, so it is memoized only after the whole cycle is checked.
+         */
+        private int checkPlain(Object v, int depth) {
+            if (v == null || v instanceof Boolean || v instanceof Integer || v instanceof Long || v instanceof Double) {
+                return Integer.MAX_VALUE;
+            }
+
+            if (v instanceof String) {
+                return hasUnpairedSurrogates((String) v) ? NOT_PLAIN : Integer.MAX_VALUE;
+            }
+
+            if (!isContainer(v)) {
+                return NOT_PLAIN;
+            }
+
+            Boolean result = plain.get(v);
+            if (result != null) {
+                return result ? Integer.MAX_VALUE : NOT_PLAIN;
+            }
+
+            Integer cycleDepth = inProgress.get(v);
+            if (cycleDepth != null) {
+                return cycleDepth;
+            }
+
+            inProgress.put(v, depth);
+
+            int low = Integer.MAX_VALUE;
+            if (v instanceof Map) {
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) v).entrySet()) {
+                    low = Math.min(low, Math.min(checkPlain(e.getKey(), depth + 1), checkPlain(e.getValue(), depth + 1)));
+                    if (low == NOT_PLAIN) {
+                        break;
+                    }
+                }
+            } else {
+                for (Object i : (List<?>) v) {
+                    low = Math.min(low, checkPlain(i, depth + 1));
+                    if (low == NOT_PLAIN) {
+                        break;
+                    }
+                }
+            }
+
+            inProgress.remove(v);
+
+            if (low == NOT_PLAIN) {
+                plain.put(v, false);
+                return NOT_PLAIN;
+            }
+
+            if (low >= depth) {
+                // no references to the containers above, the result is final
+                plain.put(v, true);
+                return Integer.MAX_VALUE;
+            }
+
+            // depends on a container above that is still being checked
+            return low;
+        }
+
+        private void writeValue(Object v) throws IOException {
+            if (v == null) {
+                writeByte(T_NULL);
+            } else if (v instanceof Boolean) {
+                writeByte((Boolean) v ? T_TRUE : T_FALSE);
+            } else if (v instanceof Integer) {
+                writeByte(T_INT);
+                writeVarLong(zigZag((Integer) v));
+            } else if (v instanceof Long) {
+                writeByte(T_LONG);
+                writeVarLong(zigZag((Long) v));
+            } else if (v instanceof Double) {
+                writeByte(T_DOUBLE);
+                writeDouble((Double) v);
+            } else if (v instanceof String) {
+                writeString((String) v);
+            } else if (containers.containsKey(v)) {
+                writeByte(T_CONTAINER_REF);
+                writeVarLong(containers.get(v));
+            } else if (v.getClass() == HashMap.class || v.getClass() == LinkedHashMap.class) {
+                containers.put(v, containers.size());
+
+                Map<?, ?> m = (Map<?, ?>) v;
+                writeByte(v.getClass() == HashMap.class ? T_HASH_MAP : T_LINKED_HASH_MAP);
+                writeVarLong(m.size());
+                for (Map.Entry<?, ?> e : m.entrySet()) {
+                    writeValue(e.getKey());
+                    writeValue(e.getValue());
+                }
+            } else if (v.getClass() == ArrayList.class) {
+                containers.put(v, containers.size());
+
+                List<?> l = (List<?>) v;
+                writeByte(T_ARRAY_LIST);
+                writeVarLong(l.size());
+                for (Object i : l) {
+                    writeValue(i);
+                }
+            } else {
+                // the values are checked by isPlain before writing
+                throw new NotSerializableException("Not a plain value: " + v.getClass());
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            Integer ref = strings.get(s);
+            if (ref != null) {
+                writeByte(T_STRING_REF);
+                writeVarLong(ref);
+                return;
+            }
+
+            if (s.length() <= MAX_TABLE_STRING_LENGTH) {
+                strings.put(s, strings.size());
+            }
+
+            byte[] ab = s.getBytes(StandardCharsets.UTF_8);
+            writeByte(T_STRING);
+            writeVarLong(ab.length);
+            write(ab);
+        }
+
+        private void writeVarLong(long v) throws IOException {
+            while ((v & ~0x7FL) != 0) {
+                writeByte((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            writeByte((int) v);
+        }
+
+        private static long zigZag(long v) {
+            return (v << 1) ^ (v >> 63);
+        }
+    }
+
+    private static final class CompactObjectInputStream extends ObjectInputStreamWithClassLoader {
+
+        private final List<String> strings = new ArrayList<>();
+        private final List<Object> containers = new ArrayList<>();
+
+        private CompactObjectInputStream(InputStream in, ClassLoader cl) throws IOException {
+            super(in, cl);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj instanceof CompactValue) {
+                return ((CompactValue) obj).value;
+            }
+            if (obj instanceof ContainerRef) {
+                return getContainer(((ContainerRef) obj).id);
+            }
+            return obj;
+        }
+
+        private Object getContainer(int id) throws IOException {
+            if (id >= containers.size()) {
+                throw new StreamCorruptedException("Invalid container reference: " + id);
+            }
+            return containers.get(id);
+        }
+
+        private Object readValue() throws IOException {
+            int t = readUnsignedByte();
+            switch (t) {
+                case T_NULL:
+                    return null;
+                case T_TRUE:
+                    return Boolean.TRUE;
+                case T_FALSE:
+                    return Boolean.FALSE;
+                case T_INT:
+                    return (int) unZigZag(readVarLong());
+                case T_LONG:
+                    return unZigZag(readVarLong());
+                case T_DOUBLE:
+                    return readDouble();
+                case T_STRING: {
+                    byte[] ab = new byte[readSize()];
+                    readFully(ab);
+                    String s = new String(ab, StandardCharsets.UTF_8);
+                    if (s.length() <= MAX_TABLE_STRING_LENGTH) {
+                        strings.add(s);
+                    }
+                    return s;
+                }
+                case T_STRING_REF:
+                    return strings.get(readSize());
+                case T_HASH_MAP:
+                case T_LINKED_HASH_MAP: {
+                    int size = readSize();
+                    Map<Object, Object> m = t == T_HASH_MAP ? new HashMap<>(capacity(size)) : new LinkedHashMap<>(capacity(size));
+                    containers.add(m);
+                    for (int i = 0; i < size; i++) {
+                        Object k = readValue();
+                        m.put(k, readValue());
+                    }
+                    return m;
+                }
+                case T_ARRAY_LIST: {
+                    int size = readSize();
+                    List<Object> l = new ArrayList<>(size);
+                    containers.add(l);
+                    for (int i = 0; i < size; i++) {
+                        l.add(readValue());
+                    }
+                    return l;
+                }
+                case T_CONTAINER_REF:
+                    return getContainer(readSize());
+                default:
+                    throw new StreamCorruptedException("Unknown value type: " + t);
+            }
+        }
+
+        private int readSize() throws IOException {
+            long v = readVarLong();
+            if (v < 0 || v > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Invalid size: " + v);
+            }
+            return (int) v;
+        }
+
+        private long readVarLong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readUnsignedByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable-length number");
+        }
+
+        private static long unZigZag(long v) {
+            return (v >>> 1) ^ -(v & 1);
+        }
+    }
+
+    private StateCodec() {
+    }
+}
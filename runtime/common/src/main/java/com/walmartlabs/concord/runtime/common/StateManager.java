@@ -21,7 +21,6 @@ package com.walmartlabs.concord.runtime.common;
  */
 
 import com.walmartlabs.concord.common.IOUtils;
-import com.walmartlabs.concord.common.ObjectInputStreamWithClassLoader;
 import com.walmartlabs.concord.common.TemporaryPath;
 import com.walmartlabs.concord.sdk.Constants;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
@@ -43,6 +42,10 @@ public final class StateManager {
     private static final String SUSPEND_MARKER = Constants.Files.SUSPEND_MARKER_FILE_NAME;
 
     public static void finalizeSuspendedState(Path baseDir, Serializable state, Set<String> eventNames) throws IOException {
+        finalizeSuspendedState(baseDir, state, eventNames, false);
+    }
+
+    public static void finalizeSuspendedState(Path baseDir, Serializable state, Set<String> eventNames, boolean compact) throws IOException {
         Path stateDir = baseDir.resolve(Constants.Files.JOB_ATTACHMENTS_DIR_NAME)
                 .resolve(Constants.Files.JOB_STATE_DIR_NAME);
 
@@ -63,7 +66,7 @@ public final class StateManager {
         Path marker = stateDir.resolve(SUSPEND_MARKER);
         Files.write(marker, eventNames);
 
-        saveProcessState(baseDir, state);
+        saveProcessState(baseDir, state, compact);
     }
 
     public static void cleanupState(Path baseDir) throws IOException {
@@ -110,6 +113,7 @@ public final class StateManager {
     /**
      * Reads a serialized process state object from
      * the standard location inside the provided {@code baseDir}.
+     * Supports both the {@link StateCodec} format and the regular Java serialization.
      */
     @SuppressWarnings("unchecked")
     public static <T extends Serializable> T readProcessState(Path baseDir, ClassLoader cl) {
@@ -121,8 +125,8 @@ public final class StateManager {
             return null;
         }
 
-        try (ObjectInputStream in = new ObjectInputStreamWithClassLoader(Files.newInputStream(p), cl)) {
-            return (T) in.readObject();
+        try (InputStream in = Files.newInputStream(p)) {
+            return (T) StateCodec.decode(in, cl);
         } catch (ClassNotFoundException | IOException e) {
             throw new RuntimeException(e);
         }
@@ -131,8 +135,20 @@ public final class StateManager {
     /**
      * Serializes the specified process state object into a file
      * in the standard location inside the provided {@code baseDir}.
+     * Uses the regular Java serialization.
      */
     public static void saveProcessState(Path baseDir, Serializable state) throws IOException {
+        saveProcessState(baseDir, state, false);
+    }
+
+    /**
+     * Serializes the specified process state object into a file
+     * in the standard location inside the provided {@code baseDir}.
+     *
+     * @param compact if {@code true} the {@link StateCodec} format is used,
+     *                otherwise the regular Java serialization.
+     */
+    public static void saveProcessState(Path baseDir, Serializable state, boolean compact) throws IOException {
         Path stateDir = baseDir.resolve(Constants.Files.JOB_ATTACHMENTS_DIR_NAME)
                 .resolve(Constants.Files.JOB_STATE_DIR_NAME);
 
@@ -145,7 +161,11 @@ public final class StateManager {
         try (TemporaryPath tmp = IOUtils.tempFile("instance", "state");
              OutputStream out = Files.newOutputStream(tmp.path())) {
 
-            SerializationUtils.serialize(out, state);
+            if (compact) {
+                StateCodec.encode(out, state);
+            } else {
+                SerializationUtils.serialize(out, state);
+            }
             Files.move(tmp.path(), dst, REPLACE_EXISTING);
         }
     }
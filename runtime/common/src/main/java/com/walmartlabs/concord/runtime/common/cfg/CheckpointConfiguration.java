@@ -0,0 +1,66 @@
+package com.walmartlabs.concord.runtime.common.cfg;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+@Value.Immutable
+@Value.Style(jdkOnly = true)
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableCheckpointConfiguration.class)
+@JsonDeserialize(as = ImmutableCheckpointConfiguration.class)
+public interface CheckpointConfiguration {
+
+    /**
+     * If {@code true} the runtime uploads only the files changed since
+     * the previous checkpoint of the same process run. The server
+     * reconstructs the full checkpoint on restore.
+     * <p/>
+     * Disabled by default: older server versions don't know about
+     * incremental checkpoints and restore them as full ones.
+     * Enable only when all servers support them.
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default boolean incremental() {
+        return false;
+    }
+
+    /**
+     * Maximum number of consecutive incremental checkpoints. The next
+     * checkpoint is a full one. Limits the amount of work required to
+     * restore a checkpoint.
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default int maxIncrementalCheckpoints() {
+        return 10;
+    }
+
+    static ImmutableCheckpointConfiguration.Builder builder() {
+        return ImmutableCheckpointConfiguration.builder();
+    }
+}
@@ -0,0 +1,76 @@
+package com.walmartlabs.concord.runtime.common.cfg;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+@Value.Immutable
+@Value.Style(jdkOnly = true)
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableParallelExecutionConfiguration.class)
+@JsonDeserialize(as = ImmutableParallelExecutionConfiguration.class)
+public interface ParallelExecutionConfiguration {
+
+    /**
+     * Maximum number of threads executing the process' steps concurrently
+     * (e.g. {@code parallel} blocks or {@code parallelWithItems} loops).
+     * Additional threads are queued until one of the running threads completes.
+     * Threads waiting for their children to complete are not counted.
+     * <p/>
+     * Use {@code 0} to remove the limit.
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default int maxThreads() {
+        return 64;
+    }
+
+    /**
+     * Maximum number of concurrently running threads of a single {@code parallel}
+     * block or {@code parallelWithItems} loop. Can't exceed {@link #maxThreads()}.
+     * <p/>
+     * Use {@code 0} to remove the limit.
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default int maxThreadsPerBlock() {
+        return 0;
+    }
+
+    /**
+     * If {@code true} the runtime uses virtual threads, when supported by the JVM.
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default boolean useVirtualThreads() {
+        return false;
+    }
+
+    static ImmutableParallelExecutionConfiguration.Builder builder() {
+        return ImmutableParallelExecutionConfiguration.builder();
+    }
+}
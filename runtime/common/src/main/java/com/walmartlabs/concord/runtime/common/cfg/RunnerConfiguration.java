@@ -122,6 +122,38 @@ public interface RunnerConfiguration {
         return DockerConfiguration.builder().build();
     }
 
+    /**
+     * Parallel execution parameters.
+     */
+    @Value.Default
+    default ParallelExecutionConfiguration parallelExecution() {
+        return ParallelExecutionConfiguration.builder().build();
+    }
+
+    /**
+     * Process checkpoint parameters.
+     */
+    @Value.Default
+    default CheckpointConfiguration checkpoints() {
+        return CheckpointConfiguration.builder().build();
+    }
+
+    /**
+     * If {@code true} the process state is saved using the compact
+     * {@link com.walmartlabs.concord.runtime.common.StateCodec} format.
+     * <p/>
+     * Disabled by default: runtime versions without the codec can't read
+     * the format, e.g. when a process suspended by a newer runtime is
+     * resumed by an older one. The current version reads both formats.
+     * Enable only when all agents use a runtime that supports it.
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default boolean compactState() {
+        return false;
+    }
+
     static ImmutableRunnerConfiguration.Builder builder() {
         return ImmutableRunnerConfiguration.builder();
     }
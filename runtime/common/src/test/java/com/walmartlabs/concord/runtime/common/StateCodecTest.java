@@ -0,0 +1,260 @@
+package com.walmartlabs.concord.runtime.common;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StateCodecTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("b", 2L);
+        nested.put("a", Arrays.asList(1, 2, 3));
+        nested.put("list", new ArrayList<>(Arrays.asList("x", null, true, 1.5, Long.MIN_VALUE, Integer.MIN_VALUE)));
+        nested.put("decimal", new BigDecimal("1.23"));
+        nested.put("unicode", "ф😀");
+        nested.put("surrogate", "abc\uD800");
+
+        HashMap<String, Object> vars = new HashMap<>();
+        vars.put("nested", nested);
+        vars.put("empty", new HashMap<>());
+        vars.put("date", new Date(1000));
+
+        Holder h = new Holder(vars);
+
+        Holder result = roundTrip(h);
+        assertEquals(vars, result.vars);
+        assertEquals(LinkedHashMap.class, result.vars.get("nested").getClass());
+        assertEquals(new ArrayList<>(nested.keySet()), new ArrayList<>(((Map<?, ?>) result.vars.get("nested")).keySet()));
+    }
+
+    @Test
+    public void testSharedReferences() throws Exception {
+        HashMap<String, Object> shared = new HashMap<>();
+        shared.put("k", "v");
+
+        HashMap<String, Object> vars = new HashMap<>();
+        vars.put("a", shared);
+        vars.put("b", shared);
+
+        // cycle
+        ArrayList<Object> cyclic = new ArrayList<>();
+        cyclic.add("x");
+        cyclic.add(cyclic);
+        vars.put("c", cyclic);
+
+        Holder result = roundTrip(new Holder(vars));
+        assertSame(result.vars.get("a"), result.vars.get("b"));
+
+        List<?> l = (List<?>) result.vars.get("c");
+        assertSame(l, l.get(1));
+    }
+
+    @Test
+    public void testJavaSerializationFallback() throws Exception {
+        HashMap<String, Object> vars = new HashMap<>();
+        vars.put("x", 123);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SerializationUtils.serialize(baos, new Holder(vars));
+
+        Holder result = (Holder) StateCodec.decode(new ByteArrayInputStream(baos.toByteArray()), getClass().getClassLoader());
+        assertEquals(vars, result.vars);
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StateCodec.encode(baos, new Holder(new HashMap<>()));
+
+        byte[] ab = baos.toByteArray();
+        ab[4] = (byte) (StateCodec.FORMAT_VERSION + 1);
+
+        try {
+            StateCodec.decode(new ByteArrayInputStream(ab), getClass().getClassLoader());
+            fail("exception expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Unsupported state format version"));
+        }
+    }
+
+    @Test
+    public void testSharedBetweenCompactAndRegularValues() throws Exception {
+        ArrayList<Object> shared = new ArrayList<>(Arrays.asList("a", "b"));
+
+        LinkedHashMap<String, Object> nested = new LinkedHashMap<>();
+        nested.put("shared", shared);
+
+        HashMap<String, Object> vars = new HashMap<>();
+        vars.put("nested", nested);
+
+        // the first reference is inside of a compact value, the second one is a regular field
+        Holder h = new Holder(vars, shared);
+
+        Holder result = roundTrip(h);
+        assertEquals(shared, result.extra);
+        assertSame(result.extra, ((Map<?, ?>) result.vars.get("nested")).get("shared"));
+    }
+
+    @Test
+    public void testCycleThroughRegularValue() throws Exception {
+        HashMap<String, Object> vars = new HashMap<>();
+
+        // a container with a non-plain value that references the container back
+        HashMap<String, Object> parent = new HashMap<>();
+        parent.put("child", new Node(parent));
+        parent.put("x", 1);
+        vars.put("parent", parent);
+
+        Holder result = roundTrip(new Holder(vars));
+
+        Map<?, ?> p = (Map<?, ?>) result.vars.get("parent");
+        assertEquals(1, p.get("x"));
+        assertSame(p, ((Node) p.get("child")).parent);
+    }
+
+    @Test
+    public void testCycleWithNonPlainValue() throws Exception {
+        // A = [B, C], B = [A], C is not plain
+        ArrayList<Object> a = new ArrayList<>();
+        ArrayList<Object> b = new ArrayList<>();
+        ArrayList<Object> c = new ArrayList<>();
+
+        b.add(a);
+        c.add(new Node(null));
+        a.add(b);
+        a.add(c);
+
+        HashMap<String, Object> vars = new HashMap<>();
+        vars.put("a", a);
+
+        Holder result = roundTrip(new Holder(vars));
+
+        List<?> ra = (List<?>) result.vars.get("a");
+        List<?> rb = (List<?>) ra.get(0);
+        List<?> rc = (List<?>) ra.get(1);
+        assertSame(ra, rb.get(0));
+        assertTrue(rc.get(0) instanceof Node);
+    }
+
+    @Test
+    public void testNotSerializableValue() throws Exception {
+        HashMap<String, Object> vars = new HashMap<>();
+        vars.put("x", new Object());
+
+        try {
+            encode(new Holder(vars));
+            fail("exception expected");
+        } catch (NotSerializableException e) {
+            assertEquals(Object.class.getName(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCompactSize() throws Exception {
+        Holder h = new Holder(createLargeVariables(20_000));
+
+        byte[] java = javaSerialize(h);
+        byte[] codec = encode(h);
+        assertTrue(codec.length < java.length);
+
+        assertEquals(h.vars, decode(codec).vars);
+        assertEquals(h.vars, javaDeserialize(java).vars);
+    }
+
+    private static HashMap<String, Object> createLargeVariables(int n) {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "item-" + i);
+            item.put("enabled", i % 2 == 0);
+            item.put("weight", i * 0.1);
+            item.put("tags", new ArrayList<>(Arrays.asList("alpha", "beta", "gamma")));
+            item.put("owner", Collections.singletonMap("username", "user" + (i % 100)));
+            items.add(item);
+        }
+
+        HashMap<String, Object> vars = new HashMap<>();
+        vars.put("items", items);
+        vars.put("txId", UUID.randomUUID().toString());
+        return vars;
+    }
+
+    private static Holder roundTrip(Holder h) throws Exception {
+        return decode(encode(h));
+    }
+
+    private static byte[] encode(Holder h) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StateCodec.encode(baos, h);
+        return baos.toByteArray();
+    }
+
+    private static Holder decode(byte[] ab) throws Exception {
+        return (Holder) StateCodec.decode(new ByteArrayInputStream(ab), StateCodecTest.class.getClassLoader());
+    }
+
+    private static byte[] javaSerialize(Holder h) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SerializationUtils.serialize(baos, h);
+        return baos.toByteArray();
+    }
+
+    private static Holder javaDeserialize(byte[] ab) throws IOException {
+        return SerializationUtils.deserialize(new ByteArrayInputStream(ab), Holder.class);
+    }
+
+    private static class Holder implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Object> vars;
+        private final Object extra;
+
+        private Holder(Map<String, Object> vars) {
+            this(vars, null);
+        }
+
+        private Holder(Map<String, Object> vars, Object extra) {
+            this.vars = Collections.synchronizedMap(vars);
+            this.extra = extra;
+        }
+    }
+
+    private static class Node implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Object> parent;
+
+        private Node(Map<String, Object> parent) {
+            this.parent = parent;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.walmartlabs.concord.imports.ImportManager;
+import com.walmartlabs.concord.imports.Imports;
 import com.walmartlabs.concord.imports.ImportsListener;
 import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
 import com.walmartlabs.concord.process.loader.v1.ProcessDefinitionV1;
@@ -49,11 +50,13 @@ public class ProjectLoader {
 
     private static final Logger log = LoggerFactory.getLogger(ProjectLoader.class);
 
+    private final ImportManager importManager;
     private final com.walmartlabs.concord.project.ProjectLoader v1;
     private final com.walmartlabs.concord.runtime.v2.ProjectLoaderV2 v2;
 
     @Inject
     public ProjectLoader(ImportManager importManager) {
+        this.importManager = importManager;
         this.v1 = new com.walmartlabs.concord.project.ProjectLoader(importManager);
         this.v2 = new com.walmartlabs.concord.runtime.v2.ProjectLoaderV2(importManager);
     }
@@ -71,6 +74,14 @@ public class ProjectLoader {
         return toResult(v1.loadProject(workDir, importsNormalizer::normalize, listener));
     }
 
+    /**
+     * Processes the already normalized {@code imports} without loading the project files.
+     * Useful when the project definition was loaded previously.
+     */
+    public List<Snapshot> processImports(Path workDir, Imports imports, ImportsListener listener) throws Exception {
+        return importManager.process(imports, workDir, listener);
+    }
+
     private static Result toResult(com.walmartlabs.concord.project.ProjectLoader.Result r) {
         List<Snapshot> snapshots = r.getSnapshots();
         ProcessDefinition pd = new ProcessDefinitionV1(r.getProjectDefinition());
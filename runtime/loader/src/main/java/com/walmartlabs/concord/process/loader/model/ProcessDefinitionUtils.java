@@ -22,10 +22,7 @@ package com.walmartlabs.concord.process.loader.model;
 
 import com.walmartlabs.concord.common.ConfigurationUtils;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -47,12 +44,29 @@ public final class ProcessDefinitionUtils {
                 ConfigurationUtils::deepMerge);
     }
 
+    @SuppressWarnings("unchecked")
     private static Map<String, Object> asMap(Configuration cfg) {
         if (cfg == null) {
             return null;
         }
 
-        return cfg.asMap();
+        // process definitions can be cached and shared between processes
+        // return a copy to protect them from modifications
+        return (Map<String, Object>) deepCopy(cfg.asMap());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object deepCopy(Object v) {
+        if (v instanceof Map) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            ((Map<String, Object>) v).forEach((k, vv) -> result.put(k, deepCopy(vv)));
+            return result;
+        } else if (v instanceof List) {
+            List<Object> result = new ArrayList<>();
+            ((List<Object>) v).forEach(vv -> result.add(deepCopy(vv)));
+            return result;
+        }
+        return v;
     }
 
     private static <T> Map<String, T> overlay(Map<String, T> initial,
@@ -0,0 +1,81 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.Multibinder;
+import com.google.inject.name.Names;
+import com.walmartlabs.concord.runtime.v2.runner.*;
+import com.walmartlabs.concord.runtime.v2.runner.checkpoints.CheckpointService;
+import com.walmartlabs.concord.runtime.v2.runner.guice.BaseRunnerModule;
+import com.walmartlabs.concord.runtime.v2.runner.logging.LoggingClient;
+import com.walmartlabs.concord.runtime.v2.runner.logging.RunnerLogger;
+import com.walmartlabs.concord.runtime.v2.runner.logging.SimpleLogger;
+import com.walmartlabs.concord.runtime.v2.sdk.*;
+import com.walmartlabs.concord.svm.ExecutionListener;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binds the runner's services without any dependencies on the server.
+ * Checkpoints, process status updates and log segments are no-ops,
+ * tasks are provided by {@link BenchmarkTaskProvider}.
+ */
+public class BenchmarkModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        install(new BaseRunnerModule());
+
+        bind(ClassLoader.class).annotatedWith(Names.named("runtime")).toInstance(BenchmarkModule.class.getClassLoader());
+
+        bind(CheckpointService.class).toInstance((threadId, name, runtime, snapshot) -> {
+        });
+        bind(ProcessStatusCallback.class).toInstance(instanceId -> {
+        });
+        bind(DependencyManager.class).to(DefaultDependencyManager.class);
+        bind(DockerService.class).to(DefaultDockerService.class);
+        bind(LockService.class).to(DefaultLockService.class);
+        bind(PersistenceService.class).to(DefaultPersistenceService.class);
+        bind(SecretService.class).to(DefaultSecretService.class);
+        bind(DefaultTaskVariablesService.class).toInstance(new MapBackedDefaultTaskVariablesService(Collections.emptyMap()));
+
+        bind(RunnerLogger.class).to(SimpleLogger.class);
+        bind(LoggingClient.class).toInstance(new NoopLoggingClient());
+
+        Multibinder<TaskProvider> taskProviders = Multibinder.newSetBinder(binder(), TaskProvider.class);
+        taskProviders.addBinding().to(BenchmarkTaskProvider.class);
+
+        Multibinder.newSetBinder(binder(), ExecutionListener.class);
+    }
+
+    private static class NoopLoggingClient implements LoggingClient {
+
+        private final AtomicLong id = new AtomicLong(1L);
+
+        @Override
+        public long createSegment(UUID correlationId, String name) {
+            return id.getAndIncrement();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.inject.Injector;
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.imports.ImportsListener;
+import com.walmartlabs.concord.imports.NoopImportManager;
+import com.walmartlabs.concord.runtime.common.StateCodec;
+import com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration;
+import com.walmartlabs.concord.runtime.v2.NoopImportsNormalizer;
+import com.walmartlabs.concord.runtime.v2.ProjectLoaderV2;
+import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
+import com.walmartlabs.concord.runtime.v2.runner.InjectorFactory;
+import com.walmartlabs.concord.runtime.v2.runner.ProcessSnapshot;
+import com.walmartlabs.concord.runtime.v2.runner.Runner;
+import com.walmartlabs.concord.runtime.v2.runner.compiler.CompilerUtils;
+import com.walmartlabs.concord.runtime.v2.sdk.Compiler;
+import com.walmartlabs.concord.runtime.v2.sdk.ProcessConfiguration;
+import com.walmartlabs.concord.runtime.v2.sdk.WorkingDirectory;
+import com.walmartlabs.concord.sdk.Constants;
+import com.walmartlabs.concord.svm.Command;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A process working directory with a single {@code concord.yml} and
+ * a runner instance configured with {@link BenchmarkModule}.
+ */
+public class BenchmarkProcess implements AutoCloseable {
+
+    private final Path workDir;
+    private final ProcessConfiguration processCfg;
+    private final Injector injector;
+    private final Runner runner;
+
+    public BenchmarkProcess(String concordYml) throws IOException {
+        this.workDir = Files.createTempDirectory("benchmark");
+        Files.write(workDir.resolve("concord.yml"), concordYml.getBytes(StandardCharsets.UTF_8));
+
+        this.processCfg = ProcessConfiguration.builder()
+                .instanceId(UUID.randomUUID())
+                .entryPoint(Constants.Request.DEFAULT_ENTRY_POINT_NAME)
+                .build();
+
+        RunnerConfiguration runnerCfg = RunnerConfiguration.builder()
+                .agentId(UUID.randomUUID().toString())
+                .build();
+
+        this.injector = new InjectorFactory(new WorkingDirectory(workDir),
+                runnerCfg,
+                () -> processCfg,
+                new BenchmarkModule())
+                .create();
+
+        this.runner = injector.getInstance(Runner.class);
+    }
+
+    public ProcessDefinition load() throws Exception {
+        ProjectLoaderV2 loader = new ProjectLoaderV2(new NoopImportManager());
+        return loader.load(workDir, new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER).getProjectDefinition();
+    }
+
+    public Command compile(ProcessDefinition pd) {
+        Compiler compiler = injector.getInstance(Compiler.class);
+        return CompilerUtils.compile(compiler, processCfg, pd, processCfg.entryPoint());
+    }
+
+    public ProcessSnapshot start(ProcessDefinition pd, Map<String, Object> input) throws Exception {
+        return runner.start(processCfg, pd, input);
+    }
+
+    public ProcessSnapshot resume(ProcessSnapshot snapshot, String eventRef, Map<String, Object> input) throws Exception {
+        return runner.resume(snapshot, eventRef, input);
+    }
+
+    /**
+     * Serializes and deserializes the snapshot the same way the runner
+     * saves the process state between suspend and resume.
+     */
+    public ProcessSnapshot roundTrip(ProcessSnapshot snapshot) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StateCodec.encode(out, snapshot);
+        try (ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray())) {
+            return (ProcessSnapshot) StateCodec.decode(in, BenchmarkProcess.class.getClassLoader());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOUtils.deleteRecursively(workDir);
+    }
+}
@@ -0,0 +1,154 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the average time per operation, similarly to JMH's
+ * {@code Mode.AverageTime}: a number of warmup iterations followed by
+ * the measurement iterations, each iteration calls the scenario
+ * repeatedly for the specified amount of time.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Student's t-distribution quantiles (p = 0.9995) for 1..30 degrees of freedom.
+     * Used to calculate the 99.9% confidence interval, same as in JMH.
+     */
+    private static final double[] T_QUANTILES = {
+            636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+            4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+            3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+    };
+
+    private static final double T_QUANTILE_INF = 3.291;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationTimeMs;
+
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationTimeMs) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationTimeMs = iterationTimeMs;
+    }
+
+    public int warmupIterations() {
+        return warmupIterations;
+    }
+
+    public int measurementIterations() {
+        return measurementIterations;
+    }
+
+    public long iterationTimeMs() {
+        return iterationTimeMs;
+    }
+
+    public Result run(Scenario scenario) throws Exception {
+        scenario.setUp();
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                iteration(scenario);
+            }
+
+            double[] data = new double[measurementIterations];
+            for (int i = 0; i < measurementIterations; i++) {
+                data[i] = iteration(scenario);
+            }
+
+            return new Result(scenario.name(), data, scenario.secondaryMetrics());
+        } finally {
+            scenario.tearDown();
+        }
+    }
+
+    /**
+     * @return the average time per operation in milliseconds
+     */
+    private double iteration(Scenario scenario) throws Exception {
+        long duration = TimeUnit.MILLISECONDS.toNanos(iterationTimeMs);
+
+        long ops = 0;
+        long t1 = System.nanoTime();
+        long elapsed;
+        do {
+            scenario.run();
+            ops++;
+            elapsed = System.nanoTime() - t1;
+        } while (elapsed < duration);
+
+        return (double) elapsed / ops / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static class Result {
+
+        private final String name;
+        private final double[] rawData;
+        private final Map<String, Scenario.Metric> secondaryMetrics;
+
+        private Result(String name, double[] rawData, Map<String, Scenario.Metric> secondaryMetrics) {
+            this.name = name;
+            this.rawData = rawData;
+            this.secondaryMetrics = secondaryMetrics;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public double[] rawData() {
+            return rawData;
+        }
+
+        public Map<String, Scenario.Metric> secondaryMetrics() {
+            return secondaryMetrics;
+        }
+
+        public double score() {
+            return Arrays.stream(rawData).average().orElse(Double.NaN);
+        }
+
+        /**
+         * @return the half-width of the 99.9% confidence interval
+         * or {@code NaN} if there's not enough data
+         */
+        public double scoreError() {
+            int n = rawData.length;
+            if (n < 2) {
+                return Double.NaN;
+            }
+
+            double mean = score();
+            double sum = 0;
+            for (double d : rawData) {
+                sum += (d - mean) * (d - mean);
+            }
+            double stdDev = Math.sqrt(sum / (n - 1));
+
+            int df = n - 1;
+            double t = df <= T_QUANTILES.length ? T_QUANTILES[df - 1] : T_QUANTILE_INF;
+            return t * stdDev / Math.sqrt(n);
+        }
+    }
+}
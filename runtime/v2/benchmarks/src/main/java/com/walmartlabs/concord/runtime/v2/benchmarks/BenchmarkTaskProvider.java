@@ -0,0 +1,72 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.runtime.v2.sdk.*;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Provides the {@code noop} task used by the benchmark flows.
+ * The task does no I/O so the measurements include only the runtime's
+ * own overhead: task lookup, input evaluation and output processing.
+ */
+public class BenchmarkTaskProvider implements TaskProvider {
+
+    public static final String TASK_NAME = "noop";
+
+    private static final NoopTask INSTANCE = new NoopTask();
+
+    @Override
+    public Task createTask(Context ctx, String key) {
+        if (!TASK_NAME.equals(key)) {
+            return null;
+        }
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean hasTask(String key) {
+        return TASK_NAME.equals(key);
+    }
+
+    @Override
+    public Set<String> names() {
+        return Collections.singleton(TASK_NAME);
+    }
+
+    public static class NoopTask implements Task {
+
+        @Override
+        public TaskResult execute(Variables input) {
+            return TaskResult.success()
+                    .value("size", input.toMap().size());
+        }
+
+        /**
+         * Used in expressions, e.g. {@code ${noop.echo(x)}}.
+         */
+        public Object echo(Object value) {
+            return value;
+        }
+    }
+}
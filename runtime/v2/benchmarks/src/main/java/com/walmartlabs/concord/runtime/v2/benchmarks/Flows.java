@@ -0,0 +1,148 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+/**
+ * Generates the {@code concord.yml} files used by the benchmarks.
+ * The flows are generated instead of being stored as resources to make
+ * the sizes easy to change.
+ */
+public final class Flows {
+
+    /**
+     * A single flow with {@code steps} groups of steps. Each group contains
+     * an expression, {@code set} steps, a task call and an {@code if} step.
+     */
+    public static String sequential(int steps) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("flows:\n");
+        sb.append("  default:\n");
+        sb.append("    - set:\n");
+        sb.append("        x: 0\n");
+        for (int i = 0; i < steps; i++) {
+            appendTaskCall(sb, "    ", i);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * {@code depth} flows, each one calling the next one.
+     */
+    public static String callChain(int depth) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("flows:\n");
+        sb.append("  default:\n");
+        sb.append("    - set:\n");
+        sb.append("        x: 0\n");
+        sb.append("    - call: f0\n");
+        for (int i = 0; i < depth; i++) {
+            sb.append("  f").append(i).append(":\n");
+            appendTaskCall(sb, "    ", i);
+            if (i + 1 < depth) {
+                sb.append("    - call: f").append(i + 1).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A {@code parallel} block with {@code branches} branches,
+     * each one calling a flow with {@code steps} groups of steps.
+     */
+    public static String parallel(int branches, int steps) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("flows:\n");
+        sb.append("  default:\n");
+        sb.append("    - parallel:\n");
+        for (int i = 0; i < branches; i++) {
+            sb.append("        - call: branch\n");
+            sb.append("          in:\n");
+            sb.append("            x: ").append(i).append("\n");
+        }
+        sb.append("  branch:\n");
+        for (int i = 0; i < steps; i++) {
+            appendTaskCall(sb, "    ", i);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A task call and a flow call, both iterating over the {@code items}
+     * input variable.
+     */
+    public static String withItems() {
+        return "flows:\n" +
+                "  default:\n" +
+                "    - task: noop\n" +
+                "      in:\n" +
+                "        item: \"${item}\"\n" +
+                "      out: result\n" +
+                "      withItems: \"${items}\"\n" +
+                "    - call: inner\n" +
+                "      in:\n" +
+                "        x: \"${item}\"\n" +
+                "      withItems: \"${items}\"\n" +
+                "  inner:\n" +
+                "    - set:\n" +
+                "        y: \"${x + 1}\"\n";
+    }
+
+    /**
+     * A flow with {@code cycles} {@code suspend} steps.
+     * Each suspend is followed by a group of steps.
+     */
+    public static String suspendResume(int cycles) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("flows:\n");
+        sb.append("  default:\n");
+        sb.append("    - set:\n");
+        sb.append("        x: 0\n");
+        for (int i = 0; i < cycles; i++) {
+            sb.append("    - suspend: ").append(eventName(i)).append("\n");
+            appendTaskCall(sb, "    ", i);
+        }
+        return sb.toString();
+    }
+
+    public static String eventName(int i) {
+        return "ev" + i;
+    }
+
+    private static void appendTaskCall(StringBuilder sb, String indent, int i) {
+        sb.append(indent).append("- \"${noop.echo(x)}\"\n");
+        sb.append(indent).append("- set:\n");
+        sb.append(indent).append("    y: \"${x + 1}\"\n");
+        sb.append(indent).append("- set:\n");
+        sb.append(indent).append("    x: \"${y}\"\n");
+        sb.append(indent).append("- task: noop\n");
+        sb.append(indent).append("  in:\n");
+        sb.append(indent).append("    step: ").append(i).append("\n");
+        sb.append(indent).append("    value: \"value-${x}\"\n");
+        sb.append(indent).append("  out: result\n");
+        sb.append(indent).append("- if: \"${result.size > 1}\"\n");
+        sb.append(indent).append("  then:\n");
+        sb.append(indent).append("    - set:\n");
+        sb.append(indent).append("        ok: true\n");
+    }
+
+    private Flows() {
+    }
+}
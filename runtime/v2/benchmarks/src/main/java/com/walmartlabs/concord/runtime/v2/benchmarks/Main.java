@@ -0,0 +1,170 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the runtime v2 benchmarks in the current JVM.
+ * <p/>
+ * Usage: {@code java -jar concord-runtime-benchmarks-v2-jar-with-dependencies.jar [options] [regex...]}
+ * <ul>
+ *     <li>{@code -wi <n>} - number of warmup iterations (default: 5);</li>
+ *     <li>{@code -i <n>} - number of measurement iterations (default: 5);</li>
+ *     <li>{@code -r <ms>} - duration of each iteration in milliseconds (default: 1000);</li>
+ *     <li>{@code -rff <file>} - save the results in a JMH-compatible JSON file;</li>
+ *     <li>{@code -l} - list the available benchmarks and exit.</li>
+ * </ul>
+ * Only the benchmarks with names matching any of the specified regular
+ * expressions are executed.
+ */
+public class Main {
+
+    public static void main(String[] args) throws Exception {
+        int warmupIterations = 5;
+        int measurementIterations = 5;
+        long iterationTimeMs = 1000;
+        Path resultFile = null;
+        boolean list = false;
+        List<Pattern> includes = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            switch (a) {
+                case "-wi":
+                    warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-i":
+                    measurementIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-r":
+                    iterationTimeMs = Long.parseLong(args[++i]);
+                    break;
+                case "-rff":
+                    resultFile = Paths.get(args[++i]);
+                    break;
+                case "-l":
+                    list = true;
+                    break;
+                default:
+                    includes.add(Pattern.compile(a));
+            }
+        }
+
+        List<Scenario> scenarios = Scenario.all().stream()
+                .filter(s -> includes.isEmpty() || includes.stream().anyMatch(p -> p.matcher(s.name()).find()))
+                .collect(Collectors.toList());
+
+        if (list) {
+            scenarios.forEach(s -> System.out.println(s.name()));
+            return;
+        }
+
+        // the runner's logback.xml logs everything at INFO
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, measurementIterations, iterationTimeMs);
+
+        List<BenchmarkRunner.Result> results = new ArrayList<>();
+        for (Scenario s : scenarios) {
+            System.out.println("# " + s.name());
+            BenchmarkRunner.Result r = runner.run(s);
+            System.out.println(String.format("  %.3f +- %.3f ms/op", r.score(), r.scoreError()));
+            r.secondaryMetrics().forEach((k, m) -> System.out.println(String.format("  %s: %.0f %s", k, m.value(), m.unit())));
+            results.add(r);
+        }
+
+        System.out.println();
+        System.out.println(String.format("%-24s %5s %12s %12s  %s", "Benchmark", "Cnt", "Score", "Error", "Units"));
+        for (BenchmarkRunner.Result r : results) {
+            System.out.println(String.format("%-24s %5d %12.3f %12.3f  %s", r.name(), r.rawData().length, r.score(), r.scoreError(), "ms/op"));
+            r.secondaryMetrics().forEach((k, m) -> System.out.println(String.format("%-24s %5d %12.0f %12s  %s", r.name() + ":" + k, 1, m.value(), "", m.unit())));
+        }
+
+        if (resultFile != null) {
+            ObjectMapper om = new ObjectMapper()
+                    .enable(SerializationFeature.INDENT_OUTPUT);
+            om.writeValue(resultFile.toFile(), toJson(runner, results));
+            System.out.println();
+            System.out.println("Results saved to " + resultFile.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Converts the results into JMH's JSON format, so the existing tools
+     * (e.g. JMH Visualizer, Jenkins JMH plugin) can be used to track the trends.
+     */
+    private static List<Map<String, Object>> toJson(BenchmarkRunner runner, List<BenchmarkRunner.Result> results) {
+        List<Map<String, Object>> l = new ArrayList<>();
+        for (BenchmarkRunner.Result r : results) {
+            double score = r.score();
+            double error = r.scoreError();
+
+            Map<String, Object> primaryMetric = new LinkedHashMap<>();
+            primaryMetric.put("score", score);
+            primaryMetric.put("scoreError", Double.isNaN(error) ? "NaN" : error);
+            primaryMetric.put("scoreConfidence", Double.isNaN(error) ? Arrays.asList("NaN", "NaN") : Arrays.asList(score - error, score + error));
+            primaryMetric.put("scoreUnit", "ms/op");
+            primaryMetric.put("rawData", Collections.singletonList(r.rawData()));
+
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("benchmark", Main.class.getPackage().getName() + "." + r.name());
+            m.put("mode", "avgt");
+            m.put("threads", 1);
+            m.put("forks", 0);
+            m.put("jvm", System.getProperty("java.home"));
+            m.put("jdkVersion", System.getProperty("java.version"));
+            m.put("vmName", System.getProperty("java.vm.name"));
+            m.put("vmVersion", System.getProperty("java.vm.version"));
+            m.put("warmupIterations", runner.warmupIterations());
+            m.put("warmupTime", runner.iterationTimeMs() + " ms");
+            m.put("measurementIterations", runner.measurementIterations());
+            m.put("measurementTime", runner.iterationTimeMs() + " ms");
+            m.put("primaryMetric", primaryMetric);
+            m.put("secondaryMetrics", toJson(r.secondaryMetrics()));
+            l.add(m);
+        }
+        return l;
+    }
+
+    private static Map<String, Object> toJson(Map<String, Scenario.Metric> metrics) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        metrics.forEach((k, v) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("score", v.value());
+            m.put("scoreError", "NaN");
+            m.put("scoreConfidence", Arrays.asList(v.value(), v.value()));
+            m.put("scoreUnit", v.unit());
+            m.put("rawData", Collections.singletonList(new double[]{v.value()}));
+            result.put(k, m);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,508 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.runtime.common.SerializationUtils;
+import com.walmartlabs.concord.runtime.common.StateCodec;
+import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
+import com.walmartlabs.concord.runtime.v2.runner.ProcessSnapshot;
+import com.walmartlabs.concord.runtime.v2.runner.context.ContextImpl;
+import com.walmartlabs.concord.runtime.v2.runner.el.DefaultExpressionEvaluator;
+import com.walmartlabs.concord.runtime.v2.runner.el.EvalContext;
+import com.walmartlabs.concord.runtime.v2.runner.el.EvalContextFactory;
+import com.walmartlabs.concord.runtime.v2.runner.el.ExpressionEvaluator;
+import com.walmartlabs.concord.runtime.v2.runner.tasks.TaskProviders;
+import com.walmartlabs.concord.runtime.v2.runner.vm.SerializabilityValidator;
+import com.walmartlabs.concord.svm.Runtime;
+import com.walmartlabs.concord.svm.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A single benchmark. {@link #run()} is called repeatedly between
+ * {@link #setUp()} and {@link #tearDown()}.
+ */
+public abstract class Scenario {
+
+    public static List<Scenario> all() {
+        return Arrays.asList(
+                new Parse("parse.sequential", Flows.sequential(500)),
+                new Compile("compile.sequential", Flows.sequential(500)),
+                new Start("run.sequential", Flows.sequential(500), Collections.emptyMap()),
+                new Start("run.callChain", Flows.callChain(100), Collections.emptyMap()),
+                new Start("run.parallel", Flows.parallel(16, 20), Collections.emptyMap()),
+                new Start("run.withItems", Flows.withItems(), Collections.singletonMap("items", items(1000))),
+                new SuspendResume("run.suspendResume", 20),
+                new StateContention("state.contention", 64, 1000),
+                new Eval("el.cached", 1000, false),
+                new Eval("el.uncached", 1000, true),
+                new StateSerialization("state.encode", 1000, false, false),
+                new StateSerialization("state.decode", 1000, true, false),
+                new StateSerialization("state.encode.java", 1000, false, true),
+                new StateSerialization("state.decode.java", 1000, true, true),
+                new Validate("validate.items", 1000, false),
+                new Validate("validate.items.java", 1000, true));
+    }
+
+    private final String name;
+
+    protected Scenario(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public abstract void setUp() throws Exception;
+
+    public abstract void run() throws Exception;
+
+    public abstract void tearDown() throws Exception;
+
+    /**
+     * Additional results of the benchmark, e.g. the size of the produced data.
+     * Called after the measurement iterations.
+     */
+    public Map<String, Metric> secondaryMetrics() {
+        return Collections.emptyMap();
+    }
+
+    public static final class Metric {
+
+        private final double value;
+        private final String unit;
+
+        public Metric(double value, String unit) {
+            this.value = value;
+            this.unit = unit;
+        }
+
+        public double value() {
+            return value;
+        }
+
+        public String unit() {
+            return unit;
+        }
+    }
+
+    /**
+     * Base class for the scenarios that use a single process.
+     */
+    private abstract static class ProcessScenario extends Scenario {
+
+        private final String concordYml;
+
+        protected BenchmarkProcess process;
+        protected ProcessDefinition processDefinition;
+
+        protected ProcessScenario(String name, String concordYml) {
+            super(name);
+            this.concordYml = concordYml;
+        }
+
+        @Override
+        public void setUp() throws Exception {
+            process = new BenchmarkProcess(concordYml);
+            processDefinition = process.load();
+        }
+
+        @Override
+        public void tearDown() throws Exception {
+            if (process != null) {
+                process.close();
+            }
+        }
+    }
+
+    /**
+     * Parsing of {@code concord.yml}.
+     */
+    private static class Parse extends ProcessScenario {
+
+        private Parse(String name, String concordYml) {
+            super(name, concordYml);
+        }
+
+        @Override
+        public void run() throws Exception {
+            process.load();
+        }
+    }
+
+    /**
+     * Compilation of the entry point flow into VM commands.
+     */
+    private static class Compile extends ProcessScenario {
+
+        private Compile(String name, String concordYml) {
+            super(name, concordYml);
+        }
+
+        @Override
+        public void run() {
+            process.compile(processDefinition);
+        }
+    }
+
+    /**
+     * Full process execution using {@code Runner#start}.
+     */
+    private static class Start extends ProcessScenario {
+
+        private final Map<String, Object> input;
+
+        private Start(String name, String concordYml, Map<String, Object> input) {
+            super(name, concordYml);
+            this.input = input;
+        }
+
+        @Override
+        public void run() throws Exception {
+            ProcessSnapshot snapshot = process.start(processDefinition, new HashMap<>(input));
+            assertFinished(snapshot);
+        }
+    }
+
+    /**
+     * Starts a process which suspends {@code cycles} times. Each time
+     * the process state is serialized, deserialized and resumed.
+     */
+    private static class SuspendResume extends ProcessScenario {
+
+        private final int cycles;
+
+        private SuspendResume(String name, int cycles) {
+            super(name, Flows.suspendResume(cycles));
+            this.cycles = cycles;
+        }
+
+        @Override
+        public void run() throws Exception {
+            ProcessSnapshot snapshot = process.start(processDefinition, new HashMap<>());
+            for (int i = 0; i < cycles; i++) {
+                snapshot = process.roundTrip(snapshot);
+                snapshot = process.resume(snapshot, Flows.eventName(i), new HashMap<>());
+            }
+            assertFinished(snapshot);
+        }
+    }
+
+    /**
+     * {@code threads} VM threads working concurrently with their own frames
+     * in the same {@link InMemoryState}, similarly to "parallel" blocks.
+     */
+    private static class StateContention extends Scenario {
+
+        private final int threads;
+        private final int iterations;
+
+        private ExecutorService executor;
+
+        private StateContention(String name, int threads, int iterations) {
+            super(name);
+            this.threads = threads;
+            this.iterations = iterations;
+        }
+
+        @Override
+        public void setUp() {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+
+        @Override
+        public void run() throws Exception {
+            State state = new InMemoryState(Frame.builder().root().build());
+
+            List<ThreadId> ids = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                ThreadId id = state.nextThreadId();
+                state.fork(state.getRootThreadId(), id, new NoopCommand());
+                ids.add(id);
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>(threads);
+            for (ThreadId id : ids) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    run(state, id);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> f : results) {
+                f.get();
+            }
+        }
+
+        private void run(State state, ThreadId threadId) {
+            for (int i = 0; i < iterations; i++) {
+                state.pushFrame(threadId, Frame.builder()
+                        .nonRoot()
+                        .commands(new NoopCommand())
+                        .build());
+
+                Frame frame = state.peekFrame(threadId);
+                frame.setLocal("i", i);
+                frame.push(new NoopCommand());
+                frame.pop();
+
+                state.getFrames(threadId);
+                state.getStatus(threadId);
+
+                state.popFrame(threadId);
+            }
+
+            state.setStatus(threadId, ThreadStatus.DONE);
+        }
+
+        @Override
+        public void tearDown() {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * {@code evaluations} evaluations of a string expression with a method
+     * call and an arithmetic operation. When {@code unique} is {@code true}
+     * each evaluation uses a new expression, i.e. the expression has to be
+     * parsed every time.
+     */
+    private static class Eval extends Scenario {
+
+        private final int evaluations;
+        private final boolean unique;
+
+        private ExpressionEvaluator ee;
+        private EvalContext ctx;
+        private long counter;
+
+        private Eval(String name, int evaluations, boolean unique) {
+            super(name);
+            this.evaluations = evaluations;
+            this.unique = unique;
+        }
+
+        @Override
+        public void setUp() {
+            Map<String, Object> vars = new HashMap<>();
+            vars.put("item", Collections.singletonMap("name", "abc"));
+            vars.put("x", 123);
+
+            State state = new InMemoryState(Frame.builder().root().locals(vars).build());
+
+            ee = new DefaultExpressionEvaluator(new TaskProviders());
+            ctx = EvalContextFactory.global(new ContextImpl(null, ee, state.getRootThreadId(), null, state,
+                    null, null, null, null, null, null, null, null, null, null, null));
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < evaluations; i++) {
+                String expr = unique ? "${item.name.toUpperCase()} ${x + " + (counter++) + "}" : "${item.name.toUpperCase()} ${x + 1}";
+                ee.eval(ctx, expr, String.class);
+            }
+        }
+
+        @Override
+        public void tearDown() {
+            ee = null;
+            ctx = null;
+        }
+    }
+
+    /**
+     * Encoding or decoding of the state of a suspended process with
+     * {@code items} maps in its variables. Uses {@link StateCodec} or,
+     * if {@code java} is {@code true}, the regular Java serialization.
+     * The size of the encoded state is reported as a secondary metric.
+     */
+    private static class StateSerialization extends ProcessScenario {
+
+        private final int items;
+        private final boolean decode;
+        private final boolean java;
+
+        private ProcessSnapshot snapshot;
+        private byte[] data;
+
+        private StateSerialization(String name, int items, boolean decode, boolean java) {
+            super(name, Flows.suspendResume(1));
+            this.items = items;
+            this.decode = decode;
+            this.java = java;
+        }
+
+        @Override
+        public void setUp() throws Exception {
+            super.setUp();
+
+            Map<String, Object> input = new HashMap<>();
+            input.put("items", itemShapes(items));
+            snapshot = process.start(processDefinition, input);
+            data = encode();
+        }
+
+        @Override
+        public void run() throws Exception {
+            if (decode) {
+                decode();
+            } else {
+                encode();
+            }
+        }
+
+        @Override
+        public Map<String, Metric> secondaryMetrics() {
+            return Collections.singletonMap("size", new Metric(data.length, "bytes"));
+        }
+
+        private byte[] encode() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (java) {
+                SerializationUtils.serialize(out, snapshot);
+            } else {
+                StateCodec.encode(out, snapshot);
+            }
+            return out.toByteArray();
+        }
+
+        private ProcessSnapshot decode() throws Exception {
+            try (ByteArrayInputStream in = new ByteArrayInputStream(data)) {
+                if (java) {
+                    return SerializationUtils.deserialize(in, ProcessSnapshot.class);
+                }
+                return (ProcessSnapshot) StateCodec.decode(in, StateSerialization.class.getClassLoader());
+            }
+        }
+    }
+
+    /**
+     * Checks if each of {@code items} maps can be serialized, the same way
+     * "withItems" checks its items. Uses {@link SerializabilityValidator} or,
+     * if {@code java} is {@code true}, the regular Java serialization.
+     */
+    private static class Validate extends Scenario {
+
+        private final int items;
+        private final boolean java;
+
+        private List<Map<String, Object>> values;
+
+        private Validate(String name, int items, boolean java) {
+            super(name);
+            this.items = items;
+            this.java = java;
+        }
+
+        @Override
+        public void setUp() {
+            values = itemShapes(items);
+        }
+
+        @Override
+        public void run() {
+            for (Map<String, Object> v : values) {
+                boolean result = java ? canSerialize(v) : SerializabilityValidator.isSerializable(v);
+                if (!result) {
+                    throw new IllegalStateException("Expected a serializable value: " + v);
+                }
+            }
+        }
+
+        @Override
+        public void tearDown() {
+            values = null;
+        }
+
+        private static boolean canSerialize(Object o) {
+            try (ObjectOutputStream oos = new ObjectOutputStream(new ByteArrayOutputStream())) {
+                oos.writeObject(o);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    private static class NoopCommand implements Command {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void eval(Runtime runtime, State state, ThreadId threadId) {
+            // do nothing
+        }
+    }
+
+    private static void assertFinished(ProcessSnapshot snapshot) {
+        State state = snapshot.vmState();
+        for (Map.Entry<?, ThreadStatus> e : state.threadStatus().entrySet()) {
+            if (e.getValue() != ThreadStatus.DONE) {
+                throw new IllegalStateException("Unexpected thread status: " + e.getKey() + " -> " + e.getValue());
+            }
+        }
+    }
+
+    private static List<Integer> items(int count) {
+        List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    /**
+     * Maps similar to the typical "withItems" items and task results:
+     * strings, numbers, booleans and nested lists and maps.
+     */
+    private static List<Map<String, Object>> itemShapes(int count) {
+        List<Map<String, Object>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> owner = new LinkedHashMap<>();
+            owner.put("username", "user" + (i % 100));
+            owner.put("active", true);
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "item-" + i);
+            item.put("enabled", i % 2 == 0);
+            item.put("weight", i * 0.1);
+            item.put("tags", new ArrayList<>(Arrays.asList("alpha", "beta", "gamma")));
+            item.put("owner", owner);
+            result.add(item);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package com.walmartlabs.concord.runtime.v2.benchmarks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+public class ScenarioTest {
+
+    /**
+     * Runs each benchmark once to make sure the flows are still valid.
+     */
+    @Test
+    public void testAll() throws Exception {
+        for (Scenario s : Scenario.all()) {
+            s.setUp();
+            try {
+                s.run();
+            } finally {
+                s.tearDown();
+            }
+        }
+    }
+}
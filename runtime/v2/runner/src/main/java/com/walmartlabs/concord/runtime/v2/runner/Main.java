@@ -166,7 +166,7 @@ public class Main {
         }
 
         if (isSuspended(snapshot)) {
-            StateManager.finalizeSuspendedState(workDir, snapshot, getEvents(snapshot)); // TODO make it an interface?
+            StateManager.finalizeSuspendedState(workDir, snapshot, getEvents(snapshot), runnerCfg.compactState()); // TODO make it an interface?
         } else {
             StateManager.cleanupState(workDir); // TODO make it an interface
         }
@@ -0,0 +1,252 @@
+package com.walmartlabs.concord.runtime.v2.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.runtime.common.cfg.ParallelExecutionConfiguration;
+import com.walmartlabs.concord.runtime.v2.runner.logging.LogContext;
+import com.walmartlabs.concord.runtime.v2.runner.logging.LogUtils;
+import com.walmartlabs.concord.svm.ThreadId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executes VM threads using a limited number of "real" threads.
+ * Threads over the limit are queued and started as soon as one of the running
+ * threads completes or starts waiting for its children.
+ */
+public class ParallelExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelExecutor.class);
+
+    private final ExecutorService executor;
+    private final int maxThreads;
+    private final int maxThreadsPerBlock;
+
+    private final ThreadLocal<Task> currentTask = new ThreadLocal<>();
+
+    // guarded by "this"
+    // VM threads waiting to be started, grouped by the parent thread
+    private final Map<ThreadId, Deque<Task>> queues = new LinkedHashMap<>();
+    private final Map<ThreadId, Integer> activePerParent = new HashMap<>();
+    private int active;
+    private int queued;
+
+    // stats, guarded by "this"
+    private long started;
+    private int maxActive;
+    private int maxQueued;
+
+    public ParallelExecutor(ParallelExecutionConfiguration cfg) {
+        this.executor = createExecutor(cfg.useVirtualThreads());
+        this.maxThreads = cfg.maxThreads();
+        this.maxThreadsPerBlock = cfg.maxThreadsPerBlock();
+    }
+
+    /**
+     * Submits the specified VM thread for execution. The thread is queued if the limits are reached.
+     */
+    public void submit(ThreadId threadId, Runnable runnable) {
+        // forks are performed by the parent thread, so the current task is the parent one
+        Task parent = currentTask.get();
+        Task task = new Task(parent != null ? parent.threadId : null, threadId, LogUtils.getContext(), runnable);
+
+        synchronized (this) {
+            queues.computeIfAbsent(task.parentId, k -> new ArrayDeque<>()).add(task);
+            queued++;
+            schedule();
+        }
+    }
+
+    /**
+     * Releases the current thread's slot while it waits for other threads.
+     */
+    public void beforeBlocking() {
+        Task task = currentTask.get();
+        if (task == null) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!task.blocked) {
+                task.blocked = true;
+                active--;
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Takes the slot back. Doesn't wait for a free slot to avoid deadlocks,
+     * so the limit can be exceeded for a short time.
+     */
+    public void afterBlocking() {
+        Task task = currentTask.get();
+        if (task == null) {
+            return;
+        }
+
+        synchronized (this) {
+            if (task.blocked) {
+                task.blocked = false;
+                active++;
+                maxActive = Math.max(maxActive, active);
+            }
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(started, active, queued, maxActive, maxQueued);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void schedule() {
+        Iterator<Map.Entry<ThreadId, Deque<Task>>> it = queues.entrySet().iterator();
+        while (it.hasNext() && (maxThreads <= 0 || active < maxThreads)) {
+            Map.Entry<ThreadId, Deque<Task>> e = it.next();
+
+            Deque<Task> q = e.getValue();
+            while (!q.isEmpty() && (maxThreads <= 0 || active < maxThreads)
+                    && (maxThreadsPerBlock <= 0 || activePerParent.getOrDefault(e.getKey(), 0) < maxThreadsPerBlock)) {
+
+                start(q.poll());
+            }
+
+            if (q.isEmpty()) {
+                it.remove();
+            }
+        }
+
+        maxQueued = Math.max(maxQueued, queued);
+    }
+
+    private void start(Task task) {
+        queued--;
+        active++;
+        activePerParent.merge(task.parentId, 1, Integer::sum);
+
+        started++;
+        maxActive = Math.max(maxActive, active);
+
+        executor.execute(() -> run(task));
+    }
+
+    private void run(Task task) {
+        currentTask.set(task);
+        try {
+            // pooled threads don't inherit the log context of the parent thread
+            LogUtils.withContext(task.logContext, task.runnable);
+        } finally {
+            currentTask.remove();
+            complete(task);
+        }
+    }
+
+    private synchronized void complete(Task task) {
+        if (!task.blocked) {
+            active--;
+        }
+
+        Integer n = activePerParent.merge(task.parentId, -1, Integer::sum);
+        if (n != null && n <= 0) {
+            activePerParent.remove(task.parentId);
+        }
+
+        schedule();
+    }
+
+    private static ExecutorService createExecutor(boolean useVirtualThreads) {
+        if (useVirtualThreads) {
+            try {
+                Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) m.invoke(null);
+            } catch (NoSuchMethodException e) {
+                log.warn("createExecutor -> virtual threads are not supported by the current JVM, using regular threads");
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Error while creating a virtual thread executor", e);
+            }
+        }
+
+        return Executors.newCachedThreadPool();
+    }
+
+    private static class Task {
+
+        private final ThreadId parentId;
+        private final ThreadId threadId;
+        private final LogContext logContext;
+        private final Runnable runnable;
+
+        // guarded by the executor's monitor
+        private boolean blocked;
+
+        private Task(ThreadId parentId, ThreadId threadId, LogContext logContext, Runnable runnable) {
+            this.parentId = parentId;
+            this.threadId = threadId;
+            this.logContext = logContext;
+            this.runnable = runnable;
+        }
+    }
+
+    public static class Stats {
+
+        private final long started;
+        private final int active;
+        private final int queued;
+        private final int maxActive;
+        private final int maxQueued;
+
+        private Stats(long started, int active, int queued, int maxActive, int maxQueued) {
+            this.started = started;
+            this.active = active;
+            this.queued = queued;
+            this.maxActive = maxActive;
+            this.maxQueued = maxQueued;
+        }
+
+        public long getStarted() {
+            return started;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public int getMaxActive() {
+            return maxActive;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+    }
+}
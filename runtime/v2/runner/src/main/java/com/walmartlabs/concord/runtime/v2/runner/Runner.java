@@ -23,6 +23,7 @@ package com.walmartlabs.concord.runtime.v2.runner;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
+import com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration;
 import com.walmartlabs.concord.runtime.common.injector.InstanceId;
 import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
 import com.walmartlabs.concord.runtime.v2.runner.compiler.CompilerUtils;
@@ -45,6 +46,7 @@ public class Runner {
     private static final Logger log = LoggerFactory.getLogger(Runner.class);
 
     private final Injector injector;
+    private final RunnerConfiguration runnerCfg;
     private final InstanceId instanceId;
     private final Compiler compiler;
     private final SynchronizationService synchronizationService;
@@ -53,6 +55,7 @@ public class Runner {
 
     @Inject
     public Runner(Injector injector,
+                  RunnerConfiguration runnerCfg,
                   InstanceId instanceId,
                   Compiler compiler,
                   SynchronizationService synchronizationService,
@@ -60,6 +63,7 @@ public class Runner {
                   ProcessStatusCallback statusCallback) {
 
         this.injector = injector;
+        this.runnerCfg = runnerCfg;
         this.instanceId = instanceId;
         this.compiler = compiler;
         this.synchronizationService = synchronizationService;
@@ -74,11 +78,16 @@ public class Runner {
         Command cmd = CompilerUtils.compile(compiler, processConfiguration, processDefinition, processConfiguration.entryPoint());
         State state = withDefaultExceptionHandler(new InMemoryState(cmd));
 
-        VM vm = createVM(processDefinition);
-        // update the global variables using the input map by running a special command
-        vm.run(state, new UpdateLocalsCommand(input)); // TODO merge with the cfg's arguments
-        // start the normal execution
-        vm.start(state);
+        ParallelExecutor executor = new ParallelExecutor(runnerCfg.parallelExecution());
+        try {
+            VM vm = createVM(processDefinition, executor);
+            // update the global variables using the input map by running a special command
+            vm.run(state, new UpdateLocalsCommand(input)); // TODO merge with the cfg's arguments
+            // start the normal execution
+            vm.start(state);
+        } finally {
+            shutdown(executor);
+        }
 
         log.debug("start ['{}'] -> done", processConfiguration.entryPoint());
 
@@ -94,18 +103,23 @@ public class Runner {
 
         State state = withDefaultExceptionHandler(snapshot.vmState());
 
-        VM vm = createVM(snapshot.processDefinition());
+        ParallelExecutor executor = new ParallelExecutor(runnerCfg.parallelExecution());
+        try {
+            VM vm = createVM(snapshot.processDefinition(), executor);
 
-        // update the global variables using the input map by running a special command
-        // only the threads with the specified eventRef will receive the input
-        Collection<ThreadId> resumingThreads = state.getEventRefs().entrySet().stream()
-                .filter(kv -> eventRef.equals(kv.getValue()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-        vm.run(state, new UpdateLocalsCommand(input, resumingThreads));
+            // update the global variables using the input map by running a special command
+            // only the threads with the specified eventRef will receive the input
+            Collection<ThreadId> resumingThreads = state.getEventRefs().entrySet().stream()
+                    .filter(kv -> eventRef.equals(kv.getValue()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            vm.run(state, new UpdateLocalsCommand(input, resumingThreads));
 
-        // resume normally
-        vm.resume(state, eventRef);
+            // resume normally
+            vm.resume(state, eventRef);
+        } finally {
+            shutdown(executor);
+        }
 
         log.debug("resume ['{}'] -> done", eventRef);
 
@@ -121,11 +135,16 @@ public class Runner {
 
         State state = withDefaultExceptionHandler(snapshot.vmState());
 
-        VM vm = createVM(snapshot.processDefinition());
-        // update the global variables using the input map by running a special command
-        vm.run(state, new UpdateLocalsCommand(input));
-        // continue as usual
-        vm.start(state);
+        ParallelExecutor executor = new ParallelExecutor(runnerCfg.parallelExecution());
+        try {
+            VM vm = createVM(snapshot.processDefinition(), executor);
+            // update the global variables using the input map by running a special command
+            vm.run(state, new UpdateLocalsCommand(input));
+            // continue as usual
+            vm.start(state);
+        } finally {
+            shutdown(executor);
+        }
 
         log.debug("resume -> done");
 
@@ -135,16 +154,26 @@ public class Runner {
                 .build();
     }
 
-    private VM createVM(ProcessDefinition processDefinition) {
+    private VM createVM(ProcessDefinition processDefinition, ParallelExecutor executor) {
         Collection<ExecutionListener> listeners = new ArrayList<>();
         listeners.add(new SynchronizationServiceListener(synchronizationService));
         listeners.addAll(this.listeners);
 
-        RuntimeFactory runtimeFactory = vm -> new DefaultRuntime(vm, injectorWithProcessDefinition(injector, processDefinition));
+        RuntimeFactory runtimeFactory = vm -> new DefaultRuntime(vm, injectorWithProcessDefinition(injector, processDefinition), executor);
 
         return new VM(runtimeFactory, listeners);
     }
 
+    private static void shutdown(ParallelExecutor executor) {
+        executor.shutdown();
+
+        ParallelExecutor.Stats stats = executor.stats();
+        if (stats.getStarted() > 0) {
+            log.info("Parallel execution: {} thread(s) started, max active: {}, max queued: {}",
+                    stats.getStarted(), stats.getMaxActive(), stats.getMaxQueued());
+        }
+    }
+
     private static State withDefaultExceptionHandler(State state) {
         // install the exception handler into the root frame
         // takes care of all unhandled errors bubbling up
@@ -26,6 +26,7 @@ import com.walmartlabs.concord.client.ClientUtils;
 import com.walmartlabs.concord.common.ObjectInputStreamWithClassLoader;
 import com.walmartlabs.concord.common.TemporaryPath;
 import com.walmartlabs.concord.runtime.common.cfg.ApiConfiguration;
+import com.walmartlabs.concord.runtime.common.cfg.CheckpointConfiguration;
 import com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration;
 import com.walmartlabs.concord.runtime.common.injector.InstanceId;
 import com.walmartlabs.concord.runtime.v2.runner.ProcessSnapshot;
@@ -43,6 +44,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -55,8 +57,16 @@ public class DefaultCheckpointService implements CheckpointService {
     private final WorkingDirectory workingDirectory;
     private final ApiClient apiClient;
     private final ApiConfiguration apiConfiguration;
+    private final CheckpointConfiguration checkpointConfiguration;
+    private final boolean compactState;
     private final ClassLoader classLoader;
 
+    // the last checkpoint uploaded by the current process run
+    // used as the base for incremental checkpoints, guarded by "this"
+    private UUID lastCheckpointId;
+    private Map<String, String> lastChecksums;
+    private int incrementalCount;
+
     @Inject
     public DefaultCheckpointService(InstanceId instanceId,
                                     WorkingDirectory workingDirectory,
@@ -67,6 +77,8 @@ public class DefaultCheckpointService implements CheckpointService {
         this.instanceId = instanceId;
         this.workingDirectory = workingDirectory;
         this.apiConfiguration = configuration.api();
+        this.checkpointConfiguration = configuration.checkpoints();
+        this.compactState = configuration.compactState();
         this.apiClient = apiClient;
         this.classLoader = classLoader;
     }
@@ -77,7 +89,13 @@ public class DefaultCheckpointService implements CheckpointService {
 
         UUID checkpointId = UUID.randomUUID();
 
-        try (StateArchive archive = new StateArchive()) {
+        long t1 = System.currentTimeMillis();
+
+        UUID baseId = null;
+        long size;
+        int fileCount;
+
+        try (StateArchive archive = new StateArchive(compactState)) {
             // the goal here is to create a process state snapshot with
             // a "synthetic" event that can be used to continue the process
             // after the checkpoint step
@@ -95,7 +113,21 @@ public class DefaultCheckpointService implements CheckpointService {
                             .build())
                     .withSystemDirectory(workingDirectory.getValue());
 
+            Map<String, String> checksums = archive.checksums();
+            fileCount = checksums.size();
+
+            synchronized (this) {
+                if (checkpointConfiguration.incremental() && lastCheckpointId != null
+                        && incrementalCount < checkpointConfiguration.maxIncrementalCheckpoints()) {
+
+                    baseId = lastCheckpointId;
+                    archive.withBase(baseId, lastChecksums, checksums);
+                }
+            }
+
             try (TemporaryPath zip = archive.zip()) {
+                size = Files.size(zip.path());
+
                 Map<String, Object> data = new HashMap<>();
                 data.put("id", checkpointId);
                 data.put("name", name);
@@ -103,11 +135,21 @@ public class DefaultCheckpointService implements CheckpointService {
 
                 uploadCheckpoint(instanceId.getValue(), data);
             }
+
+            synchronized (this) {
+                lastCheckpointId = checkpointId;
+                lastChecksums = checksums;
+                incrementalCount = baseId != null ? incrementalCount + 1 : 0;
+            }
         } catch (Exception e) {
             throw new RuntimeException("Checkpoint upload error", e);
         }
 
-        log.info("create ['{}'] -> done", name);
+        if (baseId != null) {
+            log.info("create ['{}'] -> done, incremental (base: {}), {} bytes, {} file(s) total, took {}ms", name, baseId, size, fileCount, System.currentTimeMillis() - t1);
+        } else {
+            log.info("create ['{}'] -> done, full, {} bytes, {} file(s), took {}ms", name, size, fileCount, System.currentTimeMillis() - t1);
+        }
     }
 
     private void uploadCheckpoint(UUID instanceId, Map<String, Object> data) throws ApiException {
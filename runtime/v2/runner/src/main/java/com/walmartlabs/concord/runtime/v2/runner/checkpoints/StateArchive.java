@@ -20,6 +20,7 @@ package com.walmartlabs.concord.runtime.v2.runner.checkpoints;
  * =====
  */
 
+import com.google.common.hash.Hashing;
 import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.common.TemporaryPath;
 import com.walmartlabs.concord.runtime.common.StateManager;
@@ -32,13 +33,26 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class StateArchive implements AutoCloseable {
 
     private final TemporaryPath dir;
+    private final boolean compactState;
 
     public StateArchive() throws IOException {
+        this(false);
+    }
+
+    /**
+     * @param compactState if {@code true} the process state is saved
+     *                     using the {@link com.walmartlabs.concord.runtime.common.StateCodec} format.
+     */
+    public StateArchive(boolean compactState) throws IOException {
         this.dir = IOUtils.tempDir("state-archive");
+        this.compactState = compactState;
     }
 
     @Override
@@ -48,7 +62,7 @@ public class StateArchive implements AutoCloseable {
 
     public StateArchive withProcessState(ProcessSnapshot snapshot) {
         try {
-            StateManager.saveProcessState(dir.path(), snapshot);
+            StateManager.saveProcessState(dir.path(), snapshot, compactState);
         } catch (IOException e) {
             throw new RuntimeException("Error while saving process state: " + e.getMessage(), e);
         }
@@ -78,6 +92,60 @@ public class StateArchive implements AutoCloseable {
         return this;
     }
 
+    /**
+     * Returns checksums of all files in the archive, keyed by the relative path.
+     */
+    public Map<String, String> checksums() throws IOException {
+        Map<String, String> result = new HashMap<>();
+
+        Path root = dir.path();
+
+        List<Path> files;
+        try (Stream<Path> s = Files.walk(root)) {
+            files = s.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        for (Path p : files) {
+            String name = root.relativize(p).toString().replace('\\', '/');
+            result.put(name, Hashing.sha256().hashBytes(Files.readAllBytes(p)).toString());
+        }
+
+        return result;
+    }
+
+    /**
+     * Turns the archive into an incremental one: removes the files
+     * that weren't changed since the base checkpoint and saves the list
+     * of files removed since the base checkpoint.
+     *
+     * @param baseId        ID of the base checkpoint
+     * @param baseChecksums file checksums of the base checkpoint
+     * @param checksums     file checksums of the current archive, see {@link #checksums()}
+     */
+    public StateArchive withBase(UUID baseId, Map<String, String> baseChecksums, Map<String, String> checksums) {
+        List<String> lines = new ArrayList<>();
+        lines.add(baseId.toString());
+
+        try {
+            for (Map.Entry<String, String> e : baseChecksums.entrySet()) {
+                String name = e.getKey();
+
+                String checksum = checksums.get(name);
+                if (checksum == null) {
+                    lines.add(name);
+                } else if (checksum.equals(e.getValue())) {
+                    Files.delete(dir.path().resolve(name));
+                }
+            }
+
+            Files.write(dir.path().resolve(Constants.Files.CHECKPOINT_DELTA_FILE_NAME), lines);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while creating an incremental checkpoint: " + e.getMessage(), e);
+        }
+
+        return this;
+    }
+
     public TemporaryPath zip() throws IOException {
         Path dst = IOUtils.createTempFile("state", ".zip");
         try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(dst));
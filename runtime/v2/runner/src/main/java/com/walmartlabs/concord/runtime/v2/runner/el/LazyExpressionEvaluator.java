@@ -20,6 +20,8 @@ package com.walmartlabs.concord.runtime.v2.runner.el;
  * =====
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.walmartlabs.concord.common.ConfigurationUtils;
 import com.walmartlabs.concord.runtime.v2.runner.el.functions.AllVariablesFunction;
 import com.walmartlabs.concord.runtime.v2.runner.el.functions.HasVariableFunction;
@@ -42,13 +44,30 @@ import static com.walmartlabs.concord.runtime.v2.runner.el.ThreadLocalEvalContex
  */
 public class LazyExpressionEvaluator implements ExpressionEvaluator {
 
-    private final ExpressionFactory expressionFactory = ExpressionFactory.newInstance();
+    private static final int EXPRESSION_CACHE_SIZE = 4096;
+
+    private static final ExpressionFactory expressionFactory = ExpressionFactory.newInstance();
+    private static final FunctionMapper functionMapper = createFunctionMapper();
+
+    // parsed expressions don't depend on the evaluation context, so they can be shared
+    // (the function mapper is the same for all expressions and EL variables are not used)
+    private static final Cache<ExpressionKey, ValueExpression> expressionCache = CacheBuilder.newBuilder()
+            .maximumSize(EXPRESSION_CACHE_SIZE)
+            .build();
+
+    // stateless resolvers, shared between evaluations
+    private static final ELResolver streamResolver = expressionFactory.getStreamELResolver();
+    private static final ELResolver staticFieldResolver = new StaticFieldELResolver();
+    private static final ELResolver mapResolver = new MapELResolver();
+    private static final ELResolver resourceBundleResolver = new ResourceBundleELResolver();
+    private static final ELResolver listResolver = new ListELResolver();
+    private static final ELResolver arrayResolver = new ArrayELResolver();
+    private static final ELResolver beanResolver = new BeanELResolver();
+
     private final TaskProviders taskProviders;
-    private final FunctionMapper functionMapper;
 
     public LazyExpressionEvaluator(TaskProviders taskProviders) {
         this.taskProviders = taskProviders;
-        this.functionMapper = createFunctionMapper();
     }
 
     @Override
@@ -119,7 +138,7 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
     }
 
     private <T> T evalExpr(LazyEvalContext ctx, String expr, Class<T> type) {
-        ELResolver resolver = createResolver(ctx, expressionFactory);
+        ELResolver resolver = createResolver(ctx);
 
         StandardELContext sc = new StandardELContext(expressionFactory) {
             @Override
@@ -134,7 +153,7 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
         };
         sc.putContext(ExpressionFactory.class, expressionFactory);
 
-        ValueExpression x = expressionFactory.createValueExpression(sc, expr, type);
+        ValueExpression x = getExpression(sc, expr, type);
         try {
             Object v = withEvalContext(ctx, () -> x.getValue(sc));
             return type.cast(v);
@@ -147,13 +166,32 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
         }
     }
 
+    /**
+     * Returns the cached parsed expression or {@code null}. Used in tests.
+     */
+    static ValueExpression getCachedExpression(String expr, Class<?> type) {
+        return expressionCache.getIfPresent(new ExpressionKey(expr, type));
+    }
+
+    private static ValueExpression getExpression(ELContext ctx, String expr, Class<?> type) {
+        ExpressionKey key = new ExpressionKey(expr, type);
+
+        ValueExpression result = expressionCache.getIfPresent(key);
+        if (result == null) {
+            // parse errors are not cached
+            result = expressionFactory.createValueExpression(ctx, expr, type);
+            expressionCache.put(key, result);
+        }
+
+        return result;
+    }
+
     /**
      * Based on the original code from {@link StandardELContext#getELResolver()}.
      * Creates a {@link ELResolver} instance with "sub-resolvers" in the original order.
+     * Only the context-dependent resolvers are created, the rest are shared.
      */
-    private ELResolver createResolver(LazyEvalContext evalContext,
-                                      ExpressionFactory expressionFactory) {
-
+    private ELResolver createResolver(LazyEvalContext evalContext) {
         CompositeELResolver r = new CompositeELResolver();
         if (evalContext.scope() != null) {
             r.add(new VariableResolver(evalContext.scope()));
@@ -162,16 +200,16 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
         if (evalContext.context() != null) {
             r.add(new TaskResolver(evalContext.context(), taskProviders));
         }
-        r.add(expressionFactory.getStreamELResolver());
-        r.add(new StaticFieldELResolver());
-        r.add(new MapELResolver());
-        r.add(new ResourceBundleELResolver());
-        r.add(new ListELResolver());
-        r.add(new ArrayELResolver());
+        r.add(streamResolver);
+        r.add(staticFieldResolver);
+        r.add(mapResolver);
+        r.add(resourceBundleResolver);
+        r.add(listResolver);
+        r.add(arrayResolver);
         if (evalContext.context() != null) {
             r.add(new TaskMethodResolver(evalContext.context()));
         }
-        r.add(new BeanELResolver());
+        r.add(beanResolver);
         return r;
     }
 
@@ -217,4 +255,28 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
         }
         return result;
     }
+
+    private static final class ExpressionKey {
+
+        private final String expr;
+        private final Class<?> type;
+
+        private ExpressionKey(String expr, Class<?> type) {
+            this.expr = expr;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ExpressionKey that = (ExpressionKey) o;
+            return expr.equals(that.expr) && type.equals(that.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * expr.hashCode() + type.hashCode();
+        }
+    }
 }
@@ -33,7 +33,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Singleton
 public class DefaultLoggingClient implements LoggingClient {
@@ -42,6 +44,8 @@ public class DefaultLoggingClient implements LoggingClient {
     private final UUID instanceId;
     private final RunnerConfiguration cfg;
 
+    private volatile boolean batchSupported = true;
+
     @Inject
     public DefaultLoggingClient(ApiClient apiClient, ProcessConfiguration processCfg, RunnerConfiguration cfg) {
         this.api = new ProcessLogV2Api(apiClient);
@@ -62,4 +66,33 @@ public class DefaultLoggingClient implements LoggingClient {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public List<Long> createSegments(List<LogContext> segments) {
+        if (!batchSupported) {
+            return LoggingClient.super.createSegments(segments);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now(ZoneId.of("UTC"));
+        List<LogSegmentRequest> requests = segments.stream()
+                .map(s -> new LogSegmentRequest()
+                        .setCorrelationId(s.correlationId())
+                        .setCreatedAt(now)
+                        .setName(s.segmentName()))
+                .collect(Collectors.toList());
+
+        try {
+            List<LogSegmentOperationResponse> result = ClientUtils.withRetry(cfg.api().retryCount(), cfg.api().retryInterval(), () -> api.segmentBatch(instanceId, requests));
+            return result.stream()
+                    .map(LogSegmentOperationResponse::getId)
+                    .collect(Collectors.toList());
+        } catch (ApiException e) {
+            if (e.getCode() == 404 || e.getCode() == 405) {
+                // older server versions don't support batches
+                batchSupported = false;
+                return LoggingClient.super.createSegments(segments);
+            }
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -22,43 +22,62 @@ package com.walmartlabs.concord.runtime.v2.runner.logging;
 
 public final class LogUtils {
 
-    /**
-     * The segment ID lookup's maximum depth (limits nesting of {@link ThreadGroup}s).
-     */
-    private static final int MAX_DEPTH = 100;
+    private static final InheritableThreadLocal<LogContext> context = new InheritableThreadLocal<>();
 
     public static Long getSegmentId() {
         LogContext ctx = getContext();
         if (ctx == null) {
             return null;
         }
-        return ctx.segmentId();
-    }
 
-    public static LogContext getContext() {
-        int depth = 0;
+        Long segmentId = ctx.segmentId();
+        if (segmentId != null && segmentId < 0) {
+            // not yet confirmed by the server
+            return SegmentAllocator.resolve(segmentId);
+        }
 
-        ThreadGroup g = Thread.currentThread().getThreadGroup();
-        while (true) {
-            if (g instanceof LogContextThreadGroup) {
-                LogContextThreadGroup ttg = (LogContextThreadGroup) g;
-                return ttg.getContext();
-            }
+        return segmentId;
+    }
 
-            if (g.getParent() == null) {
-                break;
-            }
+    public static LogContext getContext() {
+        return context.get();
+    }
 
-            g = g.getParent();
-            depth++;
+    /**
+     * Runs the {@link Runnable} with the specified log context in the current thread.
+     * Threads started by the runnable inherit the context.
+     * <p/>
+     * Pooled threads inherit the context of the thread that created them, not
+     * the one of the thread that submits a task. Tasks submitted to an executor
+     * must be wrapped with {@link #withCurrentContext(Runnable)}, otherwise
+     * their events end up in a wrong (or the system) segment.
+     */
+    public static void withContext(LogContext ctx, Runnable runnable) {
+        LogContext prev = context.get();
+        if (ctx != null) {
+            context.set(ctx);
+        } else {
+            context.remove();
+        }
 
-            if (depth >= MAX_DEPTH) {
-                throw new IllegalStateException("Maximum ThreadGroup nesting limit is reached. " +
-                        "This is most likely a bug in the runtime and/or a plugin.");
+        try {
+            runnable.run();
+        } finally {
+            if (prev != null) {
+                context.set(prev);
+            } else {
+                context.remove();
             }
         }
+    }
 
-        return null;
+    /**
+     * Captures the current log context, the returned {@link Runnable} runs
+     * the specified one with that context in whatever thread it is executed.
+     */
+    public static Runnable withCurrentContext(Runnable runnable) {
+        LogContext ctx = getContext();
+        return () -> withContext(ctx, runnable);
     }
 
     private LogUtils() {
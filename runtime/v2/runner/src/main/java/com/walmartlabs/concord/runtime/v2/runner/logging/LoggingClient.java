@@ -20,9 +20,23 @@ package com.walmartlabs.concord.runtime.v2.runner.logging;
  * =====
  */
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public interface LoggingClient {
 
     long createSegment(UUID correlationId, String name);
+
+    /**
+     * Creates multiple segments at once.
+     * Returns the segment IDs in the same order as the specified contexts.
+     */
+    default List<Long> createSegments(List<LogContext> segments) {
+        List<Long> result = new ArrayList<>(segments.size());
+        for (LogContext s : segments) {
+            result.add(createSegment(s.correlationId(), s.segmentName()));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,205 @@
+package com.walmartlabs.concord.runtime.v2.runner.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates log segments in batches. A segment gets a temporary (negative)
+ * ID immediately, the real ID is received from the server in background.
+ * The temporary ID is resolved into the real one on the segment's first log event.
+ * <p/>
+ * Temporary IDs must be {@link #release(long) released} when the segment ends.
+ * Events logged with a released (or unknown) ID go into the system segment.
+ * <p/>
+ * If the server doesn't create a segment in time, the segment's events go
+ * into the system segment without any further waiting. New segments are
+ * not requested while the server's call is stuck.
+ */
+public class SegmentAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentAllocator.class);
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    /**
+     * How long to wait for the server to create a segment before
+     * falling back to the system segment.
+     */
+    private static final long RESOLVE_TIMEOUT_MS = 30_000;
+
+    private static final AtomicLong localIds = new AtomicLong();
+    private static final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the server's segment ID for the specified temporary ID.
+     * Waits for the ID if the segment is not yet created. Returns {@code null}
+     * (i.e. the system segment) if the segment couldn't be created in time
+     * or if the ID was already released.
+     */
+    public static Long resolve(long localId) {
+        return resolve(localId, RESOLVE_TIMEOUT_MS);
+    }
+
+    static Long resolve(long localId, long timeoutMs) {
+        Segment s = segments.get(localId);
+        if (s == null) {
+            return null;
+        }
+
+        long waitMs = Math.min(timeoutMs, s.deadline - System.currentTimeMillis());
+        try {
+            return s.id.get(Math.max(waitMs, 0), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // can't log anything here, we're called by the appender
+            return null;
+        } catch (TimeoutException e) {
+            if (System.currentTimeMillis() >= s.deadline) {
+                // the rest of the segment's events go into the system segment without waiting
+                s.id.completeExceptionally(e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Forgets the temporary ID. Must be called when the segment ends.
+     */
+    public static void release(long localId) {
+        segments.remove(localId);
+    }
+
+    private final LoggingClient loggingClient;
+    private final long timeoutMs;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Start time of the current {@link LoggingClient#createSegments(List)} call
+     * or {@code 0} if there's none.
+     */
+    private volatile long callStartedAt;
+
+    public SegmentAllocator(LoggingClient loggingClient) {
+        this(loggingClient, RESOLVE_TIMEOUT_MS);
+    }
+
+    SegmentAllocator(LoggingClient loggingClient, long timeoutMs) {
+        this.loggingClient = loggingClient;
+        this.timeoutMs = timeoutMs;
+
+        Thread worker = new Thread(this::run, "log-segment-allocator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Enqueues a new segment and returns its temporary ID.
+     * If the server is not responding, returns an ID that resolves into
+     * the system segment.
+     */
+    public long allocate(LogContext context) {
+        long localId = -localIds.incrementAndGet();
+
+        long now = System.currentTimeMillis();
+
+        long startedAt = callStartedAt;
+        if (startedAt != 0 && now - startedAt >= timeoutMs) {
+            // unknown IDs go into the system segment
+            return localId;
+        }
+
+        CompletableFuture<Long> f = new CompletableFuture<>();
+        segments.put(localId, new Segment(f, now + timeoutMs));
+        queue.add(new Request(context, f));
+
+        return localId;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    private void process(List<Request> batch) {
+        List<LogContext> contexts = new ArrayList<>(batch.size());
+        for (Request r : batch) {
+            contexts.add(r.context);
+        }
+
+        callStartedAt = System.currentTimeMillis();
+        try {
+            List<Long> ids = loggingClient.createSegments(contexts);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(ids.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("process -> error while creating {} log segment(s), using the system segment: {}", batch.size(), e.getMessage());
+            for (Request r : batch) {
+                r.result.completeExceptionally(e);
+            }
+        } finally {
+            callStartedAt = 0;
+        }
+    }
+
+    private static class Segment {
+
+        private final CompletableFuture<Long> id;
+        private final long deadline;
+
+        private Segment(CompletableFuture<Long> id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+
+    private static class Request {
+
+        private final LogContext context;
+        private final CompletableFuture<Long> result;
+
+        private Request(LogContext context, CompletableFuture<Long> result) {
+            this.context = context;
+            this.result = result;
+        }
+    }
+}
@@ -32,7 +32,6 @@ import uk.org.lidalia.sysoutslf4j.context.SysOutOverSLF4J;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.*;
 
 import static ch.qos.logback.classic.ClassicConstants.FINALIZE_SESSION_MARKER;
 
@@ -40,29 +39,35 @@ public class SegmentedLogger implements RunnerLogger {
 
     private static final Logger log = LoggerFactory.getLogger(SegmentedLogger.class);
 
-    private final LoggingClient loggingClient;
+    private final SegmentAllocator segmentAllocator;
 
     public SegmentedLogger(LoggingClient loggingClient) {
-        this.loggingClient = loggingClient;
+        this.segmentAllocator = new SegmentAllocator(loggingClient);
     }
 
     @Override
     public void withContext(LogContext context, Runnable runnable) {
-        long segmentId = loggingClient.createSegment(context.correlationId(), context.segmentName());
+        // the segment is created asynchronously, the temporary ID is resolved on the first log event
+        long segmentId = segmentAllocator.allocate(context);
 
-        ThreadGroup threadGroup = new LogContextThreadGroup(LogContext.builder().from(context).segmentId(segmentId).build());
-        executeInThreadGroup(threadGroup, "thread-" + context.segmentName(), () -> {
-            // make sure the redirection is enabled in the current thread
-            if (context.redirectSystemOutAndErr() && !SysOutOverSLF4J.systemOutputsAreSLF4JPrintStreams()) {
-                SysOutOverSLF4J.sendSystemOutAndErrToSLF4J(LogLevel.INFO, LogLevel.ERROR);
-            }
+        LogContext ctx = LogContext.builder().from(context).segmentId(segmentId).build();
+        try {
+            LogUtils.withContext(ctx, () -> {
+                // make sure the redirection is enabled in the current thread
+                if (context.redirectSystemOutAndErr() && !SysOutOverSLF4J.systemOutputsAreSLF4JPrintStreams()) {
+                    SysOutOverSLF4J.sendSystemOutAndErrToSLF4J(LogLevel.INFO, LogLevel.ERROR);
+                }
 
-            try {
-                runnable.run();
-            } finally {
-                log.info(FINALIZE_SESSION_MARKER, "<<finalize>>");
-            }
-        });
+                try {
+                    runnable.run();
+                } finally {
+                    log.info(FINALIZE_SESSION_MARKER, "<<finalize>>");
+                }
+            });
+        } finally {
+            // threads that outlive the segment log into the system segment
+            SegmentAllocator.release(segmentId);
+        }
     }
 
     public static String getSegmentName(AbstractStep<?> step) {
@@ -84,45 +89,4 @@ public class SegmentedLogger implements RunnerLogger {
 
         return opts.meta();
     }
-
-    /**
-     * Executes the {@link Callable} in the specified {@link ThreadGroup}.
-     * A bit expensive as it is creates a new thread.
-     */
-    private static void executeInThreadGroup(ThreadGroup group, String threadName, Runnable runnable) {
-        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadGroupAwareThreadFactory(group, threadName));
-        Future<?> result = executor.submit(runnable);
-        try {
-            result.get();
-        } catch (InterruptedException e) { // NOSONAR
-            throw new RuntimeException(e);
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (cause != null) {
-                if (cause instanceof RuntimeException) {
-                    throw (RuntimeException) cause;
-                } else {
-                    throw new RuntimeException(cause);
-                }
-            }
-
-            throw new RuntimeException(e);
-        }
-    }
-
-    private static final class ThreadGroupAwareThreadFactory implements ThreadFactory {
-
-        private final ThreadGroup group;
-        private final String threadName;
-
-        private ThreadGroupAwareThreadFactory(ThreadGroup group, String threadName) {
-            this.group = group;
-            this.threadName = threadName;
-        }
-
-        @Override
-        public Thread newThread(Runnable r) {
-            return new Thread(group, r, threadName);
-        }
-    }
 }
@@ -28,11 +28,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.script.*;
 import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Singleton
 public class DefaultScriptEvaluator implements ScriptEvaluator {
 
     private static final Logger log = LoggerFactory.getLogger(MetadataProcessor.class);
@@ -41,12 +45,12 @@ public class DefaultScriptEvaluator implements ScriptEvaluator {
     private static final String[] CONTEXT_VARIABLE_NAMES = {Constants.Context.CONTEXT_KEY, "execution"};
 
     private final TaskProviders taskProviders;
-    private final ScriptEngineManager scriptEngineManager;
+    private final Map<String, ScriptEngineFactory> factories;
 
     @Inject
     public DefaultScriptEvaluator(TaskProviders taskProviders) {
         this.taskProviders = taskProviders;
-        this.scriptEngineManager = new ScriptEngineManager();
+        this.factories = indexFactories(new ScriptEngineManager());
     }
 
     @Override
@@ -77,22 +81,43 @@ public class DefaultScriptEvaluator implements ScriptEvaluator {
 
     @Override
     public boolean hasLanguage(String language) {
-        for (ScriptEngineFactory factory : scriptEngineManager.getEngineFactories()) {
+        return factories.containsKey(language);
+    }
+
+    /**
+     * Creates a new engine for each evaluation. Engines keep state between
+     * evaluations (e.g. Groovy keeps the methods defined by previously evaluated
+     * scripts), so they can't be shared between script steps.
+     */
+    private ScriptEngine getEngine(String language) {
+        ScriptEngineFactory factory = factories.get(language);
+        if (factory == null) {
+            return null;
+        }
+
+        return factory.getScriptEngine();
+    }
+
+    private static Map<String, ScriptEngineFactory> indexFactories(ScriptEngineManager manager) {
+        Map<String, ScriptEngineFactory> result = new HashMap<>();
+        for (ScriptEngineFactory factory : manager.getEngineFactories()) {
             List<String> names = null;
             try {
                 names = factory.getNames();
             } catch (Exception exp) {
                 // ignore
             }
-            if (names != null && names.contains(language)) {
-                return true;
+
+            if (names == null) {
+                continue;
             }
-        }
-        return false;
-    }
 
-    private ScriptEngine getEngine(String language) {
-        return scriptEngineManager.getEngineByName(language);
+            // same as ScriptEngineManager#getEngineByName - the first registered factory wins
+            for (String n : names) {
+                result.putIfAbsent(n, factory);
+            }
+        }
+        return Collections.unmodifiableMap(result);
     }
 
     public static class TaskAccessor {
@@ -33,6 +33,7 @@ public class JoinCommand implements Command {
 
     private static final Logger log = LoggerFactory.getLogger(JoinCommand.class);
     private static final long serialVersionUID = 1L;
+    private static final long STATUS_CHECK_TIMEOUT = 1000;
 
     private final Collection<ThreadId> ids;
 
@@ -42,15 +43,17 @@ public class JoinCommand implements Command {
 
     @Override
     public void eval(Runtime runtime, State state, ThreadId threadId) {
-        // Here's a very dumb but working solution to the problem
+        // Here's a simple but working solution to the problem
         // of monitoring the child "threads" state - just a loop
-        // waiting on a monitor . On each iteration it decides whether
-        // the join command can be removed from the stack (and thus
+        // waiting for thread status changes. On each iteration it decides
+        // whether the join command can be removed from the stack (and thus
         // continuing the execution) or not.
         // We could've used futures instead, but it's way more
         // complicated - especially when suspend/resume are involved.
 
         while (true) {
+            // read the version before taking the snapshot, so we don't miss any changes
+            long version = state.statusVersion();
             Map<ThreadId, ThreadStatus> status = state.threadStatus();
 
             boolean allDone = status.entrySet().stream()
@@ -86,11 +89,16 @@ public class JoinCommand implements Command {
                         .collect(Collectors.toList()));
             }
 
-            // some children are still running, wait for a bit and then check again
+            // some children are still running, wait for any of them to change the status
+            // and then check again. The timeout is just a safety net
+            // the runtime can use the current thread's slot to run the children in the meantime
+            runtime.beforeBlocking();
             try {
-                Thread.sleep(1000); // a "good enough™" value
+                state.awaitStatusChange(version, STATUS_CHECK_TIMEOUT);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+            } finally {
+                runtime.afterBlocking();
             }
         }
     }
@@ -0,0 +1,195 @@
+package com.walmartlabs.concord.runtime.v2.runner.vm;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.*;
+
+/**
+ * Checks if values can be serialized without actually serializing them.
+ * Walks the commonly used value types (strings, numbers, standard collections, etc.)
+ * and falls back to the Java serialization only for unknown types.
+ */
+public final class SerializabilityValidator {
+
+    private static final Set<Class<?>> LEAF_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class,
+            UUID.class, Date.class,
+            Instant.class, Duration.class, Period.class,
+            LocalDate.class, LocalTime.class, LocalDateTime.class,
+            OffsetTime.class, OffsetDateTime.class, ZonedDateTime.class));
+
+    // the standard collections are serializable as long as their elements are
+    private static final Set<Class<?>> COLLECTION_TYPES = new HashSet<>(Arrays.asList(
+            ArrayList.class, LinkedList.class, HashSet.class, LinkedHashSet.class,
+            Arrays.asList().getClass(),
+            Collections.emptyList().getClass(), Collections.emptySet().getClass(),
+            Collections.singletonList(null).getClass(), Collections.singleton(null).getClass()));
+
+    private static final Set<Class<?>> MAP_TYPES = new HashSet<>(Arrays.asList(
+            HashMap.class, LinkedHashMap.class, TreeMap.class,
+            Collections.emptyMap().getClass(), Collections.singletonMap(null, null).getClass()));
+
+    private static final ClassValue<Kind> KINDS = new ClassValue<Kind>() {
+        @Override
+        protected Kind computeValue(Class<?> type) {
+            return kindOf(type);
+        }
+    };
+
+    /**
+     * Returns {@code true} if the specified value can be serialized
+     * using the standard Java serialization.
+     */
+    public static boolean isSerializable(Object value) {
+        return isSerializable(value, new IdentityHashMap<>());
+    }
+
+    private static boolean isSerializable(Object value, Map<Object, Boolean> visited) {
+        if (value == null) {
+            return true;
+        }
+
+        Kind kind = KINDS.get(value.getClass());
+        switch (kind) {
+            case LEAF: {
+                return true;
+            }
+            case NOT_SERIALIZABLE: {
+                return false;
+            }
+            case ARRAY: {
+                if (visited.put(value, Boolean.TRUE) != null) {
+                    return true;
+                }
+
+                int len = Array.getLength(value);
+                for (int i = 0; i < len; i++) {
+                    if (!isSerializable(Array.get(value, i), visited)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case COLLECTION: {
+                if (visited.put(value, Boolean.TRUE) != null) {
+                    return true;
+                }
+
+                for (Object o : (Collection<?>) value) {
+                    if (!isSerializable(o, visited)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case MAP: {
+                // the comparator is serialized too
+                if (value instanceof TreeMap && ((TreeMap<?, ?>) value).comparator() != null) {
+                    return trySerialize(value);
+                }
+
+                if (visited.put(value, Boolean.TRUE) != null) {
+                    return true;
+                }
+
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                    if (!isSerializable(e.getKey(), visited) || !isSerializable(e.getValue(), visited)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            default: {
+                return trySerialize(value);
+            }
+        }
+    }
+
+    private static Kind kindOf(Class<?> type) {
+        if (LEAF_TYPES.contains(type) || type.isEnum()) {
+            return Kind.LEAF;
+        }
+
+        if (type.isArray()) {
+            return type.getComponentType().isPrimitive() ? Kind.LEAF : Kind.ARRAY;
+        }
+
+        if (COLLECTION_TYPES.contains(type)) {
+            return Kind.COLLECTION;
+        }
+
+        if (MAP_TYPES.contains(type)) {
+            return Kind.MAP;
+        }
+
+        if (!Serializable.class.isAssignableFrom(type)) {
+            return Kind.NOT_SERIALIZABLE;
+        }
+
+        return Kind.UNKNOWN;
+    }
+
+    private static boolean trySerialize(Object value) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(NullOutputStream.INSTANCE)) {
+            oos.writeObject(value);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private enum Kind {
+        LEAF,
+        ARRAY,
+        COLLECTION,
+        MAP,
+        NOT_SERIALIZABLE,
+        UNKNOWN
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+
+        private static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+            // do nothing
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // do nothing
+        }
+    }
+
+    private SerializabilityValidator() {
+    }
+}
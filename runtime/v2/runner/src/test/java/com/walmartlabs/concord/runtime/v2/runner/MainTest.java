@@ -385,6 +385,34 @@ public class MainTest {
         assertLog(log, ".*x: 1.*");
     }
 
+    @Test
+    public void testScriptReuse() throws Exception {
+        deploy("scriptReuse");
+
+        save(ProcessConfiguration.builder()
+                .build());
+
+        byte[] log = run();
+        for (int i = 1; i <= 3; i++) {
+            assertLog(log, ".*js: " + (i * 10) + ".*");
+            assertLog(log, ".*groovy: " + (i * 100) + ".*");
+        }
+    }
+
+    @Test
+    public void testScriptIsolation() throws Exception {
+        deploy("scriptIsolation");
+
+        save(ProcessConfiguration.builder()
+                .build());
+
+        // methods defined in one script step are not visible in the next one
+        byte[] log = run();
+        assertLog(log, ".*step 1: hello.*");
+        assertLog(log, ".*step 2: greet is not defined.*");
+        assertNoLog(log, ".*leaked.*");
+    }
+
     @Test
     public void testScriptErrorBlock() throws Exception {
         deploy("scriptError");
@@ -556,6 +584,48 @@ public class MainTest {
         assertLog(log, ".*XYZ.*");
     }
 
+    @Test
+    public void testSuspendLargeState() throws Exception {
+        deploy("suspend");
+
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "item-" + i);
+            item.put("tags", new ArrayList<>(Arrays.asList("alpha", "beta")));
+            items.add(item);
+        }
+
+        save(ProcessConfiguration.builder()
+                .putArguments("testValue", "XYZ")
+                .putArguments("items", items)
+                .build());
+
+        byte[] log = run(RunnerConfiguration.builder()
+                .compactState(true)
+                .build());
+        assertLog(log, ".*aaa.*");
+
+        Path stateFile = workDir.resolve(Constants.Files.JOB_ATTACHMENTS_DIR_NAME)
+                .resolve(Constants.Files.JOB_STATE_DIR_NAME)
+                .resolve("instance");
+
+        ProcessSnapshot snapshot = StateManager.readProcessState(workDir, getClass().getClassLoader());
+        assertNotNull(snapshot);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(snapshot);
+        }
+
+        assertTrue(Files.size(stateFile) < baos.size());
+
+        // the state is readable regardless of the current setting
+        log = resume("ev1", ProcessConfiguration.builder().build());
+        assertLog(log, ".*XYZ.*");
+    }
+
     @Test
     public void testDefaultProcessVariables() throws Exception {
         deploy("defaultVariables");
@@ -0,0 +1,141 @@
+package com.walmartlabs.concord.runtime.v2.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.runtime.common.cfg.ParallelExecutionConfiguration;
+import com.walmartlabs.concord.svm.Frame;
+import com.walmartlabs.concord.svm.InMemoryState;
+import com.walmartlabs.concord.svm.State;
+import com.walmartlabs.concord.svm.ThreadId;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelExecutorTest {
+
+    private final State state = new InMemoryState(Frame.builder().root().build());
+
+    @Test(timeout = 30_000)
+    public void testLimit() throws Exception {
+        ParallelExecutor executor = new ParallelExecutor(ParallelExecutionConfiguration.builder()
+                .maxThreads(3)
+                .build());
+
+        int count = 50;
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < count; i++) {
+            executor.submit(nextThreadId(), () -> {
+                int n = running.incrementAndGet();
+                maxRunning.accumulateAndGet(n, Math::max);
+                sleep(5);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(3, maxRunning.get());
+
+        ParallelExecutor.Stats stats = executor.stats();
+        assertEquals(count, stats.getStarted());
+        assertEquals(3, stats.getMaxActive());
+        assertTrue(stats.getMaxQueued() > 0);
+    }
+
+    @Test(timeout = 30_000)
+    public void testNestedBlocking() throws Exception {
+        ParallelExecutor executor = new ParallelExecutor(ParallelExecutionConfiguration.builder()
+                .maxThreads(1)
+                .build());
+
+        // the parent thread waits for its child, the child can run only
+        // if the parent releases its slot
+        CountDownLatch done = new CountDownLatch(1);
+        executor.submit(nextThreadId(), () -> {
+            CountDownLatch child = new CountDownLatch(1);
+            executor.submit(nextThreadId(), child::countDown);
+
+            executor.beforeBlocking();
+            try {
+                child.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executor.afterBlocking();
+            }
+
+            done.countDown();
+        });
+
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test(timeout = 30_000)
+    public void testPerBlockLimit() throws Exception {
+        ParallelExecutor executor = new ParallelExecutor(ParallelExecutionConfiguration.builder()
+                .maxThreads(0)
+                .maxThreadsPerBlock(2)
+                .build());
+
+        int count = 20;
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < count; i++) {
+            executor.submit(nextThreadId(), () -> {
+                int n = running.incrementAndGet();
+                maxRunning.accumulateAndGet(n, Math::max);
+                sleep(5);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    private ThreadId nextThreadId() {
+        return state.nextThreadId();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
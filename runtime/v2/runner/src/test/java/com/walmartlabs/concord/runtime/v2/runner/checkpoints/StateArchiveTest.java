@@ -0,0 +1,77 @@
+package com.walmartlabs.concord.runtime.v2.runner.checkpoints;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.common.TemporaryPath;
+import com.walmartlabs.concord.sdk.Constants;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StateArchiveTest {
+
+    @Test
+    public void testIncremental() throws Exception {
+        try (TemporaryPath workDir = IOUtils.tempDir("test")) {
+            Path systemDir = workDir.path().resolve(Constants.Files.CONCORD_SYSTEM_DIR_NAME);
+            Files.createDirectories(systemDir);
+            Files.write(systemDir.resolve("a.txt"), "a".getBytes());
+            Files.write(systemDir.resolve("b.txt"), "b".getBytes());
+            Files.write(systemDir.resolve("c.txt"), "c".getBytes());
+
+            Map<String, String> baseChecksums;
+            try (StateArchive archive = new StateArchive().withSystemDirectory(workDir.path())) {
+                baseChecksums = archive.checksums();
+            }
+            assertEquals(3, baseChecksums.size());
+
+            // "a" is the same, "b" is changed, "c" is removed, "d" is added
+            Files.write(systemDir.resolve("b.txt"), "bb".getBytes());
+            Files.delete(systemDir.resolve("c.txt"));
+            Files.write(systemDir.resolve("d.txt"), "d".getBytes());
+
+            UUID baseId = UUID.randomUUID();
+            try (StateArchive archive = new StateArchive().withSystemDirectory(workDir.path())) {
+                archive.withBase(baseId, baseChecksums, archive.checksums());
+
+                try (TemporaryPath zip = archive.zip();
+                     TemporaryPath dst = IOUtils.tempDir("test")) {
+
+                    IOUtils.unzip(zip.path(), dst.path());
+
+                    Path dstSystemDir = dst.path().resolve(Constants.Files.CONCORD_SYSTEM_DIR_NAME);
+                    assertFalse(Files.exists(dstSystemDir.resolve("a.txt")));
+                    assertTrue(Files.exists(dstSystemDir.resolve("b.txt")));
+                    assertFalse(Files.exists(dstSystemDir.resolve("c.txt")));
+                    assertTrue(Files.exists(dstSystemDir.resolve("d.txt")));
+
+                    List<String> delta = Files.readAllLines(dst.path().resolve(Constants.Files.CHECKPOINT_DELTA_FILE_NAME));
+                    assertEquals(Arrays.asList(baseId.toString(), Constants.Files.CONCORD_SYSTEM_DIR_NAME + "/c.txt"), delta);
+                }
+            }
+        }
+    }
+}
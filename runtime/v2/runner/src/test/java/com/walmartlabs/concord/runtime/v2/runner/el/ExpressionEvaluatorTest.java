@@ -371,6 +371,44 @@ public class ExpressionEvaluatorTest {
         assertEquals(vars, result);
     }
 
+    @Test
+    public void testExpressionCache() {
+        ExpressionEvaluator ee = new DefaultExpressionEvaluator(new TaskProviders());
+
+        String expr = "${item.name.toUpperCase()}-${x * 3}";
+        // the expressions are parsed as Object, the result is converted afterwards
+        assertNull(LazyExpressionEvaluator.getCachedExpression(expr, Object.class));
+
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("item", Collections.singletonMap("name", "abc"));
+        vars.put("x", 0);
+        ee.eval(global(vars), expr, String.class);
+
+        Object cached = LazyExpressionEvaluator.getCachedExpression(expr, Object.class);
+        assertNotNull(cached);
+
+        // the cached expression is reused and doesn't capture the previous context
+        vars.put("item", Collections.singletonMap("name", "xyz"));
+        vars.put("x", 2);
+        assertEquals("XYZ-6", ee.eval(global(vars), expr, String.class));
+        assertSame(cached, LazyExpressionEvaluator.getCachedExpression(expr, Object.class));
+    }
+
+    @Test
+    public void testParseErrorsNotCached() {
+        ExpressionEvaluator ee = new DefaultExpressionEvaluator(new TaskProviders());
+
+        String expr = "${x +}";
+        try {
+            ee.eval(global(Collections.singletonMap("x", 1)), expr, Object.class);
+            fail("exception expected");
+        } catch (Exception e) {
+            // expected
+        }
+
+        assertNull(LazyExpressionEvaluator.getCachedExpression(expr, Object.class));
+    }
+
     private static EvalContext global(Map<String, Object> vars) {
         return EvalContextFactory.global(new SingleFrameContext(vars));
     }
@@ -114,6 +114,16 @@ public class SingleFrameContext extends DummyContext {
                         throw new IllegalStateException("Not implemented");
                     }
 
+                    @Override
+                    public long statusVersion() {
+                        throw new IllegalStateException("Not implemented");
+                    }
+
+                    @Override
+                    public void awaitStatusChange(long version, long timeoutMs) {
+                        throw new IllegalStateException("Not implemented");
+                    }
+
                     @Override
                     public ThreadId nextThreadId() {
                         throw new IllegalStateException("Not implemented");
@@ -0,0 +1,191 @@
+package com.walmartlabs.concord.runtime.v2.runner.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class SegmentAllocatorTest {
+
+    @Test(timeout = 30_000)
+    public void testBatches() throws Exception {
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        AtomicLong ids = new AtomicLong(100);
+        List<Integer> batches = new ArrayList<>();
+
+        LoggingClient client = new LoggingClient() {
+            @Override
+            public long createSegment(UUID correlationId, String name) {
+                throw new IllegalStateException("Not expected");
+            }
+
+            @Override
+            public List<Long> createSegments(List<LogContext> segments) {
+                try {
+                    // hold the first batch to accumulate the rest of the requests
+                    firstBatch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+
+                synchronized (batches) {
+                    batches.add(segments.size());
+                }
+
+                List<Long> result = new ArrayList<>();
+                for (int i = 0; i < segments.size(); i++) {
+                    result.add(ids.incrementAndGet());
+                }
+                return result;
+            }
+        };
+
+        SegmentAllocator allocator = new SegmentAllocator(client);
+
+        List<Long> localIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            localIds.add(allocator.allocate(context("segment" + i)));
+        }
+        firstBatch.countDown();
+
+        for (long localId : localIds) {
+            assertTrue(localId < 0);
+            Long id = SegmentAllocator.resolve(localId);
+            assertNotNull(id);
+            assertTrue(id > 100);
+        }
+
+        // the first request could be picked up alone, the rest must be batched
+        synchronized (batches) {
+            assertTrue(batches.size() <= 2);
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void testError() {
+        LoggingClient client = (correlationId, name) -> {
+            throw new RuntimeException("boom");
+        };
+
+        SegmentAllocator allocator = new SegmentAllocator(client);
+        long localId = allocator.allocate(context("test"));
+
+        // falls back to the system segment
+        assertNull(SegmentAllocator.resolve(localId));
+    }
+
+    @Test(timeout = 30_000)
+    public void testRelease() {
+        LoggingClient client = (correlationId, name) -> 1L;
+
+        SegmentAllocator allocator = new SegmentAllocator(client);
+        long localId = allocator.allocate(context("test"));
+        assertEquals(Long.valueOf(1L), SegmentAllocator.resolve(localId));
+
+        // released IDs go into the system segment
+        SegmentAllocator.release(localId);
+        assertNull(SegmentAllocator.resolve(localId));
+    }
+
+    @Test(timeout = 30_000)
+    public void testTimeout() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        LoggingClient client = (correlationId, name) -> {
+            try {
+                done.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return 1L;
+        };
+
+        SegmentAllocator allocator = new SegmentAllocator(client);
+        long localId = allocator.allocate(context("test"));
+
+        // the server is too slow, falls back to the system segment
+        assertNull(SegmentAllocator.resolve(localId, 100));
+
+        done.countDown();
+        assertEquals(Long.valueOf(1L), SegmentAllocator.resolve(localId));
+
+        SegmentAllocator.release(localId);
+    }
+
+    @Test(timeout = 30_000)
+    public void testStuckServer() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        LoggingClient client = (correlationId, name) -> {
+            try {
+                done.await(20, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return 1L;
+        };
+
+        SegmentAllocator allocator = new SegmentAllocator(client, 500);
+        long a = allocator.allocate(context("a"));
+
+        // waits for the server only until the segment's deadline
+        assertNull(SegmentAllocator.resolve(a));
+
+        // the deadline has passed, subsequent events don't wait
+        long t1 = System.currentTimeMillis();
+        assertNull(SegmentAllocator.resolve(a));
+
+        // the server's call is still stuck, new segments don't wait either
+        long b = allocator.allocate(context("b"));
+        assertNull(SegmentAllocator.resolve(b));
+        assertTrue(System.currentTimeMillis() - t1 < 400);
+
+        // the server is back, new segments are created once the stuck call returns
+        done.countDown();
+        Long id = null;
+        while (id == null) {
+            long c = allocator.allocate(context("c"));
+            id = SegmentAllocator.resolve(c);
+            SegmentAllocator.release(c);
+        }
+        assertEquals(Long.valueOf(1L), id);
+
+        // the segment created too late stays in the system segment
+        assertNull(SegmentAllocator.resolve(a));
+
+        SegmentAllocator.release(a);
+        SegmentAllocator.release(b);
+    }
+
+    private static LogContext context(String name) {
+        return LogContext.builder()
+                .segmentName(name)
+                .correlationId(UUID.randomUUID())
+                .redirectSystemOutAndErr(false)
+                .build();
+    }
+}
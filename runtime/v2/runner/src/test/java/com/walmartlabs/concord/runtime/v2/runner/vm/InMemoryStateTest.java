@@ -0,0 +1,210 @@
+package com.walmartlabs.concord.runtime.v2.runner.vm;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.svm.Runtime;
+import com.walmartlabs.concord.svm.*;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class InMemoryStateTest {
+
+    /**
+     * Many VM threads working with their own frames concurrently,
+     * similarly to "parallel" blocks. See the "state.contention"
+     * benchmark in runtime/v2/benchmarks for the throughput numbers.
+     */
+    @Test(timeout = 120_000)
+    public void testContention() throws Exception {
+        int threads = 64;
+        int iterations = 20_000;
+
+        State state = new InMemoryState(Frame.builder().root().build());
+
+        List<ThreadId> ids = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            ThreadId id = state.nextThreadId();
+            state.fork(state.getRootThreadId(), id, new NamedCommand("root"));
+            ids.add(id);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (ThreadId id : ids) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    run(state, id, iterations);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> f : results) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (ThreadId id : ids) {
+            assertEquals(1, state.getFrames(id).size());
+            assertEquals(ThreadStatus.DONE, state.getStatus(id));
+        }
+    }
+
+    /**
+     * Forked threads must have their frames by the time they become READY.
+     */
+    @Test(timeout = 120_000)
+    public void testFork() throws Exception {
+        int threads = 10_000;
+
+        State state = new InMemoryState(Frame.builder().root().build());
+
+        AtomicBoolean done = new AtomicBoolean();
+        List<ThreadId> missingFrames = Collections.synchronizedList(new ArrayList<>());
+        Thread observer = new Thread(() -> {
+            while (!done.get()) {
+                for (Map.Entry<ThreadId, ThreadStatus> e : state.threadStatus().entrySet()) {
+                    if (e.getValue() == ThreadStatus.READY && state.peekFrame(e.getKey()) == null) {
+                        missingFrames.add(e.getKey());
+                    }
+                }
+            }
+        });
+        observer.start();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                state.fork(state.getRootThreadId(), state.nextThreadId(), new NamedCommand("a"));
+            }
+        } finally {
+            done.set(true);
+            observer.join();
+        }
+
+        assertEquals(Collections.emptyList(), missingFrames);
+        assertEquals(threads, state.threadStatus().size());
+    }
+
+    /**
+     * Checks that the states saved by the previous versions can be read.
+     */
+    @Test
+    public void testLegacySerializedForm() throws Exception {
+        State state;
+        try (InputStream in = InMemoryStateTest.class.getResourceAsStream("legacyState.bin");
+             ObjectInputStream ois = new ObjectInputStream(in)) {
+            state = (State) ois.readObject();
+        }
+
+        // the current version must be able to read its own data too
+        State copy = roundTrip(state);
+
+        assertLegacyState(state);
+        assertLegacyState(copy);
+    }
+
+    private static void assertLegacyState(State state) {
+        ThreadId root = state.getRootThreadId();
+        assertEquals(ThreadStatus.SUSPENDED, state.getStatus(root));
+        assertEquals("ev1", state.getEventRefs().get(root));
+
+        List<Frame> frames = state.getFrames(root);
+        assertEquals(2, frames.size());
+
+        Frame top = frames.get(0);
+        assertEquals(FrameType.NON_ROOT, top.getType());
+        assertEquals("b", ((NamedCommand) top.peek()).name);
+        top.pop();
+        assertEquals("a", ((NamedCommand) top.peek()).name);
+        top.push(new NamedCommand("b"));
+
+        Frame bottom = frames.get(1);
+        assertEquals(Arrays.asList("x", "y"), new ArrayList<>(bottom.getLocals().keySet()));
+        assertEquals(123, bottom.getLocal("y"));
+
+        Map<ThreadId, ThreadStatus> statuses = state.threadStatus();
+        assertEquals(2, statuses.size());
+
+        ThreadId child = state.nextThreadId();
+        assertEquals(2, child.id());
+    }
+
+    private static void run(State state, ThreadId threadId, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            state.pushFrame(threadId, Frame.builder()
+                    .nonRoot()
+                    .commands(new NamedCommand("a"))
+                    .build());
+
+            Frame frame = state.peekFrame(threadId);
+            frame.setLocal("i", i);
+            frame.push(new NamedCommand("b"));
+            frame.pop();
+
+            state.getFrames(threadId);
+            state.getStatus(threadId);
+
+            state.popFrame(threadId);
+        }
+
+        state.setStatus(threadId, ThreadStatus.DONE);
+    }
+
+    private static State roundTrip(State state) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(state);
+        }
+
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            return (State) ois.readObject();
+        }
+    }
+
+    static class NamedCommand implements Command {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        NamedCommand(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void eval(Runtime runtime, State state, ThreadId threadId) {
+            // do nothing
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.walmartlabs.concord.runtime.v2.runner.vm;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.svm.Runtime;
+import com.walmartlabs.concord.svm.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JoinCommandTest {
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Runs a number of "parallel" blocks with many short branches directly on the VM
+     * and checks that the parent thread continues as soon as the branches are done.
+     */
+    @Test(timeout = 60_000)
+    public void testManyShortBranches() throws Exception {
+        int rounds = 20;
+        int branches = 50;
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            VM vm = new VM(v -> new TestRuntime(v, executor), Collections.emptyList());
+
+            Command[] cmds = new Command[rounds];
+            for (int i = 0; i < rounds; i++) {
+                cmds[i] = new ParallelRoundCommand(branches);
+            }
+
+            State state = new InMemoryState(Frame.builder()
+                    .root()
+                    .commands(cmds)
+                    .build());
+
+            counter.set(0);
+
+            long t1 = System.currentTimeMillis();
+            vm.eval(new TestRuntime(vm, executor), state, state.getRootThreadId());
+            long t2 = System.currentTimeMillis();
+
+            assertEquals(rounds * branches, counter.get());
+
+            // each join used to poll the thread statuses once per second
+            assertTrue("took too long: " + (t2 - t1) + "ms", t2 - t1 < rounds * 1000 / 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class ParallelRoundCommand implements Command {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int branches;
+
+        private ParallelRoundCommand(int branches) {
+            this.branches = branches;
+        }
+
+        @Override
+        public void eval(Runtime runtime, State state, ThreadId threadId) {
+            Frame frame = state.peekFrame(threadId);
+            frame.pop();
+
+            List<ThreadId> ids = new ArrayList<>();
+            for (int i = 0; i < branches; i++) {
+                ids.add(state.nextThreadId());
+            }
+
+            frame.push(new JoinCommand(ids));
+            ids.forEach(id -> frame.push(new ForkCommand(id, new IncrementCommand())));
+        }
+    }
+
+    private static class IncrementCommand implements Command {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void eval(Runtime runtime, State state, ThreadId threadId) {
+            state.peekFrame(threadId).pop();
+            counter.incrementAndGet();
+        }
+    }
+
+    private static class TestRuntime implements Runtime {
+
+        private final VM vm;
+        private final ExecutorService executor;
+
+        private TestRuntime(VM vm, ExecutorService executor) {
+            this.vm = vm;
+            this.executor = executor;
+        }
+
+        @Override
+        public void spawn(State state, ThreadId threadId) {
+            executor.submit(() -> {
+                vm.eval(this, state, threadId);
+                return null;
+            });
+        }
+
+        @Override
+        public <T> T getService(Class<T> klass) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.walmartlabs.concord.runtime.v2.runner.vm;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SerializabilityValidatorTest {
+
+    @Test
+    public void testKnownTypes() {
+        assertTrue(SerializabilityValidator.isSerializable(null));
+        assertTrue(SerializabilityValidator.isSerializable("abc"));
+        assertTrue(SerializabilityValidator.isSerializable(123));
+        assertTrue(SerializabilityValidator.isSerializable(new int[]{1, 2, 3}));
+        assertTrue(SerializabilityValidator.isSerializable(Arrays.asList("a", 1, null)));
+        assertTrue(SerializabilityValidator.isSerializable(item(3)));
+
+        List<Object> cyclic = new ArrayList<>();
+        cyclic.add(cyclic);
+        assertTrue(SerializabilityValidator.isSerializable(cyclic));
+    }
+
+    @Test
+    public void testNonSerializable() {
+        assertFalse(SerializabilityValidator.isSerializable(new Object()));
+        assertFalse(SerializabilityValidator.isSerializable(Collections.singletonMap("x", new Object())));
+        assertFalse(SerializabilityValidator.isSerializable(new Object[]{"a", new Object()}));
+
+        Map<String, Object> m = item(2);
+        m.put("nested", new ArrayList<>(Collections.singletonList(new Object())));
+        assertFalse(SerializabilityValidator.isSerializable(m));
+
+        TreeMap<String, Object> sorted = new TreeMap<>((a, b) -> a.compareTo(b));
+        sorted.put("a", 1);
+        assertFalse(SerializabilityValidator.isSerializable(sorted));
+    }
+
+    @Test
+    public void testUnknownTypes() {
+        assertTrue(SerializabilityValidator.isSerializable(new MyValue(new HashMap<>())));
+        assertFalse(SerializabilityValidator.isSerializable(new MyValue(new Object())));
+    }
+
+    @Test
+    public void testMatchesSerialization() {
+        Map<String, Object> invalid = item(3);
+        invalid.put("nested", new ArrayList<>(Collections.singletonList(new Object())));
+
+        List<Object> values = Arrays.asList(
+                item(3),
+                invalid,
+                new MyValue(item(1)),
+                new MyValue(new Object()),
+                new Object[]{"a", 1},
+                new Object[]{"a", new Object()});
+
+        for (Object v : values) {
+            assertEquals(String.valueOf(v), canSerialize(v), SerializabilityValidator.isSerializable(v));
+        }
+    }
+
+    private static Map<String, Object> item(int depth) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("name", "item-" + depth);
+        m.put("count", depth);
+        m.put("ratio", depth * 0.5);
+        m.put("enabled", true);
+        m.put("tags", new ArrayList<>(Arrays.asList("a", "b", "c")));
+        if (depth > 0) {
+            m.put("nested", item(depth - 1));
+        }
+        return m;
+    }
+
+    private static boolean canSerialize(Object o) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            oos.writeObject(o);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static class MyValue implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+
+        private MyValue(Object value) {
+            this.value = value;
+        }
+    }
+}
@@ -20,12 +20,15 @@ package com.walmartlabs.concord.svm;
  * =====
  */
 
-import java.io.Serializable;
+import java.io.*;
 import java.util.*;
 
 /**
  * Frame or "call frame" represents a scope with a list of commands, local
  * variables and an optional exception handling command.
+ * <p>
+ * The serialized form is the same as in the previous versions
+ * (see {@link #serialPersistentFields}).
  */
 public class Frame implements Serializable {
 
@@ -40,16 +43,26 @@ public class Frame implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final FrameType type;
-    private final List<Command> commandStack;
-    private final Map<String, Serializable> locals;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("type", FrameType.class),
+            new ObjectStreamField("commandStack", List.class),
+            new ObjectStreamField("locals", Map.class),
+            new ObjectStreamField("exceptionHandler", Command.class)
+    };
 
-    private Command exceptionHandler;
+    private transient FrameType type;
+
+    // the top command is the first one, guarded by itself
+    private transient Deque<Command> commandStack;
+
+    private transient Map<String, Serializable> locals;
+
+    private transient Command exceptionHandler;
 
     private Frame(Builder b) {
         this.type = b.type;
 
-        this.commandStack = new LinkedList<>();
+        this.commandStack = new ArrayDeque<>();
         if (b.commands != null) {
             for (Command cmd : b.commands) {
                 push(cmd);
@@ -62,11 +75,9 @@ public class Frame implements Serializable {
     }
 
     public Command peek() {
-        if (commandStack.isEmpty()) {
-            return null;
+        synchronized (commandStack) {
+            return commandStack.peekFirst();
         }
-
-        return commandStack.get(0);
     }
 
     public FrameType getType() {
@@ -74,11 +85,15 @@ public class Frame implements Serializable {
     }
 
     public void push(Command cmd) {
-        commandStack.add(0, cmd);
+        synchronized (commandStack) {
+            commandStack.addFirst(cmd);
+        }
     }
 
     public void pop() {
-        commandStack.remove(0);
+        synchronized (commandStack) {
+            commandStack.removeFirst();
+        }
     }
 
     public Command getExceptionHandler() {
@@ -109,6 +124,35 @@ public class Frame implements Serializable {
         return Collections.unmodifiableMap(locals);
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        List<Command> commands;
+        synchronized (commandStack) {
+            commands = new LinkedList<>(commandStack);
+        }
+
+        ObjectOutputStream.PutField f = out.putFields();
+        f.put("type", type);
+        f.put("commandStack", commands);
+        f.put("locals", locals);
+        f.put("exceptionHandler", exceptionHandler);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+
+        this.type = (FrameType) f.get("type", null);
+
+        List<Command> commands = (List<Command>) f.get("commandStack", null);
+        this.commandStack = commands != null ? new ArrayDeque<>(commands) : new ArrayDeque<>();
+
+        Map<String, Serializable> locals = (Map<String, Serializable>) f.get("locals", null);
+        this.locals = locals != null ? locals : Collections.synchronizedMap(new LinkedHashMap<>());
+
+        this.exceptionHandler = (Command) f.get("exceptionHandler", null);
+    }
+
     public static class Builder {
 
         private FrameType type = FrameType.ROOT;
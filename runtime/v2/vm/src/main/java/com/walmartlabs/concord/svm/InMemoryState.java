@@ -23,29 +23,53 @@ package com.walmartlabs.concord.svm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Simple in-memory implementation of {@link State}
+ * <p>
+ * Each VM thread has its own frame stack with its own lock, so the threads
+ * don't block each other when pushing or popping frames. The serialized form
+ * is the same as in the previous versions (see {@link #serialPersistentFields}).
  */
 public class InMemoryState implements Serializable, State {
 
     private static final long serialVersionUID = 1L;
 
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("frames", Map.class),
+            new ObjectStreamField("threadStatus", Map.class),
+            new ObjectStreamField("children", Map.class),
+            new ObjectStreamField("eventRefs", Map.class),
+            new ObjectStreamField("threadErrors", Map.class),
+            new ObjectStreamField("rootThreadId", ThreadId.class),
+            new ObjectStreamField("threadIdSeq", long.class)
+    };
+
     private static final Logger log = LoggerFactory.getLogger(InMemoryState.class);
 
-    private final Map<ThreadId, List<Frame>> frames = new HashMap<>();
-    private final Map<ThreadId, ThreadStatus> threadStatus = new HashMap<>();
-    private final Map<ThreadId, Set<ThreadId>> children = new HashMap<>();
-    private final Map<ThreadId, String> eventRefs = new HashMap<>();
-    private final Map<ThreadId, Exception> threadErrors = new HashMap<>();
+    // frame stacks, the top frame is the first one. Each stack is guarded by itself
+    private transient Map<ThreadId, Deque<Frame>> frames = new ConcurrentHashMap<>();
+    private transient Map<ThreadId, ThreadStatus> threadStatus = new ConcurrentHashMap<>();
+    private transient Map<ThreadId, Set<ThreadId>> children = new ConcurrentHashMap<>();
+    private transient Map<ThreadId, String> eventRefs = new ConcurrentHashMap<>();
+    private transient Map<ThreadId, Exception> threadErrors = new ConcurrentHashMap<>();
+
+    private transient ThreadId rootThreadId;
 
-    private final ThreadId rootThreadId;
+    private transient AtomicLong threadIdSeq = new AtomicLong();
 
-    private long threadIdSeq = 0;
+    // guarded by "this"
+    private transient long statusVersion = 0;
 
     public InMemoryState(Frame rootFrame) {
         this.rootThreadId = nextThreadId();
@@ -63,21 +87,21 @@ public class InMemoryState implements Serializable, State {
     public void pushFrame(ThreadId threadId, Frame frame) {
         log.trace("pushFrame {}", threadId);
 
-        synchronized (this) {
-            List<Frame> l = frames.computeIfAbsent(threadId, key -> new LinkedList<>());
-            l.add(0, frame);
+        Deque<Frame> l = frames.computeIfAbsent(threadId, key -> new ArrayDeque<>());
+        synchronized (l) {
+            l.addFirst(frame);
         }
     }
 
     @Override
     public Frame peekFrame(ThreadId threadId) {
-        synchronized (this) {
-            List<Frame> l = frames.get(threadId);
-            if (l == null || l.isEmpty()) {
-                return null;
-            }
+        Deque<Frame> l = frames.get(threadId);
+        if (l == null) {
+            return null;
+        }
 
-            return l.get(0);
+        synchronized (l) {
+            return l.peekFirst();
         }
     }
 
@@ -85,47 +109,42 @@ public class InMemoryState implements Serializable, State {
     public void popFrame(ThreadId threadId) {
         log.trace("popFrame {}", threadId);
 
-        synchronized (this) {
-            List<Frame> l = frames.get(threadId);
-            if (l == null) {
-                throw new IllegalStateException("Call frame doesn't exist: " + threadId);
-            }
+        Deque<Frame> l = frames.get(threadId);
+        if (l == null) {
+            throw new IllegalStateException("Call frame doesn't exist: " + threadId);
+        }
 
-            l.remove(0);
+        synchronized (l) {
+            l.removeFirst();
         }
     }
 
     @Override
     public List<Frame> getFrames(ThreadId threadId) {
-        synchronized (this) {
-            List<Frame> l = this.frames.get(threadId);
-            if (l == null) {
-                throw new IllegalStateException("Call frame doesn't exist: " + threadId);
-            }
+        Deque<Frame> l = this.frames.get(threadId);
+        if (l == null) {
+            throw new IllegalStateException("Call frame doesn't exist: " + threadId);
+        }
 
+        synchronized (l) {
             return Collections.unmodifiableList(new ArrayList<>(l));
         }
     }
 
     @Override
     public void dropAllFrames() {
-        synchronized (this) {
-            frames.clear();
-        }
+        frames.clear();
     }
 
     @Override
     public void setStatus(ThreadId threadId, ThreadStatus status) {
-        synchronized (this) {
-            threadStatus.put(threadId, status);
-        }
+        threadStatus.put(threadId, status);
+        statusChanged();
     }
 
     @Override
     public ThreadStatus getStatus(ThreadId threadId) {
-        synchronized (this) {
-            return threadStatus.get(threadId);
-        }
+        return threadStatus.get(threadId);
     }
 
     @Override
@@ -135,108 +154,173 @@ public class InMemoryState implements Serializable, State {
 
     @Override
     public void fork(ThreadId parentThreadId, ThreadId threadId, Command... cmds) {
-        synchronized (this) {
-            setStatus(threadId, ThreadStatus.READY);
-            pushFrame(threadId, Frame.builder()
-                    .root()
-                    .commands(cmds)
-                    .build());
-
-            children.computeIfAbsent(parentThreadId, k -> new HashSet<>())
-                    .add(threadId);
-        }
+        // push the frame before the status change, READY threads can be picked up right away
+        pushFrame(threadId, Frame.builder()
+                .root()
+                .commands(cmds)
+                .build());
+        setStatus(threadId, ThreadStatus.READY);
+
+        // register the child last, the thread is fully initialized at this point
+        children.computeIfAbsent(parentThreadId, k -> ConcurrentHashMap.newKeySet())
+                .add(threadId);
     }
 
     @Override
     public Map<ThreadId, ThreadStatus> threadStatus() {
+        return new HashMap<>(threadStatus);
+    }
+
+    @Override
+    public long statusVersion() {
         synchronized (this) {
-            return new HashMap<>(threadStatus);
+            return statusVersion;
         }
     }
 
     @Override
-    public ThreadId nextThreadId() {
+    public void awaitStatusChange(long version, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+
         synchronized (this) {
-            long id = threadIdSeq++;
-            return new ThreadId(id);
+            long wait;
+            while (statusVersion == version && (wait = deadline - System.currentTimeMillis()) > 0) {
+                this.wait(wait);
+            }
         }
     }
 
+    @Override
+    public ThreadId nextThreadId() {
+        return new ThreadId(threadIdSeq.getAndIncrement());
+    }
+
     @Override
     public void setEventRef(ThreadId threadId, String eventRef) {
         // TODO check for uniqueness
 
-        synchronized (this) {
-            String old = eventRefs.put(threadId, eventRef);
-            if (old != null) {
-                throw new IllegalStateException("Thread " + threadId + " already had an unprocessed event ref registered: " + old);
-            }
+        String old = eventRefs.put(threadId, eventRef);
+        if (old != null) {
+            throw new IllegalStateException("Thread " + threadId + " already had an unprocessed event ref registered: " + old);
         }
     }
 
     @Override
     public ThreadId removeEventRef(String eventRef) {
-        ThreadId threadId = null;
-
-        synchronized (this) {
-            for (Map.Entry<ThreadId, String> e : eventRefs.entrySet()) {
-                String s = e.getValue();
-                if (eventRef.equals(s)) {
-                    threadId = e.getKey();
-                    break;
-                }
-            }
-
-            if (threadId != null) {
-                eventRefs.remove(threadId);
+        for (Map.Entry<ThreadId, String> e : eventRefs.entrySet()) {
+            if (eventRef.equals(e.getValue()) && eventRefs.remove(e.getKey(), eventRef)) {
+                return e.getKey();
             }
         }
 
-        return threadId;
+        return null;
     }
 
     @Override
     public Map<ThreadId, String> getEventRefs() {
-        synchronized (this) {
-            return Collections.unmodifiableMap(eventRefs);
-        }
+        return Collections.unmodifiableMap(eventRefs);
     }
 
     @Override
     public void setThreadError(ThreadId threadId, Exception error) {
-        synchronized (this) {
-            threadErrors.put(threadId, error);
-        }
+        threadErrors.put(threadId, error);
+        statusChanged();
     }
 
     @Override
     public Exception clearThreadError(ThreadId threadId) {
-        synchronized (this) {
-            return threadErrors.remove(threadId);
-        }
+        return threadErrors.remove(threadId);
     }
 
     @Override
     public void gc() {
+        Stream<ThreadId> done = threadStatus.entrySet().stream()
+                .filter(e -> e.getValue() == ThreadStatus.DONE)
+                .map(Map.Entry::getKey);
+
+        Stream<ThreadId> handled = threadStatus.entrySet().stream()
+                .filter(e -> e.getValue() == ThreadStatus.FAILED)
+                .filter(e -> !threadErrors.containsKey(e.getKey()))
+                .map(Map.Entry::getKey);
+
+        Stream.concat(done, handled)
+                .collect(Collectors.toList()) // avoid races by eagerly calculating the list of IDs
+                .forEach(k -> {
+                    threadErrors.remove(k);
+                    threadStatus.remove(k);
+                    frames.remove(k);
+                    eventRefs.remove(k);
+                    children.remove(k);
+                });
+    }
+
+    private void statusChanged() {
         synchronized (this) {
-            Stream<ThreadId> done = threadStatus.entrySet().stream()
-                    .filter(e -> e.getValue() == ThreadStatus.DONE)
-                    .map(Map.Entry::getKey);
-
-            Stream<ThreadId> handled = threadStatus.entrySet().stream()
-                    .filter(e -> e.getValue() == ThreadStatus.FAILED)
-                    .filter(e -> !threadErrors.containsKey(e.getKey()))
-                    .map(Map.Entry::getKey);
-
-            Stream.concat(done, handled)
-                    .collect(Collectors.toList()) // avoid races by eagerly calculating the list of IDs
-                    .forEach(k -> {
-                        threadErrors.remove(k);
-                        threadStatus.remove(k);
-                        frames.remove(k);
-                        eventRefs.remove(k);
-                        children.remove(k);
-                    });
+            statusVersion++;
+            notifyAll();
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<ThreadId, List<Frame>> frames = new HashMap<>();
+        this.frames.forEach((k, v) -> {
+            synchronized (v) {
+                frames.put(k, new LinkedList<>(v));
+            }
+        });
+
+        Map<ThreadId, Set<ThreadId>> children = new HashMap<>();
+        this.children.forEach((k, v) -> children.put(k, new HashSet<>(v)));
+
+        ObjectOutputStream.PutField f = out.putFields();
+        f.put("frames", frames);
+        f.put("threadStatus", new HashMap<>(threadStatus));
+        f.put("children", children);
+        f.put("eventRefs", new HashMap<>(eventRefs));
+        f.put("threadErrors", new HashMap<>(threadErrors));
+        f.put("rootThreadId", rootThreadId);
+        f.put("threadIdSeq", threadIdSeq.get());
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+
+        this.frames = new ConcurrentHashMap<>();
+        Map<ThreadId, List<Frame>> frames = (Map<ThreadId, List<Frame>>) f.get("frames", null);
+        if (frames != null) {
+            frames.forEach((k, v) -> this.frames.put(k, new ArrayDeque<>(v)));
+        }
+
+        this.threadStatus = copyOf((Map<ThreadId, ThreadStatus>) f.get("threadStatus", null));
+
+        this.children = new ConcurrentHashMap<>();
+        Map<ThreadId, Set<ThreadId>> children = (Map<ThreadId, Set<ThreadId>>) f.get("children", null);
+        if (children != null) {
+            children.forEach((k, v) -> {
+                Set<ThreadId> s = ConcurrentHashMap.newKeySet();
+                s.addAll(v);
+                this.children.put(k, s);
+            });
+        }
+
+        this.eventRefs = copyOf((Map<ThreadId, String>) f.get("eventRefs", null));
+        this.threadErrors = copyOf((Map<ThreadId, Exception>) f.get("threadErrors", null));
+        this.rootThreadId = (ThreadId) f.get("rootThreadId", null);
+        this.threadIdSeq = new AtomicLong(f.get("threadIdSeq", 0L));
+    }
+
+    private static <K, V> Map<K, V> copyOf(Map<K, V> m) {
+        Map<K, V> result = new ConcurrentHashMap<>();
+        if (m != null) {
+            // ConcurrentHashMap doesn't allow nulls
+            m.forEach((k, v) -> {
+                if (v != null) {
+                    result.put(k, v);
+                }
+            });
         }
+        return result;
     }
 }
@@ -27,6 +27,19 @@ public interface Runtime {
      */
     void spawn(State state, ThreadId threadId);
 
+    /**
+     * Notifies the runtime that the current "real" thread is about to block
+     * waiting for other threads. Must be followed by {@link #afterBlocking()}.
+     */
+    default void beforeBlocking() {
+    }
+
+    /**
+     * Notifies the runtime that the current "real" thread is no longer blocked.
+     */
+    default void afterBlocking() {
+    }
+
     /**
      * Returns an instance of the specified service using the underlying injector.
      */
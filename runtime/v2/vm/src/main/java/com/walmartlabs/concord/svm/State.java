@@ -81,6 +81,18 @@ public interface State extends Serializable {
      */
     Map<ThreadId, ThreadStatus> threadStatus();
 
+    /**
+     * Returns the current version of the thread statuses. The version changes
+     * every time a thread changes its status or gets an unhandled error.
+     */
+    long statusVersion();
+
+    /**
+     * Blocks until the thread statuses change (i.e. the {@link #statusVersion()} differs
+     * from the specified value) or until the timeout expires.
+     */
+    void awaitStatusChange(long version, long timeoutMs) throws InterruptedException;
+
     /**
      * Returns a next thread ID. Unique per {@link State} instance.
      */
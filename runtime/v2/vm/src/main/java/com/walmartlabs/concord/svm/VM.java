@@ -185,8 +185,9 @@ public class VM {
             Frame frame = state.peekFrame(threadId);
             if (frame == null) {
                 // no more frames to unwind, looks like there was no exception handler
-                state.setStatus(threadId, ThreadStatus.FAILED);
+                // set the error first, the parent thread might be waiting for the status change
                 state.setThreadError(threadId, cause);
+                state.setStatus(threadId, ThreadStatus.FAILED);
                 throw cause;
             }
 
@@ -445,6 +445,12 @@ public class Constants {
          */
         public static final String CHECKPOINT_META_FILE_NAME = ".checkpoint";
 
+        /**
+         * File which contains the incremental checkpoint's metadata:
+         * the base checkpoint ID and the list of removed files.
+         */
+        public static final String CHECKPOINT_DELTA_FILE_NAME = ".checkpointDelta";
+
         /**
          * Policy file.
          */
@@ -35,15 +35,30 @@ import java.util.function.Function;
 public abstract class AbstractDao {
 
     protected final Configuration cfg;
+    private final Configuration replicaCfg;
 
     protected AbstractDao(Configuration cfg) {
+        this(cfg, cfg);
+    }
+
+    protected AbstractDao(Configuration cfg, Configuration replicaCfg) {
         this.cfg = cfg;
+        this.replicaCfg = replicaCfg;
     }
 
     protected DSLContext dsl() {
         return DSL.using(cfg);
     }
 
+    /**
+     * Returns a {@link DSLContext} for read-only queries which can tolerate
+     * a (bounded) replication lag. Uses the main DB if no replica is configured
+     * or if the replica falls behind.
+     */
+    protected DSLContext replicaDsl() {
+        return DSL.using(replicaCfg);
+    }
+
     protected void tx(Tx t) {
         dsl().transaction(cfg -> {
             DSLContext tx = DSL.using(cfg);
@@ -58,6 +73,17 @@ public abstract class AbstractDao {
         });
     }
 
+    /**
+     * Same as {@link #txResult(TxResult)}, but uses {@link #replicaDsl()}.
+     * The same restrictions apply.
+     */
+    protected <T> T replicaTxResult(TxResult<T> t) {
+        return replicaDsl().transactionResult(cfg -> {
+            DSLContext tx = DSL.using(cfg);
+            return t.run(tx);
+        });
+    }
+
     protected InputStream getData(Function<DSLContext, String> sqlFn, PreparedStatementHandler h, int columnIndex) {
         String sql = sqlFn.apply(dsl());
 
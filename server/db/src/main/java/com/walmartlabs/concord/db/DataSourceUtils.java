@@ -30,9 +30,11 @@ import liquibase.logging.LogFactory;
 import liquibase.logging.LogLevel;
 import liquibase.resource.ClassLoaderResourceAccessor;
 import org.jooq.Configuration;
+import org.jooq.ConnectionProvider;
 import org.jooq.SQLDialect;
 import org.jooq.conf.RenderNameStyle;
 import org.jooq.conf.Settings;
+import org.jooq.impl.DataSourceConnectionProvider;
 import org.jooq.impl.DefaultConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -106,13 +108,17 @@ public final class DataSourceUtils {
     }
 
     public static Configuration createJooqConfiguration(DataSource ds) {
+        return createJooqConfiguration(new DataSourceConnectionProvider(ds));
+    }
+
+    public static Configuration createJooqConfiguration(ConnectionProvider connectionProvider) {
         Settings settings = new Settings();
         settings.setRenderSchema(false);
         settings.setRenderCatalog(false);
         settings.setRenderNameStyle(RenderNameStyle.AS_IS);
         return new DefaultConfiguration()
                 .set(settings)
-                .set(ds)
+                .set(connectionProvider)
                 .set(SQLDialect.POSTGRES);
     }
 
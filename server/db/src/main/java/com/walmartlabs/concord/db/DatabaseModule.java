@@ -73,6 +73,21 @@ public class DatabaseModule extends AbstractModule {
         return DataSourceUtils.createDataSource(cfg, "inventory", cfg.username(), cfg.password(), metricRegistry);
     }
 
+    @Provides
+    @ReplicaDB
+    @Singleton
+    public Configuration replicaJooqConfiguration(@ReplicaDB ReplicaDatabaseConfiguration cfg,
+                                                  @MainDB DataSource mainDs,
+                                                  MetricRegistry metricRegistry) {
+
+        if (!cfg.isEnabled()) {
+            return DataSourceUtils.createJooqConfiguration(mainDs);
+        }
+
+        DataSource ds = DataSourceUtils.createDataSource(cfg, "replica", cfg.username(), cfg.password(), metricRegistry);
+        return DataSourceUtils.createJooqConfiguration(new ReplicaConnectionProvider(mainDs, ds, cfg, metricRegistry));
+    }
+
     @Provides
     @MainDB
     @Singleton
@@ -0,0 +1,143 @@
+package com.walmartlabs.concord.db;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides connections to the read replica as long as the replica's
+ * replication lag stays within the configured bound. Otherwise (or if
+ * the replica is unavailable) connections to the main DB are returned.
+ */
+public class ReplicaConnectionProvider implements ConnectionProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaConnectionProvider.class);
+
+    // the lag is zero if all received WAL records are already replayed,
+    // otherwise it's the age of the last replayed transaction
+    private static final String LAG_QUERY = "select case" +
+            " when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0" +
+            " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)" +
+            " end";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+
+    private final AtomicLong lastCheck = new AtomicLong();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final AtomicBoolean replicaAvailable = new AtomicBoolean(true);
+
+    private final Meter replicaHits;
+    private final Meter primaryFallbacks;
+
+    public ReplicaConnectionProvider(DataSource primary,
+                                     DataSource replica,
+                                     ReplicaDatabaseConfiguration cfg,
+                                     MetricRegistry metricRegistry) {
+
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = cfg.maxLag().toMillis();
+        this.checkIntervalMs = cfg.lagCheckInterval().toMillis();
+
+        this.replicaHits = metricRegistry.meter("db-replica-hits");
+        this.primaryFallbacks = metricRegistry.meter("db-replica-fallbacks");
+        metricRegistry.register("db-replica-lag-ms", (Gauge<Long>) lastLagMs::get);
+    }
+
+    @Override
+    public Connection acquire() throws DataAccessException {
+        if (isReplicaUsable()) {
+            try {
+                Connection conn = replica.getConnection();
+                replicaHits.mark();
+                return conn;
+            } catch (SQLException e) {
+                log.warn("acquire -> replica connection error, falling back to the main DB: {}", e.getMessage());
+                replicaAvailable.set(false);
+            }
+        }
+
+        primaryFallbacks.mark();
+        try {
+            return primary.getConnection();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting connection from data source " + primary, e);
+        }
+    }
+
+    @Override
+    public void release(Connection connection) throws DataAccessException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error closing connection " + connection, e);
+        }
+    }
+
+    private boolean isReplicaUsable() {
+        long now = System.currentTimeMillis();
+        long last = lastCheck.get();
+
+        // only one thread performs the check, others use the last known value
+        if (now - last >= checkIntervalMs && lastCheck.compareAndSet(last, now)) {
+            checkLag();
+        }
+
+        return replicaAvailable.get() && lastLagMs.get() <= maxLagMs;
+    }
+
+    private void checkLag() {
+        try (Connection conn = replica.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(LAG_QUERY)) {
+
+            long lag = rs.next() ? rs.getLong(1) : 0;
+            conn.rollback();
+
+            if (lag > maxLagMs) {
+                log.warn("checkLag -> replication lag {}ms exceeds {}ms, using the main DB", lag, maxLagMs);
+            }
+
+            lastLagMs.set(lag);
+            replicaAvailable.set(true);
+        } catch (SQLException e) {
+            log.warn("checkLag -> replica is unavailable, using the main DB: {}", e.getMessage());
+            replicaAvailable.set(false);
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package com.walmartlabs.concord.runtime.v2.runner.logging;
+package com.walmartlabs.concord.db;
 
 /*-
  * *****
@@ -20,16 +20,15 @@ package com.walmartlabs.concord.runtime.v2.runner.logging;
  * =====
  */
 
-public class LogContextThreadGroup extends ThreadGroup {
+import javax.inject.Qualifier;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 
-    private final LogContext context;
-
-    public LogContextThreadGroup(LogContext context) {
-        super(context.segmentName());
-        this.context = context;
-    }
-
-    public LogContext getContext() {
-        return context;
-    }
+/**
+ * Qualifier for the read replica of the main database. If no replica is
+ * configured, the {@link ReplicaDB} configuration points to the main DB.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Qualifier
+public @interface ReplicaDB {
 }
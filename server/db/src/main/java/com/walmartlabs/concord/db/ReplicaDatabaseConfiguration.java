@@ -0,0 +1,45 @@
+package com.walmartlabs.concord.db;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.time.Duration;
+
+public interface ReplicaDatabaseConfiguration extends DatabaseConfiguration {
+
+    /**
+     * @return {@code true} if the replica is configured. If {@code false}
+     * all replica-safe queries are executed using the main DB.
+     */
+    default boolean isEnabled() {
+        return url() != null;
+    }
+
+    /**
+     * @return maximum acceptable replication lag. If the replica falls behind
+     * further than that, queries are routed to the main DB.
+     */
+    Duration maxLag();
+
+    /**
+     * @return how often the replication lag should be checked.
+     */
+    Duration lagCheckInterval();
+}
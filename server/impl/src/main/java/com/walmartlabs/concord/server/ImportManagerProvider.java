@@ -21,6 +21,7 @@ package com.walmartlabs.concord.server;
  */
 
 import com.walmartlabs.concord.dependencymanager.DependencyManager;
+import com.walmartlabs.concord.imports.CachingRepositoryExporter;
 import com.walmartlabs.concord.imports.Import.GitDefinition;
 import com.walmartlabs.concord.imports.Import.SecretDefinition;
 import com.walmartlabs.concord.imports.ImportManager;
@@ -37,6 +38,7 @@ import com.walmartlabs.concord.server.repository.RepositoryManager;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.UUID;
@@ -51,10 +53,14 @@ public class ImportManagerProvider implements Provider<ImportManager> {
                                  OrganizationDao organizationDao,
                                  SecretManager secretManager,
                                  RepositoryManager repositoryManager,
-                                 ImportConfiguration cfg) {
+                                 ImportConfiguration cfg) throws IOException {
 
-        RepositoryExporterImpl exporter = new RepositoryExporterImpl(organizationDao, secretManager, repositoryManager);
-        this.factory = new ImportManagerFactory(dependencyManager, exporter, cfg.getDisabledProcessors());
+        RepositoryExporter exporter = new RepositoryExporterImpl(organizationDao, secretManager, repositoryManager);
+        if (cfg.isExportCacheEnabled()) {
+            exporter = new CachingRepositoryExporter(exporter, cfg.getExportCacheDir(), cfg.getExportCacheMaxAge());
+        }
+
+        this.factory = new ImportManagerFactory(dependencyManager, exporter, cfg.getDisabledProcessors(), cfg.getParallelism());
     }
 
     @Override
@@ -83,7 +89,7 @@ public class ImportManagerProvider implements Provider<ImportManager> {
                 if (entry.dest() != null) {
                     dst = dst.resolve(Objects.requireNonNull(entry.dest()));
                 }
-                return repository.export(dst, entry.exclude());
+                return repositoryManager.export(entry.url(), entry.path(), repository, dst, entry.exclude());
             });
         }
 
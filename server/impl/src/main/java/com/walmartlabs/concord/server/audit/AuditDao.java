@@ -23,6 +23,7 @@ package com.walmartlabs.concord.server.audit;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.db.PgUtils;
+import com.walmartlabs.concord.db.ReplicaDB;
 import com.walmartlabs.concord.server.ConcordObjectMapper;
 import com.walmartlabs.concord.server.jooq.tables.AuditLog;
 import com.walmartlabs.concord.server.jooq.tables.Users;
@@ -52,8 +53,9 @@ public class AuditDao extends AbstractDao {
 
     @Inject
     public AuditDao(@MainDB Configuration cfg,
+                    @ReplicaDB Configuration replicaCfg,
                     ConcordObjectMapper objectMapper) {
-        super(cfg);
+        super(cfg, replicaCfg);
 
         this.objectMapper = objectMapper;
     }
@@ -87,7 +89,7 @@ public class AuditDao extends AbstractDao {
     }
 
     public List<AuditLogEntry> list(AuditLogFilter filter) {
-        return txResult(tx -> {
+        return replicaTxResult(tx -> {
             AuditLog l = AUDIT_LOG.as("l");
             Users u = USERS.as("u");
 
@@ -21,15 +21,21 @@ package com.walmartlabs.concord.server.cfg;
  */
 
 import com.walmartlabs.ollie.config.Config;
+import org.eclipse.sisu.Nullable;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static com.walmartlabs.concord.server.cfg.Utils.getPath;
+
 @Named
 @Singleton
 public class ImportConfiguration {
@@ -42,11 +48,28 @@ public class ImportConfiguration {
     @Config("imports.defaultBranch")
     private String defaultBranch;
 
+    @Inject
+    @Config("imports.parallelism")
+    private int parallelism;
+
+    @Inject
+    @Config("imports.exportCache.enabled")
+    private boolean exportCacheEnabled;
+
+    @Inject
+    @Config("imports.exportCache.maxAge")
+    private Duration exportCacheMaxAge;
+
     private final Set<String> disabledProcessors;
 
+    private final Path exportCacheDir;
+
     @Inject
-    public ImportConfiguration(@Config("imports.disabledProcessors") List<String> disabledProcessors) {
+    public ImportConfiguration(@Config("imports.disabledProcessors") List<String> disabledProcessors,
+                               @Config("imports.exportCache.cacheDir") @Nullable String exportCacheDir) throws IOException {
+
         this.disabledProcessors = Collections.unmodifiableSet(new HashSet<>(disabledProcessors));
+        this.exportCacheDir = getPath(exportCacheDir, "importCache");
     }
 
     public String getSrc() {
@@ -60,4 +83,20 @@ public class ImportConfiguration {
     public Set<String> getDisabledProcessors() {
         return disabledProcessors;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isExportCacheEnabled() {
+        return exportCacheEnabled;
+    }
+
+    public Path getExportCacheDir() {
+        return exportCacheDir;
+    }
+
+    public Duration getExportCacheMaxAge() {
+        return exportCacheMaxAge;
+    }
 }
@@ -44,6 +44,8 @@ public class RepositoryConfiguration {
 
     private final Path cacheInfoDir;
 
+    private final Path exportCacheDir;
+
     @Inject
     @Config("repositoryCache.concordFileValidationEnabled")
     private boolean concordFileValidationEnabled;
@@ -60,12 +62,30 @@ public class RepositoryConfiguration {
     @Config("repositoryCache.lockCount")
     private int lockCount;
 
+    @Inject
+    @Config("repositoryCache.exportCache.enabled")
+    private boolean exportCacheEnabled;
+
+    @Inject
+    @Config("repositoryCache.exportCache.maxSize")
+    private long exportCacheMaxSize;
+
+    @Inject
+    @Config("repositoryCache.exportCache.hardlinks")
+    private boolean exportCacheHardlinks;
+
+    @Inject
+    @Config("repositoryCache.exportCache.verifyChecksums")
+    private boolean exportCacheVerifyChecksums;
+
     @Inject
     public RepositoryConfiguration(@Config("repositoryCache.cacheDir") @Nullable String cacheDir,
-                                   @Config("repositoryCache.cacheInfoDir") @Nullable String cacheInfoDir) throws IOException {
+                                   @Config("repositoryCache.cacheInfoDir") @Nullable String cacheInfoDir,
+                                   @Config("repositoryCache.exportCache.cacheDir") @Nullable String exportCacheDir) throws IOException {
 
         this.cacheDir = getPath(cacheDir, "repoCache");
         this.cacheInfoDir = getPath(cacheInfoDir, "repoCacheInfo");
+        this.exportCacheDir = getPath(exportCacheDir, "repoExportCache");
 
         log.info("init -> using {} ({}) to cache repositories", this.cacheDir, this.cacheInfoDir);
     }
@@ -93,4 +113,24 @@ public class RepositoryConfiguration {
     public Path getCacheInfoDir() {
         return cacheInfoDir;
     }
+
+    public boolean isExportCacheEnabled() {
+        return exportCacheEnabled;
+    }
+
+    public Path getExportCacheDir() {
+        return exportCacheDir;
+    }
+
+    public long getExportCacheMaxSize() {
+        return exportCacheMaxSize;
+    }
+
+    public boolean isExportCacheHardlinks() {
+        return exportCacheHardlinks;
+    }
+
+    public boolean isExportCacheVerifyChecksums() {
+        return exportCacheVerifyChecksums;
+    }
 }
@@ -91,7 +91,7 @@ public class UserActivityResource implements Resource {
                 .includeWithoutProject(true)
                 .limit(maxOwnProcesses)
                 .build();
-        List<ProcessEntry> lastProcesses = processDao.list(filter);
+        List<ProcessEntry> lastProcesses = processDao.list(filter, true);
 
         return new UserActivityResponse(stats, orgProcesses, lastProcesses);
     }
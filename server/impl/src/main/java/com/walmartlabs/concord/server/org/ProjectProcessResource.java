@@ -138,7 +138,7 @@ public class ProjectProcessResource implements Resource {
                 .offset(offset)
                 .build();
 
-        return queueDao.list(filter);
+        return queueDao.list(filter, true);
     }
 
     @GET
@@ -171,7 +171,7 @@ public class ProjectProcessResource implements Resource {
                 .offset(offset)
                 .build();
 
-        return queueDao.list(filter);
+        return queueDao.list(filter, true);
     }
 
     /**
@@ -22,27 +22,26 @@ package com.walmartlabs.concord.server.org.project;
 
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
-import com.walmartlabs.concord.server.Locks;
 import com.walmartlabs.concord.server.jooq.tables.ProjectKvStore;
 import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.Query;
 import org.jooq.Record1;
 import org.jooq.exception.DataAccessException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.server.jooq.tables.ProjectKvStore.PROJECT_KV_STORE;
 
 @Named
 public class KvDao extends AbstractDao {
 
-    private final Locks locks;
-
     @Inject
-    public KvDao(@MainDB Configuration cfg, Locks locks) {
+    public KvDao(@MainDB Configuration cfg) {
         super(cfg);
-        this.locks = locks;
     }
 
     public void remove(UUID projectId, String key) {
@@ -53,35 +52,48 @@ public class KvDao extends AbstractDao {
                 .execute());
     }
 
-    public synchronized void putString(UUID projectId, String key, String value) {
+    public void putString(UUID projectId, String key, String value) {
+        putStrings(projectId, Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Puts all values in a single transaction.
+     */
+    public void putStrings(UUID projectId, Map<String, String> values) {
         ProjectKvStore kv = PROJECT_KV_STORE.as("kv");
         tx(tx -> {
-            int rows = tx.insertInto(kv)
-                    .columns(kv.PROJECT_ID, kv.VALUE_KEY, kv.VALUE_STRING)
-                    .values(projectId, key, value)
-                    .onConflict(kv.PROJECT_ID, kv.VALUE_KEY)
-                    .doUpdate().set(kv.VALUE_STRING, value)
-                    .execute();
-
-            if (rows != 1) {
-                throw new DataAccessException("Invalid number of rows: " + rows);
-            }
+            // a consistent order to avoid deadlocks between concurrent batches
+            List<Query> queries = new TreeMap<>(values).entrySet().stream()
+                    .map(e -> tx.insertInto(kv)
+                            .columns(kv.PROJECT_ID, kv.VALUE_KEY, kv.VALUE_STRING)
+                            .values(projectId, e.getKey(), e.getValue())
+                            .onConflict(kv.PROJECT_ID, kv.VALUE_KEY)
+                            .doUpdate().set(kv.VALUE_STRING, e.getValue()))
+                    .collect(Collectors.toList());
+
+            assertRows(tx.batch(queries).execute());
         });
     }
 
-    public synchronized void putLong(UUID projectId, String key, long value) {
+    public void putLong(UUID projectId, String key, long value) {
+        putLongs(projectId, Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Puts all values in a single transaction.
+     */
+    public void putLongs(UUID projectId, Map<String, Long> values) {
         ProjectKvStore kv = PROJECT_KV_STORE.as("kv");
         tx(tx -> {
-            int rows = tx.insertInto(kv)
-                    .columns(kv.PROJECT_ID, kv.VALUE_KEY, kv.VALUE_LONG)
-                    .values(projectId, key, value)
-                    .onConflict(kv.PROJECT_ID, kv.VALUE_KEY)
-                    .doUpdate().set(kv.VALUE_LONG, value)
-                    .execute();
-
-            if (rows != 1) {
-                throw new DataAccessException("Invalid number of rows: " + rows);
-            }
+            List<Query> queries = new TreeMap<>(values).entrySet().stream()
+                    .map(e -> tx.insertInto(kv)
+                            .columns(kv.PROJECT_ID, kv.VALUE_KEY, kv.VALUE_LONG)
+                            .values(projectId, e.getKey(), e.getValue())
+                            .onConflict(kv.PROJECT_ID, kv.VALUE_KEY)
+                            .doUpdate().set(kv.VALUE_LONG, e.getValue()))
+                    .collect(Collectors.toList());
+
+            assertRows(tx.batch(queries).execute());
         });
     }
 
@@ -94,6 +106,18 @@ public class KvDao extends AbstractDao {
                 .fetchOne(kv.VALUE_STRING);
     }
 
+    /**
+     * @return values of the existing keys
+     */
+    public Map<String, String> getStrings(UUID projectId, Collection<String> keys) {
+        ProjectKvStore kv = PROJECT_KV_STORE.as("kv");
+        return dsl().select(kv.VALUE_KEY, kv.VALUE_STRING)
+                .from(kv)
+                .where(kv.PROJECT_ID.eq(projectId)
+                        .and(kv.VALUE_KEY.in(keys)))
+                .fetchMap(kv.VALUE_KEY, kv.VALUE_STRING);
+    }
+
     public Long getLong(UUID projectId, String key) {
         ProjectKvStore kv = PROJECT_KV_STORE.as("kv");
 
@@ -110,26 +134,58 @@ public class KvDao extends AbstractDao {
         return r.value1();
     }
 
-    public synchronized long inc(UUID projectId, String key) {
+    /**
+     * @return values of the existing keys
+     */
+    public Map<String, Long> getLongs(UUID projectId, Collection<String> keys) {
         ProjectKvStore kv = PROJECT_KV_STORE.as("kv");
+        return dsl().select(kv.VALUE_KEY, kv.VALUE_LONG)
+                .from(kv)
+                .where(kv.PROJECT_ID.eq(projectId)
+                        .and(kv.VALUE_KEY.in(keys)))
+                .fetchMap(kv.VALUE_KEY, kv.VALUE_LONG);
+    }
+
+    public long inc(UUID projectId, String key) {
+        return txResult(tx -> inc(tx, projectId, key));
+    }
+
+    /**
+     * Increments all keys in a single transaction.
+     *
+     * @return the updated values
+     */
+    public Map<String, Long> inc(UUID projectId, Collection<String> keys) {
         return txResult(tx -> {
-            // grab a lock, it will be released when the transaction ends
-            locks.lock(tx, projectId + "/" + key);
-
-            // "upsert" the record
-            tx.insertInto(kv)
-                    .columns(kv.PROJECT_ID, kv.VALUE_KEY, kv.VALUE_LONG)
-                    .values(projectId, key, 1L)
-                    .onConflict(kv.PROJECT_ID, kv.VALUE_KEY)
-                    .doUpdate().set(kv.VALUE_LONG, kv.VALUE_LONG.plus(1))
-                    .execute();
-
-            // get an updated value
-            return tx.select(kv.VALUE_LONG)
-                    .from(kv)
-                    .where(kv.PROJECT_ID.eq(projectId)
-                            .and(kv.VALUE_KEY.eq(key)))
-                    .fetchOne(kv.VALUE_LONG);
+            Map<String, Long> result = new HashMap<>();
+            // a consistent order to avoid deadlocks between concurrent batches
+            for (String k : new TreeSet<>(keys)) {
+                result.put(k, inc(tx, projectId, k));
+            }
+            return result;
         });
     }
+
+    private static long inc(DSLContext tx, UUID projectId, String key) {
+        ProjectKvStore kv = PROJECT_KV_STORE.as("kv");
+
+        // the "upsert" locks the row until the end of the transaction,
+        // concurrent increments of the same key are serialized by the DB
+        return tx.insertInto(kv)
+                .columns(kv.PROJECT_ID, kv.VALUE_KEY, kv.VALUE_LONG)
+                .values(projectId, key, 1L)
+                .onConflict(kv.PROJECT_ID, kv.VALUE_KEY)
+                .doUpdate().set(kv.VALUE_LONG, kv.VALUE_LONG.plus(1))
+                .returning(kv.VALUE_LONG)
+                .fetchOne()
+                .getValueLong();
+    }
+
+    private static void assertRows(int[] rows) {
+        for (int r : rows) {
+            if (r != 1) {
+                throw new DataAccessException("Invalid number of rows: " + r);
+            }
+        }
+    }
 }
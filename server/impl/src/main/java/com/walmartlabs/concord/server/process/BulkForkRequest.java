@@ -0,0 +1,55 @@
+package com.walmartlabs.concord.server.process;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import java.util.List;
+import java.util.Map;
+
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableBulkForkRequest.class)
+@JsonDeserialize(as = ImmutableBulkForkRequest.class)
+public interface BulkForkRequest {
+
+    /**
+     * Number of forks to start.
+     */
+    @Value.Default
+    default int instances() {
+        return 1;
+    }
+
+    /**
+     * The fork request, same as the request of the regular fork.
+     */
+    Map<String, Object> request();
+
+    /**
+     * Out variables.
+     */
+    List<String> out();
+}
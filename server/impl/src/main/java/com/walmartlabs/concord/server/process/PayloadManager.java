@@ -43,7 +43,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -243,6 +246,57 @@ public class PayloadManager {
                 .build();
     }
 
+    /**
+     * Creates payloads for multiple forks of the same parent process.
+     * The parent's state is exported only once and then copied into
+     * each fork's workspace.
+     */
+    public List<Payload> createForks(List<PartialProcessKey> processKeys, ProcessKey parentProcessKey, ProcessKind kind,
+                                     UUID initiatorId, String initiator, UUID projectId, Map<String, Object> req, String[] out,
+                                     Set<String> handlers, Imports imports) throws IOException {
+
+        List<Path> workspaces = new ArrayList<>(processKeys.size());
+        Path templateDir = IOUtils.createTempDir("payload");
+        boolean success = false;
+        try {
+            // skip forms and the parent process' arguments
+            if (!stateManager.export(parentProcessKey, exclude(copyTo(templateDir), FORMS_PATH_PATTERN))) {
+                throw new ProcessException(processKeys.get(0), "Can't fork '" + parentProcessKey + "', the state snapshot not found");
+            }
+
+            List<Payload> result = new ArrayList<>(processKeys.size());
+            for (PartialProcessKey processKey : processKeys) {
+                Path tmpDir = IOUtils.createTempDir("payload");
+                workspaces.add(tmpDir);
+                IOUtils.copy(templateDir, tmpDir);
+
+                result.add(PayloadBuilder.start(processKey)
+                        .parentInstanceId(parentProcessKey.getInstanceId())
+                        .kind(kind)
+                        .initiator(initiatorId, initiator)
+                        .project(projectId)
+                        .configuration(new HashMap<>(req))
+                        .outExpressions(out)
+                        .workspace(tmpDir)
+                        .handlers(handlers)
+                        .imports(imports)
+                        .build());
+            }
+
+            success = true;
+            return result;
+        } finally {
+            IOUtils.deleteRecursively(templateDir);
+
+            if (!success) {
+                // the payloads are not going to be processed, remove their workspaces
+                for (Path p : workspaces) {
+                    IOUtils.deleteRecursively(p);
+                }
+            }
+        }
+    }
+
     public EntryPoint parseEntryPoint(PartialProcessKey processKey, UUID orgId, String entryPoint) {
         if (entryPoint == null) {
             return null;
@@ -0,0 +1,298 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2018 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.walmartlabs.concord.imports.Import;
+import com.walmartlabs.concord.imports.Imports;
+import com.walmartlabs.concord.imports.ImportsListener;
+import com.walmartlabs.concord.process.loader.ImportsNormalizer;
+import com.walmartlabs.concord.process.loader.ProjectLoader;
+import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
+import com.walmartlabs.concord.repository.Snapshot;
+import com.walmartlabs.concord.sdk.Constants;
+import com.walmartlabs.concord.server.cfg.ProcessDefinitionCacheConfiguration;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Caches parsed process definitions of repository commits.
+ * <p/>
+ * A definition is reused only if the process' working directory contains
+ * nothing but the files of the repository's commit and all {@code imports}
+ * are pinned to specific versions. The imports are still processed for
+ * each process, only the parsing of the project files is skipped.
+ */
+@Named
+@Singleton
+public class ProcessDefinitionCache {
+
+    private static final Pattern COMMIT_ID_PATTERN = Pattern.compile("[0-9a-f]{40}");
+
+    private final ProjectLoader projectLoader;
+    private final Cache<Key, Entry> cache;
+    private final boolean enabled;
+
+    @Inject
+    public ProcessDefinitionCache(ProcessDefinitionCacheConfiguration cfg,
+                                  ProjectLoader projectLoader,
+                                  MetricRegistry metricRegistry) {
+
+        this.projectLoader = projectLoader;
+        this.enabled = cfg.isEnabled();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(cfg.getMaxWeight())
+                .weigher((Key k, Entry v) -> v.weight)
+                .expireAfterAccess(cfg.getMaxAge().toMillis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+
+        metricRegistry.gauge("process-definition-cache-hit-count", () -> () -> stat(CacheStats::hitCount));
+        metricRegistry.gauge("process-definition-cache-miss-count", () -> () -> stat(CacheStats::missCount));
+        metricRegistry.gauge("process-definition-cache-size", () -> cache::size);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Loads the process definition from the specified working directory.
+     *
+     * @param key          the repository commit the working directory was created from.
+     *                     Can be {@code null}, in which case the cache is not used
+     * @param repoSnapshot snapshot of the repository files exported into the working directory
+     */
+    public ProjectLoader.Result load(Key key, Snapshot repoSnapshot, Path workDir, String runtime,
+                                     ImportsNormalizer importsNormalizer, ImportsListener listener) throws Exception {
+
+        if (!enabled || key == null || repoSnapshot == null || !isPristine(workDir, repoSnapshot)) {
+            return projectLoader.loadProject(workDir, runtime, importsNormalizer, listener);
+        }
+
+        Entry e = cache.getIfPresent(key);
+        if (e != null) {
+            Imports imports = importsNormalizer.normalize(e.imports);
+            if (imports.equals(e.normalizedImports)) {
+                List<Snapshot> snapshots = projectLoader.processImports(workDir, imports, listener);
+                return result(snapshots, e.processDefinition);
+            }
+
+            // e.g. the default import settings were changed
+            cache.invalidate(key);
+        }
+
+        CapturingNormalizer normalizer = new CapturingNormalizer(importsNormalizer);
+        ProjectLoader.Result result = projectLoader.loadProject(workDir, runtime, normalizer, listener);
+
+        if (normalizer.normalized == null || isPinned(normalizer.normalized)) {
+            Imports imports = normalizer.imports != null ? normalizer.imports : Imports.builder().build();
+            Imports normalizedImports = normalizer.normalized != null ? normalizer.normalized : importsNormalizer.normalize(imports);
+            cache.put(key, new Entry(result.projectDefinition(), imports, normalizedImports, weigh(workDir)));
+        }
+
+        return result;
+    }
+
+    private Long stat(Function<CacheStats, Long> fn) {
+        return fn.apply(cache.stats());
+    }
+
+    /**
+     * @return {@code true} if the directory contains only unmodified files of the snapshot.
+     */
+    private static boolean isPristine(Path workDir, Snapshot snapshot) throws IOException {
+        boolean[] result = {true};
+        Files.walkFileTree(workDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return isSystemDir(workDir, dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!snapshot.contains(file) || snapshot.isModified(file, attrs)) {
+                    result[0] = false;
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return result[0];
+    }
+
+    /**
+     * Estimates the size of a cached definition using the size of the YAML files.
+     */
+    private static int weigh(Path workDir) throws IOException {
+        long[] result = {0};
+        Files.walkFileTree(workDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return isSystemDir(workDir, dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String n = file.getFileName().toString();
+                if (n.endsWith(".yml") || n.endsWith(".yaml")) {
+                    result[0] += attrs.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return (int) Math.min(Integer.MAX_VALUE, result[0]);
+    }
+
+    private static boolean isSystemDir(Path workDir, Path dir) {
+        return dir.equals(workDir.resolve(Constants.Files.CONCORD_SYSTEM_DIR_NAME))
+                || dir.equals(workDir.resolve(Constants.Files.JOB_ATTACHMENTS_DIR_NAME));
+    }
+
+    /**
+     * @return {@code true} if the imports always produce the same content.
+     */
+    private static boolean isPinned(Imports imports) {
+        for (Import i : imports.items()) {
+            switch (i.type()) {
+                case Import.GitDefinition.TYPE: {
+                    String version = ((Import.GitDefinition) i).version();
+                    if (version == null || !COMMIT_ID_PATTERN.matcher(version).matches()) {
+                        return false;
+                    }
+                    break;
+                }
+                case Import.MvnDefinition.TYPE: {
+                    String url = ((Import.MvnDefinition) i).url();
+                    if (url == null || url.endsWith("-SNAPSHOT")) {
+                        return false;
+                    }
+                    break;
+                }
+                default: {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static ProjectLoader.Result result(List<Snapshot> snapshots, ProcessDefinition pd) {
+        return new ProjectLoader.Result() {
+            @Override
+            public List<Snapshot> snapshots() {
+                return snapshots;
+            }
+
+            @Override
+            public ProcessDefinition projectDefinition() {
+                return pd;
+            }
+        };
+    }
+
+    public static final class Key {
+
+        private final UUID repoId;
+        private final String commitId;
+        private final String repoPath;
+        private final String runtime;
+
+        public Key(UUID repoId, String commitId, String repoPath, String runtime) {
+            this.repoId = repoId;
+            this.commitId = commitId;
+            this.repoPath = repoPath;
+            this.runtime = runtime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return repoId.equals(key.repoId) &&
+                    commitId.equals(key.commitId) &&
+                    Objects.equals(repoPath, key.repoPath) &&
+                    Objects.equals(runtime, key.runtime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(repoId, commitId, repoPath, runtime);
+        }
+    }
+
+    private static final class Entry {
+
+        private final ProcessDefinition processDefinition;
+        private final Imports imports;
+        private final Imports normalizedImports;
+        private final int weight;
+
+        private Entry(ProcessDefinition processDefinition, Imports imports, Imports normalizedImports, int weight) {
+            this.processDefinition = processDefinition;
+            this.imports = imports;
+            this.normalizedImports = normalizedImports;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Remembers the project's {@code imports}, so they can be normalized
+     * and processed again without loading the project files.
+     */
+    private static final class CapturingNormalizer implements ImportsNormalizer {
+
+        private final ImportsNormalizer delegate;
+
+        private Imports imports;
+        private Imports normalized;
+
+        private CapturingNormalizer(ImportsNormalizer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Imports normalize(Imports imports) {
+            this.imports = imports;
+            this.normalized = delegate.normalize(imports);
+            return normalized;
+        }
+    }
+}
@@ -38,6 +38,9 @@ import javax.inject.Singleton;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Named
@@ -49,6 +52,7 @@ public class ProcessKvResource implements Resource {
     private static final Logger log = LoggerFactory.getLogger(ProcessKvResource.class);
 
     private static final UUID DEFAULT_PROJECT_ID = UUID.fromString("00000000-0000-0000-0000-000000000000");
+    private static final int MAX_BATCH_SIZE = 1000;
 
     private final ProcessQueueManager processQueueManager;
     private final KvDao kvDao;
@@ -126,6 +130,85 @@ public class ProcessKvResource implements Resource {
         return kvDao.inc(projectId, key);
     }
 
+    @POST
+    @ApiOperation("Get multiple string KVs")
+    @Path("{id}/kv/batch/string/get")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, String> getStrings(@PathParam("id") UUID instanceId,
+                                          @ApiParam(required = true) List<String> keys) {
+
+        assertBatch(keys);
+        UUID projectId = assertProjectId(instanceId);
+        return kvDao.getStrings(projectId, keys);
+    }
+
+    @PUT
+    @ApiOperation("Put multiple string KVs")
+    @Path("{id}/kv/batch/string")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void putStrings(@PathParam("id") UUID instanceId,
+                           @ApiParam(required = true) Map<String, String> values) {
+
+        assertBatch(values != null ? values.keySet() : null);
+        UUID projectId = assertProjectId(instanceId);
+        kvDao.putStrings(projectId, values);
+    }
+
+    @POST
+    @ApiOperation("Get multiple long KVs")
+    @Path("{id}/kv/batch/long/get")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Long> getLongs(@PathParam("id") UUID instanceId,
+                                      @ApiParam(required = true) List<String> keys) {
+
+        assertBatch(keys);
+        UUID projectId = assertProjectId(instanceId);
+        return kvDao.getLongs(projectId, keys);
+    }
+
+    @PUT
+    @ApiOperation("Put multiple long KVs")
+    @Path("{id}/kv/batch/long")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void putLongs(@PathParam("id") UUID instanceId,
+                         @ApiParam(required = true) Map<String, Long> values) {
+
+        assertBatch(values != null ? values.keySet() : null);
+        UUID projectId = assertProjectId(instanceId);
+        kvDao.putLongs(projectId, values);
+    }
+
+    @POST
+    @ApiOperation("Inc multiple long KVs")
+    @Path("{id}/kv/batch/inc")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Long> incLongs(@PathParam("id") UUID instanceId,
+                                      @ApiParam(required = true) List<String> keys) {
+
+        assertBatch(keys);
+        UUID projectId = assertProjectId(instanceId);
+        return kvDao.inc(projectId, keys);
+    }
+
+    private static void assertBatch(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new ConcordApplicationException("Keys are required", Response.Status.BAD_REQUEST);
+        }
+
+        if (keys.size() > MAX_BATCH_SIZE) {
+            throw new ConcordApplicationException("Too many keys, max: " + MAX_BATCH_SIZE, Response.Status.BAD_REQUEST);
+        }
+
+        for (String k : keys) {
+            if (k == null || k.isEmpty()) {
+                throw new ConcordApplicationException("Keys cannot be empty or null", Response.Status.BAD_REQUEST);
+            }
+        }
+    }
+
     private UUID assertProjectId(UUID instanceId) {
         PartialProcessKey processKey = PartialProcessKey.from(instanceId);
 
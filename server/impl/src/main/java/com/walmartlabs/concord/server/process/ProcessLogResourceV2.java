@@ -44,10 +44,13 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLog;
 import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLogChunk;
@@ -61,6 +64,13 @@ import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.Process
 @Path("/api/v2/process")
 public class ProcessLogResourceV2 implements Resource {
 
+    private static final int MAX_SEGMENT_BATCH_SIZE = 1000;
+
+    /**
+     * Max total size of data in a single multi-segment append request.
+     */
+    private static final int MAX_LOG_BATCH_DATA_SIZE = 32 * 1024 * 1024;
+
     private final ProcessKeyCache processKeyCache;
     private final ProcessManager processManager;
     private final ProcessLogManager logManager;
@@ -117,6 +127,33 @@ public class ProcessLogResourceV2 implements Resource {
         return new LogSegmentOperationResponse(segmentId, OperationResult.CREATED);
     }
 
+    /**
+     * Create multiple process log segments at once.
+     * The IDs are returned in the same order as the requests.
+     */
+    @POST
+    @ApiOperation(value = "Create multiple process log segments", responseContainer = "list", response = LogSegmentOperationResponse.class)
+    @Path("{id}/log/segment/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public List<LogSegmentOperationResponse> segmentBatch(@ApiParam @PathParam("id") UUID instanceId,
+                                                          @ApiParam List<LogSegmentRequest> requests) {
+
+        if (requests == null || requests.isEmpty()) {
+            throw new ValidationErrorsException("At least one segment request is required");
+        }
+
+        if (requests.size() > MAX_SEGMENT_BATCH_SIZE) {
+            throw new ValidationErrorsException("Too many segments, max: " + MAX_SEGMENT_BATCH_SIZE);
+        }
+
+        ProcessKey processKey = logAccessManager.assertLogAccess(instanceId);
+        return logManager.createSegments(processKey, requests).stream()
+                .map(id -> new LogSegmentOperationResponse(id, OperationResult.CREATED))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Update a process log segment.
      */
@@ -169,15 +206,65 @@ public class ProcessLogResourceV2 implements Resource {
         try {
             byte[] ab = IOUtils.toByteArray(data);
             int upper = logManager.log(processKey, segmentId, ab);
+            assertLogSize(processKey, upper);
+        } catch (IOException e) {
+            throw new ConcordApplicationException("Error while appending a log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends data to multiple log segments at once.
+     * The request body is a sequence of frames: segment ID (8 bytes),
+     * data length (4 bytes), data.
+     */
+    @POST
+    @Path("{id}/log/data")
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @WithTimer
+    public void appendBatch(@ApiParam @PathParam("id") UUID instanceId,
+                            InputStream data) {
 
-            int logSizeLimit = processCfg.getLogSizeLimit();
-            if (upper >= logSizeLimit) {
-                logManager.error(processKey, "Maximum log size reached: {}. Process cancelled.", logSizeLimit);
-                processManager.kill(processKey);
+        ProcessKey processKey = logAccessManager.assertLogAccess(instanceId);
+
+        int upper = 0;
+        long total = 0;
+        try (DataInputStream in = new DataInputStream(data)) {
+            while (true) {
+                long segmentId;
+                try {
+                    segmentId = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                int len = in.readInt();
+                if (len < 0) {
+                    throw new ValidationErrorsException("Invalid data length: " + len);
+                }
+
+                total += len;
+                if (total > MAX_LOG_BATCH_DATA_SIZE) {
+                    throw new ValidationErrorsException("Too much data, max: " + MAX_LOG_BATCH_DATA_SIZE + " bytes per request");
+                }
+
+                byte[] ab = new byte[len];
+                in.readFully(ab);
+
+                upper = Math.max(upper, logManager.log(processKey, segmentId, ab));
             }
         } catch (IOException e) {
             throw new ConcordApplicationException("Error while appending a log: " + e.getMessage());
         }
+
+        assertLogSize(processKey, upper);
+    }
+
+    private void assertLogSize(ProcessKey processKey, int upper) {
+        int logSizeLimit = processCfg.getLogSizeLimit();
+        if (upper >= logSizeLimit) {
+            logManager.error(processKey, "Maximum log size reached: {}. Process cancelled.", logSizeLimit);
+            processManager.kill(processKey);
+        }
     }
 
     public static Response toResponse(UUID instanceId, long segmentId, ProcessLog l, HttpUtils.Range range) {
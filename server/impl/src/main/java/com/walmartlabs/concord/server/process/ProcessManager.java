@@ -20,13 +20,16 @@ package com.walmartlabs.concord.server.process;
  * =====
  */
 
+import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.sdk.Constants;
+import com.walmartlabs.concord.server.RequestContext;
 import com.walmartlabs.concord.server.agent.AgentManager;
 import com.walmartlabs.concord.server.org.ResourceAccessLevel;
 import com.walmartlabs.concord.server.org.project.ProjectAccessManager;
 import com.walmartlabs.concord.server.org.project.RepositoryDao;
 import com.walmartlabs.concord.server.org.project.RepositoryEntry;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
+import com.walmartlabs.concord.server.process.pipelines.BulkForkPipeline;
 import com.walmartlabs.concord.server.process.pipelines.ForkPipeline;
 import com.walmartlabs.concord.server.process.pipelines.NewProcessPipeline;
 import com.walmartlabs.concord.server.process.pipelines.ResumePipeline;
@@ -44,7 +47,9 @@ import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.security.Roles;
 import com.walmartlabs.concord.server.security.UserPrincipal;
 import com.walmartlabs.concord.server.security.sessionkey.SessionKeyPrincipal;
+import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.subject.Subject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,8 +58,11 @@ import javax.inject.Named;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.server.process.state.ProcessStateManager.path;
@@ -64,6 +72,27 @@ public class ProcessManager {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessManager.class);
 
+    /**
+     * Max number of threads used to process bulk fork requests.
+     */
+    private static final int MAX_BULK_FORK_THREADS = 8;
+
+    /**
+     * Shared between all bulk fork requests to limit the total number
+     * of threads.
+     */
+    private static final ExecutorService BULK_FORK_EXECUTOR = Executors.newFixedThreadPool(MAX_BULK_FORK_THREADS, new ThreadFactory() {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "bulk-fork-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
     private final ProcessQueueDao queueDao;
     private final ProcessStateManager stateManager;
     private final AgentManager agentManager;
@@ -78,6 +107,7 @@ public class ProcessManager {
     private final Chain processPipeline;
     private final Chain resumePipeline;
     private final Chain forkPipeline;
+    private final Chain bulkForkPipeline;
 
     private static final List<ProcessStatus> SERVER_PROCESS_STATUSES = Arrays.asList(
             ProcessStatus.NEW,
@@ -115,7 +145,8 @@ public class ProcessManager {
                           ProcessQueueManager processQueueManager,
                           NewProcessPipeline processPipeline,
                           ResumePipeline resumePipeline,
-                          ForkPipeline forkPipeline) {
+                          ForkPipeline forkPipeline,
+                          BulkForkPipeline bulkForkPipeline) {
 
         this.queueDao = queueDao;
         this.stateManager = stateManager;
@@ -131,6 +162,7 @@ public class ProcessManager {
         this.processPipeline = processPipeline;
         this.resumePipeline = resumePipeline;
         this.forkPipeline = forkPipeline;
+        this.bulkForkPipeline = bulkForkPipeline;
     }
 
     public ProcessResult start(Payload payload) {
@@ -141,6 +173,102 @@ public class ProcessManager {
         return start(forkPipeline, payload);
     }
 
+    /**
+     * Starts multiple forks of the same parent process. The initial queue
+     * records are created in a single transaction, the rest of the fork
+     * pipeline is executed concurrently.
+     * <p/>
+     * If any of the forks fails to start, the forks that were already
+     * started are cancelled and the error is re-thrown.
+     */
+    public List<ProcessResult> startForks(List<Payload> payloads) {
+        if (payloads.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        try {
+            assertRepositoryDisabled(payloads.get(0));
+            queueManager.insert(payloads, ProcessStatus.PREPARING);
+        } catch (RuntimeException e) {
+            // the pipeline never started, cleanup the workspaces ourselves
+            payloads.forEach(ProcessManager::deleteWorkspace);
+            throw e;
+        }
+
+        Subject subject = SecurityUtils.getSubject();
+        RequestContext ctx = RequestContext.get();
+
+        List<Future<ProcessResult>> futures = new ArrayList<>(payloads.size());
+        for (Payload p : payloads) {
+            futures.add(BULK_FORK_EXECUTOR.submit(subject.associateWith(() -> {
+                if (ctx != null) {
+                    RequestContext.set(ctx.getRequestId(), ctx.getRemoteAddr(), ctx.getExtraHeaders());
+                }
+
+                try {
+                    return start(bulkForkPipeline, p);
+                } finally {
+                    RequestContext.clear();
+                }
+            })));
+        }
+
+        // wait for all forks, even if some of them failed, to avoid leaving
+        // the initial queue records in the PREPARING status
+        List<ProcessResult> result = new ArrayList<>(futures.size());
+        RuntimeException error = null;
+        boolean interrupted = false;
+        for (Future<ProcessResult> f : futures) {
+            try {
+                result.add(f.get());
+            } catch (InterruptedException e) {
+                interrupted = true;
+                if (error == null) {
+                    error = new ConcordApplicationException("Interrupted while starting forks", e);
+                }
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    Throwable cause = e.getCause();
+                    error = cause instanceof RuntimeException ? (RuntimeException) cause : new ConcordApplicationException("Error starting forks", cause);
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (error == null) {
+            return result;
+        }
+
+        // the caller never receives the IDs, don't leave the started forks running
+        for (ProcessResult r : result) {
+            PartialProcessKey processKey = PartialProcessKey.from(r.getInstanceId());
+            try {
+                killCascade(processKey);
+            } catch (Exception e) {
+                log.warn("startForks -> error while cancelling the fork '{}': {}", processKey, e.getMessage());
+            }
+        }
+
+        log.warn("startForks -> {} of {} fork(s) failed to start, cancelled the rest", payloads.size() - result.size(), payloads.size());
+        throw error;
+    }
+
+    private static void deleteWorkspace(Payload payload) {
+        Path p = payload.getHeader(Payload.WORKSPACE_DIR);
+        if (p == null) {
+            return;
+        }
+
+        try {
+            IOUtils.deleteRecursively(p);
+        } catch (IOException e) {
+            log.warn("deleteWorkspace ['{}'] -> error: {}", payload.getProcessKey(), e.getMessage());
+        }
+    }
+
     public void resume(Payload payload) {
         log.info("resume ['{}']", payload.getProcessKey());
         resumePipeline.process(payload);
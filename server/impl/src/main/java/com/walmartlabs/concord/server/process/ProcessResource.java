@@ -99,6 +99,8 @@ public class ProcessResource implements Resource {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessResource.class);
 
+    private static final int MAX_BULK_FORK_INSTANCES = 1000;
+
     private final ProcessManager processManager;
     private final ProcessQueueDao queueDao;
     private final ProcessQueueManager processQueueManager;
@@ -486,6 +488,61 @@ public class ProcessResource implements Resource {
         return toResponse(processManager.startFork(payload));
     }
 
+    /**
+     * Starts multiple child processes by forking the specified parent process.
+     * The parent's state is exported only once and the initial queue records
+     * are created in a single transaction.
+     *
+     * @param parentInstanceId
+     * @param req
+     * @return
+     */
+    @POST
+    @ApiOperation(value = "Fork a process multiple times", responseContainer = "list", response = StartProcessResponse.class)
+    @javax.ws.rs.Path("/{id}/fork/bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public List<StartProcessResponse> bulkFork(@ApiParam @PathParam("id") UUID parentInstanceId,
+                                               @ApiParam BulkForkRequest req) {
+
+        int instances = req.instances();
+        if (instances <= 0 || instances > MAX_BULK_FORK_INSTANCES) {
+            throw new ValidationErrorsException("The number of instances must be between 1 and " + MAX_BULK_FORK_INSTANCES);
+        }
+
+        ProcessEntry parent = processQueueManager.get(PartialProcessKey.from(parentInstanceId));
+        if (parent == null) {
+            throw new ValidationErrorsException("Unknown parent instance ID: " + parentInstanceId);
+        }
+
+        ProcessKey parentProcessKey = new ProcessKey(parent.instanceId(), parent.createdAt());
+
+        List<PartialProcessKey> processKeys = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            processKeys.add(PartialProcessKey.from(UUID.randomUUID()));
+        }
+
+        UUID projectId = parent.projectId();
+        UserPrincipal userPrincipal = UserPrincipal.assertCurrent();
+        Set<String> handlers = parent.handlers();
+        Imports imports = queueDao.getImports(parentProcessKey);
+        String[] out = req.out().toArray(new String[0]);
+
+        List<Payload> payloads;
+        try {
+            payloads = payloadManager.createForks(processKeys, parentProcessKey, ProcessKind.DEFAULT,
+                    userPrincipal.getId(), userPrincipal.getUsername(), projectId, req.request(), out, handlers, imports);
+        } catch (IOException e) {
+            log.error("bulkFork ['{}', {}] -> error creating payloads: {}", parentProcessKey, instances, e);
+            throw new ConcordApplicationException("Error creating payloads", e);
+        }
+
+        return processManager.startForks(payloads).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Waits for completion of a process.
      *
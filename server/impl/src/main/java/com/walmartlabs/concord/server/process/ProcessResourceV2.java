@@ -20,6 +20,7 @@ package com.walmartlabs.concord.server.process;
  * =====
  */
 
+import com.walmartlabs.concord.server.ExtraStatus;
 import com.walmartlabs.concord.server.OffsetDateTimeParam;
 import com.walmartlabs.concord.server.org.OrganizationEntry;
 import com.walmartlabs.concord.server.org.OrganizationManager;
@@ -55,10 +56,8 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.server.Utils.unwrap;
 
@@ -70,6 +69,9 @@ public class ProcessResourceV2 implements Resource {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessResourceV2.class);
 
+    private static final int MAX_WAIT_INSTANCES = 1000;
+    private static final long MAX_WAIT_TIMEOUT = 60000;
+
     private final ProcessQueueDao queueDao;
     private final ProcessQueueManager processQueueManager;
     private final ProjectDao projectDao;
@@ -77,6 +79,7 @@ public class ProcessResourceV2 implements Resource {
     private final UserDao userDao;
     private final OrganizationManager orgManager;
     private final ProjectAccessManager projectAccessManager;
+    private final ProcessCompletionWatcher completionWatcher;
 
     @Inject
     public ProcessResourceV2(ProcessQueueDao queueDao,
@@ -85,7 +88,8 @@ public class ProcessResourceV2 implements Resource {
                              RepositoryDao repositoryDao,
                              UserDao userDao,
                              OrganizationManager orgManager,
-                             ProjectAccessManager projectAccessManager) {
+                             ProjectAccessManager projectAccessManager,
+                             ProcessCompletionWatcher completionWatcher) {
 
         this.queueDao = queueDao;
         this.processQueueManager = processQueueManager;
@@ -94,6 +98,7 @@ public class ProcessResourceV2 implements Resource {
         this.userDao = userDao;
         this.orgManager = orgManager;
         this.projectAccessManager = projectAccessManager;
+        this.completionWatcher = completionWatcher;
     }
 
     /**
@@ -122,6 +127,80 @@ public class ProcessResourceV2 implements Resource {
         return e;
     }
 
+    /**
+     * Waits for the specified processes to reach a final status.
+     * Returns the processes that reached a final status, which can be
+     * a subset of the requested processes if the timeout was reached.
+     * Responds with 429 if there are too many concurrent requests.
+     */
+    @POST
+    @ApiOperation(value = "Wait for processes to finish", responseContainer = "list", response = ProcessEntry.class)
+    @Path("/wait")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public List<ProcessEntry> waitForCompletion(@ApiParam ProcessWaitRequest request) {
+        Set<UUID> instanceIds = new HashSet<>(request.instanceIds());
+        if (instanceIds.isEmpty()) {
+            throw new ValidationErrorsException("'instanceIds' is required");
+        }
+
+        if (instanceIds.size() > MAX_WAIT_INSTANCES) {
+            throw new ValidationErrorsException("Too many processes, the max number is " + MAX_WAIT_INSTANCES);
+        }
+
+        long timeout = request.timeout() != null ? Math.min(Math.max(request.timeout(), 0), MAX_WAIT_TIMEOUT) : MAX_WAIT_TIMEOUT;
+        boolean any = request.mode() == ProcessWaitRequest.Mode.ANY;
+
+        // register first to avoid missing status changes made after the initial check
+        ProcessCompletionWatcher.Waiter waiter = completionWatcher.register(instanceIds);
+        if (waiter == null) {
+            throw new ConcordApplicationException(Response.status(ExtraStatus.TOO_MANY_REQUESTS)
+                    .entity("Too many concurrent wait requests, try again later")
+                    .build());
+        }
+
+        try {
+            Map<UUID, ProcessEntry> finished = new LinkedHashMap<>();
+
+            List<ProcessEntry> entries = queueDao.get(toKeys(instanceIds));
+            if (entries.size() != instanceIds.size()) {
+                Set<UUID> found = entries.stream().map(ProcessEntry::instanceId).collect(Collectors.toSet());
+                UUID missing = instanceIds.stream().filter(id -> !found.contains(id)).findFirst().orElse(null);
+                throw new ConcordApplicationException("Process instance not found: " + missing, Status.NOT_FOUND);
+            }
+
+            for (ProcessEntry e : entries) {
+                if (e.projectId() != null) {
+                    projectAccessManager.assertAccess(e.orgId(), e.projectId(), null, ResourceAccessLevel.READER, false);
+                }
+            }
+
+            collectFinished(entries, finished, waiter);
+
+            long deadline = System.currentTimeMillis() + timeout;
+            while (any ? finished.isEmpty() : finished.size() < instanceIds.size()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+
+                Set<UUID> signaled = waiter.await(remaining);
+                signaled.removeAll(finished.keySet());
+                if (!signaled.isEmpty()) {
+                    collectFinished(queueDao.get(toKeys(signaled)), finished, waiter);
+                }
+            }
+
+            return new ArrayList<>(finished.values());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcordApplicationException("Request was interrupted", Status.INTERNAL_SERVER_ERROR);
+        } finally {
+            completionWatcher.unregister(waiter);
+        }
+    }
+
     /**
      * Returns a list of processes applying the specified filters.
      */
@@ -157,7 +236,7 @@ public class ProcessResourceV2 implements Resource {
         ProcessFilter filter = createProcessFilter(orgId, orgName, projectId, projectName, repoId, repoName,
                 afterCreatedAt, beforeCreatedAt, tags, processStatus, initiator, parentId, processData, limit, offset, uriInfo);
 
-        return queueDao.list(filter);
+        return queueDao.list(filter, true);
     }
 
     @GET
@@ -186,6 +265,26 @@ public class ProcessResourceV2 implements Resource {
                 FilterUtils.parseJson("requirements", uriInfo));
     }
 
+    /**
+     * Counts processes with the specified status and requirements.
+     * Accepts the same filters as {@link #listRequirements(ProcessStatus, int, int, UriInfo)}.
+     */
+    @GET
+    @ApiOperation(value = "Count processes by requirements")
+    @Path("/requirements/count")
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public int countRequirements(@ApiParam @QueryParam("status") ProcessStatus processStatus,
+                                 @Context UriInfo uriInfo) {
+
+        if (processStatus == null) {
+            throw new ValidationErrorsException("'status' is required");
+        }
+
+        return queueDao.countRequirements(processStatus, FilterUtils.parseDate("startAt", uriInfo),
+                FilterUtils.parseJson("requirements", uriInfo));
+    }
+
     /**
      * Counts processes applying the specified filters.
      */
@@ -317,4 +416,23 @@ public class ProcessResourceV2 implements Resource {
         UserPrincipal p = UserPrincipal.assertCurrent();
         return userDao.getOrgIds(p.getId());
     }
+
+    private void collectFinished(List<ProcessEntry> entries, Map<UUID, ProcessEntry> finished, ProcessCompletionWatcher.Waiter waiter) {
+        List<UUID> ids = new ArrayList<>();
+        for (ProcessEntry e : entries) {
+            if (ProcessCompletionWatcher.isFinal(e.status())) {
+                finished.put(e.instanceId(), e);
+                ids.add(e.instanceId());
+            }
+        }
+
+        // no need to watch the finished processes anymore
+        completionWatcher.unregister(waiter, ids);
+    }
+
+    private static List<PartialProcessKey> toKeys(Collection<UUID> instanceIds) {
+        return instanceIds.stream()
+                .map(PartialProcessKey::from)
+                .collect(Collectors.toList());
+    }
 }
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.db.PgUtils;
+import com.walmartlabs.concord.db.ReplicaDB;
 import com.walmartlabs.concord.sdk.EventType;
 import com.walmartlabs.concord.server.ConcordObjectMapper;
 import com.walmartlabs.concord.server.jooq.tables.ProcessEvents;
@@ -52,8 +53,11 @@ public class ProcessEventDao extends AbstractDao {
     private final ConcordObjectMapper objectMapper;
 
     @Inject
-    public ProcessEventDao(@MainDB Configuration cfg, ConcordObjectMapper objectMapper) {
-        super(cfg);
+    public ProcessEventDao(@MainDB Configuration cfg,
+                           @ReplicaDB Configuration replicaCfg,
+                           ConcordObjectMapper objectMapper) {
+
+        super(cfg, replicaCfg);
         this.objectMapper = objectMapper;
     }
 
@@ -70,7 +74,7 @@ public class ProcessEventDao extends AbstractDao {
     public List<ProcessEventEntry> list(ProcessEventFilter filter) {
         ProcessKey processKey = filter.processKey();
 
-        SelectConditionStep<Record5<Long, UUID, String, OffsetDateTime, JSONB>> q = dsl()
+        SelectConditionStep<Record5<Long, UUID, String, OffsetDateTime, JSONB>> q = replicaDsl()
                 .select(PROCESS_EVENTS.EVENT_SEQ,
                         PROCESS_EVENTS.EVENT_ID,
                         PROCESS_EVENTS.EVENT_TYPE,
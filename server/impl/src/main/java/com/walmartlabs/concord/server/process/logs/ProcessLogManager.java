@@ -24,6 +24,7 @@ import com.codahale.metrics.Counter;
 import com.walmartlabs.concord.common.LogUtils;
 import com.walmartlabs.concord.server.Listeners;
 import com.walmartlabs.concord.server.process.LogSegment;
+import com.walmartlabs.concord.server.process.LogSegmentRequest;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
 import com.walmartlabs.concord.server.sdk.Range;
 import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
@@ -34,8 +35,11 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.common.LogUtils.LogLevel;
 import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLog;
@@ -90,6 +94,10 @@ public class ProcessLogManager {
         logsDao.createSegment(tx, SYSTEM_SEGMENT_ID, processKey, null, SYSTEM_SEGMENT_NAME, null);
     }
 
+    public void createSystemSegments(DSLContext tx, List<ProcessKey> processKeys) {
+        logsDao.createSegments(tx, SYSTEM_SEGMENT_ID, processKeys, SYSTEM_SEGMENT_NAME);
+    }
+
     public long createSegment(ProcessKey processKey, UUID correlationId, String name, OffsetDateTime createdAt) {
         if (SYSTEM_SEGMENT_NAME.equals(name)) {
             return SYSTEM_SEGMENT_ID;
@@ -97,6 +105,20 @@ public class ProcessLogManager {
         return logsDao.createSegment(processKey, correlationId, name, createdAt, LogSegment.Status.RUNNING.name());
     }
 
+    public List<Long> createSegments(ProcessKey processKey, List<LogSegmentRequest> requests) {
+        List<LogSegmentRequest> regular = requests.stream()
+                .filter(r -> !SYSTEM_SEGMENT_NAME.equals(r.name()))
+                .collect(Collectors.toList());
+
+        Iterator<Long> ids = logsDao.createSegments(processKey, regular, LogSegment.Status.RUNNING.name()).iterator();
+
+        List<Long> result = new ArrayList<>(requests.size());
+        for (LogSegmentRequest r : requests) {
+            result.add(SYSTEM_SEGMENT_NAME.equals(r.name()) ? SYSTEM_SEGMENT_ID : ids.next());
+        }
+        return result;
+    }
+
     public void updateSegment(ProcessKey processKey, long segmentId, LogSegment.Status status, Integer warnings, Integer errors) {
         logsDao.updateSegment(processKey, segmentId, status, warnings, errors);
     }
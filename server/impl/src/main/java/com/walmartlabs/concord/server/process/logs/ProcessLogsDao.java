@@ -23,9 +23,11 @@ package com.walmartlabs.concord.server.process.logs;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.db.PgIntRange;
+import com.walmartlabs.concord.db.ReplicaDB;
 import com.walmartlabs.concord.server.jooq.tables.records.ProcessLogDataRecord;
 import com.walmartlabs.concord.server.jooq.tables.records.ProcessLogSegmentsRecord;
 import com.walmartlabs.concord.server.process.LogSegment;
+import com.walmartlabs.concord.server.process.LogSegmentRequest;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
 import com.walmartlabs.concord.server.sdk.Range;
 import org.jooq.*;
@@ -34,6 +36,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -47,8 +50,8 @@ import static org.jooq.impl.DSL.*;
 public class ProcessLogsDao extends AbstractDao {
 
     @Inject
-    public ProcessLogsDao(@MainDB Configuration cfg) {
-        super(cfg);
+    public ProcessLogsDao(@MainDB Configuration cfg, @ReplicaDB Configuration replicaCfg) {
+        super(cfg, replicaCfg);
     }
 
     /**
@@ -80,7 +83,25 @@ public class ProcessLogsDao extends AbstractDao {
     }
 
     public long createSegment(ProcessKey processKey, UUID correlationId, String name, OffsetDateTime createdAt, String status) {
-        return txResult(tx -> tx.insertInto(PROCESS_LOG_SEGMENTS)
+        return txResult(tx -> createSegment(tx, processKey, correlationId, name, createdAt, status));
+    }
+
+    /**
+     * Creates the specified segments in a single transaction.
+     * Returns the IDs in the same order as the requests.
+     */
+    public List<Long> createSegments(ProcessKey processKey, List<LogSegmentRequest> requests, String status) {
+        return txResult(tx -> {
+            List<Long> result = new ArrayList<>(requests.size());
+            for (LogSegmentRequest r : requests) {
+                result.add(createSegment(tx, processKey, r.correlationId(), r.name(), r.createdAt(), status));
+            }
+            return result;
+        });
+    }
+
+    private long createSegment(DSLContext tx, ProcessKey processKey, UUID correlationId, String name, OffsetDateTime createdAt, String status) {
+        return tx.insertInto(PROCESS_LOG_SEGMENTS)
                 .columns(PROCESS_LOG_SEGMENTS.INSTANCE_ID,
                         PROCESS_LOG_SEGMENTS.INSTANCE_CREATED_AT,
                         PROCESS_LOG_SEGMENTS.CORRELATION_ID,
@@ -94,7 +115,7 @@ public class ProcessLogsDao extends AbstractDao {
                         value(status))
                 .returning(PROCESS_LOG_SEGMENTS.SEGMENT_ID)
                 .fetchOne()
-                .getSegmentId());
+                .getSegmentId();
     }
 
     public void createSegment(DSLContext tx, long segmentId, ProcessKey processKey, UUID correlationId, String name, String status) {
@@ -104,6 +125,18 @@ public class ProcessLogsDao extends AbstractDao {
                 .execute();
     }
 
+    public void createSegments(DSLContext tx, long segmentId, List<ProcessKey> processKeys, String name) {
+        BatchBindStep q = tx.batch(tx.insertInto(PROCESS_LOG_SEGMENTS)
+                .columns(PROCESS_LOG_SEGMENTS.SEGMENT_ID, PROCESS_LOG_SEGMENTS.INSTANCE_ID, PROCESS_LOG_SEGMENTS.INSTANCE_CREATED_AT, PROCESS_LOG_SEGMENTS.SEGMENT_NAME, PROCESS_LOG_SEGMENTS.SEGMENT_TS)
+                .values(value((Long) null), value((UUID) null), value((OffsetDateTime) null), value((String) null), currentOffsetDateTime()));
+
+        for (ProcessKey k : processKeys) {
+            q.bind(segmentId, k.getInstanceId(), k.getCreatedAt(), name);
+        }
+
+        q.execute();
+    }
+
     public void updateSegment(ProcessKey processKey, long segmentId, LogSegment.Status status, Integer warnings, Integer errors) {
         tx(tx -> updateSegment(tx, processKey, segmentId, status, warnings, errors));
     }
@@ -134,7 +167,7 @@ public class ProcessLogsDao extends AbstractDao {
         UUID instanceId = processKey.getInstanceId();
         OffsetDateTime createdAt = processKey.getCreatedAt();
 
-        SelectSeekStep1<Record7<Long, UUID, String, OffsetDateTime, String, Integer, Integer>, OffsetDateTime> q = dsl()
+        SelectSeekStep1<Record7<Long, UUID, String, OffsetDateTime, String, Integer, Integer>, OffsetDateTime> q = replicaDsl()
                 .select(PROCESS_LOG_SEGMENTS.SEGMENT_ID, PROCESS_LOG_SEGMENTS.CORRELATION_ID,
                         PROCESS_LOG_SEGMENTS.SEGMENT_NAME,
                         PROCESS_LOG_SEGMENTS.SEGMENT_TS,
@@ -158,7 +191,7 @@ public class ProcessLogsDao extends AbstractDao {
         UUID instanceId = processKey.getInstanceId();
         OffsetDateTime createdAt = processKey.getCreatedAt();
 
-        DSLContext tx = dsl();
+        DSLContext tx = replicaDsl();
 
         List<ProcessLogChunk> chunks = getSegmentChunks(tx, processKey, segmentId, start, end);
 
@@ -178,7 +211,7 @@ public class ProcessLogsDao extends AbstractDao {
         UUID instanceId = processKey.getInstanceId();
         OffsetDateTime createdAt = processKey.getCreatedAt();
 
-        DSLContext tx = dsl();
+        DSLContext tx = replicaDsl();
 
         List<ProcessLogChunk> chunks = getDataChunks(tx, processKey, start, end);
 
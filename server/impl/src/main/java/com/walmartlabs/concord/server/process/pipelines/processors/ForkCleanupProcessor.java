@@ -32,7 +32,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 
 /**
@@ -95,8 +95,16 @@ public class ForkCleanupProcessor implements PayloadProcessor {
 
         m.remove(Constants.Request.ARGUMENTS_KEY);
 
-        try (OutputStream out = Files.newOutputStream(requestFile, StandardOpenOption.TRUNCATE_EXISTING)) {
-            objectMapper.writeValue(out, m);
+        // replace the file instead of truncating it, it can be a hardlink
+        // shared with other workspaces (see RepositoryExportCache)
+        Path tmp = Files.createTempFile(workspace, requestFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                objectMapper.writeValue(out, m);
+            }
+            Files.move(tmp, requestFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
 }
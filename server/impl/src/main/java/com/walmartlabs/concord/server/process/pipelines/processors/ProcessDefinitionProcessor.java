@@ -31,9 +31,12 @@ import com.walmartlabs.concord.sdk.Constants;
 import com.walmartlabs.concord.sdk.MapUtils;
 import com.walmartlabs.concord.server.process.ImportsNormalizerFactory;
 import com.walmartlabs.concord.server.process.Payload;
+import com.walmartlabs.concord.server.process.ProcessDefinitionCache;
 import com.walmartlabs.concord.server.process.PayloadUtils;
 import com.walmartlabs.concord.server.process.ProcessException;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
+import com.walmartlabs.concord.server.process.pipelines.processors.RepositoryProcessor.CommitInfo;
+import com.walmartlabs.concord.server.process.pipelines.processors.RepositoryProcessor.RepositoryInfo;
 import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
 import org.slf4j.Logger;
@@ -58,18 +61,18 @@ public class ProcessDefinitionProcessor implements PayloadProcessor {
 
     private static final int MAX_DEPENDENCIES_COUNT = 100;
 
-    private final ProjectLoader projectLoader;
+    private final ProcessDefinitionCache processDefinitionCache;
     private final ImportsNormalizerFactory importsNormalizer;
     private final ObjectMapper objectMapper;
     private final ProcessLogManager logManager;
 
     @Inject
-    public ProcessDefinitionProcessor(ProjectLoader projectLoader,
+    public ProcessDefinitionProcessor(ProcessDefinitionCache processDefinitionCache,
                                       ImportsNormalizerFactory importsNormalizer,
                                       ObjectMapper objectMapper,
                                       ProcessLogManager logManager) {
 
-        this.projectLoader = projectLoader;
+        this.processDefinitionCache = processDefinitionCache;
         this.importsNormalizer = importsNormalizer;
         this.objectMapper = objectMapper;
         this.logManager = logManager;
@@ -88,8 +91,8 @@ public class ProcessDefinitionProcessor implements PayloadProcessor {
 
         try {
             String runtime = getRuntimeType(payload);
-            ProjectLoader.Result result = projectLoader.loadProject(workDir, runtime, importsNormalizer.forProject(projectId),
-                    new ProcessImportsListener(processKey));
+            ProjectLoader.Result result = processDefinitionCache.load(cacheKey(payload, runtime), repositorySnapshot(payload),
+                    workDir, runtime, importsNormalizer.forProject(projectId), new ProcessImportsListener(processKey));
 
             List<Snapshot> snapshots = result.snapshots();
             payload = PayloadUtils.addSnapshots(payload, snapshots);
@@ -139,6 +142,28 @@ public class ProcessDefinitionProcessor implements PayloadProcessor {
         return ProjectLoader.getRuntimeType(workDir, "concord-v1"); // TODO constants or configuration
     }
 
+    private static ProcessDefinitionCache.Key cacheKey(Payload payload, String runtime) {
+        RepositoryInfo i = payload.getHeader(RepositoryProcessor.REPOSITORY_INFO_KEY);
+        if (i == null || i.getId() == null) {
+            return null;
+        }
+
+        CommitInfo ci = i.getCommitInfo();
+        if (ci == null || ci.getId() == null) {
+            return null;
+        }
+
+        return new ProcessDefinitionCache.Key(i.getId(), ci.getId(), i.getPath(), runtime);
+    }
+
+    private static Snapshot repositorySnapshot(Payload payload) {
+        List<Snapshot> snapshots = payload.getHeader(Payload.REPOSITORY_SNAPSHOT);
+        if (snapshots == null || snapshots.size() != 1) {
+            return null;
+        }
+        return snapshots.get(0);
+    }
+
     private String toString(Import i) {
         try {
             return objectMapper.writeValueAsString(i);
@@ -99,7 +99,7 @@ public class RepositoryProcessor implements PayloadProcessor {
                     repository = repositoryManager.fetch(projectId, repo, true);
                 }
 
-                Snapshot snapshot = repository.export(dst);
+                Snapshot snapshot = repositoryManager.export(repo.getUrl(), repo.getPath(), repository, dst, Collections.emptyList());
 
                 CommitInfo ci = null;
                 if (repository.fetchResult() != null) {
@@ -0,0 +1,177 @@
+package com.walmartlabs.concord.server.process.queue;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Iterables;
+import com.walmartlabs.concord.server.PeriodicTask;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Notifies waiters when processes reach a final status.
+ * Status transitions made by the current server instance are reported
+ * immediately. Transitions made by other instances (or inside of longer
+ * transactions) are picked up by periodically checking the statuses
+ * of all awaited processes.
+ * <p/>
+ * Each waiter holds a request thread, the number of concurrent waiters
+ * is limited by {@link ProcessConfiguration#getMaxCompletionWaiters()}.
+ */
+@Named
+@Singleton
+public class ProcessCompletionWatcher extends PeriodicTask {
+
+    private static final long CHECK_INTERVAL = 1000;
+    private static final long ERROR_RETRY_INTERVAL = 5000;
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private static final Set<ProcessStatus> FINAL_STATUSES = new HashSet<>(Arrays.asList(
+            ProcessStatus.FINISHED,
+            ProcessStatus.FAILED,
+            ProcessStatus.CANCELLED,
+            ProcessStatus.TIMED_OUT));
+
+    private final ProcessQueueDao queueDao;
+    private final Semaphore permits;
+    private final ConcurrentMap<UUID, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    @Inject
+    public ProcessCompletionWatcher(ProcessQueueDao queueDao, ProcessConfiguration cfg, MetricRegistry metricRegistry) {
+        super(CHECK_INTERVAL, ERROR_RETRY_INTERVAL);
+
+        this.queueDao = queueDao;
+        this.permits = new Semaphore(cfg.getMaxCompletionWaiters());
+
+        metricRegistry.gauge("process-completion-awaited", () -> waiters::size);
+    }
+
+    public static boolean isFinal(ProcessStatus status) {
+        return FINAL_STATUSES.contains(status);
+    }
+
+    /**
+     * Registers a new waiter for the specified processes.
+     *
+     * @return the waiter or {@code null} if there are too many waiters already.
+     * Registered waiters must be {@link #unregister(Waiter) unregistered}.
+     */
+    public Waiter register(Collection<UUID> instanceIds) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+
+        Waiter w = new Waiter(new HashSet<>(instanceIds));
+        for (UUID id : w.instanceIds) {
+            waiters.compute(id, (k, v) -> {
+                if (v == null) {
+                    v = ConcurrentHashMap.newKeySet();
+                }
+                v.add(w);
+                return v;
+            });
+        }
+        return w;
+    }
+
+    public void unregister(Waiter w) {
+        unregister(w, w.instanceIds);
+        permits.release();
+    }
+
+    public void unregister(Waiter w, Collection<UUID> instanceIds) {
+        for (UUID id : instanceIds) {
+            waiters.computeIfPresent(id, (k, v) -> {
+                v.remove(w);
+                return v.isEmpty() ? null : v;
+            });
+        }
+    }
+
+    public void onStatusChange(UUID instanceId, ProcessStatus status) {
+        if (!isFinal(status)) {
+            return;
+        }
+
+        Set<Waiter> s = waiters.get(instanceId);
+        if (s != null) {
+            s.forEach(w -> w.signal(instanceId));
+        }
+    }
+
+    @Override
+    protected boolean performTask() {
+        if (waiters.isEmpty()) {
+            return false;
+        }
+
+        for (List<UUID> ids : Iterables.partition(new ArrayList<>(waiters.keySet()), MAX_IDS_PER_QUERY)) {
+            queueDao.getStatuses(ids).forEach(this::onStatusChange);
+        }
+
+        return false;
+    }
+
+    public static final class Waiter {
+
+        private final Set<UUID> instanceIds;
+        private final Set<UUID> signaled = new HashSet<>();
+
+        private Waiter(Set<UUID> instanceIds) {
+            this.instanceIds = instanceIds;
+        }
+
+        private synchronized void signal(UUID instanceId) {
+            signaled.add(instanceId);
+            notifyAll();
+        }
+
+        /**
+         * Waits until at least one of the processes reaches a final status
+         * or the timeout is reached.
+         *
+         * @return IDs of the processes that (most likely) reached a final status
+         */
+        public synchronized Set<UUID> await(long timeout) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeout;
+            while (signaled.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                wait(remaining);
+            }
+
+            Set<UUID> result = new HashSet<>(signaled);
+            signaled.clear();
+            return result;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.db.PgUtils;
+import com.walmartlabs.concord.db.ReplicaDB;
 import com.walmartlabs.concord.imports.Imports;
 import com.walmartlabs.concord.runtime.v2.model.ExclusiveMode;
 import com.walmartlabs.concord.sdk.EventType;
@@ -81,8 +82,11 @@ public class ProcessQueueDao extends AbstractDao {
     private final ConcordObjectMapper objectMapper;
 
     @Inject
-    public ProcessQueueDao(@MainDB Configuration cfg, ConcordObjectMapper objectMapper) {
-        super(cfg);
+    public ProcessQueueDao(@MainDB Configuration cfg,
+                           @ReplicaDB Configuration replicaCfg,
+                           ConcordObjectMapper objectMapper) {
+
+        super(cfg, replicaCfg);
         this.objectMapper = objectMapper;
     }
 
@@ -122,6 +126,49 @@ public class ProcessQueueDao extends AbstractDao {
                 .execute();
     }
 
+    /**
+     * Inserts multiple process queue records with the same attributes
+     * using a single batch statement.
+     */
+    public void insert(DSLContext tx, List<ProcessKey> processKeys, ProcessStatus status, ProcessKind kind,
+                       UUID parentInstanceId, UUID projectId, UUID repoId, UUID initiatorId,
+                       Map<String, Object> meta, TriggeredByEntry triggeredBy) {
+
+        JSONB metaJsonb = objectMapper.toJSONB(meta);
+        JSONB triggeredByJsonb = objectMapper.toJSONB(triggeredBy);
+
+        BatchBindStep q = tx.batch(tx.insertInto(PROCESS_QUEUE)
+                .columns(PROCESS_QUEUE.INSTANCE_ID,
+                        PROCESS_QUEUE.PROCESS_KIND,
+                        PROCESS_QUEUE.PARENT_INSTANCE_ID,
+                        PROCESS_QUEUE.PROJECT_ID,
+                        PROCESS_QUEUE.REPO_ID,
+                        PROCESS_QUEUE.CREATED_AT,
+                        PROCESS_QUEUE.INITIATOR_ID,
+                        PROCESS_QUEUE.CURRENT_STATUS,
+                        PROCESS_QUEUE.LAST_UPDATED_AT,
+                        PROCESS_QUEUE.META,
+                        PROCESS_QUEUE.TRIGGERED_BY)
+                .values(value((UUID) null),
+                        value((String) null),
+                        value((UUID) null),
+                        value((UUID) null),
+                        value((UUID) null),
+                        value((OffsetDateTime) null),
+                        value((UUID) null),
+                        value((String) null),
+                        currentOffsetDateTime(),
+                        value((JSONB) null),
+                        value((JSONB) null)));
+
+        for (ProcessKey k : processKeys) {
+            q.bind(k.getInstanceId(), kind.toString(), parentInstanceId, projectId, repoId, k.getCreatedAt(),
+                    initiatorId, status.toString(), metaJsonb, triggeredByJsonb);
+        }
+
+        q.execute();
+    }
+
     public void updateAgentId(DSLContext tx, ProcessKey processKey, String agentId, ProcessStatus status) {
         UUID instanceId = processKey.getInstanceId();
 
@@ -385,6 +432,19 @@ public class ProcessQueueDao extends AbstractDao {
         return ProcessStatus.valueOf(status);
     }
 
+    public Map<UUID, ProcessStatus> getStatuses(Collection<UUID> instanceIds) {
+        if (instanceIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<UUID, ProcessStatus> result = new HashMap<>(instanceIds.size());
+        dsl().select(PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CURRENT_STATUS)
+                .from(PROCESS_QUEUE)
+                .where(PROCESS_QUEUE.INSTANCE_ID.in(instanceIds))
+                .forEach(r -> result.put(r.value1(), ProcessStatus.valueOf(r.value2())));
+        return result;
+    }
+
     public List<ProcessEntry> get(List<PartialProcessKey> processKeys) {
         if (processKeys.isEmpty()) {
             return Collections.emptyList();
@@ -448,7 +508,16 @@ public class ProcessQueueDao extends AbstractDao {
     }
 
     public List<ProcessEntry> list(ProcessFilter filter) {
-        SelectQuery<Record> query = buildSelect(dsl(), filter);
+        return list(filter, false);
+    }
+
+    /**
+     * @param useReplica if {@code true} the query can be executed on the read
+     *                   replica. Use only if the caller doesn't need to see
+     *                   its own recent writes (e.g. the UI's process lists).
+     */
+    public List<ProcessEntry> list(ProcessFilter filter, boolean useReplica) {
+        SelectQuery<Record> query = buildSelect(useReplica ? replicaDsl() : dsl(), filter);
 
         boolean findAdjacentToDateRows = filter.beforeCreatedAt() == null && filter.beforeCreatedAt() != null;
         if (findAdjacentToDateRows) {
@@ -467,7 +536,7 @@ public class ProcessQueueDao extends AbstractDao {
     }
 
     public List<ProcessRequirementsEntry> listRequirements(ProcessStatus processStatus, List<ProcessFilter.DateFilter> startAt, int limit, int offset, List<ProcessFilter.JsonFilter> requirements) {
-        SelectQuery<Record> query = dsl().selectQuery();
+        SelectQuery<Record> query = replicaDsl().selectQuery();
 
         query.addSelect(PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CREATED_AT, PROCESS_QUEUE.REQUIREMENTS);
         query.addFrom(PROCESS_QUEUE);
@@ -485,6 +554,18 @@ public class ProcessQueueDao extends AbstractDao {
                 .build());
     }
 
+    public int countRequirements(ProcessStatus processStatus, List<ProcessFilter.DateFilter> startAt, List<ProcessFilter.JsonFilter> requirements) {
+        SelectQuery<Record> query = replicaDsl().selectQuery();
+
+        query.addSelect(DSL.count());
+        query.addFrom(PROCESS_QUEUE);
+        query.addConditions(PROCESS_QUEUE.CURRENT_STATUS.eq(processStatus.name()));
+        FilterUtils.applyDate(query, PROCESS_QUEUE.START_AT, startAt);
+        FilterUtils.applyJson(query, PROCESS_QUEUE.REQUIREMENTS, requirements);
+
+        return query.fetchOne(0, int.class);
+    }
+
     public int count(ProcessFilter filter) {
         DSLContext tx = dsl();
         SelectQuery<Record> query = buildSelect(tx, filter);
@@ -50,19 +50,22 @@ public class ProcessQueueManager {
     private final ProcessKeyCache keyCache;
     private final ProcessEventManager eventManager;
     private final ProcessLogManager processLogManager;
+    private final ProcessCompletionWatcher completionWatcher;
 
     @Inject
     public ProcessQueueManager(ProcessQueueDao queueDao,
                                ConcordObjectMapper objectMapper,
                                ProcessKeyCache keyCache,
                                ProcessEventManager eventManager,
-                               ProcessLogManager processLogManager) {
+                               ProcessLogManager processLogManager,
+                               ProcessCompletionWatcher completionWatcher) {
 
         this.queueDao = queueDao;
         this.eventManager = eventManager;
         this.objectMapper = objectMapper;
         this.keyCache = keyCache;
         this.processLogManager = processLogManager;
+        this.completionWatcher = completionWatcher;
     }
 
     /**
@@ -86,6 +89,37 @@ public class ProcessQueueManager {
         });
     }
 
+    /**
+     * Creates the initial queue records for the specified process payloads
+     * in a single transaction. All payloads must share the same process kind,
+     * parent, project, repository and initiator (e.g. forks of the same parent).
+     */
+    public void insert(List<Payload> payloads, ProcessStatus status) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        Payload first = payloads.get(0);
+        ProcessKind kind = first.getHeader(Payload.PROCESS_KIND, ProcessKind.DEFAULT);
+        UUID projectId = first.getHeader(Payload.PROJECT_ID);
+        UUID repoId = first.getHeader(Payload.REPOSITORY_ID);
+        UUID parentInstanceId = first.getHeader(Payload.PARENT_INSTANCE_ID);
+        UUID initiatorId = first.getHeader(Payload.INITIATOR_ID);
+        Map<String, Object> meta = getMeta(getCfg(first));
+        TriggeredByEntry triggeredBy = first.getHeader(Payload.TRIGGERED_BY);
+
+        List<ProcessKey> processKeys = new ArrayList<>(payloads.size());
+        for (Payload p : payloads) {
+            processKeys.add(p.getProcessKey());
+        }
+
+        queueDao.tx(tx -> {
+            queueDao.insert(tx, processKeys, status, kind, parentInstanceId, projectId, repoId, initiatorId, meta, triggeredBy);
+            eventManager.insertStatusHistory(tx, processKeys, status);
+            processLogManager.createSystemSegments(tx, processKeys);
+        });
+    }
+
     /**
      * Updates an existing record, moving the process into the ENQUEUED status.
      */
@@ -146,6 +180,7 @@ public class ProcessQueueManager {
      */
     public void updateStatus(ProcessKey processKey, ProcessStatus status, Map<String, Object> statusPayload) {
         queueDao.tx(tx -> updateStatus(tx, processKey, status, statusPayload));
+        completionWatcher.onStatusChange(processKey.getInstanceId(), status);
     }
 
     /**
@@ -162,11 +197,17 @@ public class ProcessQueueManager {
      * @return {@code true} if the process was updated
      */
     public boolean updateExpectedStatus(ProcessKey processKey, ProcessStatus expected, ProcessStatus status) {
-        return queueDao.txResult(tx -> {
+        boolean updated = queueDao.txResult(tx -> {
             boolean success = queueDao.updateStatus(tx, processKey, expected, status);
             eventManager.insertStatusHistory(tx, processKey, status, Collections.emptyMap());
             return success;
         });
+
+        if (updated) {
+            completionWatcher.onStatusChange(processKey.getInstanceId(), status);
+        }
+
+        return updated;
     }
 
     /**
@@ -176,11 +217,16 @@ public class ProcessQueueManager {
      * @return {@code true} if every processes was updated
      */
     public boolean updateExpectedStatus(List<ProcessKey> processKeys, List<ProcessStatus> expected, ProcessStatus status) {
-        return queueDao.txResult(tx -> {
+        boolean updated = queueDao.txResult(tx -> {
             boolean success = queueDao.updateStatus(processKeys, expected, status);
             eventManager.insertStatusHistory(tx, processKeys, status);
             return success;
         });
+
+        // some of the processes might not be updated, the waiters will re-check the actual status
+        processKeys.forEach(k -> completionWatcher.onStatusChange(k.getInstanceId(), status));
+
+        return updated;
     }
 
     /**
@@ -188,6 +234,7 @@ public class ProcessQueueManager {
      */
     public void updateAgentId(ProcessKey processKey, String agentId, ProcessStatus status) {
         queueDao.tx(tx -> updateAgentId(tx, processKey, agentId, status));
+        completionWatcher.onStatusChange(processKey.getInstanceId(), status);
     }
 
     /**
@@ -34,23 +34,37 @@ import com.walmartlabs.concord.server.security.Roles;
 import com.walmartlabs.concord.server.security.UserPrincipal;
 import org.apache.shiro.authz.UnauthorizedException;
 import org.immutables.value.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+import static com.walmartlabs.concord.sdk.Constants.Files.CHECKPOINT_DELTA_FILE_NAME;
 import static com.walmartlabs.concord.sdk.Constants.Files.CHECKPOINT_META_FILE_NAME;
 
 @Named
 public class ProcessCheckpointManager {
 
+    private static final Logger log = LoggerFactory.getLogger(ProcessCheckpointManager.class);
+
+    /**
+     * Maximum number of checkpoints (a full one plus incremental ones) to restore a single checkpoint.
+     * Protects against cycles.
+     */
+    private static final int MAX_CHECKPOINT_CHAIN_LENGTH = 1000;
+
     private final ProcessCheckpointDao checkpointDao;
     private final ProcessQueueDao queueDao;
     private final ProcessStateManager stateManager;
@@ -88,34 +102,29 @@ public class ProcessCheckpointManager {
      * Restore process to a saved checkpoint.
      */
     public CheckpointInfo restoreCheckpoint(ProcessKey processKey, UUID checkpointId) {
-        try (TemporaryPath checkpointArchive = IOUtils.tempFile("checkpoint", ".zip")) {
-
-            String checkpointName = export(processKey, checkpointId, checkpointArchive.path());
+        try (TemporaryPath extractedDir = IOUtils.tempDir("unzipped-checkpoint")) {
+            String checkpointName = extract(processKey, checkpointId, extractedDir.path());
             if (checkpointName == null) {
                 return null;
             }
 
-            try (TemporaryPath extractedDir = IOUtils.tempDir("unzipped-checkpoint")) {
-                IOUtils.unzip(checkpointArchive.path(), extractedDir.path());
-
-                // TODO: only for v1 runtime
-                String eventName = readCheckpointEventName(extractedDir.path());
+            // TODO: only for v1 runtime
+            String eventName = readCheckpointEventName(extractedDir.path());
 
-                stateManager.tx(tx -> {
-                    stateManager.deleteDirectory(tx, processKey, Constants.Files.CONCORD_SYSTEM_DIR_NAME);
-                    stateManager.deleteDirectory(tx, processKey, Constants.Files.JOB_ATTACHMENTS_DIR_NAME);
-                    stateManager.importPath(tx, processKey, null, extractedDir.path(), (p, attrs) -> true);
-                });
+            stateManager.tx(tx -> {
+                stateManager.deleteDirectory(tx, processKey, Constants.Files.CONCORD_SYSTEM_DIR_NAME);
+                stateManager.deleteDirectory(tx, processKey, Constants.Files.JOB_ATTACHMENTS_DIR_NAME);
+                stateManager.importPath(tx, processKey, null, extractedDir.path(), (p, attrs) -> true);
+            });
 
-                Map<String, Object> out = OutVariablesUtils.read(extractedDir.path().resolve(Constants.Files.JOB_ATTACHMENTS_DIR_NAME));
-                if (out.isEmpty()) {
-                    queueDao.removeMeta(processKey, "out");
-                } else {
-                    queueDao.updateMeta(processKey, Collections.singletonMap("out", out));
-                }
-
-                return CheckpointInfo.of(checkpointName, eventName);
+            Map<String, Object> out = OutVariablesUtils.read(extractedDir.path().resolve(Constants.Files.JOB_ATTACHMENTS_DIR_NAME));
+            if (out.isEmpty()) {
+                queueDao.removeMeta(processKey, "out");
+            } else {
+                queueDao.updateMeta(processKey, Collections.singletonMap("out", out));
             }
+
+            return CheckpointInfo.of(checkpointName, eventName);
         } catch (Exception e) {
             throw new RuntimeException("Restore checkpoint '" + checkpointId + "' error", e);
         }
@@ -180,7 +189,106 @@ public class ProcessCheckpointManager {
         return checkpointName;
     }
 
-    private String export(ProcessKey processKey, UUID checkpointId, Path dest) {
-        return checkpointDao.export(processKey, checkpointId, dest);
+    /**
+     * Extracts the checkpoint's data into the specified directory.
+     * Incremental checkpoints are applied on top of their base checkpoints.
+     *
+     * @return the checkpoint's name or {@code null} if the checkpoint doesn't exist
+     */
+    private String extract(ProcessKey processKey, UUID checkpointId, Path dest) throws IOException {
+        return extract(checkpointId, dest, (id, archive) -> checkpointDao.export(processKey, id, archive));
+    }
+
+    /**
+     * Extracts the checkpoint's data into the specified directory.
+     * Walks the chain of incremental checkpoints back to the first full one
+     * and applies the archives in order, starting from the full one.
+     *
+     * @return the checkpoint's name or {@code null} if the checkpoint doesn't exist
+     */
+    static String extract(UUID checkpointId, Path dest, CheckpointExporter exporter) throws IOException {
+        // collect the chain of checkpoints, from the requested one to the first full checkpoint
+        List<TemporaryPath> chain = new ArrayList<>();
+        try {
+            String checkpointName = null;
+            long size = 0;
+
+            Set<UUID> visited = new HashSet<>();
+            UUID id = checkpointId;
+            while (id != null) {
+                if (!visited.add(id) || chain.size() >= MAX_CHECKPOINT_CHAIN_LENGTH) {
+                    throw new IllegalStateException("Invalid checkpoint chain: " + checkpointId);
+                }
+
+                TemporaryPath archive = IOUtils.tempFile("checkpoint", ".zip");
+                chain.add(archive);
+
+                String name = exporter.export(id, archive.path());
+                if (name == null) {
+                    if (id.equals(checkpointId)) {
+                        return null;
+                    }
+                    throw new IllegalStateException("Base checkpoint not found: " + id);
+                }
+
+                if (checkpointName == null) {
+                    checkpointName = name;
+                }
+
+                size += Files.size(archive.path());
+                id = readBaseCheckpointId(archive.path());
+            }
+
+            // apply the checkpoints, starting from the full one
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                IOUtils.unzip(chain.get(i).path(), dest, StandardCopyOption.REPLACE_EXISTING);
+
+                Path delta = dest.resolve(CHECKPOINT_DELTA_FILE_NAME);
+                if (Files.exists(delta)) {
+                    List<String> lines = Files.readAllLines(delta);
+                    for (String name : lines.subList(1, lines.size())) {
+                        Path p = dest.resolve(name).normalize();
+                        if (!p.startsWith(dest)) {
+                            throw new IllegalStateException("Invalid incremental checkpoint, file path outside of the checkpoint's directory: " + name);
+                        }
+                        Files.deleteIfExists(p);
+                    }
+                    Files.delete(delta);
+                }
+            }
+
+            log.info("extract ['{}'] -> done, {} checkpoint(s), {} bytes", checkpointId, chain.size(), size);
+
+            return checkpointName;
+        } finally {
+            chain.forEach(TemporaryPath::close);
+        }
+    }
+
+    private static UUID readBaseCheckpointId(Path archive) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            ZipEntry e = zip.getEntry(CHECKPOINT_DELTA_FILE_NAME);
+            if (e == null) {
+                return null;
+            }
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(e), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IllegalStateException("Invalid incremental checkpoint, base checkpoint ID is missing");
+                }
+                return UUID.fromString(line.trim());
+            }
+        }
+    }
+
+    interface CheckpointExporter {
+
+        /**
+         * Saves the checkpoint's archive into the specified file.
+         *
+         * @return the checkpoint's name or {@code null} if the checkpoint doesn't exist
+         */
+        String export(UUID checkpointId, Path dest) throws IOException;
     }
 }
@@ -56,6 +56,7 @@ public class RepositoryManager {
     private final ProjectDao projectDao;
     private final SecretManager secretManager;
     private final RepositoryCache repositoryCache;
+    private final RepositoryExportCache exportCache;
     private final RepositoryConfiguration repoCfg;
     private final GitConfiguration gitCfg;
 
@@ -90,6 +91,13 @@ public class RepositoryManager {
                 repoCfg.getMaxAge(),
                 repoCfg.getLockCount(),
                 objectMapper);
+
+        // copying from the cache is no cheaper than copying from the checkout
+        this.exportCache = repoCfg.isExportCacheEnabled() && repoCfg.isExportCacheHardlinks() ? new RepositoryExportCache(repoCfg.getExportCacheDir(),
+                repoCfg.getExportCacheMaxSize(),
+                null,
+                true,
+                repoCfg.isExportCacheVerifyChecksums()) : null;
     }
 
     public void testConnection(UUID orgId, UUID projectId, String uri, String branch, String commitId, String path, String secretName) {
@@ -160,6 +168,29 @@ public class RepositoryManager {
         return fetch(repository.getUrl(), repository.getBranch(), repository.getCommitId(), repository.getPath(), secret, withCommitInfo);
     }
 
+    /**
+     * Exports the fetched repository into {@code dst}. Uses the export cache
+     * if it is enabled and the repository was fetched at a known commit.
+     * <p/>
+     * The exported files can be hardlinks to the cache entry's files.
+     * Callers must replace the files instead of modifying them in place.
+     */
+    public Snapshot export(String url, String path, Repository repository, Path dst, List<String> ignorePatterns) throws IOException {
+        FetchResult fetchResult = repository.fetchResult();
+        String commitId = fetchResult != null ? fetchResult.head() : null;
+        if (exportCache == null || !RepositoryExportCache.isCommitId(commitId)) {
+            return repository.export(dst, ignorePatterns);
+        }
+
+        try {
+            return exportCache.export(url, commitId, path, ignorePatterns, dst, tmp -> repository.export(tmp, ignorePatterns));
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RepositoryException("Error while exporting " + url + "@" + commitId, e);
+        }
+    }
+
     public <T> T withLock(String repoUrl, Callable<T> f) {
         long start = System.currentTimeMillis();
         try {
@@ -0,0 +1,150 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2018 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.imports.ImportsListener;
+import com.walmartlabs.concord.imports.NoopImportManager;
+import com.walmartlabs.concord.process.loader.ImportsNormalizer;
+import com.walmartlabs.concord.process.loader.ProjectLoader;
+import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
+import com.walmartlabs.concord.repository.LastModifiedSnapshot;
+import com.walmartlabs.concord.server.cfg.ProcessDefinitionCacheConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProcessDefinitionCacheTest {
+
+    private static final String RUNTIME = "concord-v2";
+    private static final ImportsNormalizer NORMALIZER = imports -> imports;
+
+    private Path repoDir;
+
+    @Before
+    public void setUp() throws Exception {
+        repoDir = IOUtils.createTempDir("test");
+
+        StringBuilder sb = new StringBuilder("configuration:\n  runtime: \"concord-v2\"\n  arguments:\n    x: 123\nflows:\n");
+        for (int i = 0; i < 100; i++) {
+            sb.append("  flow").append(i).append(":\n");
+            for (int j = 0; j < 10; j++) {
+                sb.append("    - log: \"step ").append(j).append(" ${x}\"\n");
+            }
+        }
+        Files.write(repoDir.resolve("concord.yml"), sb.toString().getBytes());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IOUtils.deleteRecursively(repoDir);
+    }
+
+    @Test
+    public void testHit() throws Exception {
+        ProcessDefinitionCache cache = create(true);
+        ProcessDefinitionCache.Key key = new ProcessDefinitionCache.Key(UUID.randomUUID(), "abc", null, RUNTIME);
+
+        ProcessDefinition a = load(cache, key, false);
+        ProcessDefinition b = load(cache, key, false);
+
+        assertSame(a, b);
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(100, b.flows().size());
+    }
+
+    @Test
+    public void testModifiedWorkDir() throws Exception {
+        ProcessDefinitionCache cache = create(true);
+        ProcessDefinitionCache.Key key = new ProcessDefinitionCache.Key(UUID.randomUUID(), "abc", null, RUNTIME);
+
+        ProcessDefinition a = load(cache, key, false);
+        ProcessDefinition b = load(cache, key, true);
+
+        assertNotSame(a, b);
+        assertEquals(0, cache.stats().hitCount());
+    }
+
+    @Test
+    public void testLoaderCalls() throws Exception {
+        ProcessDefinitionCache.Key key = new ProcessDefinitionCache.Key(UUID.randomUUID(), "abc", null, RUNTIME);
+
+        ProjectLoader loader = spy(new ProjectLoader(new NoopImportManager()));
+        ProcessDefinitionCache cache = create(true, loader);
+        for (int i = 0; i < 10; i++) {
+            load(cache, key, false);
+        }
+
+        // the definition is parsed only once for the same key and files
+        verify(loader, times(1)).loadProject(any(Path.class), eq(RUNTIME), any(), any());
+        assertEquals(9, cache.stats().hitCount());
+
+        loader = spy(new ProjectLoader(new NoopImportManager()));
+        cache = create(false, loader);
+        for (int i = 0; i < 10; i++) {
+            load(cache, key, false);
+        }
+
+        verify(loader, times(10)).loadProject(any(Path.class), eq(RUNTIME), any(), any());
+    }
+
+    private ProcessDefinition load(ProcessDefinitionCache cache, ProcessDefinitionCache.Key key, boolean addFile) throws Exception {
+        Path workDir = IOUtils.createTempDir("test");
+        try {
+            LastModifiedSnapshot snapshot = new LastModifiedSnapshot();
+            IOUtils.copy(repoDir, workDir, (String) null, snapshot);
+
+            if (addFile) {
+                Files.createDirectories(workDir.resolve("concord"));
+                Files.write(workDir.resolve("concord/extra.yml"), "flows:\n  extra:\n    - log: \"hi\"\n".getBytes());
+            }
+
+            return cache.load(key, snapshot, workDir, RUNTIME, NORMALIZER, ImportsListener.NOP_LISTENER)
+                    .projectDefinition();
+        } finally {
+            IOUtils.deleteRecursively(workDir);
+        }
+    }
+
+    private static ProcessDefinitionCache create(boolean enabled) {
+        return create(enabled, new ProjectLoader(new NoopImportManager()));
+    }
+
+    private static ProcessDefinitionCache create(boolean enabled, ProjectLoader loader) {
+        ProcessDefinitionCacheConfiguration cfg = mock(ProcessDefinitionCacheConfiguration.class);
+        when(cfg.isEnabled()).thenReturn(enabled);
+        when(cfg.getMaxWeight()).thenReturn(1024 * 1024L);
+        when(cfg.getMaxAge()).thenReturn(Duration.ofHours(1));
+
+        return new ProcessDefinitionCache(cfg, loader, new MetricRegistry());
+    }
+}
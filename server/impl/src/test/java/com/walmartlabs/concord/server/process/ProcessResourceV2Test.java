@@ -0,0 +1,192 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.org.OrganizationManager;
+import com.walmartlabs.concord.server.org.project.ProjectAccessManager;
+import com.walmartlabs.concord.server.org.project.ProjectDao;
+import com.walmartlabs.concord.server.org.project.RepositoryDao;
+import com.walmartlabs.concord.server.process.queue.ProcessCompletionWatcher;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
+import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
+import com.walmartlabs.concord.server.sdk.PartialProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.user.UserDao;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProcessResourceV2Test {
+
+    private Map<UUID, ProcessStatus> statuses;
+    private ProcessCompletionWatcher watcher;
+    private ProcessResourceV2 resource;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        statuses = new ConcurrentHashMap<>();
+
+        ProcessQueueDao queueDao = mock(ProcessQueueDao.class);
+        when(queueDao.get(anyList())).thenAnswer(i -> ((List<PartialProcessKey>) i.getArgument(0)).stream()
+                .filter(k -> statuses.containsKey(k.getInstanceId()))
+                .map(k -> entry(k.getInstanceId(), statuses.get(k.getInstanceId())))
+                .collect(Collectors.toList()));
+
+        ProcessConfiguration cfg = mock(ProcessConfiguration.class);
+        when(cfg.getMaxCompletionWaiters()).thenReturn(1);
+
+        watcher = new ProcessCompletionWatcher(queueDao, cfg, new MetricRegistry());
+        resource = new ProcessResourceV2(queueDao, mock(ProcessQueueManager.class), mock(ProjectDao.class),
+                mock(RepositoryDao.class), mock(UserDao.class), mock(OrganizationManager.class),
+                mock(ProjectAccessManager.class), watcher);
+    }
+
+    @Test(timeout = 30_000)
+    public void testAlreadyFinished() {
+        UUID id = newProcess(ProcessStatus.FINISHED);
+
+        List<ProcessEntry> l = resource.waitForCompletion(request(ProcessWaitRequest.Mode.ALL, 60_000, id));
+        assertEquals(1, l.size());
+        assertEquals(id, l.get(0).instanceId());
+    }
+
+    @Test(timeout = 30_000)
+    public void testTimeout() {
+        UUID id = newProcess(ProcessStatus.RUNNING);
+
+        long t1 = System.currentTimeMillis();
+        List<ProcessEntry> l = resource.waitForCompletion(request(ProcessWaitRequest.Mode.ALL, 200, id));
+        long dt = System.currentTimeMillis() - t1;
+
+        assertTrue(l.isEmpty());
+        assertTrue("Returned too early: " + dt, dt >= 200);
+    }
+
+    @Test(timeout = 30_000)
+    public void testCompletion() throws Exception {
+        UUID a = newProcess(ProcessStatus.RUNNING);
+        UUID b = newProcess(ProcessStatus.RUNNING);
+
+        Thread t = new Thread(() -> {
+            sleep(100);
+            finish(a, ProcessStatus.FINISHED);
+            sleep(100);
+            finish(b, ProcessStatus.FAILED);
+        });
+        t.start();
+
+        // returns as soon as both processes are finished, way before the timeout
+        List<ProcessEntry> l = resource.waitForCompletion(request(ProcessWaitRequest.Mode.ALL, 60_000, a, b));
+        t.join();
+
+        Map<UUID, ProcessStatus> result = l.stream().collect(Collectors.toMap(ProcessEntry::instanceId, ProcessEntry::status));
+        assertEquals(2, result.size());
+        assertEquals(ProcessStatus.FINISHED, result.get(a));
+        assertEquals(ProcessStatus.FAILED, result.get(b));
+    }
+
+    @Test(timeout = 30_000)
+    public void testAny() throws Exception {
+        UUID a = newProcess(ProcessStatus.RUNNING);
+        UUID b = newProcess(ProcessStatus.RUNNING);
+
+        Thread t = new Thread(() -> {
+            sleep(100);
+            finish(b, ProcessStatus.CANCELLED);
+        });
+        t.start();
+
+        List<ProcessEntry> l = resource.waitForCompletion(request(ProcessWaitRequest.Mode.ANY, 60_000, a, b));
+        t.join();
+
+        assertEquals(1, l.size());
+        assertEquals(b, l.get(0).instanceId());
+    }
+
+    @Test(timeout = 30_000)
+    public void testTooManyWaiters() {
+        UUID id = newProcess(ProcessStatus.RUNNING);
+
+        // takes the only available slot
+        ProcessCompletionWatcher.Waiter w = watcher.register(Collections.singleton(id));
+        assertNotNull(w);
+
+        try {
+            resource.waitForCompletion(request(ProcessWaitRequest.Mode.ALL, 60_000, id));
+            fail("exception expected");
+        } catch (ConcordApplicationException e) {
+            assertEquals(429, e.getResponse().getStatus());
+        }
+
+        // the slot is available again
+        watcher.unregister(w);
+        assertTrue(resource.waitForCompletion(request(ProcessWaitRequest.Mode.ALL, 10, id)).isEmpty());
+    }
+
+    private UUID newProcess(ProcessStatus status) {
+        UUID id = UUID.randomUUID();
+        statuses.put(id, status);
+        return id;
+    }
+
+    private void finish(UUID id, ProcessStatus status) {
+        statuses.put(id, status);
+        watcher.onStatusChange(id, status);
+    }
+
+    private static ProcessWaitRequest request(ProcessWaitRequest.Mode mode, long timeout, UUID... ids) {
+        return ImmutableProcessWaitRequest.builder()
+                .instanceIds(Arrays.asList(ids))
+                .mode(mode)
+                .timeout(timeout)
+                .build();
+    }
+
+    private static ProcessEntry entry(UUID id, ProcessStatus status) {
+        return ImmutableProcessEntry.builder()
+                .instanceId(id)
+                .kind(ProcessKind.DEFAULT)
+                .createdAt(OffsetDateTime.now())
+                .status(status)
+                .build();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
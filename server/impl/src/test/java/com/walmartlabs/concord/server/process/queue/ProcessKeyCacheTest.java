@@ -36,7 +36,7 @@ public class ProcessKeyCacheTest extends AbstractDaoTest {
 
     @Test
     public void testNotFound() {
-        ProcessQueueDao dao = new ProcessQueueDao(getConfiguration(), new ConcordObjectMapper(TestObjectMapper.INSTANCE));
+        ProcessQueueDao dao = new ProcessQueueDao(getConfiguration(), getConfiguration(), new ConcordObjectMapper(TestObjectMapper.INSTANCE));
         ProcessKeyCache keyCache = new ProcessKeyCache(dao);
 
         ProcessKey key = keyCache.get(UUID.randomUUID());
@@ -0,0 +1,211 @@
+package com.walmartlabs.concord.server.process.state;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.sdk.Constants;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ProcessCheckpointManagerTest {
+
+    private Path workDir;
+    private Map<UUID, byte[]> archives;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("test");
+        archives = new HashMap<>();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (workDir != null) {
+            IOUtils.deleteRecursively(workDir);
+        }
+    }
+
+    @Test
+    public void testFullCheckpoint() throws Exception {
+        UUID full = UUID.randomUUID();
+        addArchive(full, files("a.txt", "a1", "dir/b.txt", "b1"), null);
+
+        Path dest = workDir.resolve("dest");
+        assertEquals("cp", extract(full, dest));
+
+        assertFile(dest, "a.txt", "a1");
+        assertFile(dest, "dir/b.txt", "b1");
+    }
+
+    @Test
+    public void testIncrementalChain() throws Exception {
+        // full: a, b, c, dir/d
+        UUID full = UUID.randomUUID();
+        addArchive(full, files("a.txt", "a1", "b.txt", "b1", "c.txt", "c1", "dir/d.txt", "d1"), null);
+
+        // incremental #1: a changed, b removed
+        UUID inc1 = UUID.randomUUID();
+        addArchive(inc1, files("a.txt", "a2"), delta(full, "b.txt"));
+
+        // incremental #2: e added, c and dir/d removed
+        UUID inc2 = UUID.randomUUID();
+        addArchive(inc2, files("e.txt", "e1"), delta(inc1, "c.txt", "dir/d.txt"));
+
+        Path dest = workDir.resolve("dest");
+        assertEquals("cp", extract(inc2, dest));
+
+        assertFile(dest, "a.txt", "a2");
+        assertFile(dest, "e.txt", "e1");
+        assertFalse(Files.exists(dest.resolve("b.txt")));
+        assertFalse(Files.exists(dest.resolve("c.txt")));
+        assertFalse(Files.exists(dest.resolve("dir/d.txt")));
+        assertFalse(Files.exists(dest.resolve(Constants.Files.CHECKPOINT_DELTA_FILE_NAME)));
+
+        // an intermediate checkpoint of the same chain
+        Path dest1 = workDir.resolve("dest1");
+        assertEquals("cp", extract(inc1, dest1));
+
+        assertFile(dest1, "a.txt", "a2");
+        assertFile(dest1, "c.txt", "c1");
+        assertFile(dest1, "dir/d.txt", "d1");
+        assertFalse(Files.exists(dest1.resolve("b.txt")));
+        assertFalse(Files.exists(dest1.resolve("e.txt")));
+    }
+
+    @Test
+    public void testUnknownCheckpoint() throws Exception {
+        assertNull(extract(UUID.randomUUID(), workDir.resolve("dest")));
+    }
+
+    @Test
+    public void testMissingBase() throws Exception {
+        UUID inc = UUID.randomUUID();
+        addArchive(inc, files("a.txt", "a2"), delta(UUID.randomUUID()));
+
+        try {
+            extract(inc, workDir.resolve("dest"));
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Base checkpoint not found"));
+        }
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        addArchive(a, files("a.txt", "a1"), delta(b));
+        addArchive(b, files("b.txt", "b1"), delta(a));
+
+        try {
+            extract(a, workDir.resolve("dest"));
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Invalid checkpoint chain"));
+        }
+    }
+
+    @Test
+    public void testRemovedPathOutsideOfCheckpoint() throws Exception {
+        UUID full = UUID.randomUUID();
+        addArchive(full, files("a.txt", "a1"), null);
+
+        Path outside = workDir.resolve("outside.txt");
+        Files.write(outside, "x".getBytes(StandardCharsets.UTF_8));
+
+        UUID inc = UUID.randomUUID();
+        addArchive(inc, files("b.txt", "b1"), delta(full, "../outside.txt"));
+
+        try {
+            extract(inc, workDir.resolve("dest"));
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("outside of the checkpoint's directory"));
+        }
+
+        assertTrue(Files.exists(outside));
+    }
+
+    private String extract(UUID checkpointId, Path dest) throws IOException {
+        Files.createDirectories(dest);
+        return ProcessCheckpointManager.extract(checkpointId, dest, (id, archive) -> {
+            byte[] ab = archives.get(id);
+            if (ab == null) {
+                return null;
+            }
+            Files.write(archive, ab);
+            return "cp";
+        });
+    }
+
+    private void addArchive(UUID id, Map<String, String> files, List<String> delta) throws IOException {
+        Path src = Files.createTempDirectory(workDir, "src");
+        for (Map.Entry<String, String> e : files.entrySet()) {
+            Path p = src.resolve(e.getKey());
+            Files.createDirectories(p.getParent());
+            Files.write(p, e.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+
+        if (delta != null) {
+            Files.write(src.resolve(Constants.Files.CHECKPOINT_DELTA_FILE_NAME), delta);
+        }
+
+        Path zip = workDir.resolve(id + ".zip");
+        try (OutputStream out = Files.newOutputStream(zip);
+             ZipArchiveOutputStream zos = new ZipArchiveOutputStream(out)) {
+            IOUtils.zip(zos, src);
+        }
+
+        archives.put(id, Files.readAllBytes(zip));
+    }
+
+    private static Map<String, String> files(String... kv) {
+        Map<String, String> m = new LinkedHashMap<>();
+        for (int i = 0; i < kv.length; i += 2) {
+            m.put(kv[i], kv[i + 1]);
+        }
+        return m;
+    }
+
+    private static List<String> delta(UUID baseId, String... removed) {
+        List<String> l = new ArrayList<>();
+        l.add(baseId.toString());
+        l.addAll(Arrays.asList(removed));
+        return l;
+    }
+
+    private static void assertFile(Path dir, String name, String expected) throws IOException {
+        Path p = dir.resolve(name);
+        assertTrue("File not found: " + name, Files.exists(p));
+        assertEquals(expected, new String(Files.readAllBytes(p), StandardCharsets.UTF_8));
+    }
+}
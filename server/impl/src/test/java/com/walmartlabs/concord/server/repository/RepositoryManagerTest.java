@@ -0,0 +1,161 @@
+package com.walmartlabs.concord.server.repository;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.repository.FetchResult;
+import com.walmartlabs.concord.repository.LastModifiedSnapshot;
+import com.walmartlabs.concord.repository.Repository;
+import com.walmartlabs.concord.repository.RepositoryProvider;
+import com.walmartlabs.concord.server.TestObjectMapper;
+import com.walmartlabs.concord.server.cfg.GitConfiguration;
+import com.walmartlabs.concord.server.cfg.RepositoryConfiguration;
+import com.walmartlabs.concord.server.org.project.ProjectDao;
+import com.walmartlabs.concord.server.org.secret.SecretManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the wiring of the repository export cache.
+ */
+public class RepositoryManagerTest {
+
+    private static final String COMMIT_ID = "0123456789abcdef0123456789abcdef01234567";
+
+    private Path workDir;
+    private AtomicInteger exports;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("test");
+        exports = new AtomicInteger();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (workDir != null) {
+            IOUtils.deleteRecursively(workDir);
+        }
+    }
+
+    @Test
+    public void testHardlinks() throws Exception {
+        RepositoryManager m = newManager(true, true);
+
+        Path a = export(m, COMMIT_ID);
+        Path b = export(m, COMMIT_ID);
+
+        // exported once, the workspaces share the cached files
+        assertEquals(1, exports.get());
+        assertTrue(Files.isSameFile(a.resolve("concord.yml"), b.resolve("concord.yml")));
+    }
+
+    @Test
+    public void testCopyByDefault() throws Exception {
+        RepositoryManager m = newManager(true, false);
+
+        Path a = export(m, COMMIT_ID);
+        Files.write(a.resolve("concord.yml"), "modified".getBytes(StandardCharsets.UTF_8));
+
+        Path b = export(m, COMMIT_ID);
+
+        // without hardlinks the cache is not used, in-place writes don't affect other workspaces
+        assertEquals(2, exports.get());
+        assertEquals("flows: {}", read(b.resolve("concord.yml")));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        RepositoryManager m = newManager(false, true);
+
+        export(m, COMMIT_ID);
+        export(m, COMMIT_ID);
+
+        assertEquals(2, exports.get());
+    }
+
+    @Test
+    public void testNotACommitId() throws Exception {
+        RepositoryManager m = newManager(true, true);
+
+        export(m, "master");
+        export(m, "master");
+
+        assertEquals(2, exports.get());
+    }
+
+    private RepositoryManager newManager(boolean exportCacheEnabled, boolean hardlinks) throws IOException {
+        GitConfiguration gitCfg = mock(GitConfiguration.class);
+        when(gitCfg.getDefaultOperationTimeout()).thenReturn(Duration.ofMinutes(1));
+        when(gitCfg.getFetchTimeout()).thenReturn(Duration.ofMinutes(1));
+        when(gitCfg.getHttpLowSpeedTime()).thenReturn(Duration.ofMinutes(1));
+        when(gitCfg.getSshTimeout()).thenReturn(Duration.ofMinutes(1));
+
+        RepositoryConfiguration repoCfg = mock(RepositoryConfiguration.class);
+        when(repoCfg.getCacheDir()).thenReturn(workDir.resolve("cache"));
+        when(repoCfg.getCacheInfoDir()).thenReturn(workDir.resolve("cacheInfo"));
+        when(repoCfg.getLockTimeout()).thenReturn(Duration.ofMinutes(1));
+        when(repoCfg.getMaxAge()).thenReturn(Duration.ZERO);
+        when(repoCfg.getLockCount()).thenReturn(8);
+        when(repoCfg.isExportCacheEnabled()).thenReturn(exportCacheEnabled);
+        when(repoCfg.getExportCacheDir()).thenReturn(workDir.resolve("exportCache"));
+        when(repoCfg.getExportCacheMaxSize()).thenReturn(Long.MAX_VALUE);
+        when(repoCfg.isExportCacheHardlinks()).thenReturn(hardlinks);
+
+        return new RepositoryManager(TestObjectMapper.INSTANCE, gitCfg, repoCfg, mock(ProjectDao.class), mock(SecretManager.class));
+    }
+
+    private Path export(RepositoryManager m, String head) throws Exception {
+        RepositoryProvider provider = mock(RepositoryProvider.class);
+        when(provider.export(any(), any(), any())).thenAnswer(i -> {
+            exports.incrementAndGet();
+
+            Path dst = i.getArgument(1);
+            Files.createDirectories(dst);
+            Files.write(dst.resolve("concord.yml"), "flows: {}".getBytes(StandardCharsets.UTF_8));
+            return new LastModifiedSnapshot();
+        });
+
+        Repository repo = new Repository(workDir.resolve("repo"), FetchResult.builder().head(head).build(), provider);
+
+        Path dst = Files.createTempDirectory(workDir, "workspace");
+        m.export("https://example.com/repo.git", null, repo, dst, Collections.emptyList());
+        return dst;
+    }
+
+    private static String read(Path p) throws IOException {
+        return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+    }
+}
@@ -21,23 +21,23 @@ package com.walmartlabs.concord.server.template.kv;
  */
 
 import com.walmartlabs.concord.server.AbstractDaoTest;
-import com.walmartlabs.concord.server.Locks;
-import com.walmartlabs.concord.server.cfg.LockingConfiguration;
 import com.walmartlabs.concord.server.org.project.KvDao;
 import org.junit.Ignore;
 import org.junit.Test;
 
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @Ignore("requires a local DB instance")
 public class KvDaoTest extends AbstractDaoTest {
 
     @Test(timeout = 10000)
     public void test() throws Exception {
-        KvDao kvDao = new KvDao(getConfiguration(), new Locks(new LockingConfiguration(8)));
+        KvDao kvDao = new KvDao(getConfiguration());
 
         UUID projectId = UUID.randomUUID();
         String key = "key_" + System.currentTimeMillis();
@@ -67,4 +67,60 @@ public class KvDaoTest extends AbstractDaoTest {
         Long total = counter.get();
         assertEquals(total, kvDao.getLong(projectId, key));
     }
+
+    /**
+     * Concurrent batches of increments with overlapping keys,
+     * e.g. multiple processes updating the same set of counters.
+     */
+    @Test(timeout = 30000)
+    public void testConcurrentBatchInc() throws Exception {
+        KvDao kvDao = new KvDao(getConfiguration());
+
+        UUID projectId = UUID.randomUUID();
+        String prefix = "batch_" + System.currentTimeMillis();
+
+        int threads = 8;
+        int iterations = 50;
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            keys.add(prefix + "_" + i);
+        }
+
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            // different order in each thread
+            List<String> l = new ArrayList<>(keys);
+            Collections.rotate(l, i);
+
+            workers[i] = new Thread(() -> {
+                try {
+                    long prev = 0;
+                    for (int j = 0; j < iterations; j++) {
+                        Map<String, Long> result = kvDao.inc(projectId, l);
+                        assertEquals(keys.size(), result.size());
+
+                        long v = result.get(l.get(0));
+                        assertTrue(v > prev);
+                        prev = v;
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            workers[i].start();
+        }
+
+        for (Thread w : workers) {
+            w.join();
+        }
+
+        assertTrue("Errors: " + errors, errors.isEmpty());
+
+        for (String k : keys) {
+            assertEquals(Long.valueOf(threads * iterations), kvDao.getLong(projectId, k));
+        }
+    }
 }
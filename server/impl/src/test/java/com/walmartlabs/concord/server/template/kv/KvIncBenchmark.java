@@ -0,0 +1,169 @@
+package com.walmartlabs.concord.server.template.kv;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.Locks;
+import com.walmartlabs.concord.server.cfg.LockingConfiguration;
+import com.walmartlabs.concord.server.jooq.tables.ProjectKvStore;
+import com.walmartlabs.concord.server.org.project.KvDao;
+import org.jooq.impl.DSL;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.walmartlabs.concord.server.jooq.tables.ProjectKvStore.PROJECT_KV_STORE;
+
+/**
+ * Measures the throughput (ops/s) of {@link KvDao#inc(UUID, String)} with
+ * concurrent callers, each thread simulates a process incrementing a shared
+ * counter. The results are compared with the previous implementation
+ * (a JVM-wide lock, an advisory lock, "upsert" and a select) and with batched
+ * increments.
+ * <p/>
+ * Not executed by default (the class name doesn't match the surefire's
+ * includes) and requires a local DB instance, see {@link AbstractDaoTest}.
+ * To run:
+ * <pre>{@code
+ * mvn -pl server/impl test -Dtest=KvIncBenchmark -DfailIfNoTests=false
+ * }</pre>
+ */
+public class KvIncBenchmark extends AbstractDaoTest {
+
+    private static final int THREADS = 8;
+    private static final int WARMUP_ITERATIONS = 100;
+    private static final int ITERATIONS = 1000;
+    private static final int BATCH_SIZE = 10;
+
+    @Test
+    public void benchmarkInc() throws Exception {
+        KvDao kvDao = new KvDao(getConfiguration());
+        Locks locks = new Locks(new LockingConfiguration(8));
+
+        UUID projectId = UUID.randomUUID();
+
+        Object legacyMutex = new Object();
+        run("legacy", projectId, ITERATIONS, key -> {
+            synchronized (legacyMutex) {
+                ProjectKvStore kv = PROJECT_KV_STORE.as("kv");
+                DSL.using(getConfiguration()).transaction(cfg -> {
+                    locks.lock(DSL.using(cfg), projectId + "/" + key);
+                    DSL.using(cfg).insertInto(kv)
+                            .columns(kv.PROJECT_ID, kv.VALUE_KEY, kv.VALUE_LONG)
+                            .values(projectId, key, 1L)
+                            .onConflict(kv.PROJECT_ID, kv.VALUE_KEY)
+                            .doUpdate().set(kv.VALUE_LONG, kv.VALUE_LONG.plus(1))
+                            .execute();
+                    DSL.using(cfg).select(kv.VALUE_LONG).from(kv)
+                            .where(kv.PROJECT_ID.eq(projectId).and(kv.VALUE_KEY.eq(key)))
+                            .fetchOne(kv.VALUE_LONG);
+                });
+            }
+            return 1;
+        });
+
+        run("inc", projectId, ITERATIONS, key -> {
+            kvDao.inc(projectId, key);
+            return 1;
+        });
+
+        run("batch inc", projectId, ITERATIONS / BATCH_SIZE, key -> {
+            List<String> keys = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                keys.add(key + "_" + i);
+            }
+            kvDao.inc(projectId, keys);
+            return keys.size();
+        });
+    }
+
+    private static void run(String name, UUID projectId, int iterations, Op op) throws Exception {
+        String key = name.replace(' ', '_') + "_" + projectId;
+
+        measure(key + "_warmup", WARMUP_ITERATIONS, op);
+        Result r = measure(key, iterations, op);
+
+        System.out.println(String.format("%-10s %3d threads %8d ops %8d ms %10.1f ops/s",
+                name, THREADS, r.ops, r.durationMs, r.ops * 1000.0 / Math.max(r.durationMs, 1)));
+    }
+
+    private static Result measure(String key, int iterations, Op op) throws Exception {
+        AtomicLong ops = new AtomicLong();
+        ConcurrentLinkedQueue<Exception> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] workers = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < iterations; j++) {
+                        ops.addAndGet(op.run(key));
+                    }
+                } catch (Exception e) {
+                    errors.add(e);
+                }
+            });
+            workers[i].start();
+        }
+
+        long t1 = System.currentTimeMillis();
+        start.countDown();
+
+        for (Thread w : workers) {
+            w.join();
+        }
+
+        long t2 = System.currentTimeMillis();
+
+        if (!errors.isEmpty()) {
+            Exception e = new IllegalStateException("Benchmark '" + key + "' failed, " + errors.size() + " error(s)");
+            errors.forEach(e::addSuppressed);
+            throw e;
+        }
+
+        return new Result(ops.get(), t2 - t1);
+    }
+
+    private interface Op {
+
+        /**
+         * @return number of performed operations
+         */
+        int run(String key) throws Exception;
+    }
+
+    private static final class Result {
+
+        private final long ops;
+        private final long durationMs;
+
+        private Result(long ops, long durationMs) {
+            this.ops = ops;
+            this.durationMs = durationMs;
+        }
+    }
+}